@@ -0,0 +1,110 @@
+package hex.deeplearning;
+
+import hex.deeplearning.DeepLearningModel.DeepLearningParameters;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * One epoch of DeepLearning training, row by row (mini-batch size 1) against
+ * mini-batches, on dense numeric inputs and on wide one-hot encoded inputs.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DeepLearningMiniBatchBench {
+
+  @Param({"1", "32"})
+  private int _miniBatchSize;
+
+  @Param({"dense", "onehot"})
+  private String _inputs;
+
+  @Param({"10000"})
+  private int _rows;
+
+  private Frame _fr;
+
+  @Setup
+  public void setup() {
+    water.util.Log.setLogLevel("ERRR");
+    stall_till_cloudsize(1);
+    Random rnd = new Random(42);
+    boolean onehot = _inputs.equals("onehot");
+    int cols = onehot ? 4 : 200;
+    String[] names = new String[cols + 1];
+    byte[] types = new byte[cols + 1];
+    TestFrameBuilder builder = new TestFrameBuilder();
+    double[] y = new double[_rows];
+    for (int c = 0; c < cols; c++) {
+      names[c] = "x" + c;
+      types[c] = onehot ? Vec.T_CAT : Vec.T_NUM;
+    }
+    names[cols] = "y";
+    types[cols] = Vec.T_NUM;
+    builder.withColNames(names).withVecTypes(types);
+    for (int c = 0; c < cols; c++) {
+      if (onehot) { // 4 columns of 2,000 levels each
+        String[] levels = new String[_rows];
+        for (int r = 0; r < _rows; r++) {
+          int level = rnd.nextInt(2000);
+          levels[r] = "l" + level;
+          y[r] += (level % 7) * 0.1;
+        }
+        builder.withDataForCol(c, levels);
+      } else {
+        double[] x = new double[_rows];
+        for (int r = 0; r < _rows; r++) {
+          x[r] = rnd.nextGaussian();
+          y[r] += (c % 7) * 0.01 * x[r];
+        }
+        builder.withDataForCol(c, x);
+      }
+    }
+    _fr = builder.withDataForCol(cols, y).build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    _fr.delete();
+  }
+
+  @Benchmark
+  public DeepLearningModel train() {
+    DeepLearningParameters parms = new DeepLearningParameters();
+    parms._train = _fr._key;
+    parms._response_column = "y";
+    parms._hidden = new int[]{200, 200};
+    parms._epochs = 1;
+    parms._adaptive_rate = false;
+    parms._rate = 1e-3;
+    parms._reproducible = true;
+    parms._seed = 1234;
+    parms._mini_batch_size = _miniBatchSize;
+    parms._score_training_samples = 1;
+    parms._train_samples_per_iteration = 0; // one epoch in a single iteration
+    DeepLearningModel model = new DeepLearning(parms).trainModel().get();
+    model.delete();
+    return model;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(DeepLearningMiniBatchBench.class.getSimpleName())
+            .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,86 @@
+package hex.gram;
+
+import hex.DataInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.DKV;
+import water.Key;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * Gram accumulation of dense numeric rows: one rank-1 update per row
+ * ({@link Gram#addRow}) against the blocked update ({@link Gram#addRowBlocked}).
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GramAddRowBench {
+
+  @Param({"500", "2000"})
+  private int _nums;
+
+  @Param({"1000"})
+  private int _rows;
+
+  private DataInfo _dinfo;
+  private DataInfo.Row[] _data;
+
+  @Setup
+  public void setup() {
+    water.util.Log.setLogLevel("ERRR");
+    stall_till_cloudsize(1);
+    Vec v = Vec.makeZero(1);
+    Vec[] vecs = v.makeCons(_nums, 0, null, null);
+    v.remove();
+    Frame fr = new Frame(Key.<Frame>make(), null, vecs);
+    DKV.put(fr);
+    _dinfo = new DataInfo(fr, null, 0, false, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE,
+            false, false, false, false, false, false);
+    fr.remove();
+    Random rnd = new Random(42);
+    _data = new DataInfo.Row[_rows];
+    for (int r = 0; r < _rows; r++) {
+      double[] vals = new double[_nums];
+      for (int i = 0; i < _nums; i++) vals[i] = rnd.nextGaussian();
+      _data[r] = _dinfo.newDenseRow(vals, r);
+    }
+  }
+
+  private Gram newGram() {
+    return new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats, true);
+  }
+
+  @Benchmark
+  public Gram addRow() {
+    Gram g = newGram();
+    for (DataInfo.Row r : _data) g.addRow(r, r.weight);
+    return g;
+  }
+
+  @Benchmark
+  public Gram addRowBlocked() {
+    Gram g = newGram();
+    for (DataInfo.Row r : _data) g.addRowBlocked(r, r.weight);
+    g.flushRows();
+    return g;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(GramAddRowBench.class.getSimpleName())
+            .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,122 @@
+package hex.pca;
+
+import hex.DataInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.DKV;
+import water.Key;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.RandomUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static hex.pca.JMHConfiguration.logLevel;
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * PCA of tall-and-wide numeric data (low rank signal plus noise): the Gram based GramSVD against the
+ * randomized subspace iteration, which only keeps p by (k + oversample) matrices.
+ * Complements {@link PCAWideDataSetsTrainingBench} (small frames forced into the wide code path).
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = JMHConfiguration.WARM_UP_ITERATIONS)
+@Measurement(iterations = JMHConfiguration.MEASUREMENT_ITERATIONS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Timeout(time = JMHConfiguration.TIMEOUT_MINUTES, timeUnit = TimeUnit.MINUTES)
+public class PCARandomizedWideBench {
+
+  @Param({"2000", "10000"})
+  private int cols;
+
+  @Param({"5000"})
+  private int rows;
+
+  @Param({"GramSVD", "Randomized"})
+  private PCAModel.PCAParameters.Method method;
+
+  private static final int RANK = 10;
+
+  private Frame trainingFrame;
+  private PCAModel pcaModel;
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(PCARandomizedWideBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    water.util.Log.setLogLevel(logLevel);
+    stall_till_cloudsize(1);
+
+    Random rnd = new Random(42);
+    double[][] loadings = new double[RANK][cols];
+    for (double[] l : loadings)
+      for (int j = 0; j < cols; j++) l[j] = rnd.nextGaussian();
+    Vec v = Vec.makeZero(rows);
+    Vec[] vecs = v.makeCons(cols, 0, null, null);
+    v.remove();
+    trainingFrame = new Frame(Key.<Frame>make(), null, vecs);
+    new LowRankFill(loadings).doAll(trainingFrame);
+    DKV.put(trainingFrame);
+  }
+
+  @Benchmark
+  public PCAModel train() {
+    PCAModel.PCAParameters parameters = new PCAModel.PCAParameters();
+    parameters._train = trainingFrame._key;
+    parameters._k = RANK;
+    parameters._transform = DataInfo.TransformType.DEMEAN;
+    parameters._pca_method = method;
+    parameters._max_iterations = 5;
+    parameters._oversample = 10;
+    parameters._compute_metrics = false;
+    parameters._seed = 12345;
+    pcaModel = new PCA(parameters).trainModel().get();
+    return pcaModel;
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteModel() {
+    if (pcaModel != null) pcaModel.delete();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (trainingFrame != null) trainingFrame.delete();
+  }
+
+  private static class LowRankFill extends MRTask<LowRankFill> {
+    private final double[][] _loadings;
+
+    LowRankFill(double[][] loadings) { _loadings = loadings; }
+
+    @Override
+    public void map(Chunk[] cs) {
+      Random rnd = RandomUtils.getRNG(cs[0].start());
+      double[] scores = new double[_loadings.length];
+      for (int row = 0; row < cs[0]._len; row++) {
+        for (int r = 0; r < scores.length; r++) scores[r] = rnd.nextGaussian() * (scores.length - r);
+        for (int col = 0; col < cs.length; col++) {
+          double x = 0.1 * rnd.nextGaussian();
+          for (int r = 0; r < scores.length; r++) x += scores[r] * _loadings[r][col];
+          cs[col].set(row, x);
+        }
+      }
+    }
+  }
+
+}
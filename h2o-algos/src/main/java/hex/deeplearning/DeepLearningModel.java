@@ -1739,6 +1739,8 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
       for (int h : _hidden) if (h <= 0) dl.error("_hidden", "Hidden layer size must be positive.");
       if (_mini_batch_size < 1)
         dl.error("_mini_batch_size", "Mini-batch size must be >= 1");
+      if (_mini_batch_size > 1 && _autoencoder && _sparsity_beta > 0)
+        dl.error("_mini_batch_size", "Sparsity constraint is not yet implemented for mini-batch size > 1.");
       if (!_diagnostics)
         dl.warn("_diagnostics", "Deprecated option: Diagnostics are always enabled.");
 
@@ -2173,10 +2175,6 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
             Log.info("_categorical_encoding: Automatically enabling OneHotInternal categorical encoding.");
           toParms._categorical_encoding = CategoricalEncodingScheme.OneHotInternal;
          }
-        if (fromParms._mini_batch_size > 1) {
-          Log.warn("_mini_batch_size", "Only mini-batch size = 1 is supported right now.");
-          toParms._mini_batch_size = 1;
-        }
         if (fromParms._adaptive_rate) {
           if (!fromParms._quiet_mode)
             Log.info("_adaptive_rate: Using automatic learning rate. Ignoring the following input parameters: "
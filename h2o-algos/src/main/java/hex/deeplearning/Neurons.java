@@ -19,6 +19,11 @@ import java.util.Arrays;
  * The weights connecting the neurons are in a separate class (DeepLearningModel.DeepLearningModelInfo), and will be shared per node.
  */
 public abstract class Neurons {
+  // Input layers of at least SPARSE_MIN_UNITS units with at most 1/SPARSE_RATIO
+  // non-zero values per row are multiplied and updated sparsely
+  static final int SPARSE_MIN_UNITS = 64;
+  static final int SPARSE_RATIO = 4;
+
   short _k; //number of parallel channels
   int[/*minibatch*/][/*k*/] _maxIncoming; //index of largest incoming signal (out of k channels)
 
@@ -238,6 +243,11 @@ public abstract class Neurons {
     final boolean fast_mode = params._fast_mode;
     final int cols = _previous._a[0].size();
     assert(partial_grad.length == n);
+    if (n > 1 && _k == 0) {
+      bpropMiniBatch(row, partial_grad, rate, momentum, n);
+      return;
+    }
+    final Input sparse = sparseInput();
 
     double avg_grad2 = 0;
 
@@ -246,7 +256,11 @@ public abstract class Neurons {
     for( int mb = 0; mb < n; mb++ ) {
       if (_shortcut && partial_grad[mb] == 0f) return;
       final boolean update_prev = _previous._e != null && _previous._e[mb] != null;
-      for( int col = 0; col < cols; col++ ) {
+      // weights of zero inputs do not change, no need to visit them
+      final int[] nz = sparse != null && sparse._nnz[mb] >= 0 ? sparse._nz[mb] : null;
+      final int ncols = nz != null ? sparse._nnz[mb] : cols;
+      for( int c = 0; c < ncols; c++ ) {
+        final int col = nz != null ? nz[c] : c;
         int w = idx + col;
 
         // for Maxout, return the "winning" linear index into the matrix
@@ -268,29 +282,8 @@ public abstract class Neurons {
         if (DeepLearningModelInfo.gradientCheck != null)
           DeepLearningModelInfo.gradientCheck.apply(_index, row, col, grad);
 
-        if (have_ada) {
-          final double grad2 = grad*grad;
-          avg_grad2 += grad2;
-          float brate = computeAdaDeltaRateForWeight(grad, w, _ada_dx_g, rho, eps);
-          _w.raw()[w] -= brate * grad;
-        } else {
-          if (!nesterov) {
-            final double delta = -rate * grad;
-            _w.raw()[w] += delta;
-            if( have_momenta ) {
-              _w.raw()[w] += momentum * _wm.raw()[w];
-              _wm.raw()[w] = (float)delta;
-            }
-          } else {
-            double tmp = -grad;
-            if( have_momenta ) {
-              _wm.raw()[w] *= momentum;
-              _wm.raw()[w] += tmp;
-              tmp = _wm.raw()[w];
-            }
-            _w.raw()[w] += rate * tmp;
-          }
-        }
+        if (have_ada) avg_grad2 += grad*grad;
+        update_weight(w, grad, rate, momentum, have_ada, have_momenta, nesterov, rho, eps);
       }
     }
     if (max_w2 != Float.POSITIVE_INFINITY)
@@ -302,6 +295,140 @@ public abstract class Neurons {
     }
   }
 
+  /**
+   * Mini-batch variant of the above: the gradients of all n rows are summed up
+   * per weight, and every weight (and the bias) is updated once.  The row of
+   * weights is read once for the whole mini-batch.
+   */
+  private void bpropMiniBatch(final int row, final double[] partial_grad, final float rate, final float momentum, final int n) {
+    final float rho = (float)params._rho;
+    final float eps = (float)params._epsilon;
+    final float l1 = (float)params._l1;
+    final float l2 = (float)params._l2;
+    final boolean have_momenta = _minfo.has_momenta();
+    final boolean have_ada = _minfo.adaDelta();
+    final boolean nesterov = params._nesterov_accelerated_gradient;
+    final boolean fast_mode = params._fast_mode;
+    final int cols = _previous._a[0].size();
+    final float[] weights = _w.raw();
+    final int idx = row * cols;
+
+    boolean any = false;
+    for (int mb = 0; mb < n; mb++) any |= partial_grad[mb] != 0f;
+    if (_shortcut && !any) return;
+
+    double avg_grad2 = 0;
+    final Input sparse = sparseInput();
+    if (sparse != null && sparse.allSparse(n)) {
+      // only the union of the non-zero inputs of the mini-batch needs an update
+      final double[] sums = sparse._gradSums;
+      final boolean[] seen = sparse._gradSeen;
+      final int[] touched = sparse._gradCols;
+      int ntouched = 0;
+      for (int mb = 0; mb < n; mb++) {
+        final int[] nz = sparse._nz[mb];
+        final double[] a = sparse._a[mb].raw();
+        for (int c = 0; c < sparse._nnz[mb]; c++) {
+          final int col = nz[c];
+          if (!seen[col]) {
+            seen[col] = true;
+            touched[ntouched++] = col;
+          }
+          sums[col] += partial_grad[mb] * a[col];
+        }
+      }
+      for (int c = 0; c < ntouched; c++) {
+        final int col = touched[c];
+        final int w = idx + col;
+        final double weight = weights[w];
+        double grad = sums[col] + Math.signum(weight) * l1 + weight * l2;
+        if (_wEA != null)
+          grad += params._elastic_averaging_regularization * (weights[w] - _wEA.raw()[w]);
+        sums[col] = 0;
+        seen[col] = false;
+        if (have_ada) avg_grad2 += grad*grad;
+        update_weight(w, grad, rate, momentum, have_ada, have_momenta, nesterov, rho, eps);
+      }
+    } else {
+      final double[][] prev_a = new double[n][];
+      final double[][] prev_e = new double[n][];
+      for (int mb = 0; mb < n; mb++) {
+        prev_a[mb] = _previous._a[mb].raw();
+        prev_e[mb] = _previous._e != null && _previous._e[mb] != null ? _previous._e[mb].raw() : null;
+      }
+      for (int col = 0; col < cols; col++) {
+        final int w = idx + col;
+        final double weight = weights[w];
+        double sum = 0;
+        boolean active = false;
+        for (int mb = 0; mb < n; mb++) {
+          if (prev_e[mb] != null) prev_e[mb][col] += partial_grad[mb] * weight; // propagate the error dE/dnet to the previous layer
+          final double previous_a = prev_a[mb][col];
+          if (previous_a == 0) continue;
+          active = true;
+          sum += partial_grad[mb] * previous_a;
+        }
+        if (fast_mode && !active) continue;
+
+        //this is the actual gradient dE/dw, summed over the mini-batch
+        double grad = sum + Math.signum(weight) * l1 + weight * l2;
+        if (_wEA != null)
+          grad += params._elastic_averaging_regularization * (weights[w] - _wEA.raw()[w]);
+
+        // store the gradient
+        if (DeepLearningModelInfo.gradientCheck != null)
+          DeepLearningModelInfo.gradientCheck.apply(_index, row, col, grad);
+
+        if (have_ada) avg_grad2 += grad*grad;
+        update_weight(w, grad, rate, momentum, have_ada, have_momenta, nesterov, rho, eps);
+      }
+    }
+    if (params._max_w2 != Float.POSITIVE_INFINITY)
+      rescale_weights(_w, row, params._max_w2, 0);
+    if (have_ada) avg_grad2 /= cols;
+    double grad = 0;
+    for (int mb = 0; mb < n; mb++) grad += partial_grad[mb];
+    update_bias(_b, _bEA, _bm, row, new double[]{grad}, avg_grad2, rate, momentum, 0);
+  }
+
+  /**
+   * The input layer, if it feeds this layer and the weights of zero inputs stay
+   * unchanged by back-propagation (fast mode, or plain SGD without regularization).
+   */
+  private Input sparseInput() {
+    if (!(_previous instanceof Input) || ((Input) _previous)._nnz == null || DeepLearningModelInfo.gradientCheck != null)
+      return null;
+    return params._fast_mode || (_shortcut && _wEA == null) ? (Input) _previous : null;
+  }
+
+  /**
+   * Apply the gradient to a single weight (and its momentum or ADADELTA state)
+   */
+  private void update_weight(final int w, final double grad, final float rate, final float momentum, final boolean have_ada,
+                             final boolean have_momenta, final boolean nesterov, final float rho, final float eps) {
+    if (have_ada) {
+      float brate = computeAdaDeltaRateForWeight(grad, w, _ada_dx_g, rho, eps);
+      _w.raw()[w] -= brate * grad;
+    } else {
+      if (!nesterov) {
+        final double delta = -rate * grad;
+        _w.raw()[w] += delta;
+        if( have_momenta ) {
+          _w.raw()[w] += momentum * _wm.raw()[w];
+          _wm.raw()[w] = (float)delta;
+        }
+      } else {
+        double tmp = -grad;
+        if( have_momenta ) {
+          _wm.raw()[w] *= momentum;
+          _wm.raw()[w] += tmp;
+          tmp = _wm.raw()[w];
+        }
+        _w.raw()[w] += rate * tmp;
+      }
+    }
+  }
+
   private void rescale_weights(final Storage.DenseRowMatrix w, final int row, final float max_w2, int mb) {
     final int cols = _previous._a[0].size();
     int start;
@@ -485,11 +612,54 @@ public abstract class Neurons {
 
     private DataInfo _dinfo; //training data
 
+    // Indices of the non-zero activations per mini-batch row, _nnz[mb] is -1
+    // if there are too many of them for the next layer to go sparse
+    int[][] _nz;
+    int[] _nnz;
+    // Workspace for the mini-batch gradients of the first hidden layer
+    double[] _gradSums;
+    boolean[] _gradSeen;
+    int[] _gradCols;
+
     Input(DeepLearningParameters params, int units, final DataInfo d) {
       super(units);
       _dinfo = d;
       _a = new Storage.DenseVector[params._mini_batch_size];
       for (int i=0;i<_a.length;++i) _a[i] = new Storage.DenseVector(units);
+      if (units >= SPARSE_MIN_UNITS) {
+        _nz = new int[_a.length][units / SPARSE_RATIO];
+        _nnz = new int[_a.length];
+        Arrays.fill(_nnz, -1);
+        if (_a.length > 1) {
+          _gradSums = new double[units];
+          _gradSeen = new boolean[units];
+          _gradCols = new int[units];
+        }
+      }
+    }
+
+    /** Whether the first n rows of the mini-batch are all sparse */
+    boolean allSparse(int n) {
+      for (int mb = 0; mb < n; ++mb)
+        if (_nnz[mb] < 0) return false;
+      return true;
+    }
+
+    /** Collect the non-zero activations of row mb, unless there are too many */
+    private void findNonZeros(int mb) {
+      if (_nz == null) return;
+      final double[] a = _a[mb].raw();
+      final int[] nz = _nz[mb];
+      int cnt = 0;
+      for (int i = 0; i < a.length; ++i) {
+        if (a[i] == 0) continue;
+        if (cnt == nz.length) {
+          cnt = -1;
+          break;
+        }
+        nz[cnt++] = i;
+      }
+      _nnz[mb] = cnt;
     }
 
     @Override protected void bprop(int n) { throw new UnsupportedOperationException(); }
@@ -616,13 +786,15 @@ public abstract class Neurons {
       }
 
       // Input Dropout
-      if (_dropout == null) return;
-      if (params._autoencoder && params._input_dropout_ratio > 0) {
-        // copy input into _origa -- needed for reconstruction error
-        System.arraycopy(_a[mb].raw(), 0, _origa[mb].raw(), 0, _a[mb].raw().length);
+      if (_dropout != null) {
+        if (params._autoencoder && params._input_dropout_ratio > 0) {
+          // copy input into _origa -- needed for reconstruction error
+          System.arraycopy(_a[mb].raw(), 0, _origa[mb].raw(), 0, _a[mb].raw().length);
+        }
+        seed += params._seed + 0x1337B4BE;
+        _dropout.randomlySparsifyActivation(_a[mb], seed);
       }
-      seed += params._seed + 0x1337B4BE;
-      _dropout.randomlySparsifyActivation(_a[mb], seed);
+      findNonZeros(mb);
     }
 
   }
@@ -633,9 +805,7 @@ public abstract class Neurons {
   public static class Tanh extends Neurons {
     public Tanh(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(n, _dropout != null ? _dropout.bits() : null);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb)
         for( int row = 0; row < rows; row++ )
@@ -758,9 +928,7 @@ public abstract class Neurons {
   public static class Rectifier extends Neurons {
     public Rectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(n, _dropout != null ? _dropout.bits() : null);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb) {
         for( int row = 0; row < rows; row++ ) {
@@ -808,8 +976,7 @@ public abstract class Neurons {
   public static class ExpRectifier extends Neurons {
     public ExpRectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(n, _dropout != null ? _dropout.bits() : null);
       final int rows = _a[0].size();
       for( int row = 0; row < rows; row++ ) {
         for (int mb=0;mb<n;++mb) {
@@ -871,8 +1038,7 @@ public abstract class Neurons {
   public static class Softmax extends Output {
     public Softmax(int units) { super(units); }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, null);
+      gemm(n, null);
       for (int mb=0;mb<n;++mb) {
         final double max = ArrayUtils.maxValue(_a[mb].raw());
         double scaling = 0;
@@ -928,8 +1094,7 @@ public abstract class Neurons {
       super(1);
     }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(n, _dropout != null ? _dropout.bits() : null);
     }
 
     /**
@@ -978,34 +1143,115 @@ public abstract class Neurons {
     final int cols = x.length;
     final int rows = y.length;
     assert(res.length == rows);
+    int idx = 0;
+    for (int row = 0; row<rows; row++) {
+      res[row] = 0;
+      if( row_bits == null || (row_bits[row / 8] & (1 << (row % 8))) != 0)
+        res[row] = dot_row_optimized(a, idx, x, cols) + y[row];
+      idx += cols;
+    }
+  }
+
+  /**
+   * Dot product of the row of a starting at idx with x, in 8 partial sums
+   */
+  private static double dot_row_optimized(final float[] a, final int idx, final double[] x, final int cols) {
     final int extra=cols-cols%8;
     final int multiple = (cols/8)*8-1;
+    double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0, psum4 = 0, psum5 = 0, psum6 = 0, psum7 = 0;
+    for (int col = 0; col < multiple; col += 8) {
+      int off = idx + col;
+      psum0 += a[off    ] * x[col    ];
+      psum1 += a[off + 1] * x[col + 1];
+      psum2 += a[off + 2] * x[col + 2];
+      psum3 += a[off + 3] * x[col + 3];
+      psum4 += a[off + 4] * x[col + 4];
+      psum5 += a[off + 5] * x[col + 5];
+      psum6 += a[off + 6] * x[col + 6];
+      psum7 += a[off + 7] * x[col + 7];
+    }
+    double res = 0;
+    res += psum0 + psum1 + psum2 + psum3;
+    res += psum4 + psum5 + psum6 + psum7;
+    for (int col = extra; col < cols; col++)
+      res += a[idx + col] * x[col];
+    return res;
+  }
+
+  /**
+   * Mat-Mat Plus Add for a mini-batch: res[mb] = a*x[mb]+y for every mb < n
+   * Each row of a is used for all n vectors while it is in cache, instead of
+   * streaming the whole matrix once per vector.  Results are identical to n
+   * calls of gemv_row_optimized.
+   */
+  static void gemm_row_optimized(final double[][] res, final float[] a, final double[][] x, final double[] y, final byte[] row_bits, final int n) {
+    final int cols = x[0].length;
+    final int rows = y.length;
+    int idx = 0;
+    for (int row = 0; row<rows; row++) {
+      final boolean active = row_bits == null || (row_bits[row / 8] & (1 << (row % 8))) != 0;
+      for (int mb = 0; mb < n; mb++)
+        res[mb][row] = active ? dot_row_optimized(a, idx, x[mb], cols) + y[row] : 0;
+      idx += cols;
+    }
+  }
+
+  /**
+   * Mat-Vec Plus Add for a sparse x, given the sorted indices of its nnz non-zeros.
+   * The partial sums are those of gemv_row_optimized, so are the results.
+   */
+  static void gemv_sparse(final double[] res, final float[] a, final double[] x, final int[] nz, final int nnz, final double[] y, final byte[] row_bits) {
+    final int cols = x.length;
+    final int rows = y.length;
+    final int extra = cols-cols%8;
+    int tail = nnz; // first non-zero past the blocks of 8
+    while (tail > 0 && nz[tail-1] >= extra) tail--;
+    final double[] psum = new double[8];
     int idx = 0;
     for (int row = 0; row<rows; row++) {
       res[row] = 0;
       if( row_bits == null || (row_bits[row / 8] & (1 << (row % 8))) != 0) {
-        double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0, psum4 = 0, psum5 = 0, psum6 = 0, psum7 = 0;
-        for (int col = 0; col < multiple; col += 8) {
-          int off = idx + col;
-          psum0 += a[off    ] * x[col    ];
-          psum1 += a[off + 1] * x[col + 1];
-          psum2 += a[off + 2] * x[col + 2];
-          psum3 += a[off + 3] * x[col + 3];
-          psum4 += a[off + 4] * x[col + 4];
-          psum5 += a[off + 5] * x[col + 5];
-          psum6 += a[off + 6] * x[col + 6];
-          psum7 += a[off + 7] * x[col + 7];
+        Arrays.fill(psum, 0);
+        for (int k = 0; k < tail; k++) {
+          final int col = nz[k];
+          psum[col & 7] += a[idx + col] * x[col];
         }
-        res[row] += psum0 + psum1 + psum2 + psum3;
-        res[row] += psum4 + psum5 + psum6 + psum7;
-        for (int col = extra; col < cols; col++)
-          res[row] += a[idx + col] * x[col];
-        res[row] += y[row];
+        double r = 0;
+        r += psum[0] + psum[1] + psum[2] + psum[3];
+        r += psum[4] + psum[5] + psum[6] + psum[7];
+        for (int k = tail; k < nnz; k++)
+          r += a[idx + nz[k]] * x[nz[k]];
+        res[row] = r + y[row];
       }
       idx += cols;
     }
   }
 
+  /**
+   * Linear part of fprop for the n rows of the mini-batch: _a = _w * _previous._a + _b
+   * Sparse rows of the input layer only visit the weights of their non-zeros.
+   * @param n Actual mini-batch size
+   * @param row_bits Bit mask for which rows to use
+   */
+  final void gemm(int n, byte[] row_bits) {
+    final Input sparse = _previous instanceof Input && ((Input) _previous)._nnz != null ? (Input) _previous : null;
+    final double[][] res = new double[n][];
+    final double[][] x = new double[n][];
+    int dense = 0;
+    for (int mb = 0; mb < n; ++mb) {
+      if (sparse != null && sparse._nnz[mb] >= 0) {
+        gemv_sparse(_a[mb].raw(), _w.raw(), _previous._a[mb].raw(), sparse._nz[mb], sparse._nnz[mb], _b.raw(), row_bits);
+      } else {
+        res[dense] = _a[mb].raw();
+        x[dense++] = _previous._a[mb].raw();
+      }
+    }
+    if (dense == 1)
+      gemv_row_optimized(res[0], _w.raw(), x[0], _b.raw(), row_bits);
+    else if (dense > 1)
+      gemm_row_optimized(res, _w.raw(), x, _b.raw(), row_bits, dense);
+  }
+
   /**
    * Helper to do a generic gemv: res = a*x + y
    * @param res Dense result
@@ -7,6 +7,7 @@ import hex.glm.GLM.GLMGradientSolver;
 import hex.glm.GLMModel.GLMParameters;
 import hex.glm.GLMModel.GLMParameters.Family;
 import hex.gram.Gram;
+import hex.gram.SparseGram;
 import hex.optimization.ADMM;
 import hex.optimization.OptimizationUtils.GradientInfo;
 import hex.optimization.OptimizationUtils.GradientSolver;
@@ -306,6 +307,7 @@ public final class ComputationState {
   }
 
   public boolean _lsNeeded = false;
+  boolean _sparseGram; // accumulate the gram as SparseGram, see GLM.useSparseGram
 
   private DataInfo [] _activeDataMultinomial;
 //  private int [] _classOffsets = new int[]{0};
@@ -678,6 +680,7 @@ public final class ComputationState {
    */
   public static final class GramXY {
     public final Gram gram;
+    public SparseGram sparseGram; // set instead of gram with sparse gram accumulation
     final double[] beta;
     final int[] activeCols;
     int [] newCols;
@@ -760,7 +763,9 @@ public final class ComputationState {
     double obj_reg = _parms._obj_reg;
     if(_glmw == null) _glmw = new GLMModel.GLMWeightsFun(_parms);
     GLMTask.GLMIterationTask gt = new GLMTask.GLMIterationTask(_job._key, activeData, _glmw, beta,
-            _activeClass).doAll(activeData._adaptedFrame);
+            _activeClass).setSparseGram(_sparseGram).doAll(activeData._adaptedFrame);
+    if (gt._sgram != null)
+      return sparseGramXY(gt, activeData, beta);
     gt._gram.mul(obj_reg);
     if (_parms._glmType.equals(GLMParameters.GLMType.gam)) { // add contribution from GAM smoothness factor
         Integer[] activeCols=null;
@@ -783,6 +788,21 @@ public final class ComputationState {
     return res;
   }
 
+  private GramXY sparseGramXY(GLMTask.GLMIterationTask gt, DataInfo activeData, double [] beta) {
+    SparseGram g = gt._sgram;
+    g.mul(_parms._obj_reg);
+    ArrayUtils.mult(gt._xy,_parms._obj_reg);
+    int [] zeros = g.findZeroCols();
+    GramXY res;
+    if(zeros.length > 0) {
+      g = g.dropCols(zeros);
+      removeCols(zeros);
+      res = new GramXY(null,ArrayUtils.removeIds(gt._xy, zeros),null,gt._beta == null?null:ArrayUtils.removeIds(gt._beta, zeros),activeData().activeCols(),null,gt._yy,gt._likelihood);
+    } else res = new GramXY(null,gt._xy,null,beta,activeData.activeCols(),null,gt._yy,gt._likelihood);
+    res.sparseGram = g;
+    return res;
+  }
+
   GramXY _currGram;
   GLMModel.GLMWeightsFun _glmw;
 
@@ -793,7 +813,7 @@ public final class ComputationState {
     boolean weighted = _parms._family != Family.gaussian || _parms._link != GLMParameters.Link.identity;
     if(_parms._family == Family.multinomial) // no caching
       return computeNewGram(activeDataMultinomial(_activeClass),beta,s);
-    if(s != GLMParameters.Solver.COORDINATE_DESCENT)
+    if(s != GLMParameters.Solver.COORDINATE_DESCENT || _sparseGram)
       // only cache for solver==COD
       //    caching only makes difference when running with lambda search
       //    and COD and IRLSM need matrix in different shape
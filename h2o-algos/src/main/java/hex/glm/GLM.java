@@ -10,6 +10,8 @@ import hex.glm.GLMTask.*;
 import hex.gram.Gram;
 import hex.gram.Gram.Cholesky;
 import hex.gram.Gram.NonSPDMatrixException;
+import hex.gram.SparseCholesky;
+import hex.gram.SparseGram;
 import hex.optimization.ADMM;
 import hex.optimization.ADMM.L1Solver;
 import hex.optimization.ADMM.ProximalSolver;
@@ -56,6 +58,14 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
   static NumberFormat devFormatter = new DecimalFormat(".##");
 
   public static final int SCORING_INTERVAL_MSEC = 15000; // scoreAndUpdateModel every minute unless score every iteration is set
+  /**
+   * Accumulate the gram of IRLSM/COD as a {@link SparseGram} and solve it with
+   * a {@link SparseCholesky} (sparse coordinate descent with l1), for wide
+   * one-hot encoded problems which would otherwise be sent to L-BFGS.
+   */
+  static volatile boolean SPARSE_GRAM = Boolean.getBoolean(H2O.OptArgs.SYSTEM_PROP_PREFIX + "glm.sparse_gram");
+  /** Smallest number of coefficients to use the sparse gram for; can be changed for tests. */
+  static volatile int SPARSE_GRAM_MIN_COLS = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "glm.sparse_gram.min_cols", 5000);
   public int[] _randC;  // contains categorical column levels for random columns for HGLM
   public String _generatedWeights = null;
   public String[] _randCoeffNames = null;
@@ -926,6 +936,66 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       return xy;
     }
 
+    /**
+     * Solve with the sparse gram: sparse Cholesky of the l2 penalized gram, or
+     * coordinate descent over its sparse columns with l1 penalty.
+     */
+    private double[] sparseSolve(ComputationState.GramXY gram, Solver s) {
+      SparseGram g = gram.sparseGram;
+      if (s == Solver.COORDINATE_DESCENT || _state.l1pen() > 0)
+        return sparseCOD_solve(g, gram.xy, _state.l1pen(), _state.l2pen());
+      int n = _parms._intercept ? g.size() : g.size() - 1;
+      double[] xy = Arrays.copyOf(gram.xy, g.size());
+      if (!_parms._intercept) xy[n] = 0;
+      double ridge = _state.l2pen();
+      SparseCholesky chol = null;
+      for (int cnt = 0; chol == null; ++cnt) {
+        try {
+          chol = g.cholesky(n, ridge);
+        } catch (NonSPDMatrixException e) {
+          if (cnt == 5) throw e;
+          ridge += 1e-5;
+          Log.warn(LogMsg("Got NonSPD matrix, re-computing with ridge = " + ridge));
+        }
+      }
+      Log.info(LogMsg("sparse cholesky of " + n + " columns, " + g.nonZeros() + " gram non-zeros, " + chol.nonZeros() + " factor non-zeros"));
+      chol.solve(xy);
+      return xy;
+    }
+
+    private double[] sparseCOD_solve(SparseGram g, double[] xy, double l1pen, double l2pen) {
+      SparseGram.Columns cols = g.columns();
+      final double betaEpsilon = _parms._beta_epsilon*_parms._beta_epsilon;
+      int P = xy.length - 1;
+      double[] beta = _state.beta().clone();
+      double[] diag = MemoryManager.malloc8d(xy.length);
+      double[] grads = xy.clone(); // xy - G*beta without the diagonal term
+      for (int j = 0; j <= P; ++j)
+        for (int p = cols._colPtr[j]; p < cols._colPtr[j + 1]; ++p) {
+          int i = cols._rows[p];
+          if (i == j) diag[j] = cols._vals[p];
+          else grads[i] -= cols._vals[p] * beta[j];
+        }
+      int iter = 0;
+      while (iter++ < Math.max(P, 500)) {
+        double maxDiff = 0;
+        for (int j = 0; j <= P; ++j) {
+          if (j == P && !_parms._intercept) break;
+          double b = j == P ? grads[P] / diag[P] : ADMM.shrinkage(grads[j], l1pen) / (diag[j] + l2pen);
+          double bd = beta[j] - b;
+          if (bd == 0) continue;
+          double diff = bd * bd * diag[j];
+          if (diff > maxDiff) maxDiff = diff;
+          for (int p = cols._colPtr[j]; p < cols._colPtr[j + 1]; ++p)
+            if (cols._rows[p] != j) grads[cols._rows[p]] += bd * cols._vals[p];
+          beta[j] = b;
+        }
+        if (maxDiff < betaEpsilon) // stop if beta not changing much
+          break;
+      }
+      return beta;
+    }
+
     private void fitCOD_multinomial(Solver s) {
       double[] beta = _state.betaMultinomial();
       LineSearchSolver ls;
@@ -1385,10 +1455,11 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       long t0 = System.currentTimeMillis();
       ComputationState.GramXY gramXY = _state.computeGram(_state.beta(),s);
       Log.info(LogMsg("Gram computed in " + (System.currentTimeMillis()-t0) + "ms"));
-      double [] beta = _parms._solver == Solver.COORDINATE_DESCENT?COD_solve(gramXY,_state._alpha,_state.lambda())
+      double [] beta = gramXY.sparseGram != null?sparseSolve(gramXY,s)
+              :_parms._solver == Solver.COORDINATE_DESCENT?COD_solve(gramXY,_state._alpha,_state.lambda())
               :ADMM_solve(gramXY.gram,gramXY.xy);
       // compute mse
-      double [] x = ArrayUtils.mmul(gramXY.gram.getXX(),beta);
+      double [] x = gramXY.sparseGram != null?gramXY.sparseGram.mul(beta):ArrayUtils.mmul(gramXY.gram.getXX(),beta);
       for(int i = 0; i < x.length; ++i)
         x[i] = (x[i] - 2*gramXY.xy[i]);
       double l = .5*(ArrayUtils.innerProduct(x,beta)/_parms._obj_reg + gramXY.yy );
@@ -1415,7 +1486,8 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
               System.out.println("DONE after " + (iterCnt-1) + " iterations (1)");
               return;
             }
-            betaCnd = s == Solver.COORDINATE_DESCENT?COD_solve(gram,_state._alpha,_state.lambda()):ADMM_solve(gram.gram,gram.xy);
+            betaCnd = gram.sparseGram != null?sparseSolve(gram,s)
+                    :s == Solver.COORDINATE_DESCENT?COD_solve(gram,_state._alpha,_state.lambda()):ADMM_solve(gram.gram,gram.xy);
           }
           firstIter = false;
           long t3 = System.currentTimeMillis();
@@ -1675,6 +1747,9 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
     }
     private void fitModel() {
       Solver solver = (_parms._solver == Solver.AUTO) ? defaultSolver() : _parms._solver;
+      _state._sparseGram = useSparseGram(solver);
+      if (_state._sparseGram)
+        Log.info(LogMsg("accumulating sparse gram"));
       if (_parms._HGLM) {
         fitHGLM();
       } else {
@@ -2323,6 +2398,19 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
     }
   }
 
+  // the sparse gram handles neither multinomial/ordinal nor the features which need the dense gram or cholesky
+  private boolean sparseGramSupported() {
+    return _parms._family != Family.multinomial && _parms._family != Family.ordinal && !_parms._HGLM
+            && _parms._glmType == GLMParameters.GLMType.glm && !_parms._compute_p_values
+            && !_parms._remove_collinear_columns && !_parms._lambda_search && _parms._beta_constraints == null
+            && !_parms._non_negative && !_state.activeBC().hasBounds() && _state.activeBC()._betaGiven == null;
+  }
+
+  private boolean useSparseGram(Solver s) {
+    return SPARSE_GRAM && (s == Solver.IRLSM || s == Solver.COORDINATE_DESCENT) && sparseGramSupported()
+            && _state.activeData().fullN() >= SPARSE_GRAM_MIN_COLS;
+  }
+
   private Solver defaultSolver() {
     Solver s = Solver.IRLSM;
     int max_active = 0;
@@ -2330,7 +2418,7 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       for(int c = 0; c < _nclass; ++c)
         max_active += _state.activeDataMultinomial(c).fullN();
     else max_active = _state.activeData().fullN();
-    if(max_active >= 5000) // cutoff has to be somewhere
+    if(max_active >= 5000 && !useSparseGram(s)) // cutoff has to be somewhere
       s = Solver.L_BFGS;
     else if(_parms._lambda_search) { // lambda search prefers coordinate descent
       // l1 lambda search is better with coordinate descent!
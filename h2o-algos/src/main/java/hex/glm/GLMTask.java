@@ -9,6 +9,7 @@ import hex.glm.GLMModel.GLMParameters.Link;
 import hex.glm.GLMModel.GLMWeights;
 import hex.glm.GLMModel.GLMWeightsFun;
 import hex.gram.Gram;
+import hex.gram.SparseGram;
 import water.*;
 import water.H2O.H2OCountedCompleter;
 import water.fvec.C0DChunk;
@@ -1498,6 +1499,8 @@ public abstract class GLMTask  {
     double [][]_beta_multinomial;
     double []_beta;
     protected Gram  _gram; // wx%*%x
+    SparseGram _sgram; // wx%*%x when accumulated sparse, _gram is not used then
+    boolean _sparseGram;
     double [] _xy; // wx^t%*%z,
     double _yy;
     final double [] _ymu;
@@ -1525,14 +1528,26 @@ public abstract class GLMTask  {
       _c = c;
     }
 
-    @Override public boolean handlesSparseData(){return true;}
+    /**
+     * Accumulate the gram as a {@link SparseGram}.  Rows are always expanded
+     * (centered), so no adjustment for sparse standardized zeros is needed.
+     */
+    public GLMIterationTask setSparseGram(boolean b) {
+      _sparseGram = b;
+      return this;
+    }
+
+    @Override public boolean handlesSparseData(){return !_sparseGram;}
 
     transient private double _sparseOffset;
 
     @Override
     public void chunkInit() {
       // initialize
-      _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats,true);
+      if(_sparseGram)
+        _sgram = new SparseGram(_dinfo);
+      else
+        _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats,true);
       _xy = MemoryManager.malloc8d(_dinfo.fullN()+1); // + 1 is for intercept
       if(_sparse)
         _sparseOffset = GLM.sparseOffset(_beta,_dinfo);
@@ -1589,16 +1604,29 @@ public abstract class GLMTask  {
       }
       if(_dinfo._intercept)
         _xy[_xy.length-1] += wz;
-      _gram.addRow(r,w);
+      if(_sgram != null)
+        _sgram.addRow(r,w);
+      else
+        _gram.addRowBlocked(r,w);
     }
 
     @Override
-    public void chunkDone(){adjustForSparseStandardizedZeros();}
+    public void chunkDone(){
+      if(_sgram != null)
+        _sgram.compact();
+      else {
+        _gram.flushRows();
+        adjustForSparseStandardizedZeros();
+      }
+    }
 
     @Override
     public void reduce(GLMIterationTask git){
       ArrayUtils.add(_xy, git._xy);
-      _gram.add(git._gram);
+      if(_sgram != null)
+        _sgram.add(git._sgram);
+      else
+        _gram.add(git._gram);
       _nobs += git._nobs;
       wsum += git.wsum;
       wsumu += git.wsumu;
@@ -1635,7 +1663,7 @@ public abstract class GLMTask  {
     }
 
     public boolean hasNaNsOrInf() {
-      return ArrayUtils.hasNaNsOrInfs(_xy) || _gram.hasNaNsOrInfs();
+      return ArrayUtils.hasNaNsOrInfs(_xy) || (_sgram != null ? _sgram.hasNaNsOrInfs() : _gram.hasNaNsOrInfs());
     }
   }
   
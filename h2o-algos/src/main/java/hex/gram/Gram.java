@@ -777,6 +777,10 @@ public final class Gram extends Iced<Gram> {
   }
 
   public final void   addRowDense(DataInfo.Row row, double w) {
+    addRowDense(row, w, true);
+  }
+
+  private void addRowDense(DataInfo.Row row, double w, boolean numsXnums) {
     final int intercept = _hasIntercept?1:0;
     final int denseRowStart = _fullN - _denseN - _diagN - intercept; // we keep dense numbers at the right bottom of the matrix, -1 is for intercept
     final int denseColStart = _fullN - _denseN - intercept;
@@ -787,10 +791,12 @@ public final class Gram extends Iced<Gram> {
     for(int i = 0; i < _denseN; ++i) if(row.numVals[i] != 0) {
       final double [] mrow = _xx[i+denseRowStart];
       final double d = w * row.numVals[i];
-      for(int j = 0; j <= i; ++j) if(row.numVals[j] != 0)
-        mrow[j+denseColStart] += d* row.numVals[j];
-      if(_hasIntercept)
-        interceptRow[i+denseColStart] += d; // intercept*x[i]
+      if(numsXnums) {
+        for (int j = 0; j <= i; ++j) if (row.numVals[j] != 0)
+          mrow[j + denseColStart] += d * row.numVals[j];
+        if (_hasIntercept)
+          interceptRow[i + denseColStart] += d; // intercept*x[i]
+      }
       // nums * cats
       for(int j = 0; j < row.nBins; ++j)
         mrow[row.binIds[j]] += d;
@@ -813,6 +819,78 @@ public final class Gram extends Iced<Gram> {
     if(hasDiag)
       _diag[row.binIds[0]] += w;
   }
+  /** Fewest dense numeric columns to buffer rows for {@link #addRowBlocked} */
+  static final int MIN_BLOCKED_NUMS = 256;
+  /** Rows per block of {@link #addRowBlocked} */
+  static final int ROW_BLOCK = 128;
+  /** Gram rows and columns per tile of the blocked update */
+  static final int TILE = 256;
+
+  // dense numeric values and weights of the buffered rows
+  private transient double[][] _blockX;
+  private transient double[] _blockW;
+  private transient int _blockN;
+
+  /**
+   * Same as {@link #addRow}, but the numeric x numeric (and intercept x numeric)
+   * part of dense rows is buffered and added {@link #ROW_BLOCK} rows at a time,
+   * one {@link #TILE} x {@link #TILE} tile of the Gram after another.  The
+   * per-row update streams the whole numeric block through the cache for every
+   * row; here a tile stays in cache for the whole block of rows.  Every element
+   * still gets its row contributions in row order, so the result is the same
+   * as with {@link #addRow}.  {@link #flushRows()} has to be called before the
+   * Gram is used.
+   */
+  public final void addRowBlocked(DataInfo.Row row, double w) {
+    if (row.numIds != null || _denseN < MIN_BLOCKED_NUMS) {
+      addRow(row, w);
+      return;
+    }
+    if (_blockX == null) {
+      _blockX = new double[ROW_BLOCK][_denseN];
+      _blockW = new double[ROW_BLOCK];
+    }
+    System.arraycopy(row.numVals, 0, _blockX[_blockN], 0, _denseN);
+    _blockW[_blockN] = w;
+    addRowDense(row, w, false);
+    if (++_blockN == ROW_BLOCK) flushRows();
+  }
+
+  /** Add the rows buffered by {@link #addRowBlocked} */
+  public final void flushRows() {
+    final int n = _blockN;
+    if (n == 0) return;
+    final int intercept = _hasIntercept?1:0;
+    final int denseRowStart = _fullN - _denseN - _diagN - intercept;
+    final int denseColStart = _fullN - _denseN - intercept;
+    for (int ii = 0; ii < _denseN; ii += TILE) {
+      final int iMax = Math.min(ii + TILE, _denseN);
+      for (int jj = 0; jj <= ii; jj += TILE) {
+        for (int r = 0; r < n; ++r) {
+          final double[] x = _blockX[r];
+          final double w = _blockW[r];
+          for (int i = ii; i < iMax; ++i) {
+            if (x[i] == 0) continue;
+            final double d = w * x[i];
+            final double[] mrow = _xx[i + denseRowStart];
+            final int jMax = Math.min(jj + TILE, i + 1);
+            for (int j = jj; j < jMax; ++j)
+              mrow[j + denseColStart] += d * x[j];
+          }
+        }
+      }
+    }
+    if (_hasIntercept) {
+      final double[] interceptRow = _xx[_denseN + denseRowStart];
+      for (int r = 0; r < n; ++r) {
+        final double[] x = _blockX[r];
+        for (int i = 0; i < _denseN; ++i)
+          if (x[i] != 0) interceptRow[i + denseColStart] += _blockW[r] * x[i];
+      }
+    }
+    _blockN = 0;
+  }
+
   public void mul(double x){
     if(_diag != null)for(int i = 0; i < _diag.length; ++i)
       _diag[i] *= x;
@@ -993,14 +1071,12 @@ public final class Gram extends Iced<Gram> {
     @Override public void chunkInit(){
       _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats, _intercept);
     }
-    double _prev = 0;
     @Override protected void processRow(DataInfo.Row r) {
-      _gram.addRow(r, r.weight);
+      _gram.addRowBlocked(r, r.weight);
       ++_nobs;
-      double current = (_gram.get(_dinfo.fullN()-1,_dinfo.fullN()-1) - _prev);
-      _prev += current;
     }
     @Override public void chunkDone(){
+      _gram.flushRows();
       if(_std) {
         if (_nobs > 0) {  // removing NA rows may produce _nobs=0
           double r = 1.0 / _nobs;
@@ -0,0 +1,269 @@
+package hex.gram;
+
+import water.MemoryManager;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Cholesky factorization of a sparse symmetric positive definite matrix.
+ * <p>
+ * The matrix is first reordered by minimum degree, with dense rows (the
+ * intercept and most numeric columns of a GLM Gram) postponed to the end so
+ * that they neither drive the ordering nor fill in the rest of the factor.
+ * The structure of L then follows from the elimination tree and the values
+ * are computed column by column (left-looking), touching only the non-zeros.
+ * With one-hot encoded categoricals the fill stays close to the non-zeros of
+ * the Gram itself, so both time and memory are far below the dense O(N^3) /
+ * O(N^2) {@link Gram.Cholesky}.
+ */
+public final class SparseCholesky {
+  final int _n;
+  final int[] _perm;    // new -> old index
+  final int[] _colPtr;  // L in compressed columns, diagonal first in each column
+  final int[] _rows;
+  final double[] _vals;
+
+  /**
+   * Factor the matrix given by its lower triangle in compressed columns (row
+   * indices of every column sorted, diagonal included).
+   * @throws Gram.NonSPDMatrixException if the matrix is not positive definite
+   */
+  public SparseCholesky(int n, int[] colPtr, int[] rows, double[] vals) {
+    _n = n;
+    _perm = minimumDegree(n, colPtr, rows);
+    int[] inv = new int[n];
+    for (int k = 0; k < n; ++k) inv[_perm[k]] = k;
+    // permuted lower triangle
+    int[] cnt = new int[n + 1];
+    for (int j = 0; j < n; ++j)
+      for (int p = colPtr[j]; p < colPtr[j + 1]; ++p)
+        cnt[Math.min(inv[rows[p]], inv[j]) + 1]++;
+    for (int j = 0; j < n; ++j) cnt[j + 1] += cnt[j];
+    int[] aPtr = cnt.clone();
+    int[] aRows = MemoryManager.malloc4(cnt[n]);
+    double[] aVals = MemoryManager.malloc8d(cnt[n]);
+    for (int j = 0; j < n; ++j)
+      for (int p = colPtr[j]; p < colPtr[j + 1]; ++p) {
+        int a = inv[rows[p]], b = inv[j];
+        int c = Math.min(a, b);
+        aRows[cnt[c]] = Math.max(a, b);
+        aVals[cnt[c]++] = vals[p];
+      }
+    _colPtr = new int[n + 1];
+    _rows = symbolic(n, aPtr, aRows, _colPtr);
+    _vals = MemoryManager.malloc8d(_rows.length);
+    numeric(aPtr, aRows, aVals);
+  }
+
+  public int size() {return _n;}
+
+  /** Non-zeros of the factor, a measure of the fill-in. */
+  public long nonZeros() {return _rows.length;}
+
+  /**
+   * Minimum degree ordering on the explicit elimination graph.  Rows with
+   * more than max(16, 10*sqrt(n)) neighbours are ordered last, and so is
+   * the remaining graph once it is close to a clique.
+   */
+  static int[] minimumDegree(int n, int[] colPtr, int[] rows) {
+    int[] len = new int[n];
+    for (int j = 0; j < n; ++j)
+      for (int p = colPtr[j]; p < colPtr[j + 1]; ++p)
+        if (rows[p] != j) {
+          len[rows[p]]++;
+          len[j]++;
+        }
+    int[][] adj = new int[n][];
+    for (int i = 0; i < n; ++i) adj[i] = MemoryManager.malloc4(len[i]);
+    Arrays.fill(len, 0);
+    for (int j = 0; j < n; ++j)
+      for (int p = colPtr[j]; p < colPtr[j + 1]; ++p) {
+        int i = rows[p];
+        if (i != j) {
+          adj[i][len[i]++] = j;
+          adj[j][len[j]++] = i;
+        }
+      }
+    final int denseCutoff = Math.max(16, (int) (10 * Math.sqrt(n)));
+    boolean[] done = new boolean[n];
+    int[] perm = new int[n];
+    int[] dense = new int[n];
+    int nDense = 0;
+    for (int i = 0; i < n; ++i)
+      if (len[i] > denseCutoff) {
+        done[i] = true;
+        dense[nDense++] = i;
+      }
+    int[] deg = new int[n];
+    PriorityQueue<Long> queue = new PriorityQueue<>();
+    for (int i = 0; i < n; ++i) {
+      if (done[i]) continue;
+      for (int q = 0; q < len[i]; ++q)
+        if (!done[adj[i][q]]) deg[i]++;
+      queue.add(((long) deg[i] << 32) | i);
+    }
+    int[] mark = new int[n];
+    int[] live = new int[n];
+    int stamp = 0, k = 0;
+    while (!queue.isEmpty()) {
+      long e = queue.poll();
+      int p = (int) e;
+      if (done[p] || (int) (e >>> 32) != deg[p]) continue; // stale entry
+      if (deg[p] > 16 && 4 * deg[p] >= 3 * (n - nDense - k - 1)) break;
+      done[p] = true;
+      perm[k++] = p;
+      int m = 0;
+      for (int q = 0; q < len[p]; ++q)
+        if (!done[adj[p][q]]) live[m++] = adj[p][q];
+      // eliminating p makes its remaining neighbours a clique
+      for (int a = 0; a < m; ++a) {
+        int u = live[a];
+        mark[u] = ++stamp;
+        int[] au = adj[u];
+        int lu = 0;
+        for (int q = 0; q < len[u]; ++q) {
+          int v = au[q];
+          if (!done[v] && mark[v] != stamp) {
+            mark[v] = stamp;
+            au[lu++] = v;
+          }
+        }
+        if (lu + m > au.length) adj[u] = au = Arrays.copyOf(au, lu + m);
+        for (int b = 0; b < m; ++b) {
+          int v = live[b];
+          if (mark[v] != stamp) {
+            mark[v] = stamp;
+            au[lu++] = v;
+          }
+        }
+        len[u] = lu;
+        deg[u] = lu;
+        queue.add(((long) lu << 32) | u);
+      }
+      adj[p] = null;
+    }
+    // the rest of the graph is (nearly) a clique, its order does not matter
+    for (int i = 0; i < n; ++i)
+      if (!done[i]) perm[k++] = i;
+    System.arraycopy(dense, 0, perm, k, nDense);
+    return perm;
+  }
+
+  /**
+   * Structure of L: column j holds the rows of A(:,j) below the diagonal and
+   * those of its children in the elimination tree.
+   */
+  private static int[] symbolic(int n, int[] aPtr, int[] aRows, int[] lPtr) {
+    int[] childHead = new int[n];
+    int[] childNext = new int[n];
+    Arrays.fill(childHead, -1);
+    int[] mark = new int[n];
+    Arrays.fill(mark, -1);
+    int[] pattern = new int[n];
+    int[] rows = MemoryManager.malloc4(Math.max(16, aRows.length));
+    int nnz = 0;
+    for (int j = 0; j < n; ++j) {
+      int m = 0;
+      mark[j] = j;
+      for (int p = aPtr[j]; p < aPtr[j + 1]; ++p) {
+        int i = aRows[p];
+        if (mark[i] != j) {
+          mark[i] = j;
+          pattern[m++] = i;
+        }
+      }
+      for (int c = childHead[j]; c != -1; c = childNext[c])
+        for (int p = lPtr[c] + 1; p < lPtr[c + 1]; ++p) {
+          int i = rows[p];
+          if (mark[i] != j) {
+            mark[i] = j;
+            pattern[m++] = i;
+          }
+        }
+      Arrays.sort(pattern, 0, m);
+      if (nnz + m + 1 > rows.length) {
+        long sz = Math.max((long) rows.length << 1, (long) nnz + m + 1);
+        if (sz > Integer.MAX_VALUE - 8)
+          throw new IllegalArgumentException("Cholesky factor too large, more than " + Integer.MAX_VALUE + " non-zeros");
+        rows = Arrays.copyOf(rows, (int) sz);
+      }
+      lPtr[j] = nnz;
+      rows[nnz++] = j;
+      System.arraycopy(pattern, 0, rows, nnz, m);
+      nnz += m;
+      lPtr[j + 1] = nnz;
+      if (m > 0) { // parent is the first off-diagonal row
+        int parent = pattern[0];
+        childNext[j] = childHead[parent];
+        childHead[parent] = j;
+      }
+    }
+    return Arrays.copyOf(rows, nnz);
+  }
+
+  /** Left-looking numeric factorization. */
+  private void numeric(int[] aPtr, int[] aRows, double[] aVals) {
+    final int n = _n;
+    final int[] lPtr = _colPtr, lRows = _rows;
+    final double[] l = _vals;
+    double[] x = MemoryManager.malloc8d(n);
+    int[] head = new int[n];   // columns k < j with L(j,k) != 0, linked through next
+    int[] next = new int[n];
+    int[] pos = new int[n];    // position of the next row to use in column k
+    Arrays.fill(head, -1);
+    for (int j = 0; j < n; ++j) {
+      for (int p = aPtr[j]; p < aPtr[j + 1]; ++p)
+        x[aRows[p]] += aVals[p];
+      int k = head[j];
+      while (k != -1) {
+        int nextK = next[k];
+        int p0 = pos[k];
+        double ljk = l[p0];
+        for (int p = p0; p < lPtr[k + 1]; ++p)
+          x[lRows[p]] -= l[p] * ljk;
+        if (++pos[k] < lPtr[k + 1]) {
+          int r = lRows[pos[k]];
+          next[k] = head[r];
+          head[r] = k;
+        }
+        k = nextK;
+      }
+      double d = x[j];
+      if (!(d > 0))
+        throw new Gram.NonSPDMatrixException("Non-positive pivot " + d + " at column " + _perm[j]);
+      double ljj = Math.sqrt(d);
+      l[lPtr[j]] = ljj;
+      x[j] = 0;
+      for (int p = lPtr[j] + 1; p < lPtr[j + 1]; ++p) {
+        l[p] = x[lRows[p]] / ljj;
+        x[lRows[p]] = 0;
+      }
+      pos[j] = lPtr[j] + 1;
+      if (pos[j] < lPtr[j + 1]) {
+        int r = lRows[pos[j]];
+        next[j] = head[r];
+        head[r] = j;
+      }
+    }
+  }
+
+  /** Solve A*x = b in place. */
+  public void solve(double[] b) {
+    final int n = _n;
+    double[] y = MemoryManager.malloc8d(n);
+    for (int k = 0; k < n; ++k) y[k] = b[_perm[k]];
+    for (int j = 0; j < n; ++j) { // L*z = y
+      double z = y[j] /= _vals[_colPtr[j]];
+      for (int p = _colPtr[j] + 1; p < _colPtr[j + 1]; ++p)
+        y[_rows[p]] -= _vals[p] * z;
+    }
+    for (int j = n - 1; j >= 0; --j) { // L'*x = z
+      double s = y[j];
+      for (int p = _colPtr[j] + 1; p < _colPtr[j + 1]; ++p)
+        s -= _vals[p] * y[_rows[p]];
+      y[j] = s / _vals[_colPtr[j]];
+    }
+    for (int k = 0; k < n; ++k) b[_perm[k]] = y[k];
+  }
+}
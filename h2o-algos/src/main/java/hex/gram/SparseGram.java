@@ -0,0 +1,382 @@
+package hex.gram;
+
+import hex.DataInfo;
+import water.Iced;
+import water.MemoryManager;
+
+import java.util.Arrays;
+
+/**
+ * Gram matrix (X'WX) stored as sparse columns of its lower triangle.
+ * <p>
+ * One-hot encoded high-cardinality categoricals make the Gram wide but very
+ * sparse: two levels of the same column never meet in a row, so the only
+ * non-zeros are the diagonal, the level pairs which co-occur across columns
+ * and the numeric/intercept rows.  Storing just those keeps the memory (and the
+ * size of the partial results shipped in reduce) proportional to the number of
+ * distinct co-occurrences instead of N^2/2.
+ * <p>
+ * Rows are accumulated per column into append-only buffers which are sorted
+ * and compacted (duplicates summed) when they fill up; {@link #compact()}
+ * leaves every column sorted by row and trimmed.  Index layout is the same as
+ * in {@link Gram}: categorical levels, numerics, intercept last.
+ */
+public final class SparseGram extends Iced<SparseGram> {
+  final int _numStart;
+  final int _fullN;    // number of coefficients, intercept is at _fullN
+  int[][] _rows;       // per column j, rows i >= j
+  double[][] _vals;
+  int[] _nnz;
+  int[] _sorted;       // per column, the sorted and compacted prefix
+
+  public SparseGram(DataInfo dinfo) {this(dinfo.fullN(), dinfo.numStart());}
+
+  public SparseGram(int fullN, int numStart) {
+    _fullN = fullN;
+    _numStart = numStart;
+    _rows = new int[fullN + 1][];
+    _vals = new double[fullN + 1][];
+    _nnz = new int[fullN + 1];
+    _sorted = new int[fullN + 1];
+  }
+
+  /** Size of the matrix, intercept included. */
+  public int size() {return _fullN + 1;}
+
+  public long nonZeros() {
+    compact();
+    long res = 0;
+    for (int n : _nnz) res += n;
+    return res;
+  }
+
+  private transient int[] _ids;
+  private transient double[] _xs;
+
+  public final void addRow(DataInfo.Row r, double w) {
+    int n = r.nBins + r.nNums + 1;
+    if (_ids == null || _ids.length < n) {
+      _ids = MemoryManager.malloc4(n);
+      _xs = MemoryManager.malloc8d(n);
+    }
+    final int[] ids = _ids;
+    final double[] xs = _xs;
+    int k = 0;
+    for (int i = 0; i < r.nBins; ++i) {
+      ids[k] = r.binIds[i];
+      xs[k++] = 1;
+    }
+    for (int i = 0; i < r.nNums; ++i) {
+      if (r.numVals[i] == 0) continue;
+      ids[k] = r.numIds == null ? _numStart + i : r.numIds[i];
+      xs[k++] = r.numVals[i];
+    }
+    ids[k] = _fullN;
+    xs[k++] = 1;
+    // ids are increasing, so ids[b] is always in the lower triangle of column ids[a]
+    for (int a = 0; a < k; ++a) {
+      final double d = w * xs[a];
+      final int col = ids[a];
+      for (int b = a; b < k; ++b)
+        add(col, ids[b], d * xs[b]);
+    }
+  }
+
+  private void add(int col, int row, double v) {
+    int n = _nnz[col];
+    if (_rows[col] == null || n == _rows[col].length)
+      n = grow(col);
+    _rows[col][n] = row;
+    _vals[col][n] = v;
+    _nnz[col] = n + 1;
+  }
+
+  // compact the column first, only resize if that did not free enough space
+  private int grow(int col) {
+    if (_rows[col] == null) {
+      _rows[col] = MemoryManager.malloc4(4);
+      _vals[col] = MemoryManager.malloc8d(4);
+      return 0;
+    }
+    int n = compact(col);
+    if (n > (_rows[col].length >> 1)) {
+      _rows[col] = Arrays.copyOf(_rows[col], _rows[col].length << 1);
+      _vals[col] = Arrays.copyOf(_vals[col], _vals[col].length << 1);
+    }
+    return n;
+  }
+
+  /** Sort and compact all columns and trim the buffers, e.g. before shipping the Gram over the wire. */
+  public void compact() {
+    for (int j = 0; j < _rows.length; ++j) {
+      if (_rows[j] == null) continue;
+      int n = compact(j);
+      if (n < _rows[j].length) {
+        _rows[j] = Arrays.copyOf(_rows[j], n);
+        _vals[j] = Arrays.copyOf(_vals[j], n);
+      }
+    }
+  }
+
+  private int compact(int col) {
+    int n = _nnz[col];
+    int s = _sorted[col];
+    if (s == n) return n;
+    int[] rows = _rows[col];
+    double[] vals = _vals[col];
+    sort(rows, vals, s, n - 1);
+    if (s > 0) { // merge the new tail into the sorted prefix
+      int[] rs = MemoryManager.malloc4(rows.length);
+      double[] vs = MemoryManager.malloc8d(rows.length);
+      int a = 0, b = s, k = 0;
+      while (a < s || b < n) {
+        int r = (b == n || (a < s && rows[a] <= rows[b])) ? rows[a] : rows[b];
+        double v = 0;
+        while (a < s && rows[a] == r) v += vals[a++];
+        while (b < n && rows[b] == r) v += vals[b++];
+        rs[k] = r;
+        vs[k++] = v;
+      }
+      _rows[col] = rs;
+      _vals[col] = vs;
+      n = k;
+    } else {
+      int k = 0;
+      for (int i = 0; i < n; ++i) {
+        if (k > 0 && rows[k - 1] == rows[i]) vals[k - 1] += vals[i];
+        else {
+          rows[k] = rows[i];
+          vals[k++] = vals[i];
+        }
+      }
+      n = k;
+    }
+    _sorted[col] = _nnz[col] = n;
+    return n;
+  }
+
+  // sort rows[lo..hi] and the matching vals by row
+  private static void sort(int[] rows, double[] vals, int lo, int hi) {
+    while (hi - lo > 16) {
+      int pivot = rows[(lo + hi) >>> 1];
+      int i = lo, j = hi;
+      while (i <= j) {
+        while (rows[i] < pivot) i++;
+        while (rows[j] > pivot) j--;
+        if (i <= j) swap(rows, vals, i++, j--);
+      }
+      if (j - lo < hi - i) {
+        sort(rows, vals, lo, j);
+        lo = i;
+      } else {
+        sort(rows, vals, i, hi);
+        hi = j;
+      }
+    }
+    for (int i = lo + 1; i <= hi; ++i)
+      for (int j = i; j > lo && rows[j - 1] > rows[j]; --j)
+        swap(rows, vals, j, j - 1);
+  }
+
+  private static void swap(int[] rows, double[] vals, int i, int j) {
+    int r = rows[i]; rows[i] = rows[j]; rows[j] = r;
+    double v = vals[i]; vals[i] = vals[j]; vals[j] = v;
+  }
+
+  /** Add the other Gram into this one, both end up compacted. */
+  public void add(SparseGram g) {
+    assert g._fullN == _fullN;
+    compact();
+    g.compact();
+    for (int j = 0; j < _rows.length; ++j) {
+      int m = g._nnz[j];
+      if (m == 0) continue;
+      int n = _nnz[j];
+      if (n == 0) {
+        _rows[j] = g._rows[j].clone();
+        _vals[j] = g._vals[j].clone();
+        _nnz[j] = _sorted[j] = m;
+        continue;
+      }
+      int[] ra = _rows[j], rb = g._rows[j];
+      double[] va = _vals[j], vb = g._vals[j];
+      int[] rs = MemoryManager.malloc4(n + m);
+      double[] vs = MemoryManager.malloc8d(n + m);
+      int a = 0, b = 0, k = 0;
+      while (a < n || b < m) {
+        if (b == m || (a < n && ra[a] < rb[b])) {
+          rs[k] = ra[a];
+          vs[k++] = va[a++];
+        } else if (a == n || rb[b] < ra[a]) {
+          rs[k] = rb[b];
+          vs[k++] = vb[b++];
+        } else {
+          rs[k] = ra[a];
+          vs[k++] = va[a++] + vb[b++];
+        }
+      }
+      _rows[j] = k == rs.length ? rs : Arrays.copyOf(rs, k);
+      _vals[j] = k == vs.length ? vs : Arrays.copyOf(vs, k);
+      _nnz[j] = _sorted[j] = k;
+    }
+  }
+
+  public void mul(double x) {
+    for (int j = 0; j < _vals.length; ++j)
+      for (int p = 0; p < _nnz[j]; ++p)
+        _vals[j][p] *= x;
+  }
+
+  public double get(int i, int j) {
+    if (j > i) {
+      int k = i;
+      i = j;
+      j = k;
+    }
+    int n = compact(j);
+    if (n == 0) return 0;
+    int p = Arrays.binarySearch(_rows[j], 0, n, i);
+    return p < 0 ? 0 : _vals[j][p];
+  }
+
+  public double diag(int i) {
+    // rows are sorted and >= i, the diagonal comes first if present
+    return compact(i) > 0 && _rows[i][0] == i ? _vals[i][0] : 0;
+  }
+
+  /** Coefficients (intercept excluded) with a zero diagonal, i.e. not present in any row with non-zero weight. */
+  public int[] findZeroCols() {
+    int[] res = new int[0];
+    int cnt = 0;
+    for (int i = 0; i < _fullN; ++i)
+      if (diag(i) == 0) {
+        if (cnt == res.length) res = Arrays.copyOf(res, Math.max(4, cnt << 1));
+        res[cnt++] = i;
+      }
+    return Arrays.copyOf(res, cnt);
+  }
+
+  /** Drop the given (sorted) coefficients. */
+  public SparseGram dropCols(int[] cols) {
+    if (cols.length == 0) return this;
+    compact();
+    int[] newId = new int[_fullN + 1];
+    for (int i = 0, c = 0; i <= _fullN; ++i)
+      newId[i] = (c < cols.length && cols[c] == i) ? (-1 - c++) : i - c;
+    int numStart = _numStart;
+    for (int c : cols) if (c < _numStart) numStart--;
+    SparseGram res = new SparseGram(_fullN - cols.length, numStart);
+    for (int j = 0; j <= _fullN; ++j) {
+      if (newId[j] < 0 || _nnz[j] == 0) continue;
+      int[] rs = MemoryManager.malloc4(_nnz[j]);
+      double[] vs = MemoryManager.malloc8d(_nnz[j]);
+      int k = 0;
+      for (int p = 0; p < _nnz[j]; ++p) {
+        int i = newId[_rows[j][p]];
+        if (i < 0) continue;
+        rs[k] = i;
+        vs[k++] = _vals[j][p];
+      }
+      int nj = newId[j];
+      res._rows[nj] = Arrays.copyOf(rs, k);
+      res._vals[nj] = Arrays.copyOf(vs, k);
+      res._nnz[nj] = res._sorted[nj] = k;
+    }
+    return res;
+  }
+
+  /** Symmetric product G*x. */
+  public double[] mul(double[] x) {
+    compact();
+    double[] res = MemoryManager.malloc8d(x.length);
+    for (int j = 0; j < _nnz.length; ++j) {
+      for (int p = 0; p < _nnz[j]; ++p) {
+        int i = _rows[j][p];
+        double v = _vals[j][p];
+        res[i] += v * x[j];
+        if (i != j) res[j] += v * x[i];
+      }
+    }
+    return res;
+  }
+
+  public boolean hasNaNsOrInfs() {
+    for (int j = 0; j < _nnz.length; ++j)
+      for (int p = 0; p < _nnz[j]; ++p)
+        if (Double.isNaN(_vals[j][p]) || Double.isInfinite(_vals[j][p])) return true;
+    return false;
+  }
+
+  /**
+   * Sparse Cholesky of the leading n x n block, i.e. size() with the intercept
+   * and size()-1 without it.
+   * @param ridge added to the diagonal, except for the intercept
+   */
+  public SparseCholesky cholesky(int n, double ridge) {
+    compact();
+    int[] colPtr = new int[n + 1];
+    for (int j = 0; j < n; ++j) {
+      int k = 0;
+      while (k < _nnz[j] && _rows[j][k] < n) k++; // rows are sorted
+      if (k == 0 || _rows[j][0] != j) k++;        // room for the diagonal
+      colPtr[j + 1] = colPtr[j] + k;
+    }
+    int[] rows = MemoryManager.malloc4(colPtr[n]);
+    double[] vals = MemoryManager.malloc8d(colPtr[n]);
+    for (int j = 0; j < n; ++j) {
+      int p = colPtr[j];
+      int k = colPtr[j + 1] - p;
+      if (_nnz[j] == 0 || _rows[j][0] != j) {
+        rows[p++] = j;
+        k--;
+      }
+      if (k > 0) {
+        System.arraycopy(_rows[j], 0, rows, p, k);
+        System.arraycopy(_vals[j], 0, vals, p, k);
+      }
+      if (j < _fullN) vals[colPtr[j]] += ridge;
+    }
+    return new SparseCholesky(n, colPtr, rows, vals);
+  }
+
+  /**
+   * Both triangles in compressed columns, for solvers which walk whole
+   * columns (coordinate descent).
+   */
+  public Columns columns() {
+    compact();
+    int n = _fullN + 1;
+    int[] cnt = new int[n + 1];
+    for (int j = 0; j < n; ++j)
+      for (int p = 0; p < _nnz[j]; ++p) {
+        cnt[j + 1]++;
+        if (_rows[j][p] != j) cnt[_rows[j][p] + 1]++;
+      }
+    for (int j = 0; j < n; ++j) cnt[j + 1] += cnt[j];
+    Columns res = new Columns(cnt.clone(), MemoryManager.malloc4(cnt[n]), MemoryManager.malloc8d(cnt[n]));
+    for (int j = 0; j < n; ++j)
+      for (int p = 0; p < _nnz[j]; ++p) {
+        int i = _rows[j][p];
+        double v = _vals[j][p];
+        res._rows[cnt[j]] = i;
+        res._vals[cnt[j]++] = v;
+        if (i != j) {
+          res._rows[cnt[i]] = j;
+          res._vals[cnt[i]++] = v;
+        }
+      }
+    return res;
+  }
+
+  public static final class Columns {
+    public final int[] _colPtr;
+    public final int[] _rows;
+    public final double[] _vals;
+
+    Columns(int[] colPtr, int[] rows, double[] vals) {
+      _colPtr = colPtr;
+      _rows = rows;
+      _vals = vals;
+    }
+  }
+}
@@ -103,6 +103,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         error("_cluster_size_constraints", "\"The number of cluster size constraints is not equal to k = \" + _parms._k");
       }
     }
+    if (_parms._prune_distances && (_parms._estimate_k || _parms._cluster_size_constraints != null))
+      info("_prune_distances", "Distance pruning is ignored when estimate_k or cluster_size_constraints are set.");
     if(_parms._fold_assignment == Model.Parameters.FoldAssignmentScheme.Stratified){
       error("fold_assignment", "K-means is an unsupervised algorithm; the stratified fold assignment cannot be used because of the missing response column.");
     }
@@ -150,13 +152,19 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           // Initialize first cluster center to random row
           randomRow(vecs, rand, centers[0], means, mults, modes);
 
+          // Square distance of every row to its closest center so far; each
+          // round only measures the distances to the centers it sampled
+          Vec[] vecs2 = Arrays.copyOf(vecs, vecs.length+1);
+          vecs2[vecs.length] = vecs[0].makeCon(Double.MAX_VALUE);
+          int sampled = 0;
           model._output._iterations = 0;
           while (model._output._iterations < 5) {
             // Sum squares distances to cluster center
-            SumSqr sqr = new SumSqr(centers, means, mults, modes, _isCats).doAll(vecs);
+            SumSqr sqr = new SumSqr(centers, sampled, means, mults, modes, _isCats, hasWeightCol()).doAll(vecs2);
+            sampled = centers.length;
 
             // Sample with probability inverse to square distance
-            Sampler sampler = new Sampler(centers, means, mults, modes, _isCats, sqr._sqr, k * 3, _parms.getOrMakeRealSeed(), hasWeightCol()).doAll(vecs);
+            Sampler sampler = new Sampler(sqr._sqr, k * 3, _parms.getOrMakeRealSeed(), hasWeightCol(), means, mults, modes).doAll(vecs2);
             centers = ArrayUtils.append(centers, sampler._sampled);
 
             // Fill in sample centers into the model
@@ -172,6 +180,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
               break; // Stopped/cancelled
             }
           }
+          vecs2[vecs.length].remove();
           // Recluster down to k cluster centers
           centers = recluster(centers, rand, k, _parms._init, _isCats);
           model._output._iterations = 0; // Reset iteration count
@@ -246,6 +255,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       model._output._k = ArrayUtils.copyAndFillOf(model._output._k, model._output._k.length+1, k);
       model._output._training_time_ms = ArrayUtils.copyAndFillOf(model._output._training_time_ms, model._output._training_time_ms.length+1, System.currentTimeMillis());
       model._output._reassigned_count = ArrayUtils.copyAndFillOf(model._output._reassigned_count, model._output._reassigned_count.length+1, task._reassigned_count);
+      model._output._distance_computations = ArrayUtils.copyAndFillOf(model._output._distance_computations, model._output._distance_computations.length+1, task._distances);
 
       // Two small TwoDimTables - cheap
       model._output._model_summary = createModelSummaryTable(model._output);
@@ -288,10 +298,14 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         model._output._normMul = mults;
         model._output._mode = impute_cat;
         // Initialize cluster centers and standardize if requested
+        long initStart = System.currentTimeMillis();
         double[][] centers = initial_centers(model,vecs,means,mults,impute_cat, startK);
         if( centers==null ) return; // Stopped/cancelled during center-finding
+        model._output._init_time_ms = System.currentTimeMillis() - initStart;
+        Log.info("K-means initialization (" + _parms._init + ") took " + PrettyPrint.msecs(model._output._init_time_ms, true));
         boolean work_unit_iter = !_parms._estimate_k;
         boolean constrained = _parms._cluster_size_constraints != null;
+        boolean bounds = _parms._prune_distances && !_parms._estimate_k && !constrained;
         
         // ---
         // Run the main KMeans Clustering loop
@@ -319,6 +333,13 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
             assert csum <= vecs[0].length(): "The sum of constraints ("+csum+") is higher than the number of data rows ("+vecs[0].length()+").";
           }
         }
+        // Lloyd's iterations with pruning also carry the distance bounds
+        Vec[] lloydsVecs = vecs2;
+        double[][] boundCenters = null; // Centers the bounds refer to
+        if (bounds) {
+          lloydsVecs = Arrays.copyOf(vecs2, vecs2.length+1);
+          lloydsVecs[vecs2.length] = vecs2[0].makeZero();
+        }
         
         for (int k = startK; k <= _parms._k; ++k) {
           if(!constrained){
@@ -331,10 +352,16 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           boolean stop = false;
           do {
             assert(centers.length == k);
+            long iterStart = System.currentTimeMillis();
             IterationTask task;
             if(!constrained) {
               //Lloyds algorithm
-              task = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol()).doAll(vecs2); //1 PASS OVER THE DATA
+              LloydsIterationTask lloyds = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol());
+              if (bounds) {
+                lloyds.withBounds(boundCenters);
+                boundCenters = ArrayUtils.deepClone(centers); // centers may be patched up in place below
+              }
+              task = lloyds.doAll(lloydsVecs); //1 PASS OVER THE DATA
             }  else {
               // Constrained K-means
               
@@ -366,6 +393,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
 
             // Compute model stats; update standardized cluster centers
             centers = computeStatsFillModel(task, model, vecs, means, mults, impute_cat, k);
+            Log.info("K-means iteration " + model._output._iterations + " took " + PrettyPrint.msecs(System.currentTimeMillis() - iterStart, true)
+                    + " and " + task._distances + " distance computations.");
             if (model._parms._score_each_iteration) 
               Log.info(model._output._model_summary);
             lo = task._lo;
@@ -413,6 +442,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
             centers = splitLargestCluster(centers, lo, hi, means, mults, impute_cat, vecs2, k);
         } //k-finder
         vecs2[vecs2.length-1].remove();
+        if (bounds) lloydsVecs[lloydsVecs.length-1].remove();
         
         // Create metrics by scoring on training set otherwise scores are based on last Lloyd iteration
         // These lines cause the training metrics are recalculated on strange model values.
@@ -524,6 +554,11 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       }
       colHeaders.add("Number of Reassigned Observations"); colTypes.add("long"); colFormat.add("%d");
       colHeaders.add("Within Cluster Sum Of Squares"); colTypes.add("double"); colFormat.add("%.5f");
+      if (_parms._prune_distances) {
+        colHeaders.add("Distance Computations");
+        colTypes.add("long");
+        colFormat.add("%d");
+      }
 
       final int rows = output._history_withinss.length;
       TwoDimTable table = new TwoDimTable(
@@ -546,6 +581,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           table.set(row, col++, output._k[i]);
         table.set(row, col++, output._reassigned_count[i]);
         table.set(row, col++, output._history_withinss[i]);
+        if (_parms._prune_distances)
+          table.set(row, col++, output._distance_computations[i]);
         row++;
       }
       return table;
@@ -595,31 +632,42 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   }
 
   // -------------------------------------------------------------------------
-  // Initial sum-of-square-distance to nearest cluster center
+  // Initial sum-of-square-distance to nearest cluster center.  The last
+  // column holds the square distance of each row to the centers before
+  // _from, only the newer centers are measured.
   private static class SumSqr extends MRTask<SumSqr> {
     // IN
     double[][] _centers;
+    final int _from;         // Centers already accounted for in the distance column
     double[] _means, _mults; // Standardization
     int[] _modes;   // Imputation of missing categoricals
     final String[][] _isCats;
+    final boolean _hasWeight;
 
     // OUT
     double _sqr;
 
-    SumSqr( double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats ) {
+    SumSqr( double[][] centers, int from, double[] means, double[] mults, int[] modes, String[][] isCats, boolean hasWeight ) {
       _centers = centers;
+      _from = from;
       _means = means;
       _mults = mults;
       _modes = modes;
       _isCats = isCats;
+      _hasWeight = hasWeight;
     }
 
     @Override public void map(Chunk[] cs) {
-      double[] values = new double[cs.length];
-      ClusterDist cd = new ClusterDist();
+      int N = cs.length - (_hasWeight?1:0) - 1 /*distance*/;
+      double[] values = new double[N];
+      Chunk dist = cs[cs.length-1];
       for( int row = 0; row < cs[0]._len; row++ ) {
         data(values, cs, row, _means, _mults, _modes);
-        _sqr += minSqr(_centers, values, _isCats, cd);
+        double sqr = dist.atd(row);
+        for( int cluster = _from; cluster < _centers.length; cluster++ )
+          sqr = Math.min(sqr, hex.genmodel.GenModel.KMeans_distance(_centers[cluster], values, _isCats));
+        dist.set(row, sqr);
+        _sqr += sqr;
       }
       _means = _mults = null;
       _modes = null;
@@ -631,13 +679,12 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
 
   // -------------------------------------------------------------------------
   // Sample rows with increasing probability the farther they are from any
-  // cluster center.
+  // cluster center.  The last column holds the square distance to the
+  // closest center, as left by SumSqr.
   private static class Sampler extends MRTask<Sampler> {
     // IN
-    double[][] _centers;
     double[] _means, _mults; // Standardization
     int[] _modes;     // Imputation of missing categoricals
-    final String[][] _isCats;
     final double _sqr;           // Min-square-error
     final double _probability;   // Odds to select this point
     final long _seed;
@@ -646,12 +693,10 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     // OUT
     double[][] _sampled;   // New cluster centers
 
-    Sampler( double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, double sqr, double prob, long seed, boolean hasWeight ) {
-      _centers = centers;
+    Sampler( double sqr, double prob, long seed, boolean hasWeight, double[] means, double[] mults, int[] modes ) {
       _means = means;
       _mults = mults;
       _modes = modes;
-      _isCats = isCats;
       _sqr = sqr;
       _probability = prob;
       _seed = seed;
@@ -659,23 +704,23 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     }
 
     @Override public void map(Chunk[] cs) {
-      int N = cs.length - (_hasWeight?1:0);
+      int N = cs.length - (_hasWeight?1:0) - 1 /*distance*/;
       double[] values = new double[N];
       ArrayList<double[]> list = new ArrayList<>();
       Random rand = RandomUtils.getRNG(0);
-      ClusterDist cd = new ClusterDist();
+      Chunk dist = cs[cs.length-1];
 
       for( int row = 0; row < cs[0]._len; row++ ) {
         rand.setSeed(_seed + cs[0].start()+row);
-        data(values, cs, row, _means, _mults, _modes);
-        double sqr = minSqr(_centers, values, _isCats, cd);
-        if( _probability * sqr > rand.nextDouble() * _sqr )
+        double sqr = dist.atd(row);
+        if( _probability * sqr > rand.nextDouble() * _sqr ) {
+          data(values, cs, row, _means, _mults, _modes);
           list.add(values.clone());
+        }
       }
 
       _sampled = new double[list.size()][];
       list.toArray(_sampled);
-      _centers = null;
       _means = _mults = null;
       _modes = null;
     }
@@ -703,6 +748,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     long[] _size;               // Number of rows in each cluster
     long _worst_row;            // Row with max err
     double _worst_err;          // Max-err-row's max-err
+    long _distances;            // Number of row-to-center distances computed
 
     IterationTask(double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight ) {
       _centers = centers;
@@ -722,14 +768,52 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   //   Compute distance between clusters
   //   Compute total sqr distance
 
+  //
+  // With bounds, the last column keeps a lower bound on the distance (not
+  // squared) of each row to its second closest center (Hamerly).  Centers
+  // which moved by at most _shift loosen the bound by that much; while the
+  // distance to the assigned center stays below the bound, and below half
+  // the gap to the nearest other center, no other center can be closer and
+  // the row is not compared against them.
+
   private static class LloydsIterationTask extends IterationTask {
-    
+    // IN - bounds only
+    boolean _bounds;
+    double[] _halfGap;          // Half the distance of each center to its nearest other center
+    double _maxShift, _maxShift2; // Largest and second largest center movement since the bounds were set
+    int _maxShiftIdx;           // Center which moved the most
+
     LloydsIterationTask(double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight ) {
       super(centers, means, mults, modes, isCats, k, hasWeight);
     }
 
+    /** Prune with the bounds column, last set by a task over the given centers (null if never). */
+    LloydsIterationTask withBounds(double[][] boundCenters) {
+      _bounds = true;
+      _halfGap = new double[_k];
+      Arrays.fill(_halfGap, Double.MAX_VALUE);
+      for( int a = 0; a < _k; a++ )
+        for( int b = a+1; b < _k; b++ ) {
+          double half = 0.5 * Math.sqrt(hex.genmodel.GenModel.KMeans_distance(_centers[a], _centers[b], _isCats));
+          _halfGap[a] = Math.min(_halfGap[a], half);
+          _halfGap[b] = Math.min(_halfGap[b], half);
+        }
+      _maxShiftIdx = -1;
+      if( boundCenters != null )
+        for( int clu = 0; clu < _k; clu++ ) {
+          double shift = Math.sqrt(hex.genmodel.GenModel.KMeans_distance(boundCenters[clu], _centers[clu], _isCats));
+          if( shift > _maxShift ) {
+            _maxShift2 = _maxShift;
+            _maxShift = shift;
+            _maxShiftIdx = clu;
+          } else if( shift > _maxShift2 )
+            _maxShift2 = shift;
+        }
+      return this;
+    }
+
     @Override public void map(Chunk[] cs) {
-      int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/;
+      int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/ - (_bounds ? 1:0);
       assert _centers[0].length==N;
       _lo = new double[_k][N];
       for( int clu=0; clu< _k; clu++ )
@@ -747,7 +831,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           _cats[clu][col] = _isCats[col]==null ? null : new long[cs[col].vec().cardinality()];
       _worst_err = 0;
 
-      Chunk assignment = cs[cs.length-1];
+      Chunk assignment = cs[N + (_hasWeight ? 1:0)];
+      Chunk lower = _bounds ? cs[cs.length-1] : null;
       // Find closest cluster center for each row
       double[] values = new double[N]; // Temp data to hold row as doubles
       ClusterDist cd = new ClusterDist();
@@ -756,21 +841,35 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         if (weight == 0) continue; //skip holdout rows
         assert(weight == 1); //K-Means only works for weight 1 (or weight 0 for holdout)
         data(values, cs, row, _means, _mults, _modes); // Load row as doubles
-        closest(_centers, values, _isCats, cd); // Find closest cluster center
-        if (cd._cluster != assignment.at8(row)) {
+        int assigned = (int)assignment.at8(row);
+        boolean pruned = false;
+        if (_bounds && assigned != -1) {
+          double dist = hex.genmodel.GenModel.KMeans_distance(_centers[assigned], values, _isCats);
+          _distances++;
+          double l = lower.atd(row) - (assigned == _maxShiftIdx ? _maxShift2 : _maxShift);
+          double bound = Math.max(l, _halfGap[assigned]);
+          if (bound > 0 && dist < bound * bound) {
+            cd._cluster = assigned;
+            cd._dist = dist;
+            lower.set(row, l);
+            pruned = true;
+          }
+        }
+        if (!pruned) {
+          double second = closest2(_centers, values, _isCats, cd); // Find closest cluster center
+          _distances += _k;
+          if (_bounds) lower.set(row, Math.sqrt(second));
+        }
+        if (cd._cluster != assigned) {
           _reassigned_count+=weight;
           assignment.set(row, cd._cluster);
         }
-        for( int clu=0; clu< _k; clu++ ) {
-          for( int col=0; col<N; col++ ) {
-            if (cd._cluster == clu) {
-              _lo[clu][col] = Math.min(values[col], _lo[clu][col]);
-              _hi[clu][col] = Math.max(values[col], _hi[clu][col]);
-            }
-          }
-        }
         int clu = cd._cluster;
         assert clu != -1;       // No broken rows
+        for( int col=0; col<N; col++ ) {
+          _lo[clu][col] = Math.min(values[col], _lo[clu][col]);
+          _hi[clu][col] = Math.max(values[col], _hi[clu][col]);
+        }
         _cSqr[clu] += cd._dist;
 
         // Add values and increment counter for chosen cluster
@@ -789,10 +888,12 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       _centers = null;
       _means = _mults = null;
       _modes = null;
+      _halfGap = null;
     }
 
     @Override public void reduce(IterationTask mr) {
       _reassigned_count += mr._reassigned_count;
+      _distances += mr._distances;
       for( int clu = 0; clu < _k; clu++ ) {
         long ra =    _size[clu];
         long rb = mr._size[clu];
@@ -908,15 +1009,11 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           _reassigned_count+=weight;
           oldAssignments.set(row, cluster);
         }
-        for( int clu=0; clu< _k; clu++ ) {
-          for( int col=0; col<N; col++ ) {
-            if (cluster == clu) {
-              _lo[clu][col] = Math.min(values[col], _lo[clu][col]);
-              _hi[clu][col] = Math.max(values[col], _hi[clu][col]);
-            }
-          }
-        }
         assert cluster != -1 : "cluster "+cluster+" is not set for row "+row;       // No broken rows
+        for( int col=0; col<N; col++ ) {
+          _lo[cluster][col] = Math.min(values[col], _lo[cluster][col]);
+          _hi[cluster][col] = Math.max(values[col], _hi[cluster][col]);
+        }
         _cSqr[cluster] += distance;
 
         // Add values and increment counter for chosen cluster
@@ -964,14 +1061,6 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   // A pair result: nearest cluster center and the square distance
   private static final class ClusterDist { int _cluster; double _dist;  }
 
-  private static double minSqr(double[][] centers, double[] point, String[][] isCats, ClusterDist cd) {
-    return closest(centers, point, isCats, cd, centers.length)._dist;
-  }
-
-  private static double minSqr(double[][] centers, double[] point, String[][] isCats, ClusterDist cd, int count) {
-    return closest(centers,point,isCats,cd,count)._dist;
-  }
-
   private static ClusterDist closest(double[][] centers, double[] point, String[][] isCats, ClusterDist cd) {
     return closest(centers, point, isCats, cd, centers.length);
   }
@@ -992,6 +1081,24 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     return cd;                  // Return for flow-coding
   }
 
+  /** Like closest, also returning the square-distance to the second nearest center. */
+  private static double closest2(double[][] centers, double[] point, String[][] isCats, ClusterDist cd) {
+    int min = -1;
+    double minSqr = Double.MAX_VALUE, secondSqr = Double.MAX_VALUE;
+    for( int cluster = 0; cluster < centers.length; cluster++ ) {
+      double sqr = hex.genmodel.GenModel.KMeans_distance(centers[cluster],point,isCats);
+      if( sqr < minSqr ) {
+        secondSqr = minSqr;
+        min = cluster;
+        minSqr = sqr;
+      } else if( sqr < secondSqr )
+        secondSqr = sqr;
+    }
+    cd._cluster = min;
+    cd._dist = minSqr;
+    return secondSqr;
+  }
+
   /** Return square-distance of point to all clusters. */
   private static double[] getDistances(double[][] centers, double[] point, String[][] isCats) {
     double[] distances = new double[centers.length];
@@ -1001,23 +1108,27 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     return distances;
   }
 
-  // KMeans++ re-clustering
+  // KMeans++ re-clustering.  The square distance of every point to the
+  // chosen centers is kept up to date with each new center, so picking
+  // N centers costs O(N*points) distances rather than O(N^2*points).
   private static double[][] recluster(double[][] points, Random rand, int N, Initialization init, String[][] isCats) {
     double[][] res = new double[N][];
     res[0] = points[0];
     int count = 1;
-    ClusterDist cd = new ClusterDist();
+    double[] minSqr = new double[points.length];
+    Arrays.fill(minSqr, Double.MAX_VALUE);
     switch( init ) {
       case Random:
         break;
       case PlusPlus: { // k-means++
         while( count < res.length ) {
           double sum = 0;
-          for (double[] point1 : points) sum += minSqr(res, point1, isCats, cd, count);
+          for( int i = 0; i < points.length; i++ )
+            sum += minSqr[i] = Math.min(minSqr[i], hex.genmodel.GenModel.KMeans_distance(res[count-1], points[i], isCats));
 
-          for (double[] point : points) {
-            if (minSqr(res, point, isCats, cd, count) >= rand.nextDouble() * sum) {
-              res[count++] = point;
+          for( int i = 0; i < points.length; i++ ) {
+            if (minSqr[i] >= rand.nextDouble() * sum) {
+              res[count++] = points[i];
               break;
             }
           }
@@ -1029,7 +1140,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           double max = 0;
           int index = 0;
           for( int i = 0; i < points.length; i++ ) {
-            double sqr = minSqr(res, points[i], isCats, cd, count);
+            double sqr = minSqr[i] = Math.min(minSqr[i], hex.genmodel.GenModel.KMeans_distance(res[count-1], points[i], isCats));
             if( sqr > max ) {
               max = sqr;
               index = i;
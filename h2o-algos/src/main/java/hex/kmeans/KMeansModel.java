@@ -40,6 +40,7 @@ public class KMeansModel extends ClusteringModel<KMeansModel,KMeansModel.KMeansP
                                               // Ex: k = 4, cluster = 3 -> [0, 0, 1, 0]
     public boolean _estimate_k = false;       // If enabled, iteratively find up to _k clusters
     public int[] _cluster_size_constraints = null;
+    public boolean _prune_distances = false;  // Skip distance computations ruled out by per-row bounds (Hamerly)
   }
 
   public static class KMeansOutput extends ClusteringModel.ClusteringOutput {
@@ -66,6 +67,10 @@ public class KMeansModel extends ClusteringModel<KMeansModel,KMeansModel.KMeansP
     public long[/*iterations*/] _training_time_ms = new long[]{System.currentTimeMillis()};
     public double[/*iterations*/] _reassigned_count = new double[]{Double.NaN};
     public int[/*iterations*/] _k = new int[]{0};
+    public long[/*iterations*/] _distance_computations = new long[]{0};
+
+    // Time spent choosing the initial centers
+    public long _init_time_ms;
 
     public KMeansOutput( KMeans b ) { super(b); }
   }
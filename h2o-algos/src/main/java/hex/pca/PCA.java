@@ -66,10 +66,12 @@ public class PCA extends ModelBuilder<PCAModel,PCAModel.PCAParameters,PCAModel.P
     double gramSize =  _train.lastVec().nChunks()==1 ? 1 :
             Math.log((double) _train.lastVec().nChunks()) / Math.log(2.);
 
-    long mem_usage = (useGramSVD || usePower || useRandomized || useGLRM) ? (long) (hb._cpus_allowed * p * p * 8/*doubles*/ *
+    // randomized SVD does not build a Gram, only p by (k + oversample) matrices
+    double q = useRandomized ? Math.min(p, _parms._k + _parms._oversample) : p;
+    long mem_usage = (useGramSVD || usePower || useRandomized || useGLRM) ? (long) (hb._cpus_allowed * p * q * 8/*doubles*/ *
             gramSize) : 1; //one gram per core
-    long mem_usage_w = (useGramSVD || usePower || useRandomized || useGLRM) ? (long) (hb._cpus_allowed * r * r *
-            8/*doubles*/ * gramSize) : 1;
+    long mem_usage_w = (useGramSVD || usePower || useGLRM) ? (long) (hb._cpus_allowed * r * r *
+            8/*doubles*/ * gramSize) : mem_usage;
 
     long max_mem = hb.get_free_mem();
 
@@ -107,6 +109,9 @@ public class PCA extends ModelBuilder<PCAModel,PCAModel.PCAParameters,PCAModel.P
     if (_parms._max_iterations < 1 || _parms._max_iterations > 1e6) {
       error("_max_iterations", "max_iterations must be between 1 and 1e6 inclusive");
     }
+    if (_parms._oversample < 0) {
+      error("_oversample", "oversample must be non-negative");
+    }
 
     if (_train == null) {
       return;
@@ -367,6 +372,7 @@ public class PCA extends ModelBuilder<PCAModel,PCAModel.PCAParameters,PCAModel.P
           parms._transform = _parms._transform;
           parms._nv = _parms._k;
           parms._max_iterations = _parms._max_iterations;
+          parms._oversample = _parms._oversample;
           parms._seed = _parms._seed;
           parms._impute_missing = _parms._impute_missing;
           parms._max_runtime_secs = _parms._max_runtime_secs;
@@ -393,13 +399,7 @@ public class PCA extends ModelBuilder<PCAModel,PCAModel.PCAParameters,PCAModel.P
           // Recover PCA results from SVD model
           _job.update(1, "Computing stats from SVD");
 
-          if (_parms._pca_method == PCAParameters.Method.Randomized) {  // okay to use it here.
-            GramTask gtsk = new GramTask(_job._key, dinfo).doAll(dinfo._adaptedFrame);
-            gram = gtsk._gram;   // TODO: This ends up with all NaNs if training data has too many missing values*/
-            computeStatsFillModel(model, svd, gram);
-          } else {
-            computeStatsFillModel(model, svd, null);
-          }
+          computeStatsFillModel(model, svd, null);  // randomized SVD computes the total variance without a Gram
           model._output._scoring_history = svd._output._scoring_history;
         } else if(_parms._pca_method == PCAParameters.Method.GLRM) {
           GLRMModel.GLRMParameters parms = new GLRMModel.GLRMParameters();
@@ -33,6 +33,7 @@ public class PCAModel extends Model<PCAModel,PCAModel.PCAParameters,PCAModel.PCA
     public PCAImplementation _pca_implementation = PCAImplementation.getFastestImplementation();   // PCA implementation
     public int _k = 1;                     // Number of principal components
     public int _max_iterations = 1000;     // Max iterations
+    public int _oversample = 0;            // Extra random directions for the Randomized method
     public boolean _use_all_factor_levels = false;   // When expanding categoricals, should first level be kept or dropped?
     public boolean _compute_metrics = true;   // Should a second pass be made through data to compute metrics?
     public boolean _impute_missing = false;   // Should missing numeric values be imputed with the column mean?
@@ -1,6 +1,8 @@
 package hex.schemas;
 
 import hex.tree.gbm.GBMModel;
+import water.api.API;
+import water.api.schemas3.KeyV3;
 
 public class GBMModelV3 extends SharedTreeModelV3<
         GBMModel,
@@ -10,7 +12,10 @@ public class GBMModelV3 extends SharedTreeModelV3<
         GBMModel.GBMOutput,
         GBMModelV3.GBMModelOutputV3> {
 
-  public static final class GBMModelOutputV3 extends SharedTreeModelV3.SharedTreeModelOutputV3<GBMModel.GBMOutput, GBMModelOutputV3> {}
+  public static final class GBMModelOutputV3 extends SharedTreeModelV3.SharedTreeModelOutputV3<GBMModel.GBMOutput, GBMModelOutputV3> {
+    @API(help="Raw predictions of the trees for the training rows (keep_raw_predictions)", direction = API.Direction.OUTPUT)
+    public KeyV3.FrameKeyV3 raw_predictions;
+  }
 
   public GBMV3.GBMParametersV3 createParametersSchema() { return new GBMV3.GBMParametersV3(); }
   public GBMModelOutputV3 createOutputSchema() { return new GBMModelOutputV3(); }
@@ -67,7 +67,13 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "custom_distribution_func",      
       "export_checkpoints_dir",
       "monotone_constraints",
-      "check_constant_response"
+      "check_constant_response",
+      "exclusive_feature_bundling",
+      "goss",
+      "goss_top_rate",
+      "goss_other_rate",
+      "keep_raw_predictions",
+      "resume_on_appended_data"
 //      "use_new_histo_tsk",
 //      "col_block_sz",
 //      "min_threads",
@@ -97,6 +103,21 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
     @API(help="Bandwidth (sigma) of Gaussian multiplicative noise ~N(1,sigma) for tree node predictions", level = API.Level.expert, gridable = true)
     public double pred_noise_bandwidth;
 
+    @API(help="Use gradient-based one-side sampling (GOSS) of rows instead of sample_rate: rows with the largest gradients are always sampled, a random sample of the rest is up-weighted", level = API.Level.expert, gridable = true)
+    public boolean goss;
+
+    @API(help="GOSS: fraction of rows with the largest absolute gradients kept for each tree (from 0.0 to 1.0)", level = API.Level.expert, gridable = true)
+    public double goss_top_rate;
+
+    @API(help="GOSS: fraction of rows sampled at random from the remaining rows for each tree (from 0.0 to 1.0)", level = API.Level.expert, gridable = true)
+    public double goss_other_rate;
+
+    @API(help="Keep the raw predictions of the trees for the training rows with the model, so that a model continuing from this one (checkpoint) on the same training rows with new rows appended does not need to rescore the trees", level = API.Level.expert)
+    public boolean keep_raw_predictions;
+
+    @API(help="The training frame is the training frame of the checkpoint model with new rows appended: take the raw predictions kept by the checkpoint model (keep_raw_predictions) over and only score the new rows", level = API.Level.expert)
+    public boolean resume_on_appended_data;
+
 //    // TODO debug only, remove!
 //    @API(help="Internal flag, use new version of histo tsk if set", level = API.Level.expert, gridable = false)
 //    public boolean use_new_histo_tsk;
@@ -32,7 +32,8 @@ public class KMeansV3 extends ClusteringModelBuilderSchema<KMeans,KMeansV3,KMean
         "max_runtime_secs",
         "categorical_encoding",
         "export_checkpoints_dir", 
-        "cluster_size_constraints"
+        "cluster_size_constraints",
+        "prune_distances"
     };
 
     // Input fields
@@ -58,5 +59,10 @@ public class KMeansV3 extends ClusteringModelBuilderSchema<KMeans,KMeansV3,KMean
 
     @API(help = "An array specifying the minimum number of points that should be in each cluster. The length of the constraints array has to be the same as the number of clusters.", level = API.Level.expert)
     public int[] cluster_size_constraints = null;
+
+    @API(help = "Keep a lower bound on the distance of every row to its second closest center and skip the distances " +
+            "this bound rules out (Hamerly's algorithm). Same result as the full Lloyd iteration, at the cost of an " +
+            "extra column of bounds; ignored with estimate_k and cluster_size_constraints.", level = API.Level.expert)
+    public boolean prune_distances = false;
   }
 }
@@ -22,6 +22,7 @@ public class PCAV3 extends ModelBuilderSchema<PCA,PCAV3,PCAV3.PCAParametersV3> {
         "pca_impl",
         "k",
         "max_iterations",
+        "oversample",
         "use_all_factor_levels",
         "compute_metrics",
         "impute_missing",
@@ -60,6 +61,10 @@ public class PCAV3 extends ModelBuilderSchema<PCA,PCAV3,PCAV3.PCAParametersV3> {
     @API(help = "Maximum training iterations", direction = API.Direction.INOUT, gridable = true)
     public int max_iterations;
 
+    @API(help = "Number of extra random directions used by the Randomized method, only the leading k are returned",
+            level = API.Level.expert, gridable = true)
+    public int oversample;
+
     @API(help = "RNG seed for initialization", direction = API.Direction.INOUT)
     public long seed;
 
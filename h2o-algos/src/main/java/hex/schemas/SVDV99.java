@@ -20,6 +20,7 @@ public class SVDV99 extends ModelBuilderSchema<SVD,SVDV99,SVDV99.SVDParametersV9
                 "svd_method",
         "nv",
         "max_iterations",
+        "oversample",
         "seed",
         "keep_u",
         "u_name",
@@ -40,6 +41,10 @@ public class SVDV99 extends ModelBuilderSchema<SVD,SVDV99,SVDV99.SVDParametersV9
     @API(help = "Maximum iterations")
     public int max_iterations;
 
+    @API(help = "Number of extra random directions used by the Randomized method, only the leading nv are returned",
+            level = API.Level.expert)
+    public int oversample;
+
     @API(help = "RNG seed for k-means++ initialization")
     public long seed;
 
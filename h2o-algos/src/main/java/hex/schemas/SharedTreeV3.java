@@ -99,5 +99,8 @@ public class SharedTreeV3<B extends SharedTree, S extends SharedTreeV3<B,S,P>, P
     @API(help="Check if response column is constant. If enabled, then an exception is thrown if the response column is a constant value." +
             "If disabled, then model will train regardless of the response column being a constant value or not.", level = API.Level.expert, direction = API.Direction.INOUT)
     public boolean check_constant_response;
+
+    @API(help="Pack mutually exclusive sparse integer columns (e.g. from OneHotExplicit encoding) into bundles that share one histogram during training. Does not change the model format.", level = API.Level.expert, gridable = true)
+    public boolean exclusive_feature_bundling;
   }
 }
@@ -14,6 +14,7 @@ public class Word2VecV3 extends ModelBuilderSchema<Word2Vec,Word2VecV3,Word2VecV
             "min_word_freq",
             "word_model",
             "norm_model",
+            "negative",
             "vec_size",
             "window_size",
             "sent_sample_rate",
@@ -34,9 +35,13 @@ public class Word2VecV3 extends ModelBuilderSchema<Word2Vec,Word2VecV3,Word2VecV
             "\t\twill be randomly down-sampled; useful range is (0, 1e-5)")
     public float sent_sample_rate;
 
-    @API(help="Use Hierarchical Softmax", values = {"HSM"})
+    @API(help="Use Hierarchical Softmax or Negative Sampling", values = {"HSM", "NegSampling"})
     public Word2Vec.NormModel norm_model;
 
+    @API(help="Number of negative (noise) words sampled for each trained word, used with Negative Sampling only",
+            level = API.Level.secondary)
+    public int negative;
+
     @API(help="Number of training iterations to run")
     public int epochs;
 
@@ -92,10 +92,12 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
     boolean useRandomized = _parms._svd_method == SVDParameters.Method.Randomized;
     double gramSize =  _train.lastVec().nChunks()==1 ? 1 :
             Math.log((double) _train.lastVec().nChunks()) / Math.log(2.); // gets to zero if nChunks=1
-    long mem_usage = (useGramSVD || usePower || useRandomized) ? (long) (hb._cpus_allowed * p * p * 8/*doubles*/
-            * gramSize) : 1; //one gram per core
-    long mem_usage_w = (useGramSVD || usePower || useRandomized) ? (long) (hb._cpus_allowed * r * r * 8/*doubles*/
+    // randomized subspace iteration never forms a Gram, it keeps p by (nv + oversample) matrices (A'Q) instead
+    double q = useRandomized ? Math.min(p, _parms._nv + _parms._oversample) : p;
+    long mem_usage = (useGramSVD || usePower || useRandomized) ? (long) (hb._cpus_allowed * p * q * 8/*doubles*/
             * gramSize) : 1; //one gram per core
+    long mem_usage_w = (useGramSVD || usePower) ? (long) (hb._cpus_allowed * r * r * 8/*doubles*/
+            * gramSize) : mem_usage; //one gram per core
     long max_mem = hb.get_free_mem();
 
     if ((mem_usage > max_mem) && (mem_usage_w > max_mem)) {
@@ -127,6 +129,8 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
     super.init(expensive);
     if (_parms._max_iterations < 1)
       error("_max_iterations", "max_iterations must be at least 1");
+    if (_parms._oversample < 0)
+      error("_oversample", "oversample must be non-negative");
 
     if(_train == null) return;
       if (_callFromGLRM)  // when used to initialize GLRM, need to treat binary numeric columns with binary loss as numeric columns
@@ -308,7 +312,8 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
 
     // Algorithm 4.4: Randomized subspace iteration from Halk et al (http://arxiv.org/pdf/0909.4061.pdf)
     // This function keeps track of change in Q each iteration ||Q_j - Q_{j-1}||_2 to check convergence
-    private Frame randSubIter(DataInfo dinfo, SVDModel model) {
+    // The subspace has nq = nv + oversample columns, only the leading nv singular vectors are returned
+    private Frame randSubIter(DataInfo dinfo, SVDModel model, int nq) {
       DataInfo yinfo = null;
       Frame ybig = null, qfrm = null, ysmallF = null, ysmallqfrm = null;
       final int ncolA = dinfo._adaptedFrame.numCols();
@@ -319,12 +324,12 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
       try {
         // 1) Initialize Y = AG where G ~ N(0,1) and compute Y = QR factorization
         _job.update(1, "Initializing random subspace of training data Y");
-        double[][] gt = ArrayUtils.gaussianArray(_parms._nv, _ncolExp, _parms._seed);
+        double[][] gt = ArrayUtils.gaussianArray(nq, _ncolExp, _parms._seed);
         RandSubInit rtsk = new RandSubInit(_job._key, dinfo, gt);
-        rtsk.doAll(_parms._nv, Vec.T_NUM, dinfo._adaptedFrame);
+        rtsk.doAll(nq, Vec.T_NUM, dinfo._adaptedFrame);
         ybig = rtsk.outputFrame(Key.<Frame>make(), null, null);
         Frame yqfrm = new Frame(ybig);
-        for (int i = 0; i < _parms._nv; i++)
+        for (int i = 0; i < nq; i++)
           yqfrm.add("qcol_" + i, yqfrm.anyVec().makeZero());
 
         // Calculate Cholesky of Gram to get R' = L matrix
@@ -335,44 +340,48 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
 
         if (yqfrm.hasInfs()) {  // dataset is rank deficient, reduce _nv to fit the true rank better
           _matrixRankReached=true;  // count when bad infinity or NaNs appear to denote problem;
-          String warnMessage = "_train SVD: Dataset is rank deficient.  _parms._nv was "+_parms._nv;
           for (int colIndex = ybig.numCols(); colIndex < yqfrm.numCols(); colIndex++) {
             if (yqfrm.vec(colIndex).pinfs() > 0) {
-              _parms._nv = colIndex-ybig.numCols();
+              nq = colIndex-ybig.numCols();
               break;
             }
           }
-          _job.warn(warnMessage+" and is now set to "+_parms._nv);
+          if (nq < _parms._nv) {
+            _job.warn("_train SVD: Dataset is rank deficient.  _parms._nv was "+_parms._nv+" and is now set to "+nq);
+            _parms._nv = nq;
+          }
           // redo with correct _nv number
-          gt = ArrayUtils.gaussianArray(_parms._nv, _ncolExp, _parms._seed);
+          gt = ArrayUtils.gaussianArray(nq, _ncolExp, _parms._seed);
           rtsk = new RandSubInit(_job._key, dinfo, gt);
-          rtsk.doAll(_parms._nv, Vec.T_NUM, dinfo._adaptedFrame);
+          rtsk.doAll(nq, Vec.T_NUM, dinfo._adaptedFrame);
           ybig.remove();
           yinfo.remove();
           ybig = rtsk.outputFrame(Key.<Frame>make(), null, null);
           yinfo = new DataInfo(ybig, null, true, DataInfo.TransformType.NONE, true, false, false);
           DKV.put(yinfo._key, yinfo);
         }
+        // the initial pass also gives the total variance, no need for the p by p Gram
+        model._output._total_variance = rtsk._sumSq / (rtsk._nobs - 1);
         // Make input frame [A,Q,Y] where A = read-only training data, Y = A \tilde{Q}, Q from Y = QR factorization
         // Note: If A is n by p (p = num cols with categoricals expanded), then \tilde{Q} is p by k and Q is n by k
         Frame ayqfrm = new Frame(dinfo._adaptedFrame);
         ayqfrm.add(ybig);
-        for (int i = 0; i < _parms._nv; i++)
+        for (int i = 0; i < nq; i++)
           ayqfrm.add("qcol_" + i, ayqfrm.anyVec().makeZero());
-        Frame ayfrm = ayqfrm.subframe(0, ncolA + _parms._nv);   // [A,Y]
+        Frame ayfrm = ayqfrm.subframe(0, ncolA + nq);   // [A,Y]
         Frame aqfrm = ayqfrm.subframe(0, ncolA);
-        aqfrm.add(ayqfrm.subframe(ncolA + _parms._nv, ayqfrm.numCols()));   // [A,Q]
+        aqfrm.add(ayqfrm.subframe(ncolA + nq, ayqfrm.numCols()));   // [A,Q]
         yqfrm = ayqfrm.subframe(ncolA, ayqfrm.numCols());   // [Y,Q]
-        xx = MemoryManager.malloc8d(_parms._nv, _parms._nv);
+        xx = MemoryManager.malloc8d(nq, nq);
         LinearAlgebraUtils.computeQ(_job._key, yinfo, yqfrm, xx);
 
         model._output._iterations = 0;
-        long qobs = dinfo._adaptedFrame.numRows() * _parms._nv;    // Number of observations in Q
+        long qobs = dinfo._adaptedFrame.numRows() * nq;    // Number of observations in Q
         double qerr = 2 * TOLERANCE * qobs;   // Stop when average SSE between Q_j and Q_{j-2} below tolerance
         double average_SEE = qerr / qobs;
 
-        int wEndCol = 2*_parms._nv-1;
-        int wEndColR = _parms._nv-1;
+        int wEndCol = 2*nq-1;
+        int wEndColR = nq-1;
 
         while ((model._output._iterations < 10 || average_SEE > TOLERANCE) && model._output._iterations < _parms._max_iterations) {   // Run at least 10 iterations before tolerance cutoff
           if(stop_requested()) {
@@ -383,7 +392,7 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
           _job.update(1, "Iteration " + String.valueOf(model._output._iterations+1) + " of randomized subspace iteration");
 
           // 2) Form \tilde{Y}_j = A'Q_{j-1} and compute \tilde{Y}_j = \tilde{Q}_j \tilde{R}_j factorization
-          SMulTask stsk = new SMulTask(dinfo, _parms._nv, _ncolExp);
+          SMulTask stsk = new SMulTask(dinfo, nq, _ncolExp);
           stsk.doAll(aqfrm);    // Pass in [A,Q]
 
           if (_wideDataset) {
@@ -392,15 +401,15 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
               ysmallInfo = new DataInfo(ysmallF, null, true, DataInfo.TransformType.NONE,
                       true, false, false);
               DKV.put(ysmallInfo._key, ysmallInfo);
-              ysmall_q = MemoryManager.malloc8d(_ncolExp, _parms._nv);
+              ysmall_q = MemoryManager.malloc8d(_ncolExp, nq);
               ysmallqfrm = new Frame(ysmallF);
-              for (int i = 0; i < _parms._nv; i++)      // pray that _nv is small
+              for (int i = 0; i < nq; i++)      // pray that _nv is small
                 ysmallqfrm.add("qcol_" + i, ysmallqfrm.anyVec().makeZero());
             } else {  // replace content of ysmallqfrm with new contents in _atq,
               new CopyArrayToFrame(0, wEndColR, _ncolExp, stsk._atq).doAll(ysmallqfrm);
             }
             LinearAlgebraUtils.computeQ(_job._key, ysmallInfo, ysmallqfrm, xx);
-            ysmall_q = new FrameToArray(_parms._nv, wEndCol, _ncolExp, ysmall_q).doAll(ysmallqfrm).getArray();
+            ysmall_q = new FrameToArray(nq, wEndCol, _ncolExp, ysmall_q).doAll(ysmallqfrm).getArray();
 
           } else { // let ysmall as 2-D double array
             Matrix ysmall = new Matrix(stsk._atq);  // small only for n_exp << m.  Not for wide dataset.
@@ -425,7 +434,7 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
         model._output._nobs = ybig.numRows(); // update nobs parameter
         model.update(_job);
         // 4) Extract and save final Q_j from [A,Q] frame
-        qfrm = ayqfrm.extractFrame(ncolA + _parms._nv, ayqfrm.numCols());
+        qfrm = ayqfrm.extractFrame(ncolA + nq, ayqfrm.numCols());
         qfrm = new Frame(Key.<Frame>make(), qfrm.names(), qfrm.vecs());
         DKV.put(qfrm);
       } finally {
@@ -447,18 +456,19 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
       DataInfo qinfo = null;
       Frame u = null;
       final int ncolA = dinfo._adaptedFrame.numCols();
+      final int ncolQ = qfrm.numCols();   // nv + oversample
 
 
       try {
-        Vec[] vecs = new Vec[ncolA + _parms._nv];
+        Vec[] vecs = new Vec[ncolA + ncolQ];
         for (int i = 0; i < ncolA; i++) vecs[i] = dinfo._adaptedFrame.vec(i);
-        for (int i = 0; i < _parms._nv; i++) vecs[ncolA + i] = qfrm.vec(i);
+        for (int i = 0; i < ncolQ; i++) vecs[ncolA + i] = qfrm.vec(i);
         Frame aqfrm = new Frame(vecs);
 
         // 1) Form the matrix B' = A'Q = (Q'A)'
         _job.update(1, "Forming small matrix B = Q'A for direct SVD");
-        SMulTask stsk = new SMulTask(dinfo, _parms._nv, _ncolExp);
-        stsk.doAll(aqfrm);  // _atq size is _ncolExp by _nv
+        SMulTask stsk = new SMulTask(dinfo, ncolQ, _ncolExp);
+        stsk.doAll(aqfrm);  // _atq size is _ncolExp by ncolQ
 
         if (_wideDataset) { // for wide dataset, calculate gram of B*T(B), get the SVD and proceed from there.
 /*          double[][] xgram = ArrayUtils.formGram(stsk._atq, false);
@@ -775,7 +785,7 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
           model._output._scoring_history = createScoringHistoryTableDR(scoreTable,
                   "Scoring History from Power SVD", _job.start_time());
         } else if(_parms._svd_method == SVDParameters.Method.Randomized) {
-          qfrm = randSubIter(dinfo, model);
+          qfrm = randSubIter(dinfo, model, Math.min(_parms._nv + _parms._oversample, _ncolExp));
           u = directSVD(dinfo, qfrm, model, u_name);
           model._output._training_time_ms.add(System.currentTimeMillis());
           if (stop_requested() && model._output._history_average_SEE.size()==0) {
@@ -992,6 +1002,8 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
   // Compute Y = AG where A is n by p and G is a p by k standard Gaussian matrix
   private static class RandSubInit extends FrameTask<RandSubInit> {
     final double[][] _gaus;   // G' is k by p for convenient multiplication
+    double _sumSq;            // sum of squares of A (trace of A'A)
+    long _nobs;
 
     public RandSubInit(Key<Job> jobKey, DataInfo dinfo, double[][] gaus) {
       super(jobKey, dinfo);
@@ -1003,6 +1015,15 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
         double y = row.innerProduct(_gaus[k]);
         outputs[k].addNum(y);
       }
+      _sumSq += row.nBins;    // categoricals are 0/1 indicators
+      for (int i = 0; i < row.nNums; i++)
+        _sumSq += row.numVals[i] * row.numVals[i];
+      ++_nobs;
+    }
+
+    @Override public void reduce(RandSubInit other) {
+      _sumSq += other._sumSq;
+      _nobs += other._nobs;
     }
   }
 }
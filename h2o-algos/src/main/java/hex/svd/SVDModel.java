@@ -29,6 +29,7 @@ public class SVDModel extends Model<SVDModel, SVDModel.SVDParameters, SVDModel.S
     public Method _svd_method = Method.GramSVD;   // Method for computing SVD
     public int _nv = 1;    // Number of right singular vectors to calculate
     public int _max_iterations = 1000;    // Maximum number of iterations
+    public int _oversample = 0;   // For randomized method (others ignore): extra random directions on top of _nv
     // public Key<Frame> _u_key;         // Frame key for left singular vectors (U)
     public String _u_name;
     // public Key<Frame> _v_key;        // Frame key for right singular vectors (V)
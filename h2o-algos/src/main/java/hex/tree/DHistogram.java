@@ -389,6 +389,99 @@ public final class DHistogram extends Iced {
     if (_maxIn < dsh._maxIn) _maxIn = dsh._maxIn;
   }
 
+  /**
+   * Does every bin hold exactly one (integer) value? The observed min/max of such a histogram can be
+   * recovered from the bin counts, so it can be filled without scanning the rows, see {@link #setToDifference}
+   * and {@link #setFromBundle}.
+   */
+  boolean hasUnitBins() {
+    return _vals_dim == 3 && _isInt > 0 && _step == 1 && _splitPts == null && !_hasQuantiles &&
+        _histoType == SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive;
+  }
+
+  /**
+   * Where does bin 0 of this histogram sit among the bins of {@code parent}? Only unit bins are lined up
+   * (see {@link #hasUnitBins()}), a histogram derived by subtraction is then the same as one built from the rows.
+   * @return bin offset into {@code parent}, or -1 if the bins don't line up
+   */
+  int unitBinOffset(DHistogram parent) {
+    if (!hasUnitBins() || !parent.hasUnitBins() || _isInt != parent._isInt)
+      return -1;
+    double off = _min - parent._min;
+    if (off < 0 || off != (int) off || _maxEx > parent._maxEx)
+      return -1;
+    return (int) off;
+  }
+
+  // Set a unit bin, bins with (up to rounding of fractional weights) no rows are left empty
+  private double setUnitBin(int b, double w, double wY, double wYY, double wRef) {
+    if (w <= 1e-10 * wRef) return 0;
+    _vals[_vals_dim*b+0] = w;
+    _vals[_vals_dim*b+1] = (float) wY;
+    _vals[_vals_dim*b+2] = (float) wYY;
+    double val = _min + b;
+    if (val < _min2) _min2 = val;
+    if (val > _maxIn) _maxIn = val;
+    return w;
+  }
+
+  /**
+   * Fill this (not yet populated) histogram with the rows of {@code parent} that did not go to {@code sibling}.
+   * Offsets are as returned by {@link #unitBinOffset(DHistogram)}.
+   */
+  void setToDifference(DHistogram parent, int parentOff, DHistogram sibling, int siblingOff) {
+    assert _vals == null && parent._vals != null;
+    init();
+    double wTotal = 0;
+    for (int b = 0; b < _nbin; b++) {
+      final int pb = b + parentOff;
+      final int sb = pb - siblingOff;
+      double w = parent.w(pb), wY = parent.wY(pb), wYY = parent.wYY(pb);
+      if (sibling._vals != null && sb >= 0 && sb < sibling._nbin) {
+        w -= sibling.w(sb); wY -= sibling.wY(sb); wYY -= sibling.wYY(sb);
+      }
+      wTotal += setUnitBin(b, w, wY, wYY, parent.w(pb));
+    }
+    double wNA = parent.wNA() - (sibling._vals != null ? sibling.wNA() : 0);
+    if (wNA > 1e-10 * parent.wNA()) {
+      _vals[_vals_dim*_nbin+0] = wNA;
+      _vals[_vals_dim*_nbin+1] = parent.wYNA() - (sibling._vals != null ? sibling.wYNA() : 0);
+      _vals[_vals_dim*_nbin+2] = parent.wYYNA() - (sibling._vals != null ? sibling.wYYNA() : 0);
+      wTotal += wNA;
+    }
+    if (wTotal == 0) _vals = null; // no rows, same as a histogram that never saw any
+  }
+
+  /**
+   * Fill this (not yet populated) histogram of a bundled column from the histogram of its bundle
+   * (see {@link FeatureBundles}). Value v &gt; 0 of the column went to bin {@code off + v} of the bundle,
+   * the rows where the column is zero are all the other rows of the bundle.
+   * @param maxValue largest value of the column
+   */
+  void setFromBundle(DHistogram bundle, int off, int maxValue) {
+    assert _vals == null && _min >= 0;
+    if (bundle._vals == null) return; // no rows
+    init();
+    double w0 = 0, wY0 = 0, wYY0 = 0;
+    for (int b = 0; b < bundle._nbin; b++) {
+      w0 += bundle.w(b); wY0 += bundle.wY(b); wYY0 += bundle.wYY(b);
+    }
+    final double wAll = w0;
+    double wTotal = 0;
+    for (int v = 1; v <= maxValue; v++) {
+      final int bb = off + v;
+      w0 -= bundle.w(bb); wY0 -= bundle.wY(bb); wYY0 -= bundle.wYY(bb);
+      final int b = v - (int) _min;
+      if (b >= 0 && b < _nbin)
+        wTotal += setUnitBin(b, bundle.w(bb), bundle.wY(bb), bundle.wYY(bb), wAll);
+      else
+        assert bundle.w(bb) == 0 : "value " + v + " of " + _name + " out of range " + this;
+    }
+    if (_min == 0)
+      wTotal += setUnitBin(0, w0, wY0, wYY0, wAll);
+    if (wTotal == 0) _vals = null;
+  }
+
   // Inclusive min & max
   public double find_min  () { return _min2 ; }
   public double find_maxIn() { return _maxIn; }
@@ -320,6 +320,10 @@ public class DTree extends Iced {
     public transient DHistogram[] _hs; //(up to) one histogram per column
     public transient Constraints _cs;
     public final int _scoreCols[];      // A list of columns to score; could be null for all
+    // Histogram subtraction (see HistogramSubtraction): histograms of the parent for the columns this
+    // node derives from its sibling instead of scanning its rows; null if every column is scanned
+    transient DHistogram[] _parentHs;
+    transient int _siblingNid = -1;
     public UndecidedNode( DTree tree, int pid, DHistogram[] hs, Constraints cs ) {
       super(tree,pid);
       assert hs.length==tree._ncols;
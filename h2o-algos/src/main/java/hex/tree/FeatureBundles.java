@@ -0,0 +1,303 @@
+package hex.tree;
+
+import water.Iced;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Exclusive feature bundling.
+ *
+ * <p>Sparse non-negative integer columns that are never non-zero in the same row (e.g. the indicator
+ * columns made by {@code OneHotExplicit}) are packed into a bundle: value v &gt; 0 of a member column
+ * lands in bin {@code offset + v} of the bundle, bin 0 holds the rows where all members are zero.
+ * The histogram pass builds one histogram per bundle instead of one per member column (reading only the
+ * non-zeros of the members) and the member histograms are then recovered from it
+ * ({@link DHistogram#setFromBundle}). Split finding, the trees and the MOJO only ever see the original
+ * columns.
+ *
+ * <p>Bundles are built greedily from the exact conflict graph of the candidate columns, kept as a bit
+ * matrix over pairs of candidates so that its size does not depend on the number of rows. With more than
+ * {@link #MAX_CANDIDATES} candidates only the sparsest are considered.
+ */
+public class FeatureBundles extends Iced<FeatureBundles> {
+
+  static final double MAX_DENSITY = 0.1;      // Only columns with at most this fraction of non-zeros are bundled
+  static final int MAX_CANDIDATES = 1 << 12; // Largest number of columns considered, the conflict matrix takes 2MB
+
+  final int _ncols;     // Predictor columns, bundle b is histogrammed as column _ncols + b
+  final int[][] _cols;  // Member columns of each bundle
+  final int[][] _offs;  // Bin offset of each member
+  final int[][] _maxs;  // Largest value of each member
+  final int[] _nbins;   // Bins of each bundle, including bin 0
+
+  private FeatureBundles(int ncols, int[][] cols, int[][] offs, int[][] maxs, int[] nbins) {
+    _ncols = ncols;
+    _cols = cols;
+    _offs = offs;
+    _maxs = maxs;
+    _nbins = nbins;
+  }
+
+  int size() { return _cols.length; }
+
+  /**
+   * Bundle the predictor columns of a training frame.
+   * @param fr training frame, predictors are the first {@code ncols} columns
+   * @param maxValue largest value of a column to be bundled; columns with more values than histogram bins
+   *                 don't have a bin per value and cannot be recovered from a bundle
+   * @param maxBundleBins largest number of bins of a bundle
+   * @return bundles, or null if there is nothing to bundle
+   */
+  public static FeatureBundles find(Frame fr, int ncols, int maxValue, int maxBundleBins) {
+    int[] cands = new int[ncols];
+    int ncands = 0;
+    for (int c = 0; c < ncols; c++) {
+      Vec v = fr.vec(c);
+      if (v.isCategorical() || !v.isInt() || v.naCnt() > 0 || v.min() != 0 || v.max() < 1 || v.max() > maxValue)
+        continue;
+      if (v.nzCnt() > MAX_DENSITY * v.length())
+        continue;
+      cands[ncands++] = c;
+    }
+    if (ncands < 2) return null;
+    cands = Arrays.copyOf(cands, ncands);
+    if (ncands > MAX_CANDIDATES) {
+      Log.info("Feature bundling: " + ncands + " candidate columns, only the " + MAX_CANDIDATES + " sparsest are bundled.");
+      cands = sparsest(fr, cands, MAX_CANDIDATES);
+      ncands = cands.length;
+    }
+
+    Conflicts conflicts = new Conflicts(ncands).doAll(new Frame(fr.vecs(cands)));
+    // adjacency lists of the conflict graph
+    final long[] bits = conflicts._bits;
+    int[] deg = new int[ncands + 1];
+    if (bits != null)
+      for (int w = 0; w < bits.length; w++)
+        for (long x = bits[w]; x != 0; x &= x - 1) {
+          long p = ((long) w << 6) + Long.numberOfTrailingZeros(x);
+          deg[(int) (p / ncands) + 1]++;
+          deg[(int) (p % ncands) + 1]++;
+        }
+    for (int i = 0; i < ncands; i++) deg[i + 1] += deg[i];
+    int[] adj = new int[deg[ncands]];
+    int[] pos = Arrays.copyOf(deg, ncands);
+    if (bits != null)
+      for (int w = 0; w < bits.length; w++)
+        for (long x = bits[w]; x != 0; x &= x - 1) {
+          long p = ((long) w << 6) + Long.numberOfTrailingZeros(x);
+          int a = (int) (p / ncands), b = (int) (p % ncands);
+          adj[pos[a]++] = b;
+          adj[pos[b]++] = a;
+        }
+
+    // greedy: densest columns first, each goes to the first bundle it has no conflict with and fits into
+    Integer[] order = new Integer[ncands];
+    final long[] nzs = new long[ncands];
+    for (int i = 0; i < ncands; i++) {
+      order[i] = i;
+      nzs[i] = fr.vec(cands[i]).nzCnt();
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override public int compare(Integer a, Integer b) {
+        return nzs[a] != nzs[b] ? Long.compare(nzs[b], nzs[a]) : Integer.compare(a, b);
+      }
+    });
+    int[] bundleOf = new int[ncands];
+    Arrays.fill(bundleOf, -1);
+    List<List<Integer>> members = new ArrayList<>();
+    List<Integer> bins = new ArrayList<>();
+    for (int i : order) {
+      final int max = (int) fr.vec(cands[i]).max();
+      boolean[] conflict = new boolean[members.size()];
+      for (int j = deg[i]; j < deg[i + 1]; j++)
+        if (bundleOf[adj[j]] >= 0) conflict[bundleOf[adj[j]]] = true;
+      int b = 0;
+      while (b < members.size() && (conflict[b] || bins.get(b) + max > maxBundleBins)) b++;
+      if (b == members.size()) {
+        members.add(new ArrayList<Integer>());
+        bins.add(1);
+      }
+      members.get(b).add(i);
+      bins.set(b, bins.get(b) + max);
+      bundleOf[i] = b;
+    }
+
+    List<int[]> cols = new ArrayList<>();
+    int nbundled = 0;
+    for (List<Integer> m : members) {
+      if (m.size() < 2) continue; // nothing gained
+      int[] bc = new int[m.size()];
+      for (int k = 0; k < bc.length; k++) bc[k] = cands[m.get(k)];
+      Arrays.sort(bc);
+      cols.add(bc);
+      nbundled += bc.length;
+    }
+    if (cols.isEmpty()) return null;
+    int[][] bcols = cols.toArray(new int[cols.size()][]);
+    int[][] offs = new int[bcols.length][];
+    int[][] maxs = new int[bcols.length][];
+    int[] nbins = new int[bcols.length];
+    for (int b = 0; b < bcols.length; b++) {
+      offs[b] = new int[bcols[b].length];
+      maxs[b] = new int[bcols[b].length];
+      int off = 0;
+      for (int k = 0; k < bcols[b].length; k++) {
+        offs[b][k] = off;
+        maxs[b][k] = (int) fr.vec(bcols[b][k]).max();
+        off += maxs[b][k];
+      }
+      nbins[b] = off + 1;
+    }
+    Log.info("Feature bundling: " + nbundled + " sparse columns packed into " + bcols.length + " bundles.");
+    return new FeatureBundles(ncols, bcols, offs, maxs, nbins);
+  }
+
+  // the n columns with the fewest non-zeros, in column order
+  private static int[] sparsest(Frame fr, int[] cols, int n) {
+    final long[] nzs = new long[fr.numCols()];
+    Integer[] order = new Integer[cols.length];
+    for (int i = 0; i < cols.length; i++) {
+      order[i] = cols[i];
+      nzs[cols[i]] = fr.vec(cols[i]).nzCnt();
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override public int compare(Integer a, Integer b) {
+        return nzs[a] != nzs[b] ? Long.compare(nzs[a], nzs[b]) : Integer.compare(a, b);
+      }
+    });
+    int[] res = new int[n];
+    for (int i = 0; i < n; i++) res[i] = order[i];
+    Arrays.sort(res);
+    return res;
+  }
+
+  /**
+   * Pairs of candidate columns that are non-zero in the same row.
+   */
+  private static class Conflicts extends MRTask<Conflicts> {
+    final int _ncands;
+    long[] _bits; // bit a * _ncands + b is set if a < b conflict; null if there is no conflict
+
+    Conflicts(int ncands) { _ncands = ncands; }
+
+    @Override public void map(Chunk[] cs) {
+      final int len = cs[0]._len;
+      // candidates non-zero in each row, ordered by candidate
+      int[] start = new int[len + 1];
+      for (Chunk c : cs)
+        for (int r = c.nextNZ(-1); r < len; r = c.nextNZ(r))
+          if (c.atd(r) != 0) start[r + 1]++;
+      for (int r = 0; r < len; r++) start[r + 1] += start[r];
+      int[] nzs = new int[start[len]];
+      int[] pos = Arrays.copyOf(start, len);
+      for (int j = 0; j < cs.length; j++) {
+        Chunk c = cs[j];
+        for (int r = c.nextNZ(-1); r < len; r = c.nextNZ(r))
+          if (c.atd(r) != 0) nzs[pos[r]++] = j;
+      }
+      for (int r = 0; r < len; r++)
+        for (int i = start[r]; i < start[r + 1]; i++)
+          for (int k = i + 1; k < start[r + 1]; k++) {
+            if (_bits == null) _bits = new long[(int) (((long) _ncands * _ncands + 63) >> 6)];
+            long p = (long) nzs[i] * _ncands + nzs[k];
+            _bits[(int) (p >> 6)] |= 1L << p;
+          }
+    }
+
+    @Override public void reduce(Conflicts mrt) {
+      if (_bits == null) _bits = mrt._bits;
+      else if (mrt._bits != null)
+        for (int i = 0; i < _bits.length; i++) _bits[i] |= mrt._bits[i];
+    }
+  }
+
+  /**
+   * Values of bundle b for the rows of a chunk.
+   * @param act sorted rows to extract (value of row act[k] goes to cs[k]), or null for all rows
+   */
+  void fill(int b, Chunk[] chks, double[] cs, int len, int[] act) {
+    Arrays.fill(cs, 0, act == null ? len : act.length, 0);
+    final int[] cols = _cols[b], offs = _offs[b];
+    for (int i = 0; i < cols.length; i++) {
+      Chunk c = chks[cols[i]];
+      int k = 0;
+      for (int r = c.nextNZ(-1); r < len; r = c.nextNZ(r)) {
+        if (act != null) {
+          while (k < act.length && act[k] < r) k++;
+          if (k == act.length) break;
+          if (act[k] != r) continue;
+        }
+        double v = c.atd(r);
+        if (v != 0) cs[act == null ? r : k] = offs[i] + v;
+      }
+    }
+  }
+
+  // Is the histogram of a column built from its bundle (in a node scoring the given columns)?
+  private static boolean isBundled(DHistogram h, int[] scoreCols, int col) {
+    if (h == null || !h.hasUnitBins()) return false;
+    if (scoreCols == null) return true;
+    for (int c : scoreCols)
+      if (c == col) return true;
+    return false;
+  }
+
+  /**
+   * Histograms to scan for a level of the tree: histograms of bundled columns are left out and histograms
+   * of the bundles are appended (column {@code _ncols + b} for bundle b).
+   * @param leaf nid of the first node of this level
+   * @param hcs histograms of this level, one array per node
+   */
+  DHistogram[][] histogramsToScan(DTree tree, int leaf, DHistogram[][] hcs) {
+    DHistogram[][] scan = new DHistogram[hcs.length][];
+    for (int n = 0; n < hcs.length; n++) {
+      final int[] sCols = tree.undecided(n + leaf)._scoreCols;
+      DHistogram[] hs = scan[n] = Arrays.copyOf(hcs[n], _ncols + size());
+      for (int b = 0; b < size(); b++)
+        for (int col : _cols[b]) {
+          DHistogram h = hcs[n][col];
+          if (!isBundled(h, sCols, col)) continue;
+          hs[col] = null;
+          if (hs[_ncols + b] == null)
+            hs[_ncols + b] = new DHistogram("bundle_" + b, _nbins[b], _nbins[b], (byte) 1, 0, _nbins[b], false,
+                h._minSplitImprovement, SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, h._seed, null, null);
+        }
+    }
+    return scan;
+  }
+
+  /**
+   * Recover the histograms of the bundled columns.
+   * @param hcs histograms of this level as passed to {@link #histogramsToScan}
+   * @param built result of the histogram pass over {@link #histogramsToScan}
+   * @return histograms of this level, one per predictor column
+   */
+  DHistogram[][] unbundle(DTree tree, int leaf, DHistogram[][] hcs, DHistogram[][] built) {
+    DHistogram[][] res = new DHistogram[built.length][];
+    for (int n = 0; n < built.length; n++) {
+      final int[] sCols = tree.undecided(n + leaf)._scoreCols;
+      res[n] = Arrays.copyOf(built[n], _ncols);
+      for (int b = 0; b < size(); b++) {
+        DHistogram bh = built[n][_ncols + b];
+        if (bh == null) continue;
+        for (int i = 0; i < _cols[b].length; i++) {
+          final int col = _cols[b][i];
+          DHistogram h = hcs[n][col];
+          if (!isBundled(h, sCols, col)) continue;
+          h.setFromBundle(bh, _offs[b][i], _maxs[b][i]);
+          res[n][col] = h;
+        }
+      }
+    }
+    return res;
+  }
+
+}
@@ -0,0 +1,145 @@
+package hex.tree;
+
+import water.H2O;
+import water.MemoryManager;
+
+/**
+ * Histogram subtraction for sibling nodes.
+ *
+ * <p>The rows of a split node are partitioned between its two children, so the histogram of one child
+ * equals the histogram of the parent minus the histogram of the other child. After a level is split
+ * the parent histograms are kept for the larger child ({@link #link}); the next histogram pass then
+ * only scans the rows of the smaller child ({@link #plan}) and derives the larger one ({@link #derive}).
+ *
+ * <p>Children are re-binned over the range observed in the parent, so the subtraction only applies
+ * to columns whose bins line up with the parent bins (see {@link DHistogram#unitBinOffset(DHistogram)}):
+ * integer and categorical columns with at most nbins (nbins_cats) levels left in the node. The derived
+ * histograms hold the same counts and bounds as scanned ones, response sums may differ by float rounding.
+ *
+ * <p>Retained parent histograms are accounted per tree level and dropped when they exceed
+ * {@code sys.ai.h2o.tree.histoSubtraction.maxBytes} or a quarter of the free heap.
+ * The optimization is enabled by {@code -Dsys.ai.h2o.tree.histoSubtraction=true}.
+ */
+class HistogramSubtraction {
+
+  static boolean isEnabled() {
+    return H2O.getSysBoolProperty("tree.histoSubtraction", false);
+  }
+
+  static long maxRetainedBytes() {
+    return Long.parseLong(H2O.getSysProperty("tree.histoSubtraction.maxBytes", String.valueOf(MemoryManager.MEM_MAX >> 4)));
+  }
+
+  /**
+   * Keep the histograms of a freshly split node for its larger child.
+   * @param dn decided node, its children are undecided nodes of the next level
+   * @param hs histograms of the decided node
+   * @param retained bytes already retained at this level of the tree
+   * @return bytes retained for this node (0 if nothing is retained)
+   */
+  static long link(DTree tree, DTree.DecidedNode dn, DHistogram[] hs, long retained) {
+    if (dn._split == null || hs == null) return 0;
+    final int[] nids = dn._nids;
+    if (nids[0] == ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID || nids[1] == ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID)
+      return 0;
+    final int big = dn._split._n0 >= dn._split._n1 ? 0 : 1;
+    DTree.UndecidedNode derived = tree.undecided(nids[big]);
+    DTree.UndecidedNode scanned = tree.undecided(nids[1 - big]);
+    DHistogram[] parentHs = null;
+    long bytes = 0;
+    for (int c = 0; c < hs.length; c++) {
+      DHistogram p = hs[c], h = derived._hs[c], s = scanned._hs[c];
+      if (p == null || p._vals == null || h == null || s == null)
+        continue;
+      if (!isScored(derived, c) || !isScored(scanned, c))
+        continue;
+      if (h.unitBinOffset(p) < 0 || s.unitBinOffset(p) < 0)
+        continue;
+      if (parentHs == null) parentHs = new DHistogram[hs.length];
+      parentHs[c] = p;
+      bytes += 8L * p._vals.length;
+    }
+    if (parentHs == null || !canRetain(retained + bytes)) return 0;
+    derived._parentHs = parentHs;
+    derived._siblingNid = scanned._nid;
+    return bytes;
+  }
+
+  private static boolean isScored(DTree.UndecidedNode n, int col) {
+    if (n._scoreCols == null) return true;
+    for (int c : n._scoreCols)
+      if (c == col) return true;
+    return false;
+  }
+
+  private static boolean canRetain(long bytes) {
+    if (bytes > maxRetainedBytes()) return false;
+    Runtime rt = Runtime.getRuntime();
+    long free = MemoryManager.MEM_MAX - (rt.totalMemory() - rt.freeMemory());
+    return bytes <= free >> 2;
+  }
+
+  private final DHistogram[][] _hcs;
+  private final int _leaf;
+
+  private HistogramSubtraction(DHistogram[][] hcs, int leaf) {
+    _hcs = hcs;
+    _leaf = leaf;
+  }
+
+  /**
+   * Find the histograms of this level that will be derived instead of scanned.
+   * @param tree tree being built
+   * @param leaf nid of the first node of this level
+   * @param hcs histograms of this level, one array per node
+   * @return null if every histogram has to be scanned
+   */
+  static HistogramSubtraction plan(DTree tree, int leaf, DHistogram[][] hcs) {
+    for (int n = 0; n < hcs.length; n++)
+      if (tree.undecided(n + leaf)._parentHs != null)
+        return new HistogramSubtraction(hcs, leaf);
+    return null;
+  }
+
+  /**
+   * @return histograms to scan, derived histograms are left out
+   */
+  DHistogram[][] histogramsToScan(DTree tree) {
+    DHistogram[][] scan = _hcs.clone();
+    for (int n = 0; n < scan.length; n++) {
+      DHistogram[] parentHs = tree.undecided(n + _leaf)._parentHs;
+      if (parentHs == null) continue;
+      scan[n] = scan[n].clone();
+      for (int c = 0; c < parentHs.length; c++)
+        if (parentHs[c] != null) scan[n][c] = null;
+    }
+    return scan;
+  }
+
+  /**
+   * Fill in the derived histograms from the parent histograms and the scanned histograms of the siblings.
+   * Parent histograms are released.
+   * @param built result of the histogram pass over {@link #histogramsToScan(DTree)}
+   * @return number of histograms derived
+   */
+  int derive(DTree tree, DHistogram[][] built) {
+    int derived = 0;
+    for (int n = 0; n < built.length; n++) {
+      DTree.UndecidedNode udn = tree.undecided(n + _leaf);
+      DHistogram[] parentHs = udn._parentHs;
+      if (parentHs == null) continue;
+      DHistogram[] sibling = built[udn._siblingNid - _leaf];
+      for (int c = 0; c < parentHs.length; c++) {
+        DHistogram p = parentHs[c];
+        if (p == null) continue;
+        DHistogram h = _hcs[n][c], s = sibling[c];
+        h.setToDifference(p, h.unitBinOffset(p), s, s.unitBinOffset(p));
+        built[n][c] = h;
+        derived++;
+      }
+      udn._parentHs = null;
+    }
+    return derived;
+  }
+
+}
@@ -17,14 +17,25 @@ import water.fvec.Chunk;
 
   /* @IN */ final protected double _rate;
   /* @IN */ final protected boolean _OOBEnabled;
+  /* @IN */ final protected long _firstRow; // rows before this one already hold their tree predictions
 
   public ReconstructTreeState(int ncols, int nclass, SharedTree st, double rate, CompressedForest cforest, boolean oob) {
+    this(ncols, nclass, st, rate, cforest, oob, 0);
+  }
+
+  public ReconstructTreeState(int ncols, int nclass, SharedTree st, double rate, CompressedForest cforest, boolean oob, long firstRow) {
     super(ncols,nclass,st,cforest);
     _rate = rate;
     _OOBEnabled = oob;
+    _firstRow = firstRow;
   }
 
   @Override public void map(Chunk[] chks) {
+    final long start = chks[0].start();
+    if (!_OOBEnabled && start + chks[0]._len <= _firstRow) {
+      _st = null;
+      return;
+    }
     double[] data = new double[_ncols];
     double [] preds = new double[_nclass+1];
     int ntrees = ntrees();
@@ -41,6 +52,7 @@ import water.fvec.Chunk;
         if (Double.isNaN(y)) continue;
 
         boolean rowIsOOB = _OOBEnabled && rng.nextFloat() >= _rate;
+        if (start + row < _firstRow) continue;
         if( !_OOBEnabled || rowIsOOB) {
           // Make a prediction
           for (int i=0;i<_ncols;i++) data[i] = chks[i].atd(row);
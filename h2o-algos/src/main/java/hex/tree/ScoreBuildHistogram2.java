@@ -56,26 +56,39 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  *    exp(nthreads-pre-column) = max(1,H2O.NUMCPUS - num_cols)
  *
+ * Compact row sets:
+ *
+ * Rows that are out-of-bag, already decided or have zero weight do not contribute to any histogram. When at most
+ * COMPACT_ROWS_RATIO of the rows of a chunk are left, phase 1 keeps the active rows of the chunk as an index array and
+ * phase 2 only extracts the column values (and responses, weights) of those rows.
+ *
  */
 public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
+  static final double COMPACT_ROWS_RATIO = 0.5;
+
   transient int []   _cids;
   transient Chunk[][] _chks;
   transient double [][] _ys;
   transient double [][] _ws;
   transient int [][] _nhs;
   transient int [][] _rss;
+  transient int [][] _acts; // Per chunk: active rows if the chunk is compacted, rows in _rss are then positions in this array
   Frame _fr2;
   final int _numLeafs;
   final IcedBitSet _activeCols;
   final int _respIdx;
+  final FeatureBundles _bundles; // Histograms of columns _ncols and above are bundles of sparse columns, or null
+  final int _nhcols;             // Number of histogram columns, including the bundles
 
-  public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdxs) {
+  public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdxs, FeatureBundles bundles) {
     super(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs);
     _numLeafs = _hcs.length;
     _respIdx = respIdx;
+    _bundles = bundles;
+    _nhcols = ncols + (bundles == null ? 0 : bundles.size());
 
     int hcslen = _hcs.length;
-    IcedBitSet activeCols = new IcedBitSet(ncols);
+    IcedBitSet activeCols = new IcedBitSet(_nhcols);
     for (int n = 0; n < hcslen; n++) {
       int [] acs = _tree.undecided(n + _leaf)._scoreCols;
       if(acs != null) {
@@ -86,6 +99,9 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
         break;
       }
     }
+    if (activeCols != null) // Bundles are scanned for the nodes that have a histogram for them
+      for (int c = ncols; c < _nhcols; c++)
+        activeCols.set(c);
     _activeCols = activeCols;
     _hcs = ArrayUtils.transpose(_hcs);
   }
@@ -161,6 +177,7 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     _ws = new double[_cids.length][];
     _nhs = new int[_cids.length][];
     _rss = new int[_cids.length][];
+    _acts = new int[_cids.length][];
     long [] espc = v.espc();
     int largestChunkSz = 0;
     for(int i = 1; i < espc.length; ++i){
@@ -198,17 +215,34 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
         // Pass 2: accumulate all rows, cols into histograms
         // Sort the rows by NID, so we visit all the same NIDs in a row
         // Find the count of unique NIDs in this chunk
+        final double [] ws = _weightIdx == -1 ? null : _ws[id];
         int nh[] = (_nhs[id] = new int[_numLeafs + 1]);
-        for (int i : nnids)
-          if (i >= 0)
-            nh[i + 1]++;
+        int nact = 0;
+        for (int row = 0; row < nnids.length; row++) {
+          if (nnids[row] < 0) continue;
+          if (ws != null && ws[row] == 0) { // Zero weight rows do not change the histograms
+            nnids[row] = DECIDED_ROW;
+            continue;
+          }
+          nh[nnids[row] + 1]++;
+          nact++;
+        }
         // Rollup the histogram of rows-per-NID in this chunk
         for (int i = 0; i <_numLeafs; i++) nh[i + 1] += nh[i];
         // Splat the rows into NID-groups
-        int rows[] = (_rss[id] = new int[nnids.length]);
-        for (int row = 0; row < nnids.length; row++)
-          if (nnids[row] >= 0)
-            rows[nh[nnids[row]]++] = row;
+        int rows[] = (_rss[id] = new int[nact]);
+        if (nact <= COMPACT_ROWS_RATIO * nnids.length) {
+          int act[] = (_acts[id] = new int[nact]);
+          for (int row = 0, k = 0; row < nnids.length; row++)
+            if (nnids[row] >= 0) {
+              act[k] = row;
+              rows[nh[nnids[row]]++] = k++;
+            }
+        } else {
+          for (int row = 0; row < nnids.length; row++)
+            if (nnids[row] >= 0)
+              rows[nh[nnids[row]]++] = row;
+        }
 
       }
       @Override
@@ -219,21 +253,26 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
           Chunk [] chks = _chks[id];
           for (int i = 0; i < chks.length; ++i)
             chks[i] = vecs[i].chunkForChunkIdx(cidx);
-          map(id,chks);
-          chks[_nidIdx].close(cidx,_fs);
           Chunk resChk = chks[_workIdx];
           int len = resChk.len();
-          if(resChk instanceof C8DVolatileChunk){
-            _ys[id] = ((C8DVolatileChunk)resChk).getValues();
-          } else _ys[id] = resChk.getDoubles(MemoryManager.malloc8d(len), 0, len);
           if(_weightIdx != -1){
             _ws[id] = chks[_weightIdx].getDoubles(MemoryManager.malloc8d(len), 0, len);
           }
+          map(id,chks);
+          chks[_nidIdx].close(cidx,_fs);
+          int [] act = _acts[id];
+          if(act != null) {
+            _ys[id] = resChk.getDoubles(MemoryManager.malloc8d(act.length), act);
+            if(_weightIdx != -1)
+              _ws[id] = ArrayUtils.select(_ws[id], act);
+          } else if(resChk instanceof C8DVolatileChunk){
+            _ys[id] = ((C8DVolatileChunk)resChk).getValues();
+          } else _ys[id] = resChk.getDoubles(MemoryManager.malloc8d(len), 0, len);
         }
       }
     },new H2O.H2OCountedCompleter(this){
       public void onCompletion(CountedCompleter cc){
-        final int ncols = _ncols;
+        final int ncols = _nhcols;
         final int [] active_cols = _activeCols == null?null:new int[Math.max(1,_activeCols.cardinality())];
         int nactive_cols = active_cols == null?ncols:active_cols.length;
         final int numWrks = _hcs.length*nactive_cols < 16*1024?H2O.NUMCPUS:Math.min(H2O.NUMCPUS,Math.max(4*H2O.NUMCPUS/nactive_cols,1));
@@ -312,24 +351,30 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     private void computeChunk(int id, double[] cs, double[] ws, double[] resp){
       int [] nh = _nhs[id];
       int [] rs = _rss[id];
+      int [] act = _acts[id];
       Chunk resChk = _chks[id][_workIdx];
       int len = resChk._len;
       double [] ys = ScoreBuildHistogram2.this._ys[id];
-      if(_weightIdx != -1) _chks[id][_weightIdx].getDoubles(ws, 0, len);
       final int hcslen = _lh.length;
       boolean extracted = false;
       for (int n = 0; n < hcslen; n++) {
         int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
-        if (sCols == null || ArrayUtils.find(sCols, _col) >= 0) {
+        if (sCols == null || _col >= _ncols || ArrayUtils.find(sCols, _col) >= 0) {
           DHistogram h = _lh[n];
           int hi = nh[n];
           int lo = (n == 0 ? 0 : nh[n - 1]);
           if (hi == lo || h == null) continue; // Ignore untracked columns in this split
           if (h._vals == null) h.init();
           if (! extracted) {
-            _chks[id][_col].getDoubles(cs, 0, len);
+            if (_col >= _ncols)
+              _bundles.fill(_col - _ncols, _chks[id], cs, len, act);
+            else if (act != null)
+              _chks[id][_col].getDoubles(cs, act);
+            else
+              _chks[id][_col].getDoubles(cs, 0, len);
             if (h._vals_dim == 6) {
-              _chks[id][_respIdx].getDoubles(resp, 0, len);
+              if (act != null) _chks[id][_respIdx].getDoubles(resp, act);
+              else _chks[id][_respIdx].getDoubles(resp, 0, len);
             }
             extracted = true;
           }
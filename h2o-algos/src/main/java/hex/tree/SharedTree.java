@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class SharedTree<
     M extends SharedTreeModel<M,P,O>, 
@@ -66,6 +67,10 @@ public abstract class SharedTree<
 
   // Sum of variable empirical improvement in squared-error.  The value is not scaled.
   private transient float[/*nfeatures*/] _improvPerVar;
+  // Exclusive bundles of sparse predictor columns, null if histograms are built per column
+  transient FeatureBundles _bundles;
+  // Number of histograms derived from their parent and sibling instead of scanned
+  final transient AtomicLong _derivedHistograms = new AtomicLong();
 
   protected Random _rand;
 
@@ -356,10 +361,13 @@ public abstract class SharedTree<
         // Variable importance: squared-error-improvement-per-variable-per-split
         _improvPerVar = new float[_ncols];
         _rand = RandomUtils.getRNG(_parms._seed);
+        if (_parms._exclusive_feature_bundling)
+          _bundles = FeatureBundles.find(_train, _ncols, _parms._nbins - 1, _parms._nbins_cats);
 
         initializeModelSpecifics();
         resumeFromCheckpoint(SharedTree.this);
         scoreAndBuildTrees(doOOBScoring());
+        afterTreesBuilt();
 
       } finally {
         if( _model!=null ) _model.unlock(_job);
@@ -390,6 +398,12 @@ public abstract class SharedTree<
     abstract protected boolean buildNextKTrees();
     abstract protected void initializeModelSpecifics();
 
+    /** Raw tree predictions of the first rows of the training frame made by the checkpoint model, or null */
+    protected Frame checkpointRawPredictions() { return null; }
+
+    /** Called once all the trees are built, the workspace still holds the final tree predictions */
+    protected void afterTreesBuilt() {}
+
     // Common methods for all tree builders
 
     protected Frame makeValidWorkspace() { return null; }
@@ -415,11 +429,18 @@ public abstract class SharedTree<
       // Reconstruct the working tree state from the checkpoint
       Timer t = new Timer();
       int ntreesFromCheckpoint = ((SharedTreeModel.SharedTreeParameters) _parms._checkpoint.get()._parms)._ntrees;
+      // Rows the checkpoint model was trained on take their predictions over, only the appended rows are scored
+      Frame rawPreds = checkpointRawPredictions();
+      long firstRow = 0;
+      if (rawPreds != null) {
+        new AddRawPredictions(st, rawPreds).doAll(_train, _parms._build_tree_one_node);
+        firstRow = rawPreds.numRows();
+      }
       new ReconstructTreeState(_ncols, _nclass, st /*large, but cleaner code this way*/, _parms._sample_rate,
-              new CompressedForest(_model._output._treeKeys, _model._output._domains), doOOBScoring())
+              new CompressedForest(_model._output._treeKeys, _model._output._domains), doOOBScoring(), firstRow)
               .doAll(_train, _parms._build_tree_one_node);
       for (int i = 0; i < ntreesFromCheckpoint; i++) _rand.nextLong(); //for determinism
-      Log.info("Reconstructing OOB stats from checkpoint took " + t);
+      Log.info("Reconstructing OOB stats from checkpoint took " + t + (firstRow > 0 ? " (" + firstRow + " rows taken over)" : ""));
       if (DEV_DEBUG) {
         System.out.println(_train.toTwoDimTable());
       }
@@ -506,6 +527,9 @@ public abstract class SharedTree<
       // Add temporary workspace vectors (optional weights are taken over from fr)
       int respIdx = fr2.find(_parms._response_column);
       int weightIdx = fr2.find(_parms._weights_column);
+      if (idx_sample_weights() >= 0) { // row weights adjusted by the row sampling take over in the histograms
+        weightIdx = fr2.numCols(); fr2.add(fr._names[idx_sample_weights()],vecs[idx_sample_weights()]);
+      }
       fr2.add(fr._names[idx_tree(k)],vecs[idx_tree(k)]);                              //tree predictions
       int workIdx = fr2.numCols(); fr2.add(fr._names[idx_work(k)],vecs[idx_work(k)]); //target value to fit (copy of actual response for DRF, residual for GBM)
       int nidIdx  = fr2.numCols(); fr2.add(fr._names[idx_nids(k)],vecs[idx_nids(k)]); //node indices for tree construction
@@ -557,6 +581,8 @@ public abstract class SharedTree<
     final int _nidIdx;
 
     boolean _did_split;
+    HistogramSubtraction _subtraction; // Histograms of this level derived from the parent level, if any
+    DHistogram[][] _bundled;           // Histograms of this level that went through the bundles, if any
 
     ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdx) {
       _st   = st;
@@ -585,21 +611,33 @@ public abstract class SharedTree<
       // got assigned into.  Collect counts, mean, variance, min, max per bin,
       // per column.
 //      new ScoreBuildHistogram(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
-      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _respIdx, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
+      _subtraction = HistogramSubtraction.plan(_tree, _leafOffsets[_k], _hcs[_k]);
+      DHistogram[][] hcs = _subtraction == null ? _hcs[_k] : _subtraction.histogramsToScan(_tree);
+      if (_st._bundles != null) {
+        _bundled = hcs;
+        hcs = _st._bundles.histogramsToScan(_tree, _leafOffsets[_k], hcs);
+      }
+      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], hcs, _family, _respIdx, _weightIdx, _workIdx, _nidIdx, _st._bundles).dfork2(null,_fr2,_build_tree_one_node);
     }
     @Override public void onCompletion(CountedCompleter caller) {
       ScoreBuildHistogram sbh = (ScoreBuildHistogram) caller;
       final int leafOffset = _leafOffsets[_k];
+      DHistogram[][] hcs = sbh._hcs;
+      if (_bundled != null) hcs = _st._bundles.unbundle(_tree, leafOffset, _bundled, hcs);
+      if (_subtraction != null) _st._derivedHistograms.addAndGet(_subtraction.derive(_tree, hcs));
+      final boolean subtract = HistogramSubtraction.isEnabled();
+      long retainedBytes = 0;   // Parent histograms kept for the next level
       int tmax = _tree.len();   // Number of total splits in tree K
       for (int leaf = leafOffset; leaf < tmax; leaf++) { // Visit all the new splits (leaves)
         DTree.UndecidedNode udn = _tree.undecided(leaf);
 //        System.out.println((_st._nclass==1?"Regression":("Class "+_st._response.domain()[_k]))+",\n  Undecided node:"+udn);
         // Replace the Undecided with the Split decision
-        DTree.DecidedNode dn = _st.makeDecided(udn, sbh._hcs[leaf - leafOffset], udn._cs);
+        DTree.DecidedNode dn = _st.makeDecided(udn, hcs[leaf - leafOffset], udn._cs);
 //        System.out.println(dn + "\n" + dn._split);
         if (dn._split == null) udn.do_not_split();
         else {
           _did_split = true;
+          if (subtract) retainedBytes += HistogramSubtraction.link(_tree, dn, hcs[leaf - leafOffset], retainedBytes);
           DTree.Split s = dn._split; // Accumulate squared error improvements per variable
           float improvement = (float) (s.pre_split_se() - s.se());
           assert (improvement >= 0);
@@ -626,6 +664,7 @@ public abstract class SharedTree<
   protected int idx_work(int c) { return idx_tree(c) + _nclass; }
   protected int idx_nids(int c) { return idx_work(c) + _nclass; }
   protected int idx_oobt()      { return idx_nids(0) + _nclass; }
+  protected int idx_sample_weights() { return -1; } // Workspace of weights adjusted by row sampling, if any
 
   public Chunk chk_weight( Chunk chks[]      ) { return chks[idx_weight()]; }
   protected Chunk chk_offset( Chunk chks[]      ) { return chks[idx_offset()]; }
@@ -643,6 +682,38 @@ public abstract class SharedTree<
   protected final Vec vec_nids( Frame fr, int c) { return fr.vecs()[idx_nids(c)]; }
   protected final Vec vec_oobt( Frame fr       ) { return fr.vecs()[idx_oobt()]; }
 
+  /**
+   * Adds raw tree predictions (kept by a previous model for the first rows of the training frame) to the tree columns.
+   * The raw predictions don't share the chunk layout of the training frame and are read by row.
+   * Sums are stored as floats, the way scoring a tree stores them in the tree columns, so a continued model only
+   * matches one that rescored the checkpoint's trees up to float rounding; storing doubles here would break that.
+   */
+  private static class AddRawPredictions extends MRTask<AddRawPredictions> {
+    private final int _tree0Index;
+    private final Frame _raw;
+
+    AddRawPredictions(SharedTree st, Frame raw) {
+      _tree0Index = st.idx_tree(0);
+      _raw = raw;
+    }
+
+    @Override public void map(Chunk[] chks) {
+      final long start = chks[0].start();
+      final int len = (int) Math.min(chks[0]._len, _raw.numRows() - start);
+      for (int c = 0; c < _raw.numCols(); c++) {
+        final Vec raw = _raw.vec(c);
+        final Chunk ctree = chks[_tree0Index + c];
+        Chunk rc = null;
+        for (int row = 0; row < len; row++) {
+          long r = start + row;
+          if (rc == null || r >= rc.start() + rc._len) rc = raw.chunkForRow(r);
+          double p = rc.atd((int) (r - rc.start()));
+          if (p != 0) ctree.set(row, (float) (ctree.atd(row) + p));
+        }
+      }
+    }
+  }
+
   protected static class FrameMap extends Iced<FrameMap> {
     public int responseIndex;
     public int offsetIndex;
@@ -66,6 +66,8 @@ public abstract class SharedTreeModel<
 
     public boolean _build_tree_one_node = false;
 
+    public boolean _exclusive_feature_bundling = false; // Build histograms of mutually exclusive sparse columns together
+
     public int _score_tree_interval = 0; // score every so many trees (no matter what)
 
     public int _initial_score_interval = 4000; //Adding this parameter to take away the hard coded value of 4000 for scoring the first  4 secs
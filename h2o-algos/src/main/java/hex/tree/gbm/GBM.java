@@ -176,12 +176,51 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       error("_max_abs_leafnode_pred", "max_abs_leafnode_pred must be larger than 0.");
     if (_parms._pred_noise_bandwidth < 0)
       error("_pred_noise_bandwidth", "pred_noise_bandwidth must be >= 0.");
+    if (_parms._goss) {
+      if (!(0. < _parms._goss_top_rate && _parms._goss_top_rate < 1.0))
+        error("_goss_top_rate", "goss_top_rate must be between 0 and 1");
+      if (!(0. < _parms._goss_other_rate && _parms._goss_other_rate <= 1.0 - _parms._goss_top_rate))
+        error("_goss_other_rate", "goss_other_rate must be larger than 0 and at most 1 - goss_top_rate");
+      if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null)
+        error("_goss", "GOSS cannot be combined with sample_rate or sample_rate_per_class.");
+      if (_parms._distribution == DistributionFamily.laplace || _parms._distribution == DistributionFamily.quantile ||
+          _parms._distribution == DistributionFamily.huber)
+        error("_goss", "GOSS is not supported for the " + _parms._distribution + " distribution.");
+    }
+    if (_parms._resume_on_appended_data) {
+      Iced checkpoint = _parms.hasCheckpoint() ? DKV.getGet(_parms._checkpoint) : null;
+      Frame raw = checkpoint instanceof GBMModel ? DKV.<Frame>getGet(((GBMModel) checkpoint)._output._raw_predictions) : null;
+      if (!_parms.hasCheckpoint())
+        error("_resume_on_appended_data", "resume_on_appended_data requires a checkpoint model.");
+      else if (raw == null)
+        error("_resume_on_appended_data", "The checkpoint model has no raw predictions, it needs to be trained with keep_raw_predictions.");
+      else if (_nclass > 0 && raw.numCols() != _nclass)
+        error("_resume_on_appended_data", "The raw predictions of the checkpoint model have " + raw.numCols() +
+                " columns, expected one per class (" + _nclass + ").");
+      else if (_train != null && _train.numRows() < raw.numRows())
+        error("_resume_on_appended_data", "The training frame has fewer rows (" + _train.numRows() +
+                ") than the training frame of the checkpoint model (" + raw.numRows() + ").");
+      else if (expensive && _train != null) {
+        GBMModel.GBMOutput output = ((GBMModel) checkpoint)._output;
+        boolean sameCols = true;
+        for (String name : output._names)
+          sameCols &= _train.find(name) >= 0;
+        if (!sameCols || leadingRowsChecksum(_train, output._names, raw.numRows()) != output._raw_predictions_checksum)
+          error("_resume_on_appended_data", "The first " + raw.numRows() + " rows of the training frame are not " +
+                  "the rows the checkpoint model was trained on, the new rows have to be appended after them.");
+      }
+    }
 
     if ((_train != null) && (_parms._monotone_constraints != null)) {
       TreeUtils.checkMonotoneConstraints(this, _train, _parms._monotone_constraints);
     }
   }
 
+  // Workspace column of the GOSS weights in the training frame, -1 without GOSS
+  private transient int _gossWeightsIdx = -1;
+
+  @Override protected int idx_sample_weights() { return _gossWeightsIdx; }
+
   // ----------------------
   private class GBMDriver extends Driver {
     private transient FrameMap frameMap;
@@ -199,6 +238,8 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     @Override protected boolean doOOBScoring() { return false; }
     @Override protected void initializeModelSpecifics() {
       frameMap = new FrameMap(GBM.this);
+      _model._output._raw_predictions = null; // A model continued from a checkpoint doesn't own the checkpoint's raw predictions
+      _model._output._raw_predictions_checksum = 0;
       _mtry_per_tree = Math.max(1, (int)(_parms._col_sample_rate_per_tree * _ncols)); //per-tree
       if (!(1 <= _mtry_per_tree && _mtry_per_tree <= _ncols)) throw new IllegalArgumentException("Computed mtry_per_tree should be in interval <1,"+_ncols+"> but it is " + _mtry_per_tree);
       _mtry = Math.max(1, (int)(_parms._col_sample_rate * _parms._col_sample_rate_per_tree * _ncols)); //per-split
@@ -220,6 +261,12 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       }
       _model._output._init_f = _initialPrediction; //always write the initial value here (not just for Bernoulli)
 
+      // GOSS: workspace for the row weights adjusted by sampling
+      if (_parms._goss) {
+        _gossWeightsIdx = _train.numCols();
+        _train.add("GOSS_weights", _response.makeVolatileDoubles(1)[0]);
+      }
+
       // Set the initial prediction into the tree column 0
       if (_initialPrediction != 0.0) {
         new FillVecWithConstant(_initialPrediction)
@@ -338,6 +385,24 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       }
     }
 
+    @Override protected Frame checkpointRawPredictions() {
+      if (!_parms._resume_on_appended_data) return null;
+      GBMModel checkpoint = DKV.getGet(_parms._checkpoint);
+      return DKV.getGet(checkpoint._output._raw_predictions);
+    }
+
+    @Override protected void afterTreesBuilt() {
+      if (!_parms._keep_raw_predictions) return;
+      String[] names = new String[_nclass];
+      for (int k = 0; k < _nclass; k++)
+        names[k] = _train.name(idx_tree(k));
+      Key<Frame> key = Key.make("raw_predictions_" + _model._key);
+      new RawPredictions(frameMap, _nclass, _initialPrediction).doAll(_nclass, Vec.T_NUM, _train).outputFrame(key, names, null);
+      _model._output._raw_predictions = key;
+      _model._output._raw_predictions_checksum = leadingRowsChecksum(_train, _model._output._names, _train.numRows());
+      _model.update(_job);
+    }
+
     // --------------------------------------------------------------------------
     // Build the next k-trees, which is trying to correct the residual error from
     // the prior trees.
@@ -392,7 +457,7 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       // ----
       // ESL2, page 387.  Step 2b iii.  Compute the gammas (leaf node predictions === fit best constant), and store them back
       // into the tree leaves.  Includes learn_rate.
-      GammaPass gp = new GammaPass(frameMap, ktrees, leaves, distributionImpl, _nclass);
+      GammaPass gp = new GammaPass(frameMap, ktrees, leaves, distributionImpl, _nclass, _gossWeightsIdx);
       gp.doAll(_train);
       if (_parms._distribution == DistributionFamily.laplace) {
         fitBestConstantsQuantile(ktrees, leaves[0], 0.5); //special case for Laplace: compute the median for each leaf node and store that as prediction
@@ -441,6 +506,30 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       return converged;
     }
 
+    /**
+     * Gradient-based one-side sampling: the rows with the top goss_top_rate largest absolute gradients (residuals in
+     * the Work columns, summed over the classes) are kept, goss_other_rate of all rows are sampled at random from the
+     * rest and up-weighted by (1 - goss_top_rate) / goss_other_rate. Dropped rows are marked OUT_OF_BAG and get zero
+     * weight in the GOSS weights workspace, so the histogram passes don't visit them.
+     */
+    private void gossSample(DTree[] ktrees, long seed) {
+      boolean[] sampled = new boolean[_nclass];
+      boolean any = false;
+      for (int k = 0; k < _nclass; k++)
+        if (ktrees[k] != null) sampled[k] = any = true;
+      if (!any) return;
+      Vec grad = new ComputeAbsGradient(frameMap, sampled).doAll(1, Vec.T_NUM, _train).outputFrame().anyVec();
+      double threshold = MathUtils.computeWeightedQuantile(null, grad, 1 - _parms._goss_top_rate);
+      grad.remove();
+      new GossSample(frameMap, sampled, _gossWeightsIdx, threshold, _parms._goss_top_rate, _parms._goss_other_rate, seed)
+          .doAll(_train, _parms._build_tree_one_node);
+      for (int k = 0; k < _nclass; k++) {
+        if (DEV_DEBUG && ktrees[k]!=null) {
+          System.out.println("GOSS sampled rows. NIDS:\n" + new Frame(vec_nids(_train, k)).toTwoDimTable());
+        }
+      }
+    }
+
     /**
      * How may trees are actually calculated for the number of classes the model uses.
      * @return number of trees
@@ -489,6 +578,9 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
           }
         }
       }
+      // GOSS - keep the rows with the largest gradients and a random sample of the rest, mark the others 'OUT_OF_BAG'
+      if (_parms._goss)
+        gossSample(ktrees, rseed);
 
       // ----
       // ESL2, page 387.  Step 2b ii.
@@ -921,6 +1013,144 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
   }
 
 
+  /**
+   * Checksum of the given columns over the first nrows rows of a frame, independent of its chunk layout.
+   * Categorical values are hashed by level, appended rows with new levels renumber the domain.
+   */
+  static long leadingRowsChecksum(Frame fr, String[] names, long nrows) {
+    return new LeadingRowsChecksum(nrows).doAll(fr.subframe(names))._checksum;
+  }
+
+  private static class LeadingRowsChecksum extends MRTask<LeadingRowsChecksum> {
+    private final long _nrows;
+    long _checksum;
+
+    LeadingRowsChecksum(long nrows) { _nrows = nrows; }
+
+    @Override public void map(Chunk[] chks) {
+      final long start = chks[0].start();
+      final int len = (int) Math.max(0, Math.min(chks[0]._len, _nrows - start));
+      String[][] domains = new String[chks.length][];
+      for (int c = 0; c < chks.length; c++)
+        domains[c] = chks[c].vec().domain();
+      for (int row = 0; row < len; row++) {
+        long h = start + row;
+        for (int c = 0; c < chks.length; c++) {
+          long v;
+          if (domains[c] == null) v = Double.doubleToLongBits(chks[c].atd(row));
+          else v = chks[c].isNA(row) ? -1 : domains[c][(int) chks[c].at8(row)].hashCode();
+          h = h * 0x9E3779B97F4A7C15L + v;
+        }
+        _checksum += h ^ (h >>> 29);
+      }
+    }
+
+    @Override public void reduce(LeadingRowsChecksum mrt) { _checksum += mrt._checksum; }
+  }
+
+  // Tree columns without the initial prediction
+  private static class RawPredictions extends MRTask<RawPredictions> {
+    private final FrameMap fm;
+    private final int _nclass;
+    private final double _initialPrediction;
+
+    RawPredictions(FrameMap frameMap, int nClasses, double initialPrediction) {
+      fm = frameMap;
+      _nclass = nClasses;
+      _initialPrediction = initialPrediction;
+    }
+
+    @Override
+    public void map(Chunk[] chks, NewChunk[] nc) {
+      for (int k = 0; k < _nclass; k++) {
+        final Chunk preds = chks[fm.tree0Index + k];
+        final double init = k == 0 ? _initialPrediction : 0; // Only tree column 0 starts at the initial prediction
+        for (int row = 0; row < preds._len; row++)
+          nc[k].addNum(preds.atd(row) - init);
+      }
+    }
+  }
+
+  private static class ComputeAbsGradient extends MRTask<ComputeAbsGradient> {
+    private final FrameMap fm;
+    private final boolean[] _sampled;
+
+    ComputeAbsGradient(FrameMap frameMap, boolean[] sampled) {
+      fm = frameMap;
+      _sampled = sampled;
+    }
+
+    @Override
+    public void map(Chunk[] chks, NewChunk[] nc) {
+      final Chunk y = chks[fm.responseIndex];
+      final Chunk weights = fm.weightIndex >= 0 ? chks[fm.weightIndex] : new C0DChunk(1, chks[0]._len);
+      for (int row = 0; row < chks[0]._len; row++) {
+        if (y.isNA(row) || weights.atd(row) == 0) { // not part of the training
+          nc[0].addNA();
+          continue;
+        }
+        double g = 0;
+        for (int k = 0; k < _sampled.length; k++)
+          if (_sampled[k]) g += Math.abs(chks[fm.work0Index + k].atd(row));
+        nc[0].addNum(g);
+      }
+    }
+  }
+
+  // Deterministic GOSS sampling, see gossSample
+  private static class GossSample extends MRTask<GossSample> {
+    private final FrameMap fm;
+    private final boolean[] _sampled;
+    private final int _gossWeightsIdx;
+    private final double _threshold;
+    private final double _topRate;
+    private final double _otherRate;
+    private final long _seed;
+
+    GossSample(FrameMap frameMap, boolean[] sampled, int gossWeightsIdx, double threshold, double topRate, double otherRate, long seed) {
+      fm = frameMap;
+      _sampled = sampled;
+      _gossWeightsIdx = gossWeightsIdx;
+      _threshold = threshold;
+      _topRate = topRate;
+      _otherRate = otherRate;
+      _seed = seed;
+    }
+
+    @Override
+    protected boolean modifiesVolatileVecs() {
+      return true;
+    }
+
+    @Override
+    public void map(Chunk[] chks) {
+      final Chunk y = chks[fm.responseIndex];
+      final Chunk weights = fm.weightIndex >= 0 ? chks[fm.weightIndex] : new C0DChunk(1, chks[0]._len);
+      final double[] gws = ((C8DVolatileChunk) chks[_gossWeightsIdx]).getValues();
+      final double otherProb = _otherRate / (1 - _topRate); // rest of the rows is 1 - _topRate
+      final double amp = (1 - _topRate) / _otherRate;
+      Random rand = RandomUtils.getRNG(_seed);
+      for (int row = 0; row < chks[0]._len; row++) {
+        double w = weights.atd(row);
+        boolean skip = y.isNA(row) || w == 0;
+        if (!skip) {
+          double g = 0;
+          for (int k = 0; k < _sampled.length; k++)
+            if (_sampled[k]) g += Math.abs(chks[fm.work0Index + k].atd(row));
+          if (g < _threshold) {
+            rand.setSeed(_seed + row + chks[0].start()); //seeding is independent of chunking
+            if (rand.nextFloat() < otherProb) w *= amp;
+            else skip = true;
+          }
+        }
+        gws[row] = skip ? 0 : w;
+        if (skip)
+          for (int k = 0; k < _sampled.length; k++)
+            if (_sampled[k]) ((C4VolatileChunk) chks[fm.nids0Index + k]).getValues()[row] = ScoreBuildHistogram.OUT_OF_BAG;
+      }
+    }
+  }
+
   private static class ComputeAbsDiff extends MRTask<ComputeAbsDiff> {
     private FrameMap fm;
 
@@ -1063,15 +1293,17 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     private final int[] _leafs;  // Starting index of leaves (per class-tree)
     private final Distribution _dist;
     private final int _nclass;
+    private final int _sampleWeightsIdx; // Weights adjusted by row sampling (GOSS), -1 if the rows are not re-weighted
     private double[/*tree/klass*/][/*tree-relative node-id*/] _num;
     private double[/*tree/klass*/][/*tree-relative node-id*/] _denom;
 
-    public GammaPass(FrameMap frameMap, DTree[] trees, int[] leafs, Distribution distribution, int nClasses) {
+    public GammaPass(FrameMap frameMap, DTree[] trees, int[] leafs, Distribution distribution, int nClasses, int sampleWeightsIdx) {
       fm = frameMap;
       _leafs = leafs;
       _trees = trees;
       _dist = distribution;
       _nclass = nClasses;
+      _sampleWeightsIdx = sampleWeightsIdx;
     }
 
     double gamma(int tree, int nid) {
@@ -1118,6 +1350,7 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
         final Chunk offset = fm.offsetIndex >= 0 ? chks[fm.offsetIndex] : new C0DChunk(0, chks[0]._len);
         final Chunk preds = chks[fm.tree0Index + k];
         final Chunk weights = fm.weightIndex >= 0 ? chks[fm.weightIndex] : new C0DChunk(1, chks[0]._len);
+        final Chunk sampleWeights = _sampleWeightsIdx >= 0 ? chks[_sampleWeightsIdx] : weights;
 
         // If we have all constant responses, then we do not split even the
         // root and the residuals should be zero.
@@ -1159,8 +1392,9 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
           double z = ress.atd(row);  // residual
           double f = preds.atd(row) + offset.atd(row);
           int idx = leafnid - leaf;
-          num[idx] += _dist.gammaNum(w, y, z, f);
-          denom[idx] += _dist.gammaDenom(w, y, z, f);
+          double sw = sampleWeights.atd(row);
+          num[idx] += _dist.gammaNum(sw, y, z, f);
+          denom[idx] += _dist.gammaDenom(sw, y, z, f);
         }
       }
     }
@@ -5,8 +5,11 @@ import hex.KeyValue;
 import hex.Model;
 import hex.genmodel.utils.DistributionFamily;
 import hex.tree.*;
+import water.AutoBuffer;
 import water.DKV;
+import water.Futures;
 import water.Key;
+import water.Keyed;
 import water.MRTask;
 import water.fvec.Chunk;
 import water.fvec.Frame;
@@ -26,6 +29,11 @@ public class GBMModel extends SharedTreeModelWithContributions<GBMModel, GBMMode
     public double _max_abs_leafnode_pred;
     public double _pred_noise_bandwidth;
     public KeyValue[] _monotone_constraints;
+    public boolean _goss;             // Gradient-based one-side sampling of the rows of each tree
+    public double _goss_top_rate;     // GOSS: fraction of rows with the largest gradients, always sampled
+    public double _goss_other_rate;   // GOSS: fraction of rows sampled at random from the rest
+    public boolean _keep_raw_predictions;     // Keep the raw tree predictions of the training rows with the model
+    public boolean _resume_on_appended_data;  // Training frame = checkpoint's training frame + new rows, reuse its raw predictions
 
     public GBMParameters() {
       super();
@@ -37,6 +45,8 @@ public class GBMModel extends SharedTreeModelWithContributions<GBMModel, GBMMode
       _max_depth = 5;
       _max_abs_leafnode_pred = Double.MAX_VALUE;
       _pred_noise_bandwidth =0;
+      _goss_top_rate = 0.2;
+      _goss_other_rate = 0.1;
     }
 
     public String algoName() { return "GBM"; }
@@ -73,6 +83,10 @@ public class GBMModel extends SharedTreeModelWithContributions<GBMModel, GBMMode
 
   public static class GBMOutput extends SharedTreeModel.SharedTreeOutput {
     public String[] _quasibinomialDomains;
+    // Sum of the tree contributions (without the initial prediction) for each training row, one column per class;
+    // only kept with keep_raw_predictions
+    public Key<Frame> _raw_predictions;
+    public long _raw_predictions_checksum; // of the training rows the raw predictions belong to
     boolean _quasibinomial;
     int _nclasses;
     public int nclasses() {
@@ -98,6 +112,22 @@ public class GBMModel extends SharedTreeModelWithContributions<GBMModel, GBMMode
     super(selfKey,parms,output);
   }
 
+  @Override protected Futures remove_impl(Futures fs, boolean cascade) {
+    if (_output._raw_predictions != null)
+      Keyed.remove(_output._raw_predictions, fs, true);
+    return super.remove_impl(fs, cascade);
+  }
+
+  /** Write out K/V pairs, in this case the raw predictions */
+  @Override protected AutoBuffer writeAll_impl(AutoBuffer ab) {
+    ab.putKey(_output._raw_predictions);
+    return super.writeAll_impl(ab);
+  }
+  @Override protected Keyed readAll_impl(AutoBuffer ab, Futures fs) {
+    ab.getKey(_output._raw_predictions,fs);
+    return super.readAll_impl(ab,fs);
+  }
+
   @Override
   protected ScoreContributionsTask getScoreContributionsTask(SharedTreeModel model) {
       return new ScoreContributionsTask(this);
@@ -515,44 +515,51 @@ public class LinearAlgebraUtils {
     @Override public void map(Chunk cs[]) {
       assert (_ncolA + _ncolQ) == cs.length;
       _atq = new double[_ncolExp][_ncolQ];  // not okay to share.
-
-      for(int k = _ncolA; k < (_ncolA + _ncolQ); k++) {
-        // Categorical columns
-        int cidx;
-        for(int p = 0; p < _ainfo._cats; p++) {
-          for(int row = 0; row < cs[0]._len; row++) {
-            if(cs[p].isNA(row) && _ainfo._skipMissing) continue;
-            double q = cs[k].atd(row);
-            double a = cs[p].atd(row);
-
-            if (Double.isNaN(a)) {
-              if (_ainfo._imputeMissing)
-                cidx = _ainfo.catNAFill()[p];
-              else if (!_ainfo._catMissing[p])
-                continue;   // Skip if entry missing and no NA bucket. All indicators will be zero.
-              else
-                cidx = _ainfo._catOffsets[p+1]-1;     // Otherwise, missing value turns into extra (last) factor
-            } else
-              cidx = _ainfo.getCategoricalId(p, (int)a);
-            if(cidx >= 0) _atq[cidx][k-_ncolA] += q;   // Ignore categorical levels outside domain
+      final int len = cs[0]._len;
+
+      // Decompress Q once (row-major), so that every entry of A is read once instead of once per column of Q
+      double[] q = MemoryManager.malloc8d(len * _ncolQ);
+      for(int k = 0; k < _ncolQ; k++)
+        for(int row = 0; row < len; row++)
+          q[row * _ncolQ + k] = cs[_ncolA + k].atd(row);
+
+      // Categorical columns
+      int cidx;
+      for(int p = 0; p < _ainfo._cats; p++) {
+        for(int row = 0; row < len; row++) {
+          if(cs[p].isNA(row) && _ainfo._skipMissing) continue;
+          double a = cs[p].atd(row);
+
+          if (Double.isNaN(a)) {
+            if (_ainfo._imputeMissing)
+              cidx = _ainfo.catNAFill()[p];
+            else if (!_ainfo._catMissing[p])
+              continue;   // Skip if entry missing and no NA bucket. All indicators will be zero.
+            else
+              cidx = _ainfo._catOffsets[p+1]-1;     // Otherwise, missing value turns into extra (last) factor
+          } else
+            cidx = _ainfo.getCategoricalId(p, (int)a);
+          if(cidx >= 0) {   // Ignore categorical levels outside domain
+            final double[] atq = _atq[cidx];
+            for(int k = 0, off = row * _ncolQ; k < _ncolQ; k++) atq[k] += q[off + k];
           }
         }
+      }
 
-        // Numeric columns
-        int pnum = 0;
-        int pexp = _ainfo.numStart();
-        for(int p = _ainfo._cats; p < _ncolA; p++) {
-          for(int row = 0; row  < cs[0]._len; row++) {
-            if(cs[p].isNA(row) && _ainfo._skipMissing) continue;
-            double q = cs[k].atd(row);
-            double a = cs[p].atd(row);
-            a = modifyNumeric(a, pnum, _ainfo);
-            _atq[pexp][k-_ncolA] += q * a;
-          }
-          pexp++; pnum++;
+      // Numeric columns
+      int pnum = 0;
+      int pexp = _ainfo.numStart();
+      for(int p = _ainfo._cats; p < _ncolA; p++) {
+        final double[] atq = _atq[pexp];
+        for(int row = 0; row  < len; row++) {
+          if(cs[p].isNA(row) && _ainfo._skipMissing) continue;
+          double a = cs[p].atd(row);
+          a = modifyNumeric(a, pnum, _ainfo);
+          for(int k = 0, off = row * _ncolQ; k < _ncolQ; k++) atq[k] += q[off + k] * a;
         }
-        assert pexp == _atq.length;
+        pexp++; pnum++;
       }
+      assert pexp == _atq.length;
     }
 
     @Override public void reduce(SMulTask other) {
@@ -0,0 +1,71 @@
+package hex.word2vec;
+
+import water.Key;
+import water.Keyed;
+
+/**
+ * Noise distribution for negative sampling: words are drawn proportionally to count^0.75.
+ *
+ * Uses Vose's alias method, a draw costs one uniform int, one uniform float and at most
+ * two array lookups independently of the vocabulary size (word2vec.c uses a 1e8 element
+ * table for the same purpose).
+ */
+class UnigramAliasTable extends Keyed<UnigramAliasTable> {
+  static final double POWER = 0.75;
+
+  float[] _prob;
+  int[] _alias;
+
+  public UnigramAliasTable() {}
+
+  private UnigramAliasTable(Key<UnigramAliasTable> key, int size) {
+    super(key);
+    _prob = new float[size];
+    _alias = new int[size];
+  }
+
+  static UnigramAliasTable buildUnigramAliasTable(long[] wordCounts) {
+    final int size = wordCounts.length;
+    double[] p = new double[size];
+    double total = 0;
+    for (int i = 0; i < size; i++)
+      total += p[i] = Math.pow(wordCounts[i], POWER);
+
+    // scale probabilities so that the average bucket holds exactly 1.0
+    int[] small = new int[size];
+    int[] large = new int[size];
+    int ns = 0, nl = 0;
+    for (int i = 0; i < size; i++) {
+      p[i] = p[i] * size / total;
+      if (p[i] < 1) small[ns++] = i;
+      else large[nl++] = i;
+    }
+    UnigramAliasTable t = new UnigramAliasTable(Key.<UnigramAliasTable>make(), size);
+    while (ns > 0 && nl > 0) {
+      int s = small[--ns], l = large[--nl];
+      t._prob[s] = (float) p[s];
+      t._alias[s] = l;
+      p[l] = (p[l] + p[s]) - 1;
+      if (p[l] < 1) small[ns++] = l;
+      else large[nl++] = l;
+    }
+    // leftovers are (up to rounding) exactly full buckets
+    while (nl > 0) { int l = large[--nl]; t._prob[l] = 1; t._alias[l] = l; }
+    while (ns > 0) { int s = small[--ns]; t._prob[s] = 1; t._alias[s] = s; }
+    return t;
+  }
+
+  /**
+   * @param bucket uniform random int in [0, size)
+   * @param u uniform random float in [0, 1)
+   * @return index of the sampled word
+   */
+  int sample(int bucket, float u) {
+    return u < _prob[bucket] ? bucket : _alias[bucket];
+  }
+
+  int size() {
+    return _prob.length;
+  }
+
+}
@@ -14,7 +14,7 @@ import java.util.List;
 
 public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecParameters,Word2VecModel.Word2VecOutput> {
   public enum WordModel { SkipGram, CBOW }
-  public enum NormModel { HSM }
+  public enum NormModel { HSM, NegSampling }
 
   @Override public ModelCategory[] can_build() { return new ModelCategory[]{ ModelCategory.WordEmbedding, }; }
   @Override public BuilderVisibility builderVisibility() { return BuilderVisibility.Stable; }
@@ -49,6 +49,7 @@ public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecP
     if (_parms._window_size < 1) error("_window_size", "Negative window size not allowed for Word2Vec.  Expected value > 0, received " + _parms._window_size);
     if (_parms._sent_sample_rate < 0.0) error("_sent_sample_rate", "Negative sentence sample rate not allowed for Word2Vec.  Expected a value > 0.0, received " + _parms._sent_sample_rate);
     if (_parms._init_learning_rate < 0.0) error("_init_learning_rate", "Negative learning rate not allowed for Word2Vec.  Expected a value > 0.0, received " + _parms._init_learning_rate);
+    if (_parms._norm_model == NormModel.NegSampling && _parms._negative < 1) error("_negative", "Negative sampling needs at least one negative sample per word.  Expected value > 0, received " + _parms._negative);
     if (_parms._epochs < 1) error("_epochs", "Negative epoch count not allowed for Word2Vec.  Expected value > 0, received " + _parms._epochs);
   }
 
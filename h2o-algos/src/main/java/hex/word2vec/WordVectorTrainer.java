@@ -1,6 +1,9 @@
 package hex.word2vec;
 
+import water.AutoBuffer;
 import water.DKV;
+import water.H2O;
+import water.Iced;
 import water.Job;
 import water.Key;
 import water.MRTask;
@@ -12,8 +15,17 @@ import water.util.IcedHashMap;
 import water.util.IcedHashMapGeneric;
 import water.util.IcedLong;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
+/**
+ * One epoch of Word2Vec training.
+ *
+ * All map calls on a node update the same weight arrays without any locking (Hogwild!): updates are sparse
+ * (a handful of rows per trained word), so collisions are rare and harmless. The node-local models are then
+ * averaged across the cloud, weighted by the number of words each node processed. Only the rows a node actually
+ * updated are sent back over the wire, see {@link SharedWeights}.
+ */
 public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   private static final int MAX_SENTENCE_LEN = 1000;
   private static final int EXP_TABLE_SIZE = 1000;
@@ -26,7 +38,8 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
   // Params
   private final Word2Vec.WordModel _wordModel;
-  private final int _wordVecSize, _windowSize, _epochs;
+  private final Word2Vec.NormModel _normModel;
+  private final int _wordVecSize, _windowSize, _epochs, _negative;
   private final float _initLearningRate;
   private final float _sentSampleRate;
   private final long _vocabWordCount;
@@ -35,13 +48,15 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   private final Key<Vocabulary> _vocabKey;
   private final Key<WordCounts> _wordCountsKey;
   private final Key<HBWTree> _treeKey;
+  private final Key<UnigramAliasTable> _noiseKey;
   private final long _prevTotalProcessedWords;
 
   // Model IN & OUT
   // _syn0 represents the matrix of synaptic weights connecting the input layer of the NN to the hidden layer,
   // similarly _syn1 corresponds to the weight matrix of the synapses connecting the hidden layer to the output layer
   // both matrices are represented in a 1D array, where M[i,j] == array[i * VEC_SIZE + j]
-  float[] _syn0, _syn1;
+  // with negative sampling _syn1 holds the output vectors of the words (syn1neg in word2vec.c)
+  SharedWeights _weights;
   long _processedWords = 0L;
 
   // Node-Local (Shared)
@@ -50,6 +65,9 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   private transient IcedHashMap<BufferedString, IcedLong> _wordCounts;
   private transient int[][] _HBWTCode;
   private transient int[][] _HBWTPoint;
+  private transient UnigramAliasTable _noise;
+  private transient float[] _syn0, _syn1;
+  private transient byte[] _touched0, _touched1;
 
   private float _curLearningRate;
   private long _seed = System.nanoTime();
@@ -59,11 +77,14 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     _job = job;
 
     _treeKey = input._treeKey;
+    _noiseKey = input._noiseKey;
     _vocabKey = input._vocabKey;
     _wordCountsKey = input._wordCountsKey;
 
     // Params
     _wordModel = input.getParams()._word_model;
+    _normModel = input.getParams()._norm_model;
+    _negative = input.getParams()._negative;
     _wordVecSize = input.getParams()._vec_size;
     _windowSize = input.getParams()._window_size;
     _sentSampleRate = input.getParams()._sent_sample_rate;
@@ -73,8 +94,7 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     _vocabWordCount = input._vocabWordCount;
     _prevTotalProcessedWords = input._totalProcessedWords;
 
-    _syn0 = input._syn0;
-    _syn1 = input._syn1;
+    _weights = new SharedWeights(input._syn0, input._syn1, _wordVecSize);
     _curLearningRate = calcLearningRate(_initLearningRate, _epochs, _prevTotalProcessedWords, _vocabWordCount);
   }
 
@@ -82,10 +102,19 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   protected void setupLocal() {
     _vocab = ((Vocabulary) DKV.getGet(_vocabKey))._data;
     _wordCounts = ((WordCounts) DKV.getGet(_wordCountsKey))._data;
-    HBWTree t = DKV.getGet(_treeKey);
-    _HBWTCode = t._code;
-    _HBWTPoint = t._point;
+    if (_normModel == Word2Vec.NormModel.HSM) {
+      HBWTree t = DKV.getGet(_treeKey);
+      _HBWTCode = t._code;
+      _HBWTPoint = t._point;
+    } else
+      _noise = DKV.getGet(_noiseKey);
     _nodeProcessedWords = new IcedLong(0L);
+    // the copies sent to the other nodes keep the original (full) weights, this node works on its own view
+    _weights = _weights.nodeLocal(H2O.CLOUD.size() > 1);
+    _syn0 = _weights._syn0;
+    _syn1 = _weights._syn1;
+    _touched0 = _weights._touched0;
+    _touched1 = _weights._touched1;
   }
 
   // Precompute the exp() table
@@ -103,6 +132,7 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     float[] neu1 = new float[vecSize];
     float[] neu1e = new float[vecSize];
     ChunkSentenceIterator sentIter = new ChunkSentenceIterator(chk);
+    _seed += chk.cidx() * 0x9E3779B97F4A7C15L; // chunks on the same node should not draw the same random numbers
 
     int wordCount = 0;
     while (sentIter.hasNext()) {
@@ -151,10 +181,9 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
   @Override public void reduce(WordVectorTrainer other) {
     _processedWords += other._processedWords;
-    if (_syn0 != other._syn0) { // other task worked on a different syn0
+    if (_weights != other._weights) { // other task worked on a different syn0
       float c = (float) other._processedWords / _processedWords;
-      ArrayUtils.add(1.0f - c, _syn0, c, other._syn0);
-      ArrayUtils.add(1.0f - c, _syn1, c, other._syn1);
+      _weights.average(1.0f - c, other._weights, c);
       // for diagnostics only
       _nodeProcessedWords._val += other._nodeProcessedWords._val;
     }
@@ -165,10 +194,53 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     final int l1 = winWord * vecSize;
     for (int i = 0; i < vecSize; i++) neu1e[i] = 0;
 
-    hierarchicalSoftmaxSG(curWord, l1, neu1e);
+    if (_noise != null)
+      negativeSampling(curWord, _syn0, l1, neu1e);
+    else
+      hierarchicalSoftmaxSG(curWord, l1, neu1e);
 
     // Learned weights input -> hidden
     for (int i = 0; i < vecSize; i++) _syn0[i + l1] += neu1e[i];
+    if (_touched0 != null) _touched0[winWord] = 1;
+  }
+
+  /**
+   * Trains the target word against {@link #_negative} noise words drawn from the unigram distribution.
+   * @param hidden either syn0 (SkipGram) or the averaged context (CBOW)
+   * @param l1 offset of the hidden vector in {@code hidden}
+   */
+  private void negativeSampling(final int targetWord, final float[] hidden, final int l1, float[] neu1e) {
+    final int vecSize = _wordVecSize, vocabSize = _noise.size();
+    final float alpha = _curLearningRate;
+
+    for (int d = 0; d <= _negative; d++) {
+      int target;
+      int label;
+      if (d == 0) {
+        target = targetWord;
+        label = 1;
+      } else {
+        long r = cheapRandLong();
+        target = _noise.sample((int) ((r >>> 32) % vocabSize), (r & 0xFFFFFF) / (float) 0x1000000);
+        if (target == targetWord) continue;
+        label = 0;
+      }
+      int l2 = target * vecSize;
+
+      float f = 0;
+      // Propagate hidden -> output (calc sigmoid)
+      for (int j = 0; j < vecSize; j++) f += hidden[j + l1] * _syn1[j + l2];
+
+      float gradient;
+      if (f > MAX_EXP) gradient = (label - 1) * alpha;
+      else if (f < -MAX_EXP) gradient = label * alpha;
+      else gradient = (label - _expTable[(int) ((f + MAX_EXP) * (EXP_TABLE_SIZE / MAX_EXP / 2))]) * alpha;
+      // Propagate errors output -> hidden
+      for (int j = 0; j < vecSize; j++) neu1e[j] += gradient * _syn1[j + l2];
+      // Learn weights hidden -> output
+      for (int j = 0; j < vecSize; j++) _syn1[j + l2] += gradient * hidden[j + l1];
+      if (_touched1 != null) _touched1[target] = 1;
+    }
   }
 
   private void hierarchicalSoftmaxSG(final int targetWord, final int l1, float[] neu1e) {
@@ -191,6 +263,7 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
       for (int j = 0; j < vecSize; j++) neu1e[j] += gradient * _syn1[j + l2];
       // Learn weights hidden -> output
       for (int j = 0; j < vecSize; j++) _syn1[j + l2] += gradient * _syn0[j + l1];
+      if (_touched1 != null) _touched1[_HBWTPoint[targetWord][i]] = 1;
     }
   }
 
@@ -209,7 +282,10 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     final int curWinSize = winSize * 2 + 1 - winSize;
 
     for (int i = 0; i < vecSize; i++) neu1[i] /= bagSize;
-    hierarchicalSoftmaxCBOW(curWord, neu1, neu1e);
+    if (_noise != null)
+      negativeSampling(curWord, neu1, 0, neu1e);
+    else
+      hierarchicalSoftmaxCBOW(curWord, neu1, neu1e);
 
     // hidden -> in
     for (int winIdx = winSizeMod; winIdx < curWinSize; winIdx++) {
@@ -218,6 +294,7 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
         if (winWordSentIdx < 0 || winWordSentIdx >= sentLen) continue;
         winWord = sentence[winWordSentIdx];
         for (int i = 0; i < vecSize; i++) _syn0[i + winWord * vecSize] += neu1e[i];
+        if (_touched0 != null) _touched0[winWord] = 1;
       }
     }
   }
@@ -243,6 +320,7 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
       for (int j = 0; j < vecSize; j++) neu1e[j] += gradient * _syn1[j + l2];
       // Learn weights hidden -> output
       for (int j = 0; j < vecSize; j++) _syn1[j + l2] += gradient * neu1[j];
+      if (_touched1 != null) _touched1[_HBWTPoint[targetWord][i]] = 1;
     }
   }
 
@@ -259,8 +337,12 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   }
 
   public void updateModelInfo(Word2VecModelInfo modelInfo) {
-    modelInfo._syn0 = _syn0;
-    modelInfo._syn1 = _syn1;
+    if (_weights.isCompressed()) // this node had no data, its copy of the weights was not modified
+      _weights.applyTo(modelInfo._syn0, modelInfo._syn1);
+    else {
+      modelInfo._syn0 = _weights._syn0;
+      modelInfo._syn1 = _weights._syn1;
+    }
     modelInfo._totalProcessedWords += _processedWords;
   }
 
@@ -271,11 +353,168 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     * @return int between 0-(max-1).
     */
   private int cheapRandInt(int max) {
+    int r = (int) cheapRandLong() % max;
+    return r > 0 ? r : -r;
+  }
+
+  private long cheapRandLong() {
     _seed ^= ( _seed << 21);
     _seed ^= ( _seed >>> 35);
     _seed ^= ( _seed << 4);
-    int r = (int) _seed % max;
-    return r > 0 ? r : -r;
+    return _seed;
+  }
+
+  /**
+   * Weights of the model as seen by one node.
+   *
+   * The task is sent out with the full weight arrays. A node answers with the changes of only the rows it
+   * updated (rows it never touched are still equal to the weights the epoch started with), partial results
+   * of nodes that had no data of their own are merged in this compressed form.
+   */
+  static class SharedWeights extends Iced<SharedWeights> {
+    private int _vecSize;
+    float[] _syn0, _syn1;
+
+    // compressed form of a remote result: updated row indices and the change of their values
+    private int[] _rows0, _rows1;
+    private float[] _deltas0, _deltas1;
+
+    // Node-Local
+    transient byte[] _touched0, _touched1; // 1 == row was updated on this node (or its children)
+    private transient float[] _base0, _base1;      // weights at the start of the epoch
+
+    public SharedWeights() {}
+
+    SharedWeights(float[] syn0, float[] syn1, int vecSize) {
+      _syn0 = syn0;
+      _syn1 = syn1;
+      _vecSize = vecSize;
+    }
+
+    SharedWeights nodeLocal(boolean distributed) {
+      SharedWeights w = new SharedWeights(_syn0, _syn1, _vecSize);
+      if (distributed) {
+        w._touched0 = new byte[_syn0.length / _vecSize];
+        w._touched1 = new byte[_syn1.length / _vecSize];
+        w._base0 = _syn0.clone();
+        w._base1 = _syn1.clone();
+      }
+      return w;
+    }
+
+    boolean isCompressed() {
+      return _syn0 == null;
+    }
+
+    /** this = a * this + b * other */
+    void average(float a, SharedWeights other, float b) {
+      if (isCompressed()) { // no local data, only merging results of other nodes
+        assert other.isCompressed();
+        mergeDeltas(a, other, b);
+      } else if (other.isCompressed()) {
+        average(a, _syn0, _base0, _touched0, b, other._rows0, other._deltas0);
+        average(a, _syn1, _base1, _touched1, b, other._rows1, other._deltas1);
+      } else {
+        ArrayUtils.add(a, _syn0, b, other._syn0);
+        ArrayUtils.add(a, _syn1, b, other._syn1);
+      }
+    }
+
+    private void average(float a, float[] syn, float[] base, byte[] touched, float b, int[] rows, float[] deltas) {
+      final int vecSize = _vecSize;
+      int next = 0;
+      for (int row = 0; row < syn.length / vecSize; row++) {
+        final int off = row * vecSize;
+        if (next < rows.length && rows[next] == row) {
+          final int dOff = next++ * vecSize;
+          for (int j = 0; j < vecSize; j++) syn[off + j] = a * syn[off + j] + b * (base[off + j] + deltas[dOff + j]);
+          touched[row] = 1;
+        } else
+          for (int j = 0; j < vecSize; j++) syn[off + j] = a * syn[off + j] + b * base[off + j];
+      }
+    }
+
+    private void mergeDeltas(float a, SharedWeights other, float b) {
+      int[][] rows = new int[1][];
+      _deltas0 = mergeDeltas(a, _rows0, _deltas0, b, other._rows0, other._deltas0, rows);
+      _rows0 = rows[0];
+      _deltas1 = mergeDeltas(a, _rows1, _deltas1, b, other._rows1, other._deltas1, rows);
+      _rows1 = rows[0];
+    }
+
+    private float[] mergeDeltas(float a, int[] rowsA, float[] deltasA, float b, int[] rowsB, float[] deltasB, int[][] rowsOut) {
+      final int vecSize = _vecSize;
+      int[] rows = new int[rowsA.length + rowsB.length];
+      float[] deltas = new float[rows.length * vecSize];
+      int i = 0, j = 0, n = 0;
+      while (i < rowsA.length || j < rowsB.length) {
+        int ra = i < rowsA.length ? rowsA[i] : Integer.MAX_VALUE;
+        int rb = j < rowsB.length ? rowsB[j] : Integer.MAX_VALUE;
+        rows[n] = Math.min(ra, rb);
+        if (ra == rows[n]) { for (int k = 0; k < vecSize; k++) deltas[n * vecSize + k] += a * deltasA[i * vecSize + k]; i++; }
+        if (rb == rows[n]) { for (int k = 0; k < vecSize; k++) deltas[n * vecSize + k] += b * deltasB[j * vecSize + k]; j++; }
+        n++;
+      }
+      rowsOut[0] = Arrays.copyOf(rows, n);
+      return Arrays.copyOf(deltas, n * vecSize);
+    }
+
+    /** Applies a compressed result onto the weights the epoch started with. */
+    void applyTo(float[] syn0, float[] syn1) {
+      applyTo(syn0, _rows0, _deltas0);
+      applyTo(syn1, _rows1, _deltas1);
+    }
+
+    private void applyTo(float[] syn, int[] rows, float[] deltas) {
+      for (int i = 0; i < rows.length; i++)
+        for (int j = 0; j < _vecSize; j++)
+          syn[rows[i] * _vecSize + j] += deltas[i * _vecSize + j];
+    }
+
+    private static int[] touchedRows(byte[] touched) {
+      int cnt = 0;
+      for (byte t : touched) cnt += t;
+      int[] rows = new int[cnt];
+      for (int i = 0, k = 0; i < touched.length; i++)
+        if (touched[i] != 0) rows[k++] = i;
+      return rows;
+    }
+
+    private static float[] rowDeltas(float[] syn, float[] base, int[] rows, int vecSize) {
+      float[] deltas = new float[rows.length * vecSize];
+      for (int i = 0; i < rows.length; i++)
+        for (int j = 0, off = rows[i] * vecSize; j < vecSize; j++)
+          deltas[i * vecSize + j] = syn[off + j] - base[off + j];
+      return deltas;
+    }
+
+    public final AutoBuffer write_impl(AutoBuffer ab) {
+      ab.put4(_vecSize);
+      if (_touched0 != null) { // trained on this node: send back the updated rows only
+        int[] rows0 = touchedRows(_touched0);
+        int[] rows1 = touchedRows(_touched1);
+        return ab.putZ(true)
+                .putA4(rows0).putA4f(rowDeltas(_syn0, _base0, rows0, _vecSize))
+                .putA4(rows1).putA4f(rowDeltas(_syn1, _base1, rows1, _vecSize));
+      }
+      if (isCompressed())
+        return ab.putZ(true).putA4(_rows0).putA4f(_deltas0).putA4(_rows1).putA4f(_deltas1);
+      return ab.putZ(false).putA4f(_syn0).putA4f(_syn1);
+    }
+
+    public final SharedWeights read_impl(AutoBuffer ab) {
+      _vecSize = ab.get4();
+      if (ab.getZ()) {
+        _rows0 = ab.getA4();
+        _deltas0 = ab.getA4f();
+        _rows1 = ab.getA4();
+        _deltas1 = ab.getA4f();
+      } else {
+        _syn0 = ab.getA4f();
+        _syn1 = ab.getA4f();
+      }
+      return this;
+    }
   }
 
   private class ChunkSentenceIterator implements Iterator<int[]> {
@@ -1602,6 +1602,8 @@ public class DeepLearningTest extends TestUtil {
   public void testMiniBatch50() {
     Frame tfr = null;
     DeepLearningModel dl = null;
+    DeepLearningModel dl1 = null;
+    DeepLearningModel dl2 = null;
 
     try {
       tfr = parse_test_file("./smalldata/gbm_test/BostonHousing.csv");
@@ -1611,16 +1613,30 @@ public class DeepLearningTest extends TestUtil {
       parms._reproducible = true;
       parms._hidden = new int[]{20,20};
       parms._seed = 0xdecaf;
-      parms._mini_batch_size = 50;
 
-      dl = new DeepLearning(parms).trainModel().get();
+      // per-row updates (mini_batch_size used to be clamped to 1)
+      parms._mini_batch_size = 1;
+      dl1 = new DeepLearning(parms).trainModel().get();
+      Assert.assertEquals(12.938076268040659,dl1._output._training_metrics._MSE,1e-6);
 
-      Assert.assertEquals(12.938076268040659,dl._output._training_metrics._MSE,1e-6);
+      // one update per mini-batch: reproducible, not the per-row model, and better than predicting the mean
+      parms._mini_batch_size = 50;
+      dl = new DeepLearning(parms).trainModel().get();
+      dl2 = new DeepLearning(parms).trainModel().get();
+      double mse = dl._output._training_metrics._MSE;
+      Assert.assertEquals(50, dl._parms._mini_batch_size);
+      Assert.assertEquals(mse, dl2._output._training_metrics._MSE, 0);
+      Assert.assertArrayEquals(dl.model_info().get_weights(0).raw(), dl2.model_info().get_weights(0).raw(), 0);
+      Assert.assertFalse(Arrays.equals(dl.model_info().get_weights(0).raw(), dl1.model_info().get_weights(0).raw()));
+      Assert.assertNotEquals(dl1._output._training_metrics._MSE, mse, 1e-6);
+      Assert.assertTrue("MSE: " + mse, mse < tfr.lastVec().sigma() * tfr.lastVec().sigma());
 
     } finally {
       if (tfr != null) tfr.delete();
       if (dl != null) dl.deleteCrossValidationModels();
       if (dl != null) dl.delete();
+      if (dl1 != null) dl1.delete();
+      if (dl2 != null) dl2.delete();
     }
   }
 
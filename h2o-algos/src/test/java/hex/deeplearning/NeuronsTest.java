@@ -109,4 +109,37 @@ public class NeuronsTest extends water.TestUtil {
     System.out.println("optimized dense row * dense time: " + PrettyPrint.msecs(System.currentTimeMillis()-start, true));
   }
 
+  @Test
+  public void miniBatchAndSparseKernelsMatchGemv() {
+    Random rng = new Random(0xBA7C4);
+    for (int trial = 0; trial < 50; ++trial) {
+      int rows = 1 + rng.nextInt(70);
+      int cols = 1 + rng.nextInt(300);
+      int n = 1 + rng.nextInt(9);
+      float[] a = new float[rows * cols];
+      for (int i = 0; i < a.length; ++i) a[i] = (float) rng.nextGaussian();
+      double[] y = new double[rows];
+      for (int i = 0; i < rows; ++i) y[i] = rng.nextGaussian();
+      byte[] bits = new byte[(rows + 7) / 8];
+      rng.nextBytes(bits);
+      double[][] x = new double[n][cols];
+      for (double[] xx : x)
+        for (int i = 0; i < cols; ++i) xx[i] = rng.nextInt(5) == 0 ? rng.nextGaussian() : 0;
+      double[][] res = new double[n][rows];
+      gemm_row_optimized(res, a, x, y, bits, n);
+      for (int mb = 0; mb < n; ++mb) {
+        double[] expected = new double[rows];
+        gemv_row_optimized(expected, a, x[mb], y, bits);
+        Assert.assertArrayEquals(expected, res[mb], 0);
+        int[] nz = new int[cols];
+        int nnz = 0;
+        for (int i = 0; i < cols; ++i)
+          if (x[mb][i] != 0) nz[nnz++] = i;
+        double[] sparse = new double[rows];
+        gemv_sparse(sparse, a, x[mb], nz, nnz, y, bits);
+        Assert.assertArrayEquals(expected, sparse, 0);
+      }
+    }
+  }
+
 }
@@ -0,0 +1,188 @@
+package hex.glm;
+
+import hex.glm.GLMModel.GLMParameters;
+import hex.glm.GLMModel.GLMParameters.Family;
+import hex.glm.GLMModel.GLMParameters.Solver;
+import hex.gram.Gram;
+import hex.gram.SparseCholesky;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GLMSparseGramTest extends TestUtil {
+
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  private boolean _sparseGram;
+  private int _minCols;
+
+  @Before public void saveConfig() {
+    _sparseGram = GLM.SPARSE_GRAM;
+    _minCols = GLM.SPARSE_GRAM_MIN_COLS;
+  }
+
+  @After public void restoreConfig() {
+    GLM.SPARSE_GRAM = _sparseGram;
+    GLM.SPARSE_GRAM_MIN_COLS = _minCols;
+  }
+
+  private static Frame oneHotFrame(int rows, boolean binomial) {
+    Random rnd = new Random(42);
+    String[] c1 = new String[rows], c2 = new String[rows];
+    double[] x = new double[rows], y = new double[rows];
+    for (int i = 0; i < rows; i++) {
+      int a = rnd.nextInt(200), b = rnd.nextInt(30);
+      c1[i] = "a" + a;
+      c2[i] = "b" + b;
+      x[i] = rnd.nextGaussian();
+      double eta = 0.01 * (a % 17) - 0.02 * (b % 5) + 0.5 * x[i] + 0.3 * rnd.nextGaussian();
+      y[i] = binomial ? (eta > 0 ? 1 : 0) : eta;
+    }
+    TestFrameBuilder builder = new TestFrameBuilder()
+            .withColNames("c1", "c2", "x", "y")
+            .withVecTypes(Vec.T_CAT, Vec.T_CAT, Vec.T_NUM, binomial ? Vec.T_CAT : Vec.T_NUM)
+            .withDataForCol(0, c1)
+            .withDataForCol(1, c2)
+            .withDataForCol(2, x)
+            .withChunkLayout(rows / 4, rows / 4, rows / 4, rows - 3 * (rows / 4));
+    return (binomial ? builder.withDataForCol(3, toLabels(y)) : builder.withDataForCol(3, y)).build();
+  }
+
+  private static String[] toLabels(double[] y) {
+    String[] res = new String[y.length];
+    for (int i = 0; i < y.length; i++) res[i] = y[i] == 1 ? "yes" : "no";
+    return res;
+  }
+
+  private static Map<String, Double> fit(Frame fr, Family family, Solver solver, double alpha, boolean sparse) {
+    GLM.SPARSE_GRAM = sparse;
+    GLM.SPARSE_GRAM_MIN_COLS = 0;
+    GLMParameters parms = new GLMParameters(family);
+    parms._train = fr._key;
+    parms._response_column = "y";
+    parms._solver = solver;
+    parms._alpha = new double[]{alpha};
+    parms._lambda = new double[]{1e-3};
+    parms._standardize = true;
+    GLMModel model = new GLM(parms).trainModel().get();
+    Scope.track_generic(model);
+    return model.coefficients();
+  }
+
+  private static void assertCoefficientsEqual(Map<String, Double> expected, Map<String, Double> actual, double tol) {
+    assertEquals(expected.keySet(), actual.keySet());
+    for (String name : expected.keySet())
+      assertEquals(name, expected.get(name), actual.get(name), tol);
+  }
+
+  @Test public void testGaussianMatchesDenseGram() {
+    try {
+      Scope.enter();
+      Frame fr = oneHotFrame(4000, false);
+      Map<String, Double> dense = fit(fr, Family.gaussian, Solver.IRLSM, 0, false);
+      Map<String, Double> sparse = fit(fr, Family.gaussian, Solver.IRLSM, 0, true);
+      assertCoefficientsEqual(dense, sparse, 1e-6);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testBinomialMatchesDenseGram() {
+    try {
+      Scope.enter();
+      Frame fr = oneHotFrame(4000, true);
+      Map<String, Double> dense = fit(fr, Family.binomial, Solver.IRLSM, 0, false);
+      Map<String, Double> sparse = fit(fr, Family.binomial, Solver.IRLSM, 0, true);
+      assertCoefficientsEqual(dense, sparse, 1e-4);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testL1WithCoordinateDescent() {
+    try {
+      Scope.enter();
+      Frame fr = oneHotFrame(4000, false);
+      Map<String, Double> dense = fit(fr, Family.gaussian, Solver.COORDINATE_DESCENT, 0.5, false);
+      Map<String, Double> sparse = fit(fr, Family.gaussian, Solver.COORDINATE_DESCENT, 0.5, true);
+      assertCoefficientsEqual(dense, sparse, 1e-3);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testSparseCholeskySolve() {
+    // block diagonal (the one-hot part) with a dense border (numerics + intercept)
+    int n = 300;
+    Random rnd = new Random(7);
+    double[][] a = new double[n][n];
+    for (int r = 0; r < 5000; r++) {
+      int[] ids = new int[]{rnd.nextInt(250), 250 + rnd.nextInt(45), 295, 296, 297, 298, n - 1};
+      double[] xs = new double[]{1, 1, rnd.nextGaussian(), rnd.nextGaussian(), rnd.nextGaussian(), rnd.nextGaussian(), 1};
+      for (int i = 0; i < ids.length; i++)
+        for (int j = 0; j < ids.length; j++)
+          a[ids[i]][ids[j]] += xs[i] * xs[j];
+    }
+    for (int i = 0; i < n; i++) a[i][i] += 1e-3;
+    SparseCholesky chol = lowerTriangle(a);
+    double[] b = new double[n];
+    for (int i = 0; i < n; i++) b[i] = rnd.nextGaussian();
+    double[] x = b.clone();
+    chol.solve(x);
+    for (int i = 0; i < n; i++) {
+      double s = 0;
+      for (int j = 0; j < n; j++) s += a[i][j] * x[j];
+      assertEquals(b[i], s, 1e-8);
+    }
+    // one-hot blocks do not fill in much
+    assertTrue(chol.nonZeros() < 4 * countLower(a));
+  }
+
+  @Test(expected = Gram.NonSPDMatrixException.class)
+  public void testNonSPDMatrixIsRejected() {
+    lowerTriangle(new double[][]{{1, 2}, {2, 1}});
+  }
+
+  private static int countLower(double[][] a) {
+    int cnt = 0;
+    for (int j = 0; j < a.length; j++)
+      for (int i = j; i < a.length; i++)
+        if (a[i][j] != 0) cnt++;
+    return cnt;
+  }
+
+  private static SparseCholesky lowerTriangle(double[][] a) {
+    int n = a.length;
+    int[] colPtr = new int[n + 1];
+    List<Integer> rows = new ArrayList<>();
+    List<Double> vals = new ArrayList<>();
+    for (int j = 0; j < n; j++) {
+      for (int i = j; i < n; i++)
+        if (a[i][j] != 0) {
+          rows.add(i);
+          vals.add(a[i][j]);
+        }
+      colPtr[j + 1] = rows.size();
+    }
+    int[] rs = new int[rows.size()];
+    double[] vs = new double[vals.size()];
+    for (int k = 0; k < rs.length; k++) {
+      rs[k] = rows.get(k);
+      vs[k] = vals.get(k);
+    }
+    return new SparseCholesky(n, colPtr, rs, vs);
+  }
+}
@@ -0,0 +1,46 @@
+package hex.gram;
+
+import hex.DataInfo;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GramTest extends TestUtil {
+
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testBlockedRowsMatchPerRowUpdates() {
+    try {
+      Scope.enter();
+      int nums = 2 * Gram.TILE + 17; // more than one tile, last one partial
+      Vec v = Scope.track(Vec.makeZero(1));
+      Frame fr = Scope.track(new Frame(v.makeCons(nums, 0, null, null)));
+      DataInfo dinfo = new DataInfo(fr, null, 0, false, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE,
+              false, false, false, false, false, false);
+      Gram perRow = new Gram(dinfo.fullN(), dinfo.largestCat(), dinfo.numNums(), dinfo._cats, true);
+      Gram blocked = new Gram(dinfo.fullN(), dinfo.largestCat(), dinfo.numNums(), dinfo._cats, true);
+      Random rnd = new Random(42);
+      for (int r = 0; r < 3 * Gram.ROW_BLOCK + 5; r++) {
+        double[] vals = new double[nums];
+        for (int i = 0; i < nums; i++) vals[i] = rnd.nextInt(4) == 0 ? 0 : rnd.nextGaussian();
+        DataInfo.Row row = dinfo.newDenseRow(vals, r);
+        double w = rnd.nextDouble();
+        perRow.addRow(row, w);
+        blocked.addRowBlocked(row, w);
+      }
+      blocked.flushRows();
+      for (int i = 0; i < perRow._xx.length; i++)
+        assertArrayEquals(perRow._xx[i], blocked._xx[i], 0);
+      dinfo.remove();
+    } finally {
+      Scope.exit();
+    }
+  }
+}
@@ -12,6 +12,8 @@ import water.TestUtil;
 import water.exceptions.H2OModelBuilderIllegalArgumentException;
 import water.fvec.Frame;
 import water.fvec.NFSFileVec;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
 import water.parser.ParseDataset;
 import water.util.*;
 
@@ -684,4 +686,77 @@ public class KMeansTest extends TestUtil {
     }
   }
 
+  @Test public void testPruneDistancesMatchesLloyds() {
+    try {
+      Scope.enter();
+      Frame fr = Scope.track(parse_test_file("smalldata/junit/weather.csv"));
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._train = fr._key;
+      parms._k = 8;
+      parms._max_iterations = 20;
+      parms._init = KMeans.Initialization.PlusPlus;
+      parms._seed = 1234;
+      KMeansModel plain = new KMeans(parms).trainModel().get();
+      Scope.track_generic(plain);
+      parms._prune_distances = true;
+      KMeansModel pruned = new KMeans(parms).trainModel().get();
+      Scope.track_generic(pruned);
+
+      assertEquals(plain._output._iterations, pruned._output._iterations);
+      for (int i = 0; i < parms._k; i++)
+        assertArrayEquals(plain._output._centers_raw[i], pruned._output._centers_raw[i], threshold);
+      assertEquals(plain._output._tot_withinss, pruned._output._tot_withinss, threshold);
+      long all = ArrayUtils.sum(plain._output._distance_computations);
+      long computed = ArrayUtils.sum(pruned._output._distance_computations);
+      assertTrue("Pruning computed " + computed + " of " + all + " distances", computed < all);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  // The weight column is not a feature: with missing values it used to count
+  // as a dimension in the k-means|| distances, skewing the initial centers
+  @Test public void testUnitWeightsMatchNoWeightsWithMissingValues() {
+    try {
+      Scope.enter();
+      Random rnd = new Random(0xCAFE);
+      double[][] cols = new double[3][300];
+      for (int r = 0; r < 300; r++)
+        for (int c = 0; c < 3; c++)
+          cols[c][r] = rnd.nextInt(10) < 2 ? Double.NaN : (r % 3) * 10 + rnd.nextGaussian();
+      Frame fr = new TestFrameBuilder()
+              .withColNames("a", "b", "c")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, cols[0])
+              .withDataForCol(1, cols[1])
+              .withDataForCol(2, cols[2])
+              .withChunkLayout(100, 100, 100)
+              .build();
+      Scope.track(fr);
+      Frame weighted = new Frame(Key.<Frame>make(), fr.names(), fr.vecs());
+      weighted.add("w", Scope.track(fr.anyVec().makeCon(1)));
+      DKV.put(weighted);
+      Scope.track_generic(weighted);
+
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._train = fr._key;
+      parms._k = 3;
+      parms._init = KMeans.Initialization.PlusPlus;
+      parms._seed = 42;
+      KMeansModel plain = new KMeans(parms).trainModel().get();
+      Scope.track_generic(plain);
+      parms._train = weighted._key;
+      parms._weights_column = "w";
+      KMeansModel unit = new KMeans(parms).trainModel().get();
+      Scope.track_generic(unit);
+
+      assertEquals(plain._output._iterations, unit._output._iterations);
+      for (int i = 0; i < parms._k; i++)
+        assertArrayEquals(plain._output._centers_raw[i], unit._output._centers_raw[i], threshold);
+      assertEquals(plain._output._tot_withinss, unit._output._tot_withinss, threshold);
+    } finally {
+      Scope.exit();
+    }
+  }
+
 }
@@ -190,6 +190,39 @@ public class SVDTest extends TestUtil {
     }
   }
 
+  @Test public void testArrestsRandomizedOversample() throws InterruptedException, ExecutionException {
+    // Leading singular values and vectors from testArrestsProb
+    double[] d_expected = new double[] {11.024148, 6.964086};
+    double[][] v_expected = ard(ard(-0.5358995, 0.4181809),
+                                ard(-0.5831836, 0.1879856),
+                                ard(-0.2781909, -0.8728062),
+                                ard(-0.5434321, -0.1673186));
+    SVDModel model = null;
+    Frame train = null;
+    try {
+      train = parse_test_file(Key.make("arrests.hex"), "smalldata/pca_test/USArrests.csv");
+      SVDModel.SVDParameters parms = new SVDModel.SVDParameters();
+      parms._train = train._key;
+      parms._nv = 2;
+      parms._oversample = 2;
+      parms._keep_u = false;
+      parms._transform = DataInfo.TransformType.STANDARDIZE;
+      parms._svd_method = SVDParameters.Method.Randomized;
+      parms._max_iterations = 4;
+      parms._save_v_frame = false;
+
+      model = new SVD(parms).trainModel().get();
+      Assert.assertEquals(2, model._output._d.length);
+      Assert.assertArrayEquals(d_expected, model._output._d, TOLERANCE);
+      TestUtil.checkEigvec(v_expected, model._output._v, TOLERANCE);
+      // standardized data: total variance is the number of columns
+      Assert.assertEquals(4, model._output._total_variance, TOLERANCE);
+    } finally {
+      if (train != null) train.delete();
+      if (model != null) model.delete();
+    }
+  }
+
   @Test public void testIrisGram() throws InterruptedException, ExecutionException {
     // Expected right singular values and vectors
     double[] d_expected = new double[] {96.2090445, 19.0425654, 7.2250378, 3.1636131, 1.8816739, 1.1451307, 0.5820806};
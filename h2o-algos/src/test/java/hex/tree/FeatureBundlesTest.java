@@ -0,0 +1,163 @@
+package hex.tree;
+
+import hex.Model;
+import hex.genmodel.utils.DistributionFamily;
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FeatureBundlesTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  // a and b are exclusive, c overlaps with both of them, d is dense
+  private static Frame sparseFrame() {
+    final int n = 1000;
+    double[] a = new double[n], b = new double[n], c = new double[n], d = new double[n];
+    for (int i = 0; i < 50; i++) a[i] = 1;
+    for (int i = 50; i < 100; i++) b[i] = 2;
+    for (int i = 25; i < 75; i++) c[i] = 1;
+    for (int i = 0; i < n; i++) d[i] = i % 3;
+    return new TestFrameBuilder()
+            .withColNames("a", "b", "c", "d")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+            .withDataForCol(0, a)
+            .withDataForCol(1, b)
+            .withDataForCol(2, c)
+            .withDataForCol(3, d)
+            .withChunkLayout(n)
+            .build();
+  }
+
+  @Test
+  public void bundlesExclusiveSparseColumns() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(sparseFrame());
+      FeatureBundles bundles = FeatureBundles.find(fr, 4, 19, 1024);
+      assertNotNull(bundles);
+      assertEquals(1, bundles.size());
+      assertArrayEquals(new int[]{0, 1}, bundles._cols[0]);
+      assertArrayEquals(new int[]{0, 1}, bundles._offs[0]);
+      assertArrayEquals(new int[]{1, 2}, bundles._maxs[0]);
+      assertEquals(4, bundles._nbins[0]);
+
+      assertNull(FeatureBundles.find(fr, 4, 1, 1024)); // b has more values than bins
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void memberHistogramsAreRecoveredFromBundle() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(sparseFrame());
+      FeatureBundles bundles = FeatureBundles.find(fr, 4, 19, 1024);
+      assertNotNull(bundles);
+      final int n = (int) fr.numRows();
+      Chunk[] chks = new Chunk[fr.numCols()];
+      for (int i = 0; i < chks.length; i++) chks[i] = fr.vec(i).chunkForChunkIdx(0);
+      double[] ws = new double[n], ys = new double[n], cs = new double[n];
+      int[] rows = new int[n];
+      Random rnd = new Random(42);
+      for (int i = 0; i < n; i++) {
+        ws[i] = 1;
+        ys[i] = rnd.nextGaussian();
+        rows[i] = i;
+      }
+      DHistogram bundle = histo(0, bundles._nbins[0]);
+      bundle.init();
+      bundles.fill(0, chks, cs, n, null);
+      bundle.updateHisto(ws, null, cs, ys, rows, n, 0);
+
+      for (int m = 0; m < 2; m++) {
+        final int col = bundles._cols[0][m];
+        DHistogram scanned = histo(0, fr.vec(col).max() + 1);
+        scanned.init();
+        scanned.updateHisto(ws, null, fr.vec(col).chunkForChunkIdx(0).getDoubles(new double[n], 0, n), ys, rows, n, 0);
+        DHistogram recovered = histo(0, fr.vec(col).max() + 1);
+        recovered.setFromBundle(bundle, bundles._offs[0][m], bundles._maxs[0][m]);
+        assertEquals(scanned.nbins(), recovered.nbins());
+        for (int b = 0; b < scanned.nbins(); b++) {
+          assertEquals(scanned.w(b), recovered.w(b), 0);
+          assertEquals(scanned.wY(b), recovered.wY(b), 1e-4);
+          assertEquals(scanned.wYY(b), recovered.wYY(b), 1e-4);
+        }
+        assertEquals(scanned.find_min(), recovered.find_min(), 0);
+        assertEquals(scanned.find_maxIn(), recovered.find_maxIn(), 0);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static DHistogram histo(double min, double maxEx) {
+    return new DHistogram("test", 20, 1024, (byte) 1, min, maxEx, false, -0.001,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null);
+  }
+
+  @Test
+  public void gbmOnOneHotExplicitMatchesWithoutBundling() {
+    Scope.enter();
+    try {
+      final int n = 5000, levels = 40;
+      String[] cat = new String[n];
+      double[] x = new double[n], y = new double[n];
+      Random rnd = new Random(0xBEEF);
+      for (int i = 0; i < n; i++) {
+        int l = rnd.nextInt(levels);
+        cat[i] = "L" + l;
+        x[i] = rnd.nextDouble();
+        y[i] = (l % 7) + 2 * x[i] + 0.1 * rnd.nextGaussian();
+      }
+      Frame train = Scope.track(new TestFrameBuilder()
+              .withColNames("cat", "x", "y")
+              .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, cat)
+              .withDataForCol(1, x)
+              .withDataForCol(2, y)
+              .build());
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "y";
+      parms._distribution = DistributionFamily.gaussian;
+      parms._categorical_encoding = Model.Parameters.CategoricalEncodingScheme.OneHotExplicit;
+      parms._ntrees = 10;
+      parms._max_depth = 6;
+      parms._seed = 42;
+
+      GBM scanning = new GBM(parms);
+      GBMModel scanned = (GBMModel) Scope.track_generic(scanning.trainModel().get());
+      assertNull(scanning._bundles);
+      GBMModel.GBMParameters bundledParms = (GBMModel.GBMParameters) parms.clone();
+      bundledParms._exclusive_feature_bundling = true;
+      GBM bundling = new GBM(bundledParms);
+      GBMModel bundled = (GBMModel) Scope.track_generic(bundling.trainModel().get());
+      // all the indicator columns of cat are exclusive: one bundle, the NA column is never set
+      assertNotNull(bundling._bundles);
+      assertEquals(1, bundling._bundles.size());
+      assertEquals(levels, bundling._bundles._cols[0].length);
+
+      double mse = scanned._output._training_metrics.mse();
+      assertEquals(mse, bundled._output._training_metrics.mse(), 1e-4 * mse);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+}
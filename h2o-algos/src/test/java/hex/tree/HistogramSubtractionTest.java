@@ -0,0 +1,118 @@
+package hex.tree;
+
+import hex.genmodel.utils.DistributionFamily;
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.H2O;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HistogramSubtractionTest extends TestUtil {
+
+  private static final String ENABLED_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.histoSubtraction";
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private static DHistogram intHisto(double min, double maxEx) {
+    return new DHistogram("test", 20, 1024, (byte) 1, min, maxEx, true, -0.001,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null);
+  }
+
+  @Test
+  public void differenceMatchesScannedHistogram() {
+    final int n = 1000;
+    Random rnd = new Random(0xCAFE);
+    double[] cs = new double[n], ys = new double[n], ws = new double[n];
+    int[] rows = new int[n];
+    int nLeft = 0;
+    for (int i = 0; i < n; i++) {
+      cs[i] = rnd.nextInt(10) == 0 ? Double.NaN : 3 + rnd.nextInt(12);
+      ys[i] = rnd.nextGaussian();
+      ws[i] = rnd.nextInt(4);
+      if (!Double.isNaN(cs[i]) && cs[i] < 7) nLeft++;
+    }
+    // sort the rows by side of the split (< 7 goes left, the rest and NAs go right)
+    int l = 0, r = nLeft;
+    for (int i = 0; i < n; i++) {
+      if (!Double.isNaN(cs[i]) && cs[i] < 7) rows[l++] = i;
+      else rows[r++] = i;
+    }
+    DHistogram parent = intHisto(3, 15);
+    parent.init();
+    parent.updateHisto(ws, null, cs, ys, rows, n, 0);
+
+    DHistogram left = intHisto(3, 7), right = intHisto(7, 15), derived = intHisto(7, 15);
+    assertEquals(0, left.unitBinOffset(parent));
+    assertEquals(4, right.unitBinOffset(parent));
+    left.init();
+    left.updateHisto(ws, null, cs, ys, rows, nLeft, 0);
+    right.init();
+    right.updateHisto(ws, null, cs, ys, rows, n, nLeft);
+    derived.setToDifference(parent, derived.unitBinOffset(parent), left, left.unitBinOffset(parent));
+
+    assertEquals(right.nbins(), derived.nbins());
+    for (int b = 0; b < right.nbins(); b++) {
+      assertEquals(right.w(b), derived.w(b), 0);
+      assertEquals(right.wY(b), derived.wY(b), 1e-4);
+      assertEquals(right.wYY(b), derived.wYY(b), 1e-4);
+    }
+    assertEquals(right.wNA(), derived.wNA(), 0);
+    assertEquals(right.find_min(), derived.find_min(), 0);
+    assertEquals(right.find_maxIn(), derived.find_maxIn(), 0);
+  }
+
+  @Test
+  public void binsNeedToLineUp() {
+    DHistogram parent = intHisto(0, 10);
+    assertEquals(2, intHisto(2, 5).unitBinOffset(parent));
+    assertEquals(-1, intHisto(2, 12).unitBinOffset(parent));
+    assertEquals(-1, intHisto(0, 100).unitBinOffset(parent)); // more values than bins
+    DHistogram numeric = new DHistogram("test", 20, 1024, (byte) 0, 0, 10, false, -0.001,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null);
+    assertEquals(-1, numeric.unitBinOffset(parent));
+  }
+
+  @Test
+  public void gbmWithSubtractionMatchesGbmWithout() {
+    Scope.enter();
+    try {
+      Frame train = Scope.track(parse_test_file("./smalldata/logreg/prostate.csv"));
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._ignored_columns = new String[]{"ID"};
+      parms._response_column = "VOL";
+      parms._distribution = DistributionFamily.gaussian;
+      parms._ntrees = 10;
+      parms._max_depth = 8;
+      parms._seed = 42;
+
+      GBM scanning = new GBM(parms);
+      GBMModel scanned = (GBMModel) Scope.track_generic(scanning.trainModel().get());
+      assertEquals(0, scanning._derivedHistograms.get());
+      GBM deriving = new GBM((GBMModel.GBMParameters) parms.clone());
+      GBMModel derived;
+      System.setProperty(ENABLED_PROP, "true");
+      try {
+        derived = (GBMModel) Scope.track_generic(deriving.trainModel().get());
+      } finally {
+        System.clearProperty(ENABLED_PROP);
+      }
+      assertTrue("No histogram was derived", deriving._derivedHistograms.get() > 0);
+      double mse = scanned._output._training_metrics.mse();
+      assertEquals(mse, derived._output._training_metrics.mse(), 1e-4 * mse);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+}
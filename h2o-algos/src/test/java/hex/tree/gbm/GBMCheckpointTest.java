@@ -1,5 +1,6 @@
 package hex.tree.gbm;
 
+import hex.Model;
 import hex.tree.CompressedTree;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -7,12 +8,19 @@ import org.junit.Ignore;
 import org.junit.Test;
 import water.DKV;
 import water.Key;
+import water.Scope;
 import water.TestUtil;
 import water.exceptions.H2OIllegalArgumentException;
+import water.exceptions.H2OModelBuilderIllegalArgumentException;
 import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
 import water.fvec.Vec;
 import water.util.VecUtils;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
 import static water.ModelSerializationTest.assertTreeEquals;
 import static water.ModelSerializationTest.getTrees;
 
@@ -214,4 +222,171 @@ public class GBMCheckpointTest extends TestUtil {
       if (modelFinal!=null) modelFinal.delete();
     }
   }
+
+  // x1, x2 and y = f(x1, x2) + noise
+  private static double[][] appendedData(int n) {
+    double[][] d = new double[3][n];
+    Random rnd = new Random(0xD1CE);
+    for (int i = 0; i < n; i++) {
+      d[0][i] = rnd.nextDouble();
+      d[1][i] = rnd.nextDouble();
+      d[2][i] = Math.sin(6 * d[0][i]) + d[1][i] + 0.1 * rnd.nextGaussian();
+    }
+    return d;
+  }
+
+  // the given rows of the data, in order
+  private static Frame appendedFrame(double[][] d, int[] rows) {
+    double[][] cols = new double[d.length][rows.length];
+    for (int c = 0; c < d.length; c++)
+      for (int i = 0; i < rows.length; i++)
+        cols[c][i] = d[c][rows[i]];
+    return Scope.track(new TestFrameBuilder()
+            .withColNames("x1", "x2", "y")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+            .withDataForCol(0, cols[0])
+            .withDataForCol(1, cols[1])
+            .withDataForCol(2, cols[2])
+            .build());
+  }
+
+  private static int[] range(int from, int to) {
+    int[] rows = new int[to - from];
+    for (int i = 0; i < rows.length; i++) rows[i] = from + i;
+    return rows;
+  }
+
+  private static GBMModel.GBMParameters keepRawPredictions(Frame train) {
+    GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+    parms._train = train._key;
+    parms._response_column = "y";
+    parms._ntrees = 10;
+    parms._seed = 42;
+    parms._keep_raw_predictions = true;
+    return parms;
+  }
+
+  @Test
+  public void testCheckpointOnAppendedDataReusesRawPredictions() {
+    Scope.enter();
+    try {
+      final int n = 3000, nOld = 2000;
+      double[][] d = appendedData(n);
+      Frame full = appendedFrame(d, range(0, n));
+      Frame old = appendedFrame(d, range(0, nOld));
+
+      GBMModel.GBMParameters parms = keepRawPredictions(old);
+      GBMModel checkpoint = new GBM(parms).trainModel().get();
+      Key<Frame> rawKey = checkpoint._output._raw_predictions;
+      Assert.assertNotNull(rawKey);
+      Assert.assertEquals(nOld, DKV.<Frame>getGet(rawKey).numRows());
+
+      GBMModel.GBMParameters continued = (GBMModel.GBMParameters) parms.clone();
+      continued._train = full._key;
+      continued._checkpoint = checkpoint._key;
+      continued._ntrees = 20;
+      continued._keep_raw_predictions = false;
+      GBMModel rescored = (GBMModel) Scope.track_generic(new GBM(continued).trainModel().get());
+
+      GBMModel.GBMParameters appended = (GBMModel.GBMParameters) continued.clone();
+      appended._resume_on_appended_data = true;
+      GBMModel resumed = (GBMModel) Scope.track_generic(new GBM(appended).trainModel().get());
+      Assert.assertNull(resumed._output._raw_predictions);
+
+      double mse = rescored._output._training_metrics.mse();
+      Assert.assertEquals(mse, resumed._output._training_metrics.mse(), 1e-4 * mse);
+
+      checkpoint.delete();
+      Assert.assertNull(DKV.get(rawKey));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testRawPredictionsAreSavedWithTheModel() throws IOException {
+    Scope.enter();
+    File file = File.createTempFile("GBMModel", null);
+    try {
+      final int n = 3000, nOld = 2000;
+      double[][] d = appendedData(n);
+      Frame full = appendedFrame(d, range(0, n));
+      Frame old = appendedFrame(d, range(0, nOld));
+
+      GBMModel checkpoint = new GBM(keepRawPredictions(old)).trainModel().get();
+      Key<Frame> rawKey = checkpoint._output._raw_predictions;
+      checkpoint.exportBinaryModel(file.getAbsolutePath(), true);
+      checkpoint.delete();
+      Assert.assertNull(DKV.get(rawKey));
+
+      GBMModel loaded = (GBMModel) Scope.track_generic(Model.importBinaryModel(file.getAbsolutePath()));
+      Frame raw = DKV.getGet(loaded._output._raw_predictions);
+      Assert.assertNotNull(raw);
+      Assert.assertEquals(nOld, raw.numRows());
+
+      GBMModel.GBMParameters appended = keepRawPredictions(full);
+      appended._checkpoint = loaded._key;
+      appended._ntrees = 20;
+      appended._keep_raw_predictions = false;
+      appended._resume_on_appended_data = true;
+      GBMModel resumed = (GBMModel) Scope.track_generic(new GBM(appended).trainModel().get());
+      Assert.assertEquals(20, resumed._output._ntrees);
+    } finally {
+      Scope.exit();
+      Assert.assertTrue(file.delete());
+    }
+  }
+
+  @Test
+  public void testResumeOnAppendedDataNeedsRawPredictions() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(parse_test_file("smalldata/logreg/prostate.csv"));
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "VOL";
+      parms._ntrees = 2;
+      GBMModel checkpoint = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+
+      GBMModel.GBMParameters continued = (GBMModel.GBMParameters) parms.clone();
+      continued._checkpoint = checkpoint._key;
+      continued._ntrees = 4;
+      continued._resume_on_appended_data = true;
+      GBM gbm = new GBM(continued);
+      Assert.assertTrue(gbm.error_count() > 0);
+      Assert.assertTrue(gbm.validationErrors().contains("keep_raw_predictions"));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testResumeRejectsRowsTheCheckpointWasNotTrainedOn() {
+    Scope.enter();
+    try {
+      final int n = 3000, nOld = 2000;
+      double[][] d = appendedData(n);
+      Frame old = appendedFrame(d, range(0, nOld));
+      // the new rows come first
+      int[] rows = new int[n];
+      for (int i = 0; i < n; i++) rows[i] = (i + nOld) % n;
+      Frame prepended = appendedFrame(d, rows);
+
+      GBMModel checkpoint = (GBMModel) Scope.track_generic(new GBM(keepRawPredictions(old)).trainModel().get());
+      GBMModel.GBMParameters appended = keepRawPredictions(prepended);
+      appended._checkpoint = checkpoint._key;
+      appended._ntrees = 20;
+      appended._keep_raw_predictions = false;
+      appended._resume_on_appended_data = true;
+      try {
+        Scope.track_generic(new GBM(appended).trainModel().get());
+        Assert.fail("Expected the training frame to be rejected");
+      } catch (H2OModelBuilderIllegalArgumentException e) {
+        Assert.assertTrue(e.getMessage(), e.getMessage().contains("the new rows have to be appended"));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
 }
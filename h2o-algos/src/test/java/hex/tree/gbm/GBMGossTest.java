@@ -0,0 +1,121 @@
+package hex.tree.gbm;
+
+import hex.genmodel.utils.DistributionFamily;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.exceptions.H2OModelBuilderIllegalArgumentException;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GBMGossTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private static Frame linearFrame(int n) {
+    double[] x1 = new double[n], x2 = new double[n], y = new double[n];
+    Random rnd = new Random(0xFACE);
+    for (int i = 0; i < n; i++) {
+      x1[i] = rnd.nextDouble();
+      x2[i] = rnd.nextDouble();
+      y[i] = 3 * x1[i] - 2 * x2[i] + 0.1 * rnd.nextGaussian();
+    }
+    return new TestFrameBuilder()
+            .withColNames("x1", "x2", "y")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+            .withDataForCol(0, x1)
+            .withDataForCol(1, x2)
+            .withDataForCol(2, y)
+            .build();
+  }
+
+  private static GBMModel.GBMParameters parms(Frame train) {
+    GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+    parms._train = train._key;
+    parms._response_column = "y";
+    parms._distribution = DistributionFamily.gaussian;
+    parms._ntrees = 20;
+    parms._max_depth = 5;
+    parms._seed = 42;
+    return parms;
+  }
+
+  @Test
+  public void gossKeepingAllRowsMatchesUnsampledModel() {
+    Scope.enter();
+    try {
+      Frame train = Scope.track(linearFrame(5000));
+      GBMModel.GBMParameters parms = parms(train);
+      GBMModel full = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+
+      GBMModel.GBMParameters gossParms = (GBMModel.GBMParameters) parms.clone();
+      gossParms._goss = true;
+      gossParms._goss_top_rate = 0.5;
+      gossParms._goss_other_rate = 0.5; // every row is sampled with weight 1
+      GBMModel goss = (GBMModel) Scope.track_generic(new GBM(gossParms).trainModel().get());
+
+      double mse = full._output._training_metrics.mse();
+      assertEquals(mse, goss._output._training_metrics.mse(), 1e-6 * mse);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void gossModelIsCloseToUnsampledModel() {
+    Scope.enter();
+    try {
+      Frame train = Scope.track(linearFrame(5000));
+      GBMModel.GBMParameters parms = parms(train);
+      GBMModel full = (GBMModel) Scope.track_generic(new GBM(parms).trainModel().get());
+
+      GBMModel.GBMParameters gossParms = (GBMModel.GBMParameters) parms.clone();
+      gossParms._goss = true;
+      GBMModel goss = (GBMModel) Scope.track_generic(new GBM(gossParms).trainModel().get());
+
+      double mse = full._output._training_metrics.mse();
+      assertTrue(goss._output._training_metrics.mse() < 2 * mse);
+      assertNotEquals(mse, goss._output._training_metrics.mse(), 1e-6 * mse);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void gossIsValidated() {
+    Scope.enter();
+    try {
+      Frame train = Scope.track(linearFrame(100));
+      GBMModel.GBMParameters parms = parms(train);
+      parms._goss = true;
+      parms._sample_rate = 0.5;
+      try {
+        new GBM(parms).trainModel().get();
+        fail("Should toss H2OModelBuilderIllegalArgumentException instead of reaching here");
+      } catch (H2OModelBuilderIllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("GOSS cannot be combined with sample_rate"));
+      }
+      parms._sample_rate = 1;
+      parms._goss_top_rate = 0.6;
+      parms._goss_other_rate = 0.6;
+      try {
+        new GBM(parms).trainModel().get();
+        fail("Should toss H2OModelBuilderIllegalArgumentException instead of reaching here");
+      } catch (H2OModelBuilderIllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("goss_other_rate"));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+}
@@ -0,0 +1,28 @@
+package hex.word2vec;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class UnigramAliasTableTest {
+
+  @Test
+  public void buildUnigramAliasTable() throws Exception {
+    long[] counts = new long[] {1, 2, 3, 50, 1000};
+    UnigramAliasTable t = UnigramAliasTable.buildUnigramAliasTable(counts);
+    assertEquals(counts.length, t.size());
+
+    double total = 0;
+    for (long c : counts) total += Math.pow(c, UnigramAliasTable.POWER);
+    int n = 1000000;
+    int[] hist = new int[counts.length];
+    Random rnd = new Random(42);
+    for (int i = 0; i < n; i++)
+      hist[t.sample(rnd.nextInt(t.size()), rnd.nextFloat())]++;
+    for (int i = 0; i < counts.length; i++)
+      assertEquals("word " + i, Math.pow(counts[i], UnigramAliasTable.POWER) / total, hist[i] / (double) n, 0.005);
+  }
+
+}
@@ -74,6 +74,50 @@ public class Word2VecTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testW2V_SG_NegSampling_small() {
+    String[] words = new String[220];
+    for (int i = 0; i < 200; i += 2) { words[i] = "a"; words[i + 1] = "b"; }
+    for (int i = 200; i < 220; i += 2) { words[i] = "a"; words[i + 1] = "c"; }
+    Scope.enter();
+    try {
+      Vec v = Scope.track(svec(words));
+      Frame fr = Scope.track(new Frame(Key.<Frame>make(), new String[]{"Words"}, new Vec[]{v}));
+      DKV.put(fr);
+
+      Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+      p._train = fr._key;
+      p._min_word_freq = 5;
+      p._word_model = Word2Vec.WordModel.SkipGram;
+      p._norm_model = Word2Vec.NormModel.NegSampling;
+      p._negative = 2;
+      p._vec_size = 10;
+      p._window_size = 5;
+      p._sent_sample_rate = 0.001f;
+      p._init_learning_rate = 0.025f;
+      p._epochs = 1;
+
+      Word2VecModel w2vm = (Word2VecModel) Scope.track_generic(new Word2Vec(p).trainModel().get());
+
+      Map<String, Float> hm = w2vm.findSynonyms("a", 2);
+      logResults(hm);
+      assertEquals(new HashSet<>(Arrays.asList("b", "c")), hm.keySet());
+      for (float score : hm.values())
+        assertFalse(Float.isNaN(score));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testW2V_NegSampling_invalidNegative() {
+    Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+    p._norm_model = Word2Vec.NormModel.NegSampling;
+    p._negative = 0;
+    Word2Vec w2v = new Word2Vec(p);
+    assertTrue(w2v.validationErrors().contains("Negative sampling needs at least one negative sample"));
+  }
+
   @Test
   public void testW2V_pretrained() {
     String[] words = new String[1000];
@@ -196,6 +240,35 @@ public class Word2VecTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testW2V_SG_NegSampling() {
+    assumeThat("word2vec test enabled", System.getProperty("testW2V"), is(notNullValue())); // ignored by default
+
+    Frame fr = parse_test_file("bigdata/laptop/text8.gz", "NA", 0, new byte[]{Vec.T_STR});
+    Word2VecModel w2vm = null;
+    try {
+      Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+      p._train = fr._key;
+      p._min_word_freq = 5;
+      p._word_model = Word2Vec.WordModel.SkipGram;
+      p._norm_model = Word2Vec.NormModel.NegSampling;
+      p._negative = 5;
+      p._vec_size = 100;
+      p._window_size = 4;
+      p._sent_sample_rate = 0.001f;
+      p._init_learning_rate = 0.025f;
+      p._epochs = 10;
+
+      w2vm = new Word2Vec(p).trainModel().get();
+      Map<String, Float> hm = w2vm.findSynonyms("dog", 20);
+      logResults(hm);
+      assertTrue(hm.containsKey("cat") || hm.containsKey("dogs") || hm.containsKey("hound"));
+    } finally {
+      fr.remove();
+      if( w2vm != null) w2vm.delete();
+    }
+  }
+
   @Test public void testW2V_CBOW_HSM() {
     assumeThat("word2vec test enabled", System.getProperty("testW2V"), is(notNullValue())); // ignored by default
 
@@ -0,0 +1,79 @@
+package hex.word2vec;
+
+import hex.word2vec.WordVectorTrainer.SharedWeights;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.AutoBuffer;
+import water.TestUtil;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WordVectorTrainerTest extends TestUtil {
+
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  private static final int VOCAB = 20, VEC_SIZE = 3;
+
+  private static float[] random(Random rnd) {
+    float[] a = new float[VOCAB * VEC_SIZE];
+    for (int i = 0; i < a.length; i++) a[i] = rnd.nextFloat() - 0.5f;
+    return a;
+  }
+
+  // simulates an epoch on one node that updates only the given rows
+  private static SharedWeights train(float[] syn0, float[] syn1, Random rnd, int... rows) {
+    SharedWeights w = new SharedWeights(syn0.clone(), syn1.clone(), VEC_SIZE).nodeLocal(true);
+    for (int row : rows) {
+      for (int j = 0; j < VEC_SIZE; j++) {
+        w._syn0[row * VEC_SIZE + j] += rnd.nextFloat();
+        w._syn1[row * VEC_SIZE + j] -= rnd.nextFloat();
+      }
+      w._touched0[row] = 1;
+      w._touched1[row] = 1;
+    }
+    return w;
+  }
+
+  private static SharedWeights sendOver(SharedWeights w) {
+    return new AutoBuffer().put(w).flipForReading().get();
+  }
+
+  @Test public void testCompressedAveragingMatchesFull() {
+    Random rnd = new Random(42);
+    float[] syn0 = random(rnd), syn1 = random(rnd);
+    SharedWeights home = train(syn0, syn1, rnd, 1, 4, 7);
+    SharedWeights b = train(syn0, syn1, rnd, 4, 9);
+    SharedWeights d = train(syn0, syn1, rnd, 0, 9, 19);
+    long wHome = 100, wB = 50, wD = 30;
+
+    float[] expected0 = new float[syn0.length], expected1 = new float[syn1.length];
+    for (int i = 0; i < syn0.length; i++) {
+      expected0[i] = (wHome * home._syn0[i] + wB * b._syn0[i] + wD * d._syn0[i]) / (wHome + wB + wD);
+      expected1[i] = (wHome * home._syn1[i] + wB * b._syn1[i] + wD * d._syn1[i]) / (wHome + wB + wD);
+    }
+
+    // a node without any data of its own merges the results of its children
+    SharedWeights relay = sendOver(b);
+    assertTrue(relay.isCompressed());
+    float c = (float) wD / (wB + wD);
+    relay.average(1 - c, sendOver(d), c);
+    // ... and forwards them to the home node
+    c = (float) (wB + wD) / (wHome + wB + wD);
+    home.average(1 - c, sendOver(relay), c);
+
+    assertArrayEquals(expected0, home._syn0, 1e-6f);
+    assertArrayEquals(expected1, home._syn1, 1e-6f);
+  }
+
+  @Test public void testApplyCompressedToStartingWeights() {
+    Random rnd = new Random(7);
+    float[] syn0 = random(rnd), syn1 = random(rnd);
+    SharedWeights trained = train(syn0, syn1, rnd, 2, 3, 11);
+    float[] res0 = syn0.clone(), res1 = syn1.clone();
+    sendOver(trained).applyTo(res0, res1);
+    assertArrayEquals(trained._syn0, res0, 1e-6f);
+    assertArrayEquals(trained._syn1, res1, 1e-6f);
+  }
+}
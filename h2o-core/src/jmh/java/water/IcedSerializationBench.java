@@ -0,0 +1,106 @@
+package water;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.StackProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trips of model-like Iced objects through the generated serializers,
+ * both in memory and through streams the way binary models are saved and
+ * loaded.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IcedSerializationBench {
+
+  /** Typical payload of model output: coefficients, matrices, counts and flags. */
+  public static class ModelLike extends Iced<ModelLike> {
+    public String[] _names;
+    public double[] _beta;
+    public double[][] _centers;
+    public int[][] _splits;
+    public long[] _counts;      // Small values, shipped as bytes or shorts
+    public long[] _offsets;     // Large values, shipped as longs
+    public boolean[] _mask;
+  }
+
+  @State(Scope.Thread)
+  public static class IcedState {
+    @Param({"100", "10000"})
+    private int cols;
+    @Param({"10", "1000"})
+    private int rows;
+
+    private ModelLike model;
+    private byte[] saved;
+
+    @Setup
+    public void setup() {
+      Random r = new Random(42);
+      model = new ModelLike();
+      model._names = new String[cols];
+      model._beta = new double[cols];
+      model._counts = new long[cols];
+      model._offsets = new long[cols];
+      model._mask = new boolean[cols];
+      for (int i = 0; i < cols; i++) {
+        model._names[i] = "col_" + i;
+        model._beta[i] = r.nextGaussian();
+        model._counts[i] = r.nextInt(30000);
+        model._offsets[i] = r.nextLong();
+        model._mask[i] = r.nextBoolean();
+      }
+      model._centers = new double[rows][cols];
+      model._splits = new int[rows][16];
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < cols; j++) model._centers[i][j] = r.nextDouble();
+        for (int j = 0; j < 16; j++) model._splits[i][j] = r.nextInt();
+      }
+      saved = save(model);
+    }
+  }
+
+  private static byte[] save(ModelLike m) {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    AutoBuffer ab = new AutoBuffer(os, true);
+    ab.put(m);
+    ab.close();
+    return os.toByteArray();
+  }
+
+  @Benchmark
+  public void writeReadInMemory(IcedState state, Blackhole bh) {
+    ModelLike read = new AutoBuffer().put(state.model).flipForReading().get();
+    bh.consume(read);
+  }
+
+  @Benchmark
+  public byte[] saveModel(IcedState state) {
+    return save(state.model);
+  }
+
+  @Benchmark
+  public Freezable loadModel(IcedState state) {
+    return new AutoBuffer(new ByteArrayInputStream(state.saved)).get();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(IcedSerializationBench.class.getSimpleName())
+        .addProfiler(StackProfiler.class)
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,112 @@
+package water.rapids.ast.prims.string;
+
+import org.apache.commons.lang.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.fvec.Chunk;
+import water.fvec.NewChunk;
+import water.parser.BufferedString;
+import water.rapids.ast.prims.string.algorithms.ByteDFA;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the per-row java.util.regex path of the string primitives (decode
+ * each row into a String, then match) with matching the UTF-8 bytes of the
+ * chunk by a {@link ByteDFA}.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RegexMatchBench {
+
+  @Param({"[0-9]+x", "(get|post) /api"})
+  private String regex;
+  @Param({"100000"})
+  private int rows;
+
+  private Chunk chunk;
+  private Pattern pattern;
+  private ByteDFA dfa;
+  private ByteDFA literal;
+
+  @Setup
+  public void setup() {
+    String[] methods = {"get", "post", "put", "delete"};
+    Random r = new Random(0xCAFE);
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < rows; i++)
+      nc.addStr(methods[r.nextInt(methods.length)] + " /api/v1/items/" + r.nextInt(1000000) + "?user=" + r.nextInt(100));
+    chunk = nc.compress();
+    pattern = Pattern.compile(regex);
+    dfa = ByteDFA.regex(regex, false);
+    literal = ByteDFA.literal("/", false);
+  }
+
+  @Benchmark
+  public int grepPattern() {
+    Matcher m = pattern.matcher("");
+    BufferedString bs = new BufferedString();
+    int cnt = 0;
+    for (int row = 0; row < chunk._len; row++) {
+      m.reset(chunk.atStr(bs, row).toString());
+      if (m.find()) cnt++;
+    }
+    return cnt;
+  }
+
+  @Benchmark
+  public int grepDFA() {
+    BufferedString bs = new BufferedString();
+    int cnt = 0;
+    for (int row = 0; row < chunk._len; row++) {
+      if (dfa.find(chunk.atStr(bs, row))) cnt++;
+    }
+    return cnt;
+  }
+
+  @Benchmark
+  public int countMatchesString() {
+    BufferedString bs = new BufferedString();
+    int cnt = 0;
+    for (int row = 0; row < chunk._len; row++)
+      cnt += StringUtils.countMatches(chunk.atStr(bs, row).toString(), "/");
+    return cnt;
+  }
+
+  @Benchmark
+  public int countMatchesDFA() {
+    BufferedString bs = new BufferedString();
+    int cnt = 0;
+    for (int row = 0; row < chunk._len; row++)
+      cnt += literal.countMatches(chunk.atStr(bs, row));
+    return cnt;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(RegexMatchBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -1532,11 +1532,15 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
     int chunks = desiredChunks(original_fr, local);
     double rebalanceRatio = rebalanceRatio();
     int nonEmptyChunks = original_fr.anyVec().nonEmptyChunks();
-    if (nonEmptyChunks >= chunks * rebalanceRatio) {
+    // The adaptive layout also merges Chunks of frames which have far too many
+    boolean balanced = adaptiveChunks()
+            ? !ChunkLayoutOptimizer.needsRechunk(nonEmptyChunks, chunks)
+            : nonEmptyChunks >= chunks * rebalanceRatio;
+    if (balanced) {
       if (chunks>1)
         Log.info(name.substring(name.length()-5)+ " dataset already contains " + nonEmptyChunks + " (non-empty) " +
               " chunks. No need to rebalance. [desiredChunks=" + chunks, ", rebalanceRatio=" + rebalanceRatio + "]");
-      return original_fr;
+      return balanceNodes(original_fr, name);
     }
     Log.info("Rebalancing " + name.substring(name.length()-5)  + " dataset into " + chunks + " chunks.");
     Key newKey = Key.makeUserHidden(name + ".chunks" + chunks);
@@ -1547,6 +1551,28 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
     return rebalanced_fr;
   }
 
+  /**
+   * Even out rows across nodes if the busiest node holds more than
+   * sys.ai.h2o.rebalance.skew_threshold times the average (off by default).
+   * @return Frame with rows spread evenly across nodes, or the original one
+   */
+  private Frame balanceNodes(final Frame original_fr, final String name) {
+    double maxSkew = Double.parseDouble(getSysProperty("rebalance.skew_threshold", "0"));
+    if (maxSkew <= 0 || H2O.getCloudSize() == 1) return original_fr;
+    Frame balanced_fr = ChunkRebalancer.balance(original_fr, Key.<Frame>makeUserHidden(name + ".balanced"), maxSkew);
+    if (balanced_fr == null) return original_fr;
+    Scope.track(balanced_fr);
+    return balanced_fr;
+  }
+
+  /**
+   * Size Chunks by the modelled work per Chunk rather than by core count
+   * (sys.ai.h2o.rebalance.adaptive, off by default).
+   */
+  private boolean adaptiveChunks() {
+    return Boolean.parseBoolean(getSysProperty("rebalance.adaptive", "false"));
+  }
+
   private double rebalanceRatio() {
     String mode = H2O.getCloudSize() == 1 ? "single" : "multi";
     String ratioStr = getSysProperty("rebalance.ratio." + mode, "1.0");
@@ -1558,6 +1584,8 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
    * @return Lower bound on number of chunks after rebalancing.
    */
   protected int desiredChunks(final Frame original_fr, boolean local) {
+    if (adaptiveChunks())
+      return ChunkLayoutOptimizer.optimalChunks(original_fr);
     if (H2O.getCloudSize() > 1 && Boolean.parseBoolean(getSysProperty("rebalance.enableMulti", "false")))
       return desiredChunkMulti(original_fr);
     else
@@ -1,11 +1,14 @@
 package hex;
 
 import water.MRTask;
+import water.fvec.CStrChunk;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
 import water.fvec.Vec;
 import water.parser.BufferedString;
+import water.rapids.ast.prims.string.algorithms.ByteDFA;
+import water.rapids.ast.prims.string.algorithms.RegexCache;
 
 /**
  * RegexTokenizer splits rows of a given Frame into delimited sequences of tokens using a regular expression.
@@ -41,10 +44,17 @@ public class RegexTokenizer extends MRTask<RegexTokenizer> {
   @Override
   public void map(Chunk[] cs, NewChunk nc) {
     BufferedString tmpStr = new BufferedString();
+    BufferedString token = new BufferedString();
+    ByteDFA[] dfas = literalDFAs(cs);
     for (int row = 0; row < cs[0]._len; row++) {
-      for (Chunk chk : cs) {
+      for (int col = 0; col < cs.length; col++) {
+        Chunk chk = cs[col];
         if (chk.isNA(row)) 
           continue; // input NAs are skipped
+        if (dfas[col] != null) {
+          splitBytes(dfas[col], chk.atStr(tmpStr, row), token, nc);
+          continue;
+        }
         String str = chk.atStr(tmpStr, row).toString();
         if (_toLowercase) {
           str = str.toLowerCase();
@@ -60,6 +70,56 @@ public class RegexTokenizer extends MRTask<RegexTokenizer> {
     }
   }
 
+  /**
+   * Splitting on a fixed delimiter can be done directly on the UTF-8 bytes,
+   * unless we need to lower-case or measure token lengths in characters.
+   */
+  private ByteDFA[] literalDFAs(Chunk[] cs) {
+    ByteDFA[] dfas = new ByteDFA[cs.length];
+    if (_toLowercase || _regex.isEmpty())
+      return dfas;
+    ByteDFA dfa = RegexCache.literalRegex(_regex, false);
+    if (dfa == null)
+      return dfas;
+    for (int col = 0; col < cs.length; col++)
+      if (_minLength <= 0 || (cs[col] instanceof CStrChunk && ((CStrChunk) cs[col])._isAllASCII))
+        dfas[col] = dfa;
+    return dfas;
+  }
+
+  /**
+   * Same tokens as String#split: trailing empty tokens are dropped and a
+   * string without any delimiter is a single token.
+   */
+  private void splitBytes(ByteDFA dfa, BufferedString str, BufferedString token, NewChunk nc) {
+    final byte[] buf = str.getBuffer();
+    final int end = str.getOffset() + str.length();
+    int pendingEmpty = 0;
+    int start = str.getOffset();
+    int me;
+    boolean matched = false;
+    while ((me = dfa.findEnd(buf, start, end)) != -1) {
+      matched = true;
+      int ms = me - dfa.length();
+      if (ms == start) pendingEmpty++;
+      else {
+        for (; pendingEmpty > 0; pendingEmpty--) addToken(nc, token.set(buf, start, 0));
+        addToken(nc, token.set(buf, start, ms - start));
+      }
+      start = me;
+    }
+    if (start < end || !matched) {
+      for (; pendingEmpty > 0; pendingEmpty--) addToken(nc, token.set(buf, start, 0));
+      addToken(nc, token.set(buf, start, end - start));
+    }
+  }
+
+  private void addToken(NewChunk nc, BufferedString token) {
+    if (token.length() >= _minLength) {
+      nc.addStr(token);
+    }
+  }
+
   /**
    * Tokenizes a given Frame
    * @param input Input Frame is expected to only contain String columns. Each row of the Frame represents a logical
@@ -1050,7 +1050,13 @@ public final class AutoBuffer {
     int len = getInt();
     if (len == -1) return null;
     boolean[] r = new boolean[len];
-    for (int i=0;i<len;++i) r[i] = getZ();
+    int sofar = 0;
+    while( sofar < len ) {
+      int more = Math.min(_bb.remaining(), len - sofar);
+      for( int i=sofar; i<sofar+more; i++ ) r[i] = _bb.get()!=0;
+      sofar += more;
+      if( sofar < len ) getSp(Math.min(_bb.capacity(), len-sofar));
+    }
     return r;
   }
 
@@ -1126,9 +1132,9 @@ public final class AutoBuffer {
     int z = y==0 ? 0 : getInt();// Trailing zeros
     long[] buf = MemoryManager.malloc8(x+y+z);
     switch( get1U() ) {      // 1,2,4 or 8 for how the middle section is passed
-    case 1: for( int i=x; i<x+y; i++ ) buf[i] =       get1U(); return buf;
-    case 2: for( int i=x; i<x+y; i++ ) buf[i] = (short)get2(); return buf;
-    case 4: for( int i=x; i<x+y; i++ ) buf[i] =        get4(); return buf;
+    case 1: getA8Narrow(buf, x, x+y, 1); return buf;
+    case 2: getA8Narrow(buf, x, x+y, 2); return buf;
+    case 4: getA8Narrow(buf, x, x+y, 4); return buf;
     case 8: break;
     default: throw H2O.fail();
     }
@@ -1144,6 +1150,20 @@ public final class AutoBuffer {
     }
     return buf;
   }
+  // Read the middle section of a long[] sent as bytes, shorts or ints.  Reads
+  // whole buffer-fulls at a time instead of checking for space per element.
+  private void getA8Narrow( long[] buf, int sofar, int y, int sz ) {
+    while( sofar < y ) {
+      int more = Math.min(_bb.remaining()/sz, y - sofar);
+      switch( sz ) {
+      case 1:  for( int i=sofar; i<sofar+more; i++ ) buf[i] = _bb.get() & 0xFF; break;
+      case 2:  for( int i=sofar; i<sofar+more; i++ ) buf[i] = _bb.getShort();   break;
+      default: for( int i=sofar; i<sofar+more; i++ ) buf[i] = _bb.getInt();     break;
+      }
+      sofar += more;
+      if( sofar < y ) getSp(Math.min(_bb.capacity()-(sz-1), (y-sofar)*sz));
+    }
+  }
   public double[] getA8d( ) {
     //_arys++;
     int len = getInt(); if( len == -1 ) return null;
@@ -1274,7 +1294,14 @@ public final class AutoBuffer {
   public AutoBuffer putAZ( boolean[] ary ) {
     if( ary == null ) return putInt(-1);
     putInt(ary.length);
-    for (boolean anAry : ary) putZ(anAry);
+    if (ary.length > _bb.remaining()) expandByteBuffer(ary.length);
+    int sofar = 0;
+    while( sofar < ary.length ) {
+      int len = Math.min(ary.length - sofar, _bb.remaining());
+      for( int i=sofar; i<sofar+len; i++ ) _bb.put((byte)(ary[i] ? 1 : 0));
+      sofar += len;
+      if( sofar < ary.length ) sendPartial();
+    }
     return this;
   }
 
@@ -1347,16 +1374,13 @@ public final class AutoBuffer {
     long min=Long.MAX_VALUE, max=Long.MIN_VALUE;
     for( int i=x; i<y; i++ ) { if( ary[i]<min ) min=ary[i]; if( ary[i]>max ) max=ary[i]; }
     if( 0 <= min && max < 256 ) { // Ship as unsigned bytes
-      put1(1);  for( int i=x; i<y; i++ ) put1((int)ary[i]);
-      return this;
+      put1(1);  return putA8Narrow(ary, x, y, 1);
     }
     if( Short.MIN_VALUE <= min && max < Short.MAX_VALUE ) { // Ship as shorts
-      put1(2);  for( int i=x; i<y; i++ ) put2((short)ary[i]);
-      return this;
+      put1(2);  return putA8Narrow(ary, x, y, 2);
     }
     if( Integer.MIN_VALUE <= min && max < Integer.MAX_VALUE ) { // Ship as ints
-      put1(4);  for( int i=x; i<y; i++ ) put4((int)ary[i]);
-      return this;
+      put1(4);  return putA8Narrow(ary, x, y, 4);
     }
 
     put1(8);                    // Ship as full longs
@@ -1372,6 +1396,22 @@ public final class AutoBuffer {
     }
     return this;
   }
+  // Write the middle section of a long[] as bytes, shorts or ints.  Writes
+  // whole buffer-fulls at a time instead of checking for space per element.
+  private AutoBuffer putA8Narrow( long[] ary, int sofar, int y, int sz ) {
+    if ((y-sofar)*sz > _bb.remaining()) expandByteBuffer((y-sofar)*sz);
+    while( sofar < y ) {
+      int len = Math.min(y - sofar, _bb.remaining()/sz);
+      switch( sz ) {
+      case 1:  for( int i=sofar; i<sofar+len; i++ ) _bb.put     ((byte) ary[i]); break;
+      case 2:  for( int i=sofar; i<sofar+len; i++ ) _bb.putShort((short)ary[i]); break;
+      default: for( int i=sofar; i<sofar+len; i++ ) _bb.putInt  ((int)  ary[i]); break;
+      }
+      sofar += len;
+      if( sofar < y ) sendPartial();
+    }
+    return this;
+  }
   public AutoBuffer putA4f( float[] ary ) {
     //_arys++;
     if( ary == null ) return putInt(-1);
@@ -1405,6 +1445,12 @@ public final class AutoBuffer {
     return this;
   }
 
+  // Make room for all rows of a 2-D primitive array up front, instead of
+  // growing the buffer again and again while writing them one by one.
+  private void reserve( long bytes ) {
+    if( bytes > _bb.remaining() && bytes < MAX_ARRAY_SIZE ) expandByteBuffer((int)bytes);
+  }
+
   public AutoBuffer putAA1( byte[][] ary ) {
     //_arys++;
     long xy = putZA(ary);
@@ -1429,6 +1475,9 @@ public final class AutoBuffer {
     if( xy == -1 ) return this;
     int x=(int)(xy>>32);
     int y=(int)xy;
+    long bytes = 0;
+    for( int i=x; i<x+y; i++ ) bytes += 4 + (ary[i] == null ? 0 : 4L*ary[i].length);
+    reserve(bytes);
     for( int i=x; i<x+y; i++ ) putA4(ary[i]);
     return this;
   }
@@ -1439,6 +1488,9 @@ public final class AutoBuffer {
     if( xy == -1 ) return this;
     int x=(int)(xy>>32);
     int y=(int)xy;
+    long bytes = 0;
+    for( int i=x; i<x+y; i++ ) bytes += 4 + (ary[i] == null ? 0 : 4L*ary[i].length);
+    reserve(bytes);
     for( int i=x; i<x+y; i++ ) putA4f(ary[i]);
     return this;
   }
@@ -1457,6 +1509,9 @@ public final class AutoBuffer {
     if( xy == -1 ) return this;
     int x=(int)(xy>>32);
     int y=(int)xy;
+    long bytes = 0;
+    for( int i=x; i<x+y; i++ ) bytes += 4 + (ary[i] == null ? 0 : 8L*ary[i].length);
+    reserve(bytes);
     for( int i=x; i<x+y; i++ ) putA8d(ary[i]);
     return this;
   }
@@ -43,6 +43,11 @@ class Cleaner extends Thread {
   // Desired cache level. Set by the MemoryManager asynchronously.
   static volatile long DESIRED;
 
+  // Running totals over all cleaner passes, only written by the cleaner thread
+  static volatile long SPILLED_BYTES; // Bytes written to the ice root
+  static volatile long SPILL_NANOS;   // Time spent writing them
+  static volatile long FREED_BYTES;   // Memory released by dropping POJOs or serialized forms
+
   Cleaner() {
     super("MemCleaner");
     setDaemon(true);
@@ -171,6 +176,7 @@ class Cleaner extends Thread {
         // And, under pressure, free all
         if( isChunk && force && (val.isPersisted() || !((Key)ok).home()) ) {
           val.freeMem ();  if( m != null ) freed += val._max;  m = null;
+          freed += val.derivedSize(); // freePOJO drops the derived data too
           val.freePOJO();  if( p != null ) freed += val._max;  p = null;
           if( isChunk ) freed -= val._max; // Double-counted freed mem for Chunks since val._pojo._mem & val._mem are the same.
         }
@@ -188,6 +194,9 @@ class Cleaner extends Thread {
 
       String s1 = "Cleaner pass took: "+PrettyPrint.msecs(System.currentTimeMillis()-now,true)+
                   ", spilled "+PrettyPrint.bytes(cleaned)+" in "+PrettyPrint.usecs(io_ns>>10);
+      SPILLED_BYTES += cleaned;
+      SPILL_NANOS += io_ns;
+      FREED_BYTES += freed;
       h = Histo.current(true); // Force a new histogram
       MemoryManager.set_goals("postclean",false);
       // No logging if under memory pressure: can deadlock the cleaner thread
@@ -224,8 +233,8 @@ class Cleaner extends Thread {
 
     // Latest best-effort cached amount, without forcing a histogram to be
     // built nor blocking for one being in-progress.
-    static long cached() { return H._cached; }
-    static long swapped(){ return H._swapped;}
+    static long cached() { Histo h = H; return h == null ? 0 : h._cached; }
+    static long swapped(){ Histo h = H; return h == null ? 0 : h._swapped;}
 
     final long[] _hs = new long[128];
     long _oldest; // Time of the oldest K/V discovered this pass
@@ -268,6 +277,7 @@ class Cleaner extends Thread {
         if( m != null ) len += val._max;
         if( p != null ) len += val._max;
         if( m != null && p instanceof Chunk ) len -= val._max; // Do not double-count Chunks
+        len += val.derivedSize(); // Derived data (e.g. partial rollups) lives as long as the Value
         if( len == 0 ) continue;
         cached += len; // Accumulate total amount of cached keys
 
@@ -150,10 +150,13 @@ public abstract class DKV {
     // The 'D' part of DputIfMatch: do Distribution.
     // If PUT is on     HOME, invalidate remote caches
     // If PUT is on non-HOME, replicate/push to HOME
+    if( MetricsRegistry.ENABLED )
+      (key.home() ? MetricsRegistry.DKV_PUT_LOCAL : MetricsRegistry.DKV_PUT_REMOTE).increment();
     if( key.home() ) {          // On     HOME?
       if( old != null ) old.lockAndInvalidate(H2O.SELF,val,fs);
       else val.lowerActiveGetCount(null);  // Remove initial read-lock, accounting for pending inv counts
     } else {                    // On non-HOME?
+      ReplicaCache.forget(key); // No longer the copy fetched from home
       // Start a write, but do not block for it
       TaskPutKey.put(key.home_node(),key,val,fs, dontCache);
     }
@@ -199,8 +202,11 @@ public abstract class DKV {
     Value val = Value.STORE_get(key);
     // Hit in local cache?
     if( val != null ) {
-      if( val.rawMem() != null || val.rawPOJO() != null || val.isPersisted() )
+      if( val.rawMem() != null || val.rawPOJO() != null || val.isPersisted() ) {
+        if( MetricsRegistry.ENABLED ) MetricsRegistry.DKV_GET_LOCAL.increment();
+        if( !key.home() ) ReplicaCache.hit(key);
         return val;
+      }
       assert !key.home(); // Master must have *something*; we got nothing & need to fetch
     }
 
@@ -223,6 +229,8 @@ public abstract class DKV {
     if( tpk != null ) return tpk._xval == null || tpk._xval.isNull() ? null : tpk._xval;
 
     // Get data "the hard way"
+    if( MetricsRegistry.ENABLED ) MetricsRegistry.DKV_GET_REMOTE.increment();
+    ReplicaCache.miss(key);
     RPC<TaskGetKey> tgk = TaskGetKey.start(home,key);
     return blocking ? TaskGetKey.get(tgk) : null;
   }
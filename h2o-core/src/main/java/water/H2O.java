@@ -1402,6 +1402,7 @@ final public class H2O {
   // Easy peeks at the FJ queues
   static int getWrkQueueSize  (int i) { return FJPS[i]==null ? -1 : FJPS[i].getQueuedSubmissionCount();}
   static int getWrkThrPoolSize(int i) { return FJPS[i]==null ? -1 : FJPS[i].getPoolSize();             }
+  static ForkJoinPool getWrkPool(int i) { return FJPS[i]; }
 
   // For testing purposes (verifying API work exceeds grunt model-build work)
   // capture the class of any submitted job lower than this priority;
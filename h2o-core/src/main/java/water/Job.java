@@ -41,6 +41,9 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
   /** User description */
   public final String _description;
 
+  /** Tenant owning this Job, for fair-share scheduling; see {@link JobScheduler} */
+  public final String _tenant;
+
   // whether the _result key is ready for view
   private boolean _ready_for_view = true;
 
@@ -67,6 +70,7 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     _result = key;              // Result (destination?) key
     _typeid = clz_of_T==null ? 0 : TypeMap.getIcedId(clz_of_T);
     _description = desc; 
+    _tenant = JobScheduler.currentTenant();
   }
 
   /** Create a Job when a warning already exists due to bad model_id
@@ -90,12 +94,17 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
   /** Job start_time and end_time using Sys.CTM */
   private long _start_time;     // Job started, or 0 if not running
   private long   _end_time;     // Job end time, or 0 if not ended
+  private long   _run_time;     // Job left the JobScheduler queue and began running, or 0 if not yet
 
   // Simple internal state accessors
   private boolean created() { return _start_time == 0; }
   private boolean running() { return _start_time != 0 && _end_time == 0; }
   private boolean stopped() { return   _end_time != 0; }
 
+  // Started, but waiting in the JobScheduler queue for its turn to run
+  private boolean _queued;
+  public boolean isQueued() { update_from_remote(); return running() && _queued; }
+
   // Simple state accessors; public ones do a DKV update check
   public long start_time()   { update_from_remote(); assert !created(); return _start_time; }
   public long   end_time()   { update_from_remote(); assert  stopped(); return   _end_time; }
@@ -119,17 +128,18 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
       else
         return JobStatus.SUCCEEDED;
     else if (isRunning())
-      return JobStatus.RUNNING;
+      return _queued ? JobStatus.PENDING : JobStatus.RUNNING;
     else
       return JobStatus.PENDING;
   }
 
-  /** Current runtime; zero if not started. */
+  /** Current runtime, not counting the time spent queued by the JobScheduler;
+   *  zero if not started or still queued. */
   public long msec() {
     update_from_remote();
-    if( created() ) return 0;   // Created, not running
-    if( running() ) return System.currentTimeMillis() - _start_time;
-    return _end_time - _start_time; // Stopped
+    if( _run_time == 0 ) return 0; // Created, or queued (and maybe stopped before it ran)
+    if( running() ) return System.currentTimeMillis() - _run_time;
+    return _end_time - _run_time; // Stopped
   }
 
   public boolean readyForView() { return _ready_for_view; }
@@ -152,6 +162,15 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
           Log.debug("Job "+job._description+" requested to stop");
         }
       }.apply(this);
+    if( _queued && _key.home() ) JobScheduler.cancel(this); // Never got to run
+  }
+
+  // Called by the JobScheduler when a queued Job gets its turn to run
+  void dispatched() {
+    new JAtomic() {
+      @Override boolean abort(Job job) { return !job._queued; }
+      @Override void update(Job job) { job._queued = false; job._msg = null; job._run_time = System.currentTimeMillis(); }
+    }.apply(this);
   }
   public void fail(Throwable ex) {
     new JAtomic() {
@@ -301,6 +320,10 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     _barrier = new Barrier2(); 
     fjtask.setCompleter(new Barrier1(_barrier));
 
+    // 0 - Admission by the fair-share scheduler; either a slot is reserved for
+    // this job, or it will wait in its tenant's queue
+    final boolean queued = JobScheduler.admit(this);
+
     // These next steps must happen in-order:
     // 4 - cannot submitTask without being on job-list, lest all cores get
     // slammed but no user-visible record of why, so 4 after 3
@@ -314,6 +337,9 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     _start_time = System.currentTimeMillis();
     assert !created() && running() && !stopped();
     _work = work;
+    _queued = queued;
+    if( !queued ) _run_time = _start_time;
+    if( queued ) _msg = "Queued.";
 
     // 2 - Save the full state of the job, first time ever making it public
     DKV.put(this);              // Announce in DKV
@@ -329,8 +355,8 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
         return old;
       }
     }.invoke(LIST);
-    // 4 - Fire off the FJTASK
-    H2O.submitTask(fjtask);
+    // 4 - Fire off the FJTASK, or queue it
+    JobScheduler.submit(this, fjtask, queued);
     return this;
   }
   transient private Barrier2 _barrier; // Top-level task to block on
@@ -355,6 +381,8 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     @Override public void onCompletion(CountedCompleter caller) {
       new Barrier1OnCom().apply(Job.this);
       _barrier = null;          // Free for GC
+      JobScheduler.done(Job.this);
+      ReplicaCache.unpin(_key);
     }
     @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
       if(Job.isCancelledException(ex)) {
@@ -366,6 +394,8 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
         new Barrier1OnExCom(ex).apply(Job.this);
       }
       _barrier = null;          // Free for GC
+      JobScheduler.done(Job.this);
+      ReplicaCache.unpin(_key);
       return true;
     }
   }
@@ -441,10 +471,12 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     if( _stop_requested != remote._stop_requested ) differ = true;
     if(_start_time!= remote._start_time) differ = true;
     if(_end_time  != remote._end_time  ) differ = true;
+    if(_run_time  != remote._run_time  ) differ = true;
     if(_ex        != remote._ex        ) differ = true;
     if(_work      != remote._work      ) differ = true;
     if(_worked    != remote._worked    ) differ = true;
     if(_msg       != remote._msg       ) differ = true;
+    if(_queued    != remote._queued    ) differ = true;
     if(_max_runtime_msecs != remote._max_runtime_msecs) differ = true;
     if(! Arrays.equals(_warns, remote._warns)) differ = true;
     if( differ )
@@ -452,10 +484,12 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
         _stop_requested = remote._stop_requested;
         _start_time= remote._start_time;
         _end_time  = remote._end_time  ;
+        _run_time  = remote._run_time  ;
         _ex        = remote._ex        ;
         _work      = remote._work      ;
         _worked    = remote._worked    ;
         _msg       = remote._msg       ;
+        _queued    = remote._queued    ;
         _max_runtime_msecs = remote._max_runtime_msecs;
         _warns     = remote._warns;
       }
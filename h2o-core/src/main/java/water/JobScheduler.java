@@ -0,0 +1,319 @@
+package water;
+
+import water.H2O.H2OCountedCompleter;
+import water.exceptions.H2OIllegalArgumentException;
+import water.util.Log;
+
+import java.util.*;
+
+/**
+ * Fair-share admission of {@link Job}s across tenants.
+ * <p>
+ * Without a scheduler every started Job is submitted straight to the F/J
+ * pools, so a single tenant launching a large grid search or AutoML run can
+ * occupy all worker threads.  With {@code -Dsys.ai.h2o.scheduler.max_running_jobs=N}
+ * at most N top-level Jobs of this node run at once; further Jobs wait in a
+ * per-tenant queue and are dispatched in weighted fair order - the tenant with
+ * the fewest running Jobs per unit of weight goes first, ties broken by the
+ * least accumulated run time per unit of weight.
+ * <p>
+ * Only Jobs started outside the F/J pools (e.g. from REST requests) are
+ * queued.  Jobs started by other running work (models of a grid, AutoML
+ * steps) are admitted immediately, as their parent already holds a slot and
+ * would otherwise deadlock waiting for them; their run time still counts
+ * towards the tenant's usage.  The F/J priorities themselves are left alone,
+ * since they are what keeps blocking remote calls deadlock-free.
+ * <p>
+ * The tenant of a Job is the authenticated user of the REST request which
+ * created it (or the {@code X-H2O-Tenant} header when running without
+ * authentication), and {@link #DEFAULT_TENANT} otherwise.  Jobs created by a
+ * running Job (grid members, AutoML steps, cross-validation models) inherit
+ * its tenant: the top-level task of a Job runs with the Job's tenant as the
+ * current tenant.  Tenant weights are given as
+ * {@code -Dsys.ai.h2o.scheduler.weights=alice:2,bob:1}; unlisted tenants have
+ * weight 1.
+ * <p>
+ * The tenant is a scheduling hint, not an isolation boundary: the header is
+ * taken at face value, so any client can claim any tenant (and its weight)
+ * unless H2O runs with authentication, in which case the header is ignored
+ * and the tenant is the authenticated user.  Tenants share all data and Jobs.
+ * <p>
+ * Scheduling is node-local: Jobs are queued on the node that starts them,
+ * which is also the home of the Job key.
+ */
+public final class JobScheduler {
+  public static final String DEFAULT_TENANT = "default";
+
+  /** Maximum number of concurrently running top-level Jobs; 0 disables queueing. */
+  static int MAX_RUNNING = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "scheduler.max_running_jobs", 0);
+  /** Maximum number of queued Jobs per tenant, beyond which new Jobs are rejected; 0 means no limit. */
+  static int MAX_QUEUED = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "scheduler.max_queued_jobs", 0);
+  private static final Map<String, Double> WEIGHTS =
+          parseWeights(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "scheduler.weights"));
+
+  private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
+
+  private JobScheduler() {}
+
+  /** Per-tenant queue and accounting. Guarded by the JobScheduler class lock. */
+  private static final class Tenant {
+    final String _name;
+    final double _weight;
+    final ArrayDeque<Pending> _queue = new ArrayDeque<>();
+    int _running;               // Top-level jobs holding a slot
+    int _nested;                // Jobs admitted without a slot
+    long _submitted, _admitted, _completed, _rejected;
+    long _waitMs, _maxWaitMs;   // Time spent queued by jobs holding a slot
+    long _runMs;                // Run time of completed jobs
+    Tenant(String name) { _name = name; _weight = WEIGHTS.getOrDefault(name, 1.0); }
+
+    long usageMs(long now) {
+      long ms = _runMs;
+      for (Running r : RUNNING.values())
+        if (r._tenant == this) ms += now - r._dispatched;
+      return ms;
+    }
+  }
+
+  private static final class Pending {
+    final Job _job;
+    final H2OCountedCompleter _task;
+    final long _enqueued = System.currentTimeMillis();
+    Pending(Job job, H2OCountedCompleter task) { _job = job; _task = task; }
+  }
+
+  private static final class Running {
+    final Tenant _tenant;
+    final boolean _slot;
+    final long _dispatched = System.currentTimeMillis();
+    Running(Tenant tenant, boolean slot) { _tenant = tenant; _slot = slot; }
+  }
+
+  private static final Map<String, Tenant> TENANTS = new TreeMap<>();
+  private static final Map<Key<Job>, Running> RUNNING = new HashMap<>();
+  private static int _slotsTaken;
+
+  static Map<String, Double> parseWeights(String spec) {
+    Map<String, Double> weights = new HashMap<>();
+    if (spec == null || spec.trim().isEmpty()) return weights;
+    for (String entry : spec.split(",")) {
+      int idx = entry.lastIndexOf(':');
+      if (idx <= 0) throw new IllegalArgumentException("Invalid scheduler weight '" + entry + "', expected tenant:weight");
+      double w = Double.parseDouble(entry.substring(idx + 1).trim());
+      if (!(w > 0)) throw new IllegalArgumentException("Scheduler weight of tenant '" + entry.substring(0, idx) + "' must be positive");
+      weights.put(entry.substring(0, idx).trim(), w);
+    }
+    return weights;
+  }
+
+  /** Tenant of Jobs created by the current thread. */
+  public static String currentTenant() {
+    String t = CURRENT_TENANT.get();
+    return t == null ? DEFAULT_TENANT : t;
+  }
+
+  /** Set (or clear, with null) the tenant of Jobs created by the current thread. */
+  public static void setCurrentTenant(String tenant) {
+    if (tenant == null || tenant.isEmpty()) CURRENT_TENANT.remove();
+    else CURRENT_TENANT.set(tenant);
+  }
+
+  private static Tenant tenant(String name) {
+    Tenant t = TENANTS.get(name);
+    if (t == null) TENANTS.put(name, t = new Tenant(name));
+    return t;
+  }
+
+  private static boolean isNested() { return Thread.currentThread() instanceof H2O.FJWThr; }
+
+  /**
+   * Decide whether a Job about to start may run at once.  Reserves a slot when
+   * it may; throws when the tenant's queue is full.
+   * @return true if the Job has to wait in the queue
+   */
+  static synchronized boolean admit(Job job) {
+    Tenant t = tenant(job._tenant);
+    t._submitted++;
+    if (MAX_RUNNING <= 0 || isNested()) {
+      RUNNING.put(job._key, new Running(t, false));
+      t._nested++;
+      return false;
+    }
+    if (_slotsTaken < MAX_RUNNING && !anyQueued()) {
+      RUNNING.put(job._key, new Running(t, true));
+      t._running++;
+      t._admitted++;
+      _slotsTaken++;
+      return false;
+    }
+    if (MAX_QUEUED > 0 && t._queue.size() >= MAX_QUEUED) {
+      t._submitted--;
+      t._rejected++;
+      throw new H2OIllegalArgumentException("Too many queued jobs for tenant '" + t._name + "' (limit is " + MAX_QUEUED + "), please retry later.");
+    }
+    return true;
+  }
+
+  /**
+   * Submit the task of a started Job: at once when {@link #admit} reserved
+   * a slot, otherwise once the fair-share order reaches it.
+   */
+  static void submit(Job job, H2OCountedCompleter task, boolean queued) {
+    if (!queued) {
+      H2O.submitTask(withTenant(job, task));
+      return;
+    }
+    synchronized (JobScheduler.class) {
+      tenant(job._tenant)._queue.add(new Pending(job, task));
+    }
+    dispatch();                 // A slot may have freed up meanwhile
+  }
+
+  /** Called once the task of the Job completed, normally or not. */
+  static void done(Job job) {
+    synchronized (JobScheduler.class) {
+      Running r = RUNNING.remove(job._key);
+      if (r == null) return;
+      Tenant t = r._tenant;
+      t._completed++;
+      t._runMs += System.currentTimeMillis() - r._dispatched;
+      if (r._slot) { t._running--; _slotsTaken--; }
+      else t._nested--;
+    }
+    dispatch();
+  }
+
+  /** Drop a queued Job which was asked to stop; it completes as cancelled. */
+  static void cancel(Job job) {
+    Pending found = null;
+    synchronized (JobScheduler.class) {
+      Tenant t = TENANTS.get(job._tenant);
+      if (t == null) return;
+      for (Iterator<Pending> it = t._queue.iterator(); it.hasNext(); ) {
+        Pending p = it.next();
+        if (p._job._key.equals(job._key)) { found = p; it.remove(); break; }
+      }
+    }
+    if (found != null) found._task.completeExceptionally(new Job.JobCancelledException());
+  }
+
+  private static boolean anyQueued() {
+    for (Tenant t : TENANTS.values())
+      if (!t._queue.isEmpty()) return true;
+    return false;
+  }
+
+  // Launch queued jobs while there are free slots
+  private static void dispatch() {
+    while (true) {
+      Pending p;
+      synchronized (JobScheduler.class) {
+        if (_slotsTaken >= MAX_RUNNING && MAX_RUNNING > 0) return;
+        Tenant next = pickNext();
+        if (next == null) return;
+        p = next._queue.poll();
+        long now = System.currentTimeMillis();
+        long waited = now - p._enqueued;
+        next._waitMs += waited;
+        next._maxWaitMs = Math.max(next._maxWaitMs, waited);
+        RUNNING.put(p._job._key, new Running(next, true));
+        next._running++;
+        next._admitted++;
+        _slotsTaken++;
+      }
+      launch(p);
+    }
+  }
+
+  private static Tenant pickNext() {
+    long now = System.currentTimeMillis();
+    Tenant best = null;
+    double bestShare = 0, bestUsage = 0;
+    for (Tenant t : TENANTS.values()) {
+      if (t._queue.isEmpty()) continue;
+      double share = (t._running + 1) / t._weight;
+      double usage = t.usageMs(now) / t._weight;
+      if (best == null || share < bestShare || (share == bestShare && usage < bestUsage)) {
+        best = t; bestShare = share; bestUsage = usage;
+      }
+    }
+    return best;
+  }
+
+  private static void launch(Pending p) {
+    try {
+      p._job.dispatched();
+    } catch (Throwable t) {
+      Log.err("Failed to dispatch job " + p._job._key, t);
+    }
+    if (p._job.stop_requested()) p._task.completeExceptionally(new Job.JobCancelledException());
+    else H2O.submitTask(withTenant(p._job, p._task));
+  }
+
+  // Run the top-level task of a Job with the Job's tenant as the current
+  // tenant, so the Jobs it creates inherit it
+  private static H2OCountedCompleter withTenant(Job job, H2OCountedCompleter task) {
+    return task instanceof DTask ? task : new TenantScope(job._tenant, task);
+  }
+
+  private static final class TenantScope extends H2OCountedCompleter<TenantScope> {
+    final String _tenant;
+    final H2OCountedCompleter _task;
+    TenantScope(String tenant, H2OCountedCompleter task) { super(task.priority()); _tenant = tenant; _task = task; }
+    @Override public void compute2() {
+      String outer = CURRENT_TENANT.get();
+      CURRENT_TENANT.set(_tenant);
+      try {
+        _task.compute2();
+      } catch (Throwable t) {
+        _task.completeExceptionally(t);
+      } finally {
+        if (outer == null) CURRENT_TENANT.remove();
+        else CURRENT_TENANT.set(outer);
+      }
+      tryComplete();
+    }
+  }
+
+  /** Snapshot of the per-tenant statistics, sorted by tenant name. */
+  public static synchronized TenantStats[] stats() {
+    long now = System.currentTimeMillis();
+    TenantStats[] res = new TenantStats[TENANTS.size()];
+    int i = 0;
+    for (Tenant t : TENANTS.values()) {
+      TenantStats s = res[i++] = new TenantStats();
+      s._tenant = t._name;
+      s._weight = t._weight;
+      s._running = t._running;
+      s._nested = t._nested;
+      s._queued = t._queue.size();
+      s._submitted = t._submitted;
+      s._completed = t._completed;
+      s._rejected = t._rejected;
+      s._mean_wait_ms = t._admitted == 0 ? 0 : (double) t._waitMs / t._admitted;
+      s._max_wait_ms = t._maxWaitMs;
+      s._usage_ms = t.usageMs(now);
+      s._oldest_queued_ms = t._queue.isEmpty() ? 0 : now - t._queue.peek()._enqueued;
+    }
+    return res;
+  }
+
+  public static int maxRunningJobs() { return MAX_RUNNING; }
+  public static synchronized int runningJobs() { return _slotsTaken; }
+
+  /** Scheduling statistics of one tenant. */
+  public static class TenantStats extends Iced<TenantStats> {
+    public String _tenant;
+    public double _weight;
+    public int _running;
+    public int _nested;
+    public int _queued;
+    public long _submitted;
+    public long _completed;
+    public long _rejected;
+    public double _mean_wait_ms;
+    public long _max_wait_ms;
+    public long _usage_ms;
+    public long _oldest_queued_ms;
+  }
+}
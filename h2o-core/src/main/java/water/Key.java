@@ -121,6 +121,8 @@ final public class Key<T extends Keyed> extends Iced<Key<T>> implements Comparab
     if( _kb[0] == CHK ) {
       // Homed Chunk?
       if( _kb[1] != -1 ) throw H2O.fail();
+      // Consistent placement puts blocks of the Vector Group's Chunks on the ring
+      if( KeyPlacement.CONSISTENT ) return KeyPlacement.chunkHome(H2O.CLOUD,this,repl);
       // For round-robin on Chunks in the following pattern:
       // 1 Chunk-per-node, until all nodes have 1 chunk (max parallelism).
       // Then 2 chunks-per-node, once around, then 4, then 8, then 16.
@@ -142,6 +144,9 @@ final public class Key<T extends Keyed> extends Iced<Key<T>> implements Comparab
       return ((nidx+repl)&0x7FFFFFFF) % hsz;
     }
 
+    // Placement on a ring of virtual nodes, stable across Cloud sizes
+    if( KeyPlacement.CONSISTENT ) return KeyPlacement.home(H2O.CLOUD,this,repl);
+
     // Easy Cheesy Stupid:
     return ((_hash+repl)&0x7FFFFFFF) % hsz;
   }
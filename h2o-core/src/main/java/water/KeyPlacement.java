@@ -0,0 +1,308 @@
+package water;
+
+import water.nbhm.NonBlockingHashMapLong;
+import water.util.Log;
+import water.util.UnsafeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consistent-hash placement of Keys on the nodes of a Cloud.
+ * <p>
+ * By default {@link Key#D} homes a Key by its hash modulo the Cloud size and
+ * deals Chunks out round-robin, so a Cloud of a different size homes nearly
+ * every Key on a different node.  With {@code -Dsys.ai.h2o.key_placement=consistent}
+ * Keys are instead placed on a ring of virtual nodes, {@code
+ * -Dsys.ai.h2o.key_placement.vnodes} (128 by default) per member, positioned
+ * by the hash of the member's {@code ip:port}.  A Key belongs to the first
+ * virtual node at or after its own hash on the ring; when a node joins or
+ * leaves, only the Keys of the ring segments it takes over or gives up change
+ * home, about 1/N of the data instead of nearly all of it.
+ * <p>
+ * Chunks are placed on the same ring, by blocks of consecutive Chunks of a
+ * Vector Group (the Chunks of all Vecs of a group share their homes, as with
+ * modulo placement; blocks grow from 1 to {@link #MAX_BLOCK} Chunks, like the
+ * runs of the modulo dealing).  Hashing alone would leave a Vec of few Chunks
+ * badly spread, so blocks are placed with bounded loads: taking the blocks in
+ * order, a block goes to the first node on the ring from its hash which still
+ * holds at most {@link #LOAD_FACTOR} times its fair share of the group's
+ * Chunks placed so far.  A block's home only depends on the group, the blocks
+ * before it and the members, so every node derives the same placement, and a
+ * node joining or leaving moves a little more than 1/N of the Chunks, mostly
+ * to or from that node.
+ * <p>
+ * The Cloud is still locked at the first write to the DKV (see {@link
+ * Paxos#lockCloud}), so members do not change under a running Cloud.  What
+ * placement buys is the step between two Clouds: {@link #plan} lists, for a
+ * set of Keys known to the old Cloud (e.g. the Chunks of a persisted Frame),
+ * the ones whose home differs on the new Cloud, so that a restarted or
+ * rescaled deployment only has to move those.
+ */
+public final class KeyPlacement {
+  public static final boolean CONSISTENT = "consistent".equals(H2O.getSysProperty("key_placement", "modulo"));
+  static final int VNODES = Integer.parseInt(H2O.getSysProperty("key_placement.vnodes", "128"));
+  /** Most Chunks of a Vector Group a node may hold, as a multiple of its fair share. */
+  static final double LOAD_FACTOR = 1.25;
+  /** Largest block of consecutive Chunks placed together. */
+  static final int MAX_BLOCK = 4;
+  // Blocks of each size before the blocks double
+  private static final int BLOCK_RUN = 64;
+  // Vector Groups whose block placement is remembered per Ring
+  private static final int MAX_GROUPS = 4096;
+
+  private KeyPlacement() {}
+
+  // Ring of the current Cloud, rebuilt when the Cloud changes
+  private static volatile Ring RING;
+
+  /** Ring of the given Cloud. */
+  static Ring ring(H2O cloud) {
+    Ring r = RING;
+    if (r == null || r._cloud != cloud) {
+      String[] ids = new String[cloud.size()];
+      for (int i = 0; i < ids.length; i++)
+        ids[i] = cloud._memary[i].getIpPortString();
+      r = new Ring(ids, VNODES);
+      r._cloud = cloud;
+      RING = r;
+    }
+    return r;
+  }
+
+  /**
+   * Node index of replica #repl of a Key on the Cloud; called from {@link
+   * Key#D} when consistent placement is on.
+   */
+  static int home(H2O cloud, Key key, int repl) {
+    return ring(cloud).node(placementHash(key), repl);
+  }
+
+  /**
+   * Node index of replica #repl of a Chunk Key on the Cloud; called from
+   * {@link Key#D} when consistent placement is on.
+   */
+  static int chunkHome(H2O cloud, Key key, int repl) {
+    Ring ring = ring(cloud);
+    return (chunkNode(ring, key) + repl) % ring.size(); // Replicas on the next members
+  }
+
+  // Node index homing a Chunk Key on the Ring
+  static int chunkNode(Ring ring, Key key) {
+    int cidx = UnsafeUtils.get4(key._kb, 1 + 1 + 4);
+    if (cidx < 0) return ring.node(placementHash(key)); // Per-Vec keys, e.g. the rollups
+    return ring.chunkNode(groupHash(key), cidx);
+  }
+
+  /** Block of consecutive Chunks that Chunk #cidx is placed with. */
+  static int block(int cidx) {
+    int z = 0, first = 0;
+    while ((1 << z) < MAX_BLOCK && cidx >= first + (BLOCK_RUN << z)) {
+      first += BLOCK_RUN << z;
+      z++;
+    }
+    return z * BLOCK_RUN + ((cidx - first) >> z);
+  }
+
+  /** Number of Chunks in a block. */
+  static int blockSize(int block) {
+    return 1 << Math.min(block / BLOCK_RUN, Integer.numberOfTrailingZeros(MAX_BLOCK));
+  }
+
+  /**
+   * A ring of virtual nodes over a list of node identities.  Node indexes
+   * returned are positions in that list.
+   */
+  public static final class Ring {
+    final String[] _nodes;
+    final int[] _points;        // Sorted hashes of the virtual nodes
+    final int[] _owners;        // Node index of each point
+    H2O _cloud;                // Cloud this Ring was built for, if any
+    // Block placement of the Vector Groups seen so far; dropped when too many,
+    // since it is cheap to derive again
+    private final NonBlockingHashMapLong<Blocks> _groups = new NonBlockingHashMapLong<>();
+
+    public Ring(String[] nodes, int vnodes) {
+      if (nodes.length == 0 || vnodes <= 0) throw new IllegalArgumentException("Ring needs nodes and virtual nodes");
+      _nodes = nodes.clone();
+      int n = nodes.length * vnodes;
+      long[] packed = new long[n];
+      for (int i = 0; i < nodes.length; i++) {
+        long h = hash(nodes[i]);
+        for (int v = 0; v < vnodes; v++)
+          packed[i * vnodes + v] = ((long) mix(h + v * 0x9E3779B97F4A7C15L) << 32) | i;
+      }
+      Arrays.sort(packed);      // By point, then by node index to break (unlikely) ties
+      _points = new int[n];
+      _owners = new int[n];
+      for (int i = 0; i < n; i++) {
+        _points[i] = (int) (packed[i] >> 32);
+        _owners[i] = (int) packed[i];
+      }
+    }
+
+    public int size() { return _nodes.length; }
+
+    /** Node index homing Chunk #cidx of the Vector Group with the given hash. */
+    public int chunkNode(long group, int cidx) {
+      Blocks b = _groups.get(group);
+      if (b == null) {
+        if (_groups.size() >= MAX_GROUPS) _groups.clear();
+        Blocks b2 = _groups.putIfAbsent(group, b = new Blocks(group, size()));
+        if (b2 != null) b = b2;
+      }
+      return b.node(this, block(cidx));
+    }
+
+    /** Node index owning the given hash. */
+    public int node(int hash) { return _owners[point(hash)]; }
+
+    /**
+     * Node index of replica #repl of the given hash: the repl-th distinct
+     * node walking the ring from the hash.
+     */
+    public int node(int hash, int repl) {
+      int p = point(hash);
+      if (repl == 0) return _owners[p];
+      repl %= _nodes.length;
+      boolean[] seen = new boolean[_nodes.length];
+      for (int i = 0; ; i++) {
+        int o = _owners[(p + i) % _owners.length];
+        if (seen[o]) continue;
+        if (repl-- == 0) return o;
+        seen[o] = true;
+      }
+    }
+
+    private int point(int hash) {
+      int i = Arrays.binarySearch(_points, hash);
+      if (i < 0) i = -i - 1;
+      while (i > 0 && _points[i - 1] == hash) i--; // First of equal points
+      return i == _points.length ? 0 : i;        // Wrap around
+    }
+
+    /** Identity of the node at the given index. */
+    public String nodeId(int idx) { return _nodes[idx]; }
+  }
+
+  // Homes of the blocks of one Vector Group on one Ring, placed in block order
+  // with bounded loads as far as asked for
+  private static final class Blocks {
+    final long _group;
+    final int[] _load;          // Chunks per node so far
+    int[] _nodes = new int[16]; // Node index of each placed block
+    int _n;                     // Blocks placed
+    long _chunks;               // Chunks placed
+    Blocks(long group, int size) { _group = group; _load = new int[size]; }
+
+    synchronized int node(Ring ring, int block) {
+      while (_n <= block) place(ring);
+      return _nodes[block];
+    }
+
+    private void place(Ring ring) {
+      final int size = blockSize(_n);
+      _chunks += size;
+      final long cap = (long) Math.ceil(LOAD_FACTOR * _chunks / _load.length);
+      final int p = ring.point(mix(_group + _n * 0x9E3779B97F4A7C15L));
+      int node = -1;
+      for (int i = 0; i < ring._owners.length; i++) { // Next node with room, else the least loaded one
+        int o = ring._owners[(p + i) % ring._owners.length];
+        if (_load[o] + size <= cap) { node = o; break; }
+        if (node == -1 || _load[o] < _load[node]) node = o;
+      }
+      _load[node] += size;
+      if (_n == _nodes.length) _nodes = Arrays.copyOf(_nodes, _n * 2);
+      _nodes[_n++] = node;
+    }
+  }
+
+  /** A Key which changes home between two Clouds. */
+  public static final class Move {
+    public final Key _key;
+    public final String _from, _to;
+    Move(Key key, String from, String to) { _key = key; _from = from; _to = to; }
+    @Override public String toString() { return _key + ": " + _from + " -> " + _to; }
+  }
+
+  /**
+   * Keys whose home changes from one Cloud to the next, with consistent
+   * placement on both.  The Chunks of a Vector Group move together.
+   * @param keys Keys of the old Cloud
+   * @param from members of the old Cloud, as {@code ip:port}
+   * @param to members of the new Cloud, as {@code ip:port}
+   * @return the Keys which have to move, grouped by new home
+   */
+  public static Map<String, List<Move>> plan(Collection<Key> keys, String[] from, String[] to) {
+    Ring before = new Ring(from, VNODES), after = new Ring(to, VNODES);
+    Map<String, List<Move>> moves = new HashMap<>();
+    int moved = 0;
+    for (Key k : keys) {
+      String a = before.nodeId(homeOn(before, k)), b = after.nodeId(homeOn(after, k));
+      if (a.equals(b)) continue;
+      moves.computeIfAbsent(b, x -> new ArrayList<>()).add(new Move(k, a, b));
+      moved++;
+    }
+    Log.info("Key placement: " + moved + " of " + keys.size() + " keys change home going from " +
+            from.length + " to " + to.length + " nodes.");
+    return moves;
+  }
+
+  /**
+   * Fraction of the hash space whose owner changes from one Ring to the
+   * other, measured on a uniform sample of hashes.
+   */
+  public static double movedFraction(Ring from, Ring to) {
+    final int samples = 1 << 16;
+    int moved = 0;
+    for (int i = 0; i < samples; i++) {
+      int h = mix(i);
+      if (!from.nodeId(from.node(h)).equals(to.nodeId(to.node(h)))) moved++;
+    }
+    return (double) moved / samples;
+  }
+
+  private static int homeOn(Ring ring, Key k) {
+    return k.isChunkKey() ? chunkNode(ring, k) : ring.node(placementHash(k));
+  }
+
+  /** Hash of the Vector Group of a Chunk Key: its bytes without the Vec and Chunk numbers. */
+  static long groupHash(Key k) {
+    long h = 0xCBF29CE484222325L;
+    for (int i = 0; i < k._kb.length; i++) {
+      if (i >= 2 && i < 2 + 4 + 4) continue;
+      h ^= k._kb[i] & 0xFF;
+      h *= 0x100000001B3L;
+    }
+    return h;
+  }
+
+  /** Hash a (non-Chunk) Key is placed by on the ring. */
+  static int placementHash(Key k) {
+    return mix(k.hashCode());
+  }
+
+  private static long hash(String s) {
+    long h = 0xCBF29CE484222325L; // FNV-1a, stable across JVMs
+    for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b & 0xFF;
+      h *= 0x100000001B3L;
+    }
+    return h;
+  }
+
+  // 64-bit finalizer of MurmurHash3, folded to 32 bits
+  private static int mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -4,10 +4,15 @@ import jsr166y.CountedCompleter;
 import jsr166y.ForkJoinPool;
 import water.fvec.*;
 import water.util.DistributedException;
+import water.util.Log;
 import water.util.PrettyPrint;
 import water.fvec.Vec.VectorGroup;
 
 import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * Map/Reduce style distributed computation.
@@ -191,6 +196,26 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Used to invoke profiling.  Call as: <code>new MRTask().profile().doAll();*/
   public T profile() { _profile = new MRProfile(this); return (T)this; }
 
+  /** Opt into speculative re-execution of straggling nodes.  Call as:
+   *  <code>new MRTask().speculative().doAll(fr);</code>
+   *  <p>
+   *  Instead of the usual tree of RPCs, the top node sends one RPC per node.
+   *  When most nodes have answered and a node takes much longer than the
+   *  median node, its chunks are mapped again on a node which is already
+   *  done, reading them through the DKV; whichever copy answers first is
+   *  reduced, the other one is dropped.  The task's map must therefore be
+   *  idempotent and must not write into Chunks or have other side effects,
+   *  and setupLocal/closeLocal may run on more nodes than usual.  Tasks
+   *  producing output Vecs, running on keys, running locally or from a client
+   *  run the normal way. */
+  public T speculative() { _speculative = true; return (T)this; }
+  transient private boolean _speculative;
+  transient Speculation<T> _spec;
+
+  /** Node whose chunks a speculative backup copy maps, or -1 for the normal
+   *  choice of chunks homed on the executing node. */
+  short _specHome = -1;
+
   /** Get the resulting Frame from this invoked MRTask.  <b>This Frame is not
    *  in the DKV.</b> AppendableVec instances are closed into Vec instances,
    *  which then appear in the DKV.
@@ -543,7 +568,12 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // Run remote IF:
     // - Not forced to run local (no remote jobs allowed) AND
     // - - There's remote work, or Client mode (always remote work)
-    if( (!_run_local) && ((nlo+1 < _nhi) || H2O.ARGS.client) ) {
+    if( _speculative && _topGlobal && canSpeculate() ) {
+      if(_profile!=null) _profile._rpcLstart = System.currentTimeMillis();
+      _spec = new Speculation<>(self());
+      _spec.launch();
+      if(_profile!=null) _profile._rpcRstart = _profile._rpcRdone = System.currentTimeMillis();
+    } else if( (!_run_local) && ((nlo+1 < _nhi) || H2O.ARGS.client) ) {
       if(_profile!=null) _profile._rpcLstart = System.currentTimeMillis();
       _nleft = remote_compute(H2O.ARGS.client ? nlo : nlo+1,nmid);
       if(_profile!=null) _profile._rpcRstart = System.currentTimeMillis();
@@ -614,7 +644,11 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           _hi > _lo && _keys[_lo].home() ) {
         assert(_keys == null || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
         if(_profile!=null) _profile._userstart = System.currentTimeMillis();
-        if( _keys != null ) map(_keys[_lo]);
+        if( _keys != null ) {
+          long start = MetricsRegistry.ENABLED ? System.nanoTime() : 0;
+          map(_keys[_lo]);
+          if( MetricsRegistry.ENABLED ) MetricsRegistry.recordMap(getClass(), System.nanoTime() - start);
+        }
         _res = self();        // Save results since called map() at least once!
         if (_postMap != null)
           _postMap.call(_keys[_lo]);
@@ -622,7 +656,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       }
     } else if( _hi > _lo ) {    // Frame, Single chunk?
       Vec v0 = _fr.anyVec();
-      if( _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
+      if( _specHome >= 0 ? v0.chunkKey(_lo).home(H2O.CLOUD) == _specHome // Backing up a straggler?
+                         : _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
         assert(_run_local || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
 
         // Make decompression chunk headers for these chunks
@@ -649,6 +684,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         if(_profile!=null)
           _profile._userstart = System.currentTimeMillis();
 
+        long start = MetricsRegistry.ENABLED ? System.nanoTime() : 0;
         int num_fr_vecs = _fr.vecs().length;
         int num_outputs = _output_types == null? 0 : _output_types.length;
         if (num_outputs == 0) {
@@ -673,6 +709,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         }
         if (num_outputs >= 0)
           map(bvs, appendableChunks);
+        if( MetricsRegistry.ENABLED ) MetricsRegistry.recordMap(getClass(), System.nanoTime() - start);
 
         _res = self();          // Save results since called map() at least once!
         // Further D/K/V put any new vec results.
@@ -729,6 +766,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
     reduce3(_nleft);            // Reduce global results from neighbors.
     reduce3(_nrite);
+    if( _spec != null ) { _spec.reduceInto(this); _spec = null; }
     if(_profile!=null) _profile._remoteBlkDone = System.currentTimeMillis();
     _fs.blockForPending();      // Block any pending user tasks
     if(_profile!=null) _profile._localBlkDone = System.currentTimeMillis();
@@ -773,7 +811,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         _appendables[i].reduce(mrt._appendables[i]);
     if( _ex == null ) _ex = mrt._ex;
     // User's reduction
+    long start = MetricsRegistry.ENABLED ? System.nanoTime() : 0;
     reduce(mrt);
+    if( MetricsRegistry.ENABLED ) MetricsRegistry.recordReduce(getClass(), System.nanoTime() - start);
   }
 
   // Full local work-tree cancellation
@@ -798,6 +838,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // catch & ignore, keeping only the first one we already got.
     RPC<T> nl = _nleft; if( nl != null ) try { nl.get(); } catch( Throwable ignore ) { } _nleft = null;
     RPC<T> nr = _nrite; if( nr != null ) try { nr.get(); } catch( Throwable ignore ) { } _nrite = null;
+    Speculation<T> spec = _spec; if( spec != null ) spec.cancel(); _spec = null;
     return true;
   }
 
@@ -809,6 +850,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     x._topLocal = false;  // Not a top job
     x._nleft = x._nrite = null;
     x. _left = x. _rite = null;
+    x._spec = null;
     x._fs = _fs;
     if( _profile!=null )  x._profile = new MRProfile(this);
     else                  x._profile = null;    // Clone needs its own profile
@@ -816,6 +858,153 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     return x;
   }
 
+  private boolean canSpeculate() {
+    return _fr != null && _output_types == null && !_run_local && !H2O.ARGS.client && H2O.CLOUD.size() > 1;
+  }
+
+  /** Straggler detection knobs for {@link #speculative()} tasks, set by sys.ai.h2o.mrtask.speculative.* properties */
+  // Fraction of nodes which must be done before looking for stragglers
+  static final double SPEC_QUORUM = Double.parseDouble(H2O.getSysProperty("mrtask.speculative.quorum", "0.5"));
+  // A node is straggling when it takes this many times the median node
+  static final double SPEC_SLOWDOWN = Double.parseDouble(H2O.getSysProperty("mrtask.speculative.slowdown", "2.0"));
+  // ... and at least this long
+  private static final long SPEC_MIN_MS = Long.parseLong(H2O.getSysProperty("mrtask.speculative.min_ms", "1000"));
+  private static volatile long _specMinMsOverride = -1;
+  static long specMinMs() { long ms = _specMinMsOverride; return ms >= 0 ? ms : SPEC_MIN_MS; }
+  /** For testing: override the minimal straggling time of this node's tasks; -1 restores the configured one */
+  static void overrideSpecMinMs(long ms) { _specMinMsOverride = ms; }
+
+  private static class SpecTimer {
+    static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "MRTask-speculation");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  // Flat fan-out of a speculative task to every remote node, keeping the
+  // first answer per node from either the primary RPC or a backup RPC.  The
+  // top task has one pending count per remote node, released by the first
+  // answer.
+  private static final class Speculation<T extends MRTask<T>> {
+    final MRTask<T> _top;
+    final int[] _nodes;             // Cloud index of the node of each slot
+    final RPC<T>[] _primary, _backup;
+    final T[] _results;
+    final long[] _elapsed;          // Time to answer, per slot
+    final AtomicIntegerArray _done; // 0 while running, 1 once answered
+    final long _start = System.currentTimeMillis();
+    int _ndone;                     // Guarded by this
+    boolean _checkScheduled;        // Guarded by this
+
+    @SuppressWarnings("unchecked")
+    Speculation(MRTask<T> top) {
+      _top = top;
+      int n = H2O.CLOUD.size() - 1;
+      _nodes = new int[n];
+      for( int i = 0; i < n; i++ ) _nodes[i] = top.addShift(i + 1);
+      _primary = new RPC[n];
+      _backup = new RPC[n];
+      _results = (T[]) new MRTask[n];
+      _elapsed = new long[n];
+      _done = new AtomicIntegerArray(n);
+    }
+
+    void launch() {
+      _top.addToPendingCount(_nodes.length);
+      for( int i = 0; i < _nodes.length; i++ ) {
+        T mrt = _top.copyAndInit();
+        mrt._nhi = (short)(i + 2); // The remote does only its own shifted index i+1
+        _primary[i] = new RPC<>(H2O.CLOUD._memary[_nodes[i]], mrt).addCompleter(new Answer(i, false)).call();
+      }
+    }
+
+    // Called by the first answer of the slot
+    private void answered(int slot, T res, boolean backup) {
+      if( !_done.compareAndSet(slot, 0, 1) ) return; // Lost the race, drop it
+      _results[slot] = res;
+      RPC<T> other = backup ? _primary[slot] : _backup[slot];
+      if( other != null ) other.cancel(true); // Only stops waiting; remote work runs to the end
+      if( backup && MetricsRegistry.ENABLED ) MetricsRegistry.SPECULATIVE_WINS.increment();
+      boolean schedule = false;
+      synchronized( this ) {
+        _elapsed[slot] = System.currentTimeMillis() - _start;
+        _ndone++;
+        if( !_checkScheduled && _ndone < _nodes.length && _ndone >= Math.ceil(SPEC_QUORUM * _nodes.length) )
+          schedule = _checkScheduled = true;
+      }
+      if( schedule ) {
+        long delay = Math.max(0, threshold() - (System.currentTimeMillis() - _start));
+        SpecTimer.TIMER.schedule(this::backupStragglers, delay, TimeUnit.MILLISECONDS);
+      }
+      _top.tryComplete();
+    }
+
+    // Straggling threshold from the median time of the answered nodes
+    private synchronized long threshold() {
+      long[] times = new long[_ndone];
+      int k = 0;
+      for( int i = 0; i < _nodes.length; i++ )
+        if( _done.get(i) == 1 ) times[k++] = _elapsed[i];
+      Arrays.sort(times, 0, k);
+      long median = k == 0 ? 0 : times[k >> 1];
+      return Math.max(specMinMs(), (long) (SPEC_SLOWDOWN * median));
+    }
+
+    private void backupStragglers() {
+      if( _top.isDone() ) return;
+      int backupNode = 0;
+      for( int i = 0; i < _nodes.length; i++ ) {
+        if( _done.get(i) == 1 || _backup[i] != null ) continue;
+        // Round-robin the backups over the nodes which are already done
+        int target = -1;
+        for( int j = 0; j < _nodes.length && target < 0; j++ ) {
+          int cand = (backupNode + j) % _nodes.length;
+          if( _done.get(cand) == 1 ) { target = _nodes[cand]; backupNode = cand + 1; }
+        }
+        if( target < 0 ) continue; // Backups only go to remote nodes which are done
+        T mrt = _top.copyAndInit();
+        mrt._nlo = (short) target; // The backup node does its own index only...
+        mrt._nhi = 1;
+        mrt._run_local = true;     // ... pulling in the straggler's chunks
+        mrt._specHome = (short) _nodes[i];
+        Log.info("MRTask " + _top.getClass().getName() + ": node " + H2O.CLOUD._memary[_nodes[i]] +
+                 " is straggling, re-running its map work on " + H2O.CLOUD._memary[target]);
+        if( MetricsRegistry.ENABLED ) MetricsRegistry.SPECULATIVE_BACKUPS.increment();
+        _backup[i] = new RPC<>(H2O.CLOUD._memary[target], mrt).addCompleter(new Answer(i, true)).call();
+      }
+    }
+
+    void reduceInto(MRTask<T> top) {
+      for( T mrt : _results ) {
+        if( mrt == null || mrt._nhi == -1L ) continue; // No results at all
+        if( top._res == null ) top._res = mrt;
+        else top._res.reduce4(mrt);
+      }
+    }
+
+    void cancel() {
+      for( int i = 0; i < _nodes.length; i++ ) {
+        if( _primary[i] != null ) _primary[i].cancel(true);
+        if( _backup[i] != null ) _backup[i].cancel(true);
+      }
+    }
+
+    // Completion of one primary or backup RPC
+    private final class Answer extends H2O.H2OCountedCompleter<Answer> {
+      final int _slot;
+      final boolean _isBackup;
+      Answer(int slot, boolean backup) { super(_top.priority()); _slot = slot; _isBackup = backup; }
+      @SuppressWarnings("unchecked")
+      @Override public void onCompletion(CountedCompleter caller) { answered(_slot, (T) caller, _isBackup); }
+      @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
+        if( _isBackup ) Log.warn("Speculative copy of " + _top.getClass().getName() + " failed: " + ex);
+        else if( _done.compareAndSet(_slot, 0, 1) ) _top.completeExceptionally(ex);
+        return false;
+      }
+    }
+  }
+
   public static abstract class PostMapAction<T extends PostMapAction<T>> extends Iced<T> {
     void call(Key mapInput) {
       // do nothing by default
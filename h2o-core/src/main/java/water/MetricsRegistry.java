@@ -0,0 +1,206 @@
+package water;
+
+import jsr166y.ForkJoinPool;
+import water.nbhm.NonBlockingHashMap;
+import water.parser.ParseCache;
+import water.util.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Node-local, always-on runtime metrics, rendered in the Prometheus text
+ * exposition format (or OpenMetrics) by {@link water.api.MetricsServlet}.
+ *
+ * Recording is kept to a couple of {@link LongAdder} increments, so it is
+ * safe on hot paths: MRTask map/reduce latency per task class, DKV get/put
+ * counts.  Everything else (F/J pool queues, Cleaner and memory state) is
+ * only read at scrape time.  Each node serves its own metrics; the node is
+ * added as a label so series from a whole cloud can be put side by side.
+ *
+ * Recording can be switched off with {@code -Dsys.ai.h2o.metrics.enabled=false}.
+ */
+public final class MetricsRegistry {
+  public static final boolean ENABLED = H2O.getSysBoolProperty("metrics.enabled", true);
+
+  private MetricsRegistry() {}
+
+  /** Map and reduce latency of one MRTask class on this node. */
+  static final class TaskMetrics {
+    final LatencyHistogram _map = new LatencyHistogram();
+    final LatencyHistogram _reduce = new LatencyHistogram();
+  }
+
+  private static final NonBlockingHashMap<String, TaskMetrics> TASKS = new NonBlockingHashMap<>();
+
+  static final LongAdder DKV_GET_LOCAL = new LongAdder();
+  static final LongAdder DKV_GET_REMOTE = new LongAdder();
+  static final LongAdder DKV_PUT_LOCAL = new LongAdder();
+  static final LongAdder DKV_PUT_REMOTE = new LongAdder();
+  static final LongAdder SPECULATIVE_BACKUPS = new LongAdder();
+  static final LongAdder SPECULATIVE_WINS = new LongAdder();
+
+  static TaskMetrics task(Class<?> clz) {
+    String name = clz.getName();
+    TaskMetrics tm = TASKS.get(name);
+    if (tm == null) {
+      TaskMetrics old = TASKS.putIfAbsent(name, tm = new TaskMetrics());
+      if (old != null) tm = old;
+    }
+    return tm;
+  }
+
+  static void recordMap(Class<?> clz, long nanos) { task(clz)._map.record(nanos); }
+  static void recordReduce(Class<?> clz, long nanos) { task(clz)._reduce.record(nanos); }
+
+  /** Forget all recorded task latencies and counts; for tests. */
+  static void reset() {
+    TASKS.clear();
+    DKV_GET_LOCAL.reset(); DKV_GET_REMOTE.reset();
+    DKV_PUT_LOCAL.reset(); DKV_PUT_REMOTE.reset();
+    SPECULATIVE_BACKUPS.reset(); SPECULATIVE_WINS.reset();
+  }
+
+  /**
+   * Render all metrics of this node.
+   * @param openMetrics true for the OpenMetrics 1.0 format, false for the
+   *                    Prometheus 0.0.4 text format
+   */
+  public static String scrape(boolean openMetrics) {
+    Writer w = new Writer(openMetrics, H2O.SELF == null ? "" : H2O.SELF.getIpPortString());
+
+    // MRTask latencies, in a stable order
+    Map<String, TaskMetrics> tasks = new TreeMap<>(TASKS);
+    w.family("h2o_mrtask_map_seconds", "histogram", "Latency of MRTask map() calls per chunk, by task class");
+    for (Map.Entry<String, TaskMetrics> e : tasks.entrySet())
+      w.histogram("h2o_mrtask_map_seconds", "task", e.getKey(), e.getValue()._map);
+    w.family("h2o_mrtask_reduce_seconds", "histogram", "Latency of MRTask reduce() calls, by task class");
+    for (Map.Entry<String, TaskMetrics> e : tasks.entrySet())
+      w.histogram("h2o_mrtask_reduce_seconds", "task", e.getKey(), e.getValue()._reduce);
+
+    // Fork/Join pools, one per priority
+    w.family("h2o_fj_queued_tasks", "gauge", "Tasks queued in the F/J pool, by priority");
+    forEachPool(w, "h2o_fj_queued_tasks", 0);
+    w.family("h2o_fj_queued_submissions", "gauge", "Submissions not yet picked up by the F/J pool, by priority");
+    forEachPool(w, "h2o_fj_queued_submissions", 1);
+    w.family("h2o_fj_active_threads", "gauge", "Threads running or stealing tasks in the F/J pool, by priority");
+    forEachPool(w, "h2o_fj_active_threads", 2);
+    w.family("h2o_fj_pool_threads", "gauge", "Threads started in the F/J pool, by priority");
+    forEachPool(w, "h2o_fj_pool_threads", 3);
+    w.family("h2o_fj_steals", "counter", "Tasks stolen between F/J worker queues, by priority");
+    forEachPool(w, "h2o_fj_steals", 4);
+
+    // Speculative MRTasks
+    w.family("h2o_mrtask_speculative_backups", "counter", "Backup copies started for straggling nodes of speculative MRTasks");
+    w.sample("h2o_mrtask_speculative_backups", "_total", null, null, SPECULATIVE_BACKUPS.sum());
+    w.family("h2o_mrtask_speculative_wins", "counter", "Backup copies which answered before the straggling node");
+    w.sample("h2o_mrtask_speculative_wins", "_total", null, null, SPECULATIVE_WINS.sum());
+
+    // DKV traffic
+    w.family("h2o_dkv_gets", "counter", "DKV gets, by where the value was found");
+    w.sample("h2o_dkv_gets", "_total", "source", "local", DKV_GET_LOCAL.sum());
+    w.sample("h2o_dkv_gets", "_total", "source", "remote", DKV_GET_REMOTE.sum());
+    w.family("h2o_dkv_puts", "counter", "DKV puts, by whether this node is the home of the key");
+    w.sample("h2o_dkv_puts", "_total", "home", "local", DKV_PUT_LOCAL.sum());
+    w.sample("h2o_dkv_puts", "_total", "home", "remote", DKV_PUT_REMOTE.sum());
+
+    // Replicas of remote Values
+    w.family("h2o_replica_cache_requests", "counter", "DKV gets of Keys homed elsewhere, by whether a local replica was found");
+    w.sample("h2o_replica_cache_requests", "_total", "result", "hit", ReplicaCache.HITS.sum());
+    w.sample("h2o_replica_cache_requests", "_total", "result", "miss", ReplicaCache.MISSES.sum());
+    w.family("h2o_replica_cache_evictions", "counter", "Replicas dropped to stay within the replica budget, by reason");
+    w.sample("h2o_replica_cache_evictions", "_total", "reason", "lru", ReplicaCache.EVICTIONS.sum());
+    w.sample("h2o_replica_cache_evictions", "_total", "reason", "admission", ReplicaCache.REJECTIONS.sum());
+    w.family("h2o_replica_cache_bytes", "gauge", "Bytes of replicas of remote Values held on this node");
+    w.sample("h2o_replica_cache_bytes", "", null, null, ReplicaCache.bytes());
+    w.family("h2o_replica_cache_max_bytes", "gauge", "Replica budget of this node, 0 if unlimited");
+    w.sample("h2o_replica_cache_max_bytes", "", null, null, ReplicaCache.maxBytes());
+
+    // Parse results served from the parse cache
+    if (ParseCache.enabled()) {
+      w.family("h2o_parse_cache_requests", "counter", "Parses of cacheable sources, by whether the parse cache had the result");
+      w.sample("h2o_parse_cache_requests", "_total", "result", "hit", ParseCache.hits());
+      w.sample("h2o_parse_cache_requests", "_total", "result", "miss", ParseCache.misses());
+      w.family("h2o_parse_cache_bytes", "counter", "In-memory bytes of Frames stored to or loaded from the parse cache");
+      w.sample("h2o_parse_cache_bytes", "_total", "op", "store", ParseCache.storedBytes());
+      w.sample("h2o_parse_cache_bytes", "_total", "op", "load", ParseCache.loadedBytes());
+    }
+
+    // Memory and the Cleaner
+    w.family("h2o_kv_cached_bytes", "gauge", "Bytes of K/V values held in memory");
+    w.sample("h2o_kv_cached_bytes", "", null, null, Cleaner.Histo.cached());
+    w.family("h2o_kv_swapped_bytes", "gauge", "Bytes of K/V values persisted to the ice root");
+    w.sample("h2o_kv_swapped_bytes", "", null, null, Cleaner.Histo.swapped());
+    w.family("h2o_cleaner_spilled_bytes", "counter", "Bytes written to disk by the Cleaner");
+    w.sample("h2o_cleaner_spilled_bytes", "_total", null, null, Cleaner.SPILLED_BYTES);
+    w.family("h2o_cleaner_spill_seconds", "counter", "Time the Cleaner spent writing to disk");
+    w.sample("h2o_cleaner_spill_seconds", "_total", null, null, Cleaner.SPILL_NANOS / 1e9);
+    w.family("h2o_cleaner_freed_bytes", "counter", "Memory released by the Cleaner");
+    w.sample("h2o_cleaner_freed_bytes", "_total", null, null, Cleaner.FREED_BYTES);
+    w.family("h2o_mem_max_bytes", "gauge", "Memory available to the K/V store");
+    w.sample("h2o_mem_max_bytes", "", null, null, MemoryManager.MEM_MAX);
+    return w.finish();
+  }
+
+  private static void forEachPool(Writer w, String name, int what) {
+    for (int p = 0; p <= H2O.MAX_PRIORITY; p++) {
+      ForkJoinPool pool = H2O.getWrkPool(p);
+      if (pool == null) continue;
+      long v;
+      switch (what) {
+        case 0:  v = pool.getQueuedTaskCount(); break;
+        case 1:  v = pool.getQueuedSubmissionCount(); break;
+        case 2:  v = pool.getActiveThreadCount(); break;
+        case 3:  v = pool.getPoolSize(); break;
+        default: v = pool.getStealCount();
+      }
+      w.sample(name, what == 4 ? "_total" : "", "priority", String.valueOf(p), v);
+    }
+  }
+
+  private static final class Writer {
+    private final StringBuilder _sb = new StringBuilder(16 * 1024);
+    private final boolean _openMetrics;
+    private final String _node;
+
+    Writer(boolean openMetrics, String node) { _openMetrics = openMetrics; _node = escape(node); }
+
+    void family(String name, String type, String help) {
+      // The Prometheus text format names counters by their sample name
+      String fam = !_openMetrics && type.equals("counter") ? name + "_total" : name;
+      _sb.append("# HELP ").append(fam).append(' ').append(help).append('\n');
+      _sb.append("# TYPE ").append(fam).append(' ').append(type).append('\n');
+    }
+
+    void sample(String name, String suffix, String label, String value, double v) {
+      _sb.append(name).append(suffix).append("{node=\"").append(_node).append('"');
+      if (label != null) _sb.append(',').append(label).append("=\"").append(escape(value)).append('"');
+      _sb.append("} ");
+      if (v == (long) v) _sb.append((long) v); else _sb.append(v);
+      _sb.append('\n');
+    }
+
+    void histogram(String name, String label, String value, LatencyHistogram h) {
+      long[] counts = h.cumulativeCounts();
+      String esc = escape(value);
+      for (int b = 0; b < counts.length; b++) {
+        String le = b < LatencyHistogram.BOUNDS_NS.length ? Double.toString(LatencyHistogram.BOUNDS_NS[b] / 1e9) : "+Inf";
+        _sb.append(name).append("_bucket{node=\"").append(_node).append("\",")
+           .append(label).append("=\"").append(esc).append("\",le=\"").append(le).append("\"} ")
+           .append(counts[b]).append('\n');
+      }
+      sample(name, "_sum", label, value, h.sumNanos() / 1e9);
+      sample(name, "_count", label, value, counts[counts.length - 1]);
+    }
+
+    String finish() {
+      if (_openMetrics) _sb.append("# EOF\n");
+      return _sb.toString();
+    }
+
+    private static String escape(String s) {
+      return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package water;
+
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Node-local tier of cached copies (replicas) of Values homed on other nodes.
+ * <p>
+ * A {@link DKV#get} of a remote Key fetches the Value with {@link TaskGetKey}
+ * and keeps it in the local K/V store, where it used to compete with home data
+ * without any limit of its own.  Replicas installed this way are now tracked
+ * here against their own budget,
+ * {@code -Dsys.ai.h2o.replica_cache.max_bytes} (by default a quarter of the
+ * K/V memory, see {@code replica_cache.max_fraction}; 0 turns the limit off).
+ * <p>
+ * Once over budget, least recently used replicas are dropped from the local
+ * store, down to 90% of the budget.  Recency is approximated with a sampled
+ * clock: a hand sweeps over the tracked replicas and each victim is the least
+ * recently used of the next few replicas it passes, so an eviction costs a
+ * few steps of the hand rather than a sort of all replicas.  A new replica
+ * only displaces an older one if it was asked for more often recently
+ * (TinyLFU admission, with a small count-min sketch of Key popularity), so a
+ * one-off scan of remote data does not flush out the model every scoring task
+ * keeps reading.  Dropping a
+ * replica is always safe: the home node keeps the Value, the next get simply
+ * fetches it again, and an invalidate arriving for a dropped replica is a
+ * no-op.
+ * <p>
+ * Keys which a Job reads on every node for its whole duration can be
+ * {@link #pin}ned: they are prefetched on every node and are not evicted until
+ * the Job finishes.  {@link #drop} releases replicas of a set of Keys on the
+ * whole cloud with a single message per node.
+ */
+public final class ReplicaCache {
+  private static final long MAX_BYTES = Long.parseLong(H2O.getSysProperty("replica_cache.max_bytes", "-1"));
+  private static final double MAX_FRACTION = Double.parseDouble(H2O.getSysProperty("replica_cache.max_fraction", "0.25"));
+
+  private ReplicaCache() {}
+
+  // Tracked replicas and their total size
+  private static final NonBlockingHashMap<Key, Value> REPLICAS = new NonBlockingHashMap<>();
+  private static final AtomicLong BYTES = new AtomicLong();
+  // Keys pinned by running Jobs, and the number of Jobs pinning each Key
+  private static final NonBlockingHashMap<Key<Job>, Key[]> PINS = new NonBlockingHashMap<>();
+  private static final NonBlockingHashMap<Key, Integer> PINNED = new NonBlockingHashMap<>();
+  private static final FrequencySketch SKETCH = new FrequencySketch();
+
+  static final LongAdder HITS = new LongAdder();
+  static final LongAdder MISSES = new LongAdder();
+  static final LongAdder EVICTIONS = new LongAdder();
+  static final LongAdder REJECTIONS = new LongAdder();
+
+  /** Replica budget of this node in bytes; 0 if unlimited. */
+  public static long maxBytes() {
+    long max = MAX_BYTES;
+    return max >= 0 ? max : (long) (MemoryManager.MEM_MAX * MAX_FRACTION);
+  }
+
+  public static long bytes() { return BYTES.get(); }
+  public static int size() { return REPLICAS.size(); }
+  static boolean contains(Key key) { return REPLICAS.containsKey(key); }
+
+  /** A get of a remote Key was served locally. */
+  static void hit(Key key) {
+    HITS.increment();
+    SKETCH.increment(key);
+  }
+
+  /** A get of a remote Key has to go to its home node. */
+  static void miss(Key key) {
+    MISSES.increment();
+    SKETCH.increment(key);
+  }
+
+  /** A Value fetched from its home node was installed in the local store. */
+  static void admit(Key key, Value val) { admit(key, val, maxBytes()); }
+
+  // Admit a replica against the given budget (0 if unlimited)
+  static void admit(Key key, Value val, long max) {
+    if (val == null || key.home()) return;
+    Value old = REPLICAS.put(key, val);
+    BYTES.addAndGet(val._max - (old == null ? 0 : old._max));
+    if (max > 0 && BYTES.get() > max)
+      evict(key, max);
+  }
+
+  /** The local mapping of a remote Key changed (local put or invalidate from home). */
+  static void forget(Key key) {
+    Value old = REPLICAS.remove(key);
+    if (old != null) BYTES.addAndGet(-old._max);
+  }
+
+  // Replicas looked at per victim, and the clock hand; guarded by the class lock
+  private static final int EVICTION_SAMPLES = 8;
+  private static Iterator<Map.Entry<Key, Value>> _hand;
+
+  // Drop replicas, approximately least recently used first, until 90% of the budget is used.
+  private static synchronized void evict(Key candidate, long max) {
+    long target = max - max / 10;
+    Value cval = REPLICAS.get(candidate);
+    boolean decided = cval == null || isPinned(candidate);
+    while (BYTES.get() > target) {
+      Map.Entry<Key, Value> victim = nextVictim(candidate);
+      if (victim == null) break; // Only the candidate and pinned replicas are left
+      // TinyLFU: keep the eldest replica if it is in more demand than the new one
+      if (!decided) {
+        decided = true;
+        if (SKETCH.frequency(candidate) < SKETCH.frequency(victim.getKey())) {
+          if (dropLocal(candidate, cval)) REJECTIONS.increment();
+          continue;
+        }
+      }
+      if (dropLocal(victim.getKey(), victim.getValue())) EVICTIONS.increment();
+    }
+  }
+
+  // Least recently used of the next EVICTION_SAMPLES evictable replicas under
+  // the hand, or null if a full sweep found none.
+  private static Map.Entry<Key, Value> nextVictim(Key candidate) {
+    Map.Entry<Key, Value> best = null;
+    int seen = 0, steps = 0;
+    final int size = REPLICAS.size();
+    while (seen < EVICTION_SAMPLES && steps <= size) {
+      if (_hand == null || !_hand.hasNext()) {
+        _hand = REPLICAS.entrySet().iterator();
+        if (!_hand.hasNext()) break;
+      }
+      Map.Entry<Key, Value> e = _hand.next();
+      steps++;
+      if (e.getKey().equals(candidate) || isPinned(e.getKey())) continue;
+      seen++;
+      if (best == null || e.getValue()._lastAccessedTime < best.getValue()._lastAccessedTime) best = e;
+    }
+    return best;
+  }
+
+  // Forget a replica and unmap it from the local store, unless it changed meanwhile.
+  // Readers holding the Value keep a complete copy.
+  private static boolean dropLocal(Key key, Value val) {
+    if (!REPLICAS.remove(key, val)) return false;
+    BYTES.addAndGet(-val._max);
+    H2O.putIfMatch(key, null, val);
+    return true;
+  }
+
+  static boolean isPinned(Key key) { return PINNED.containsKey(key); }
+
+  /**
+   * Keep the given Keys cached on every node until the Job finishes.  The
+   * Values are prefetched right away.
+   */
+  public static void pin(Job job, Key... keys) {
+    new PinTask(job._key, keys).doAllNodes();
+  }
+
+  /** Release the pins of a Job on all nodes; called when the Job completes. */
+  static void unpin(Key<Job> job) {
+    if (PINS.containsKey(job))
+      new PinTask(job, null).asyncExecOnAllNodes();
+  }
+
+  /** Drop cached replicas of the given Keys on all nodes, one message per node. */
+  public static void drop(Key... keys) {
+    new DropTask(keys).doAllNodes();
+  }
+
+  private static class PinTask extends MRTask<PinTask> {
+    final Key<Job> _job;
+    final Key[] _pins;          // null to unpin
+    PinTask(Key<Job> job, Key[] pins) { _job = job; _pins = pins; }
+    @Override protected void setupLocal() {
+      synchronized (PINS) {
+        Key[] old = _pins == null ? PINS.remove(_job) : PINS.put(_job, _pins);
+        if (old != null)
+          for (Key k : old) PINNED.computeIfPresent(k, (key, n) -> n == 1 ? null : n - 1);
+        if (_pins != null)
+          for (Key k : _pins) PINNED.merge(k, 1, Integer::sum);
+      }
+      if (_pins != null)
+        for (Key k : _pins)
+          if (!k.home()) DKV.prefetch(k);
+    }
+  }
+
+  private static class DropTask extends MRTask<DropTask> {
+    final Key[] _drop;
+    DropTask(Key[] drop) { _drop = drop; }
+    @Override protected void setupLocal() {
+      for (Key k : _drop) {
+        Value v = REPLICAS.get(k);
+        if (v != null && dropLocal(k, v)) EVICTIONS.increment();
+      }
+    }
+  }
+
+  /** Forget all counters and tracked replicas; for tests. */
+  static void reset() {
+    for (Map.Entry<Key, Value> e : REPLICAS.entrySet())
+      dropLocal(e.getKey(), e.getValue());
+    synchronized (PINS) {
+      PINS.clear();
+      PINNED.clear();
+    }
+    SKETCH.clear();
+    HITS.reset(); MISSES.reset(); EVICTIONS.reset(); REJECTIONS.reset();
+  }
+
+  /**
+   * Approximate counts of recent requests per Key: a count-min sketch of 4
+   * rows, halved every so often so that old popularity fades away.  Updates
+   * are racy by design; a lost increment only makes an estimate slightly low.
+   */
+  static final class FrequencySketch {
+    private static final int WIDTH = 1 << 12;
+    private static final int RESET_AT = 10 * WIDTH;
+    private final int[] _table = new int[4 * WIDTH];
+    private int _additions;
+
+    void increment(Key key) {
+      int h = spread(key.hashCode());
+      for (int r = 0; r < 4; r++)
+        _table[r * WIDTH + index(h, r)]++;
+      if (++_additions >= RESET_AT) age();
+    }
+
+    int frequency(Key key) {
+      int h = spread(key.hashCode());
+      int f = Integer.MAX_VALUE;
+      for (int r = 0; r < 4; r++)
+        f = Math.min(f, _table[r * WIDTH + index(h, r)]);
+      return f;
+    }
+
+    private synchronized void age() {
+      if (_additions < RESET_AT) return;
+      for (int i = 0; i < _table.length; i++) _table[i] >>>= 1;
+      _additions = 0;
+    }
+
+    void clear() { Arrays.fill(_table, 0); _additions = 0; }
+
+    private static int index(int h, int row) {
+      h = (h + row * 0x9E3779B9) * 0x85EBCA6B;
+      return (h ^ (h >>> 15)) & (WIDTH - 1);
+    }
+
+    private static int spread(int h) {
+      h ^= h >>> 16;
+      h *= 0x45D9F3B;
+      return h ^ (h >>> 16);
+    }
+  }
+}
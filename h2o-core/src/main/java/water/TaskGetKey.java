@@ -77,6 +77,7 @@ public class TaskGetKey extends DTask<TaskGetKey> {
     if( old != null && !old.isEmpty() ) old=null;
     Value res = H2O.putIfMatch(_xkey,_val,old);
     if( res != old ) _val = res;
+    else ReplicaCache.admit(_xkey,_val); // Account the new replica against the replica budget
     TGKS.remove(_xkey); // Clear from dup cache
   }
 
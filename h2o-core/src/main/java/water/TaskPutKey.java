@@ -29,6 +29,7 @@ public class TaskPutKey extends DTask<TaskPutKey> {
     Value old = H2O.STORE.get(_key); // Raw-get: do not lazy-manifest if overwriting
     while( H2O.putIfMatch(_key,_val,old) != old )
       old = H2O.STORE.get(_key);  // Repeat until we update something.
+    if( !_key.home() ) ReplicaCache.forget(_key); // Replica invalidated
     // Invalidate remote caches.  Block, so that all invalidates are done
     // before we return to the remote caller.  This is conservative, but
     // otherwise we have to send the invalidate-completion message to the
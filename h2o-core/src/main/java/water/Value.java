@@ -94,6 +94,25 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   private volatile Freezable _pojo;
   Freezable rawPOJO() { return _pojo; }
 
+  // ---
+  // Node-local data derived from this exact Value (e.g. the partial rollups of
+  // a Chunk), or null.  Never sent over the wire nor persisted; it goes away
+  // with the Value when the Key is overwritten or removed, and is dropped
+  // together with the POJO by the memory manager.  _derivedSz is its
+  // estimated size, counted as cached memory by the Cleaner.
+  private transient volatile Object _derived;
+  private transient volatile int _derivedSz;
+  /** Data derived from this Value by {@link #setDerived}, or null. */
+  public final Object derived() { return _derived; }
+  /** Attach node-local data derived from this Value.
+   *  @param derived the derived data, or null to drop it
+   *  @param bytes estimated size of the derived data, in bytes */
+  public final void setDerived( Object derived, int bytes ) {
+    _derived = derived;
+    _derivedSz = derived == null ? 0 : bytes;
+  }
+  final int derivedSize() { return _derived == null ? 0 : _derivedSz; }
+
   /** Invalidate byte[] cache.  Only used to eagerly free memory, for data
    *  which is expected to be read-once. */
   public final void freeMem() {
@@ -105,6 +124,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   public final void freePOJO() {
     assert isPersisted() || _mem != null;
     _pojo = null;
+    _derived = null;
   }
 
   /** The FAST path get-byte-array - final method for speed.  Will (re)build
@@ -1,6 +1,7 @@
 package water.api;
 
 import water.*;
+import water.api.schemas3.JobSchedulerV3;
 import water.api.schemas3.JobV3;
 import water.api.schemas3.JobsV3;
 import water.api.schemas4.input.JobIV4;
@@ -45,6 +46,17 @@ public class JobsHandler extends Handler {
     return s;
   }
 
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public JobSchedulerV3 scheduler(int version, JobSchedulerV3 s) {
+    s.max_running_jobs = JobScheduler.maxRunningJobs();
+    s.running_jobs = JobScheduler.runningJobs();
+    JobScheduler.TenantStats[] stats = JobScheduler.stats();
+    s.tenants = new JobSchedulerV3.TenantStatsV3[stats.length];
+    for (int i = 0; i < stats.length; i++)
+      s.tenants[i] = new JobSchedulerV3.TenantStatsV3().fillFromImpl(stats[i]);
+    return s;
+  }
+
   public JobsV3 cancel(int version, JobsV3 c) {
     Job j = DKV.getGet(c.job_id.key());
     if (j == null) {
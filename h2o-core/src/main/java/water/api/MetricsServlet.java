@@ -0,0 +1,44 @@
+package water.api;
+
+import water.MetricsRegistry;
+import water.server.ServletUtils;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Scrape endpoint for Prometheus-compatible collectors, serving the metrics of
+ * this node (see {@link MetricsRegistry}).  Clients asking for
+ * {@code application/openmetrics-text} get the OpenMetrics format, everybody
+ * else the Prometheus text format.
+ */
+public class MetricsServlet extends HttpServlet {
+
+  private static final String OPENMETRICS = "application/openmetrics-text";
+
+  @Override
+  protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+    String uri = ServletUtils.getDecodedUri(request);
+    try {
+      String accept = request.getHeader("Accept");
+      boolean openMetrics = accept != null && accept.contains(OPENMETRICS);
+      byte[] body = MetricsRegistry.scrape(openMetrics).getBytes(StandardCharsets.UTF_8);
+      response.setContentType(openMetrics
+              ? OPENMETRICS + "; version=1.0.0; charset=utf-8"
+              : "text/plain; version=0.0.4; charset=utf-8");
+      response.setContentLength(body.length);
+      ServletUtils.setResponseStatus(response, HttpServletResponse.SC_OK);
+      try (OutputStream os = response.getOutputStream()) {
+        os.write(body);
+      }
+    } catch (Exception e) {
+      ServletUtils.sendErrorResponse(response, e, uri);
+    } finally {
+      ServletUtils.logRequest("GET", request, response);
+    }
+  }
+
+}
@@ -91,6 +91,10 @@ public class RegisterV3Api extends AbstractRegister {
             "GET /3/Jobs", JobsHandler.class, "list",
             "Get a list of all the H2O Jobs (long-running actions).");
 
+    context.registerEndpoint("jobScheduler",
+            "GET /3/JobScheduler", JobsHandler.class, "scheduler",
+            "Get the fair-share job scheduler state and per-tenant usage and wait-time statistics of this node.");
+
     context.registerEndpoint("timeline",
             "GET /3/Timeline", TimelineHandler.class, "fetch",
             "Debugging tool that provides information on current communication between nodes.");
@@ -241,6 +241,10 @@ public class RequestServer extends HttpServlet {
   public void doGeneric(String method, HttpServletRequest request, HttpServletResponse response) {
     try {
       ServletUtils.startTransaction(request.getHeader("User-Agent"));
+      // Scheduling tenant only; the header is not trusted for anything else (see JobScheduler)
+      JobScheduler.setCurrentTenant(request.getUserPrincipal() != null
+              ? request.getUserPrincipal().getName()
+              : request.getHeader("X-H2O-Tenant"));
 
       // Note that getServletPath does an un-escape so that the %24 of job id's are turned into $ characters.
       String uri = request.getServletPath();
@@ -360,6 +364,7 @@ public class RequestServer extends HttpServlet {
         }).start();
       }
       ServletUtils.endTransaction();
+      JobScheduler.setCurrentTenant(null);
     }
   }
 
@@ -11,6 +11,7 @@ import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Frame.VecSpecifier;
 import water.fvec.Vec;
+import water.fvec.VecSketches;
 import water.parser.BufferedString;
 import water.util.ChunkSummary;
 import water.util.FrameUtils;
@@ -148,6 +149,18 @@ public class FrameV3 extends FrameBaseV3<Frame, FrameV3> {
     @API(help="Percentile values, matching the default percentiles", direction=API.Direction.OUTPUT)
     public double[] percentiles;
 
+    @API(help="Approximate number of distinct values; -1 if not computed", direction=API.Direction.OUTPUT)
+    public long approx_distinct_count;
+
+    @API(help="Approximate percentile values from a t-digest, matching the default percentiles; null if not computed or not numeric", direction=API.Direction.OUTPUT)
+    public double[] approx_percentiles;
+
+    @API(help="Most frequent values; null if not computed", direction=API.Direction.OUTPUT)
+    public String[] heavy_hitters;
+
+    @API(help="Approximate counts of the most frequent values; null if not computed", direction=API.Direction.OUTPUT)
+    public long[] heavy_hitter_counts;
+
     transient Vec _vec;
 
     ColV3(String name, Vec vec, long off, int len, boolean is_full_column) {
@@ -167,6 +180,12 @@ public class FrameV3 extends FrameBaseV3<Frame, FrameV3> {
       histogram_base = histogram_bins == null ? 0 : vec.base();
       histogram_stride = histogram_bins == null ? 0 : vec.stride();
       percentiles = histogram_bins == null ? null : vec.pctiles();
+      // Same for the approximate sketches
+      VecSketches sketches = vec.lazy_sketches();
+      approx_distinct_count = sketches == null ? -1 : sketches.distinctCount();
+      approx_percentiles = sketches == null || !vec.isNumeric() ? null : approxPercentiles(sketches);
+      heavy_hitters = sketches == null ? null : sketches.topValues();
+      heavy_hitter_counts = sketches == null ? null : sketches.topCounts();
 
       type = vec.isUUID() ? "uuid" :
               vec.isString() ? "string" :
@@ -210,6 +229,13 @@ public class FrameV3 extends FrameBaseV3<Frame, FrameV3> {
       this(name, vec, off, len, true);
     }
 
+    private static double[] approxPercentiles(VecSketches sketches) {
+      double[] res = new double[Vec.PERCENTILES.length];
+      for (int i = 0; i < res.length; i++)
+        res[i] = sketches.quantile(Vec.PERCENTILES[i]);
+      return res;
+    }
+
     public void clearBinsField() {
       this.histogram_bins = null;
     }
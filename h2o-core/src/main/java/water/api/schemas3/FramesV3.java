@@ -2,6 +2,7 @@ package water.api.schemas3;
 
 import water.api.API;
 import water.api.FramesHandler.Frames;
+import water.fvec.ExportFileFormat;
 import water.fvec.Frame;
 
 public class FramesV3 extends RequestSchemaV3<Frames, FramesV3> {
@@ -31,6 +32,10 @@ public class FramesV3 extends RequestSchemaV3<Frames, FramesV3> {
   @API(help="Find and return compatible models?", json=false)
   public boolean find_compatible_models = false;
 
+  @API(help="Also compute the approximate distinct counts, percentiles and most frequent values of the columns " +
+          "(summary only; takes another pass over the data)", json=false)
+  public boolean sketches = false;
+
   @API(help="File output path",json=false)
   public String path;
 
@@ -46,6 +51,9 @@ public class FramesV3 extends RequestSchemaV3<Frames, FramesV3> {
   @API(help="Field separator (default ',')")
   public byte separator = Frame.CSVStreamParams.DEFAULT_SEPARATOR;
 
+  @API(help="Output file format; parquet is written as a directory of part files, one per node holding chunks (num_parts=-1) or one per range of chunks (num_parts>0)", values={"csv", "parquet"})
+  public ExportFileFormat format = ExportFileFormat.csv;
+
   @API(help="Job for export file",direction=API.Direction.OUTPUT)
   public JobV3 job;
 
@@ -0,0 +1,56 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.JobScheduler;
+import water.api.API;
+
+/** Fair-share job scheduler state and per-tenant usage of this node. */
+public class JobSchedulerV3 extends RequestSchemaV3<Iced, JobSchedulerV3> {
+
+  @API(help="Maximum number of concurrently running top-level jobs; 0 means jobs are never queued", direction=API.Direction.OUTPUT)
+  public int max_running_jobs;
+
+  @API(help="Number of top-level jobs currently holding a slot", direction=API.Direction.OUTPUT)
+  public int running_jobs;
+
+  @API(help="Per-tenant scheduling statistics", direction=API.Direction.OUTPUT)
+  public TenantStatsV3[] tenants;
+
+  public static class TenantStatsV3 extends SchemaV3<JobScheduler.TenantStats, TenantStatsV3> {
+    @API(help="Tenant name", direction=API.Direction.OUTPUT)
+    public String tenant;
+
+    @API(help="Fair-share weight", direction=API.Direction.OUTPUT)
+    public double weight;
+
+    @API(help="Running top-level jobs", direction=API.Direction.OUTPUT)
+    public int running;
+
+    @API(help="Running jobs started by other jobs, admitted without a slot", direction=API.Direction.OUTPUT)
+    public int nested;
+
+    @API(help="Jobs waiting in the queue", direction=API.Direction.OUTPUT)
+    public int queued;
+
+    @API(help="Jobs submitted so far", direction=API.Direction.OUTPUT)
+    public long submitted;
+
+    @API(help="Jobs completed so far", direction=API.Direction.OUTPUT)
+    public long completed;
+
+    @API(help="Jobs rejected because the tenant's queue was full", direction=API.Direction.OUTPUT)
+    public long rejected;
+
+    @API(help="Mean time top-level jobs waited in the queue, in milliseconds", direction=API.Direction.OUTPUT)
+    public double mean_wait_ms;
+
+    @API(help="Longest time a top-level job waited in the queue, in milliseconds", direction=API.Direction.OUTPUT)
+    public long max_wait_ms;
+
+    @API(help="Accumulated run time of all jobs of the tenant, in milliseconds", direction=API.Direction.OUTPUT)
+    public long usage_ms;
+
+    @API(help="Age of the oldest queued job, in milliseconds", direction=API.Direction.OUTPUT)
+    public long oldest_queued_ms;
+  }
+}
@@ -20,8 +20,11 @@ public class JobV3 extends SchemaV3<Job, JobV3> {
   @API(help="Job description")
   public String description;
 
+  @API(help="Tenant owning the job, for fair-share scheduling", direction=API.Direction.OUTPUT)
+  public String tenant;
+
   // Output fields
-  @API(help="job status", direction=API.Direction.OUTPUT)
+  @API(help="job status (QUEUED, RUNNING, CANCEL_PENDING, CANCELLED, FAILED or DONE)", direction=API.Direction.OUTPUT)
   public String status;
 
   @API(help="progress, from 0 to 1", direction=API.Direction.OUTPUT)
@@ -33,7 +36,7 @@ public class JobV3 extends SchemaV3<Job, JobV3> {
   @API(help="Start time", direction=API.Direction.OUTPUT)
   public long start_time;
 
-  @API(help="Runtime in milliseconds", direction=API.Direction.OUTPUT)
+  @API(help="Runtime in milliseconds, not counting the time spent queued", direction=API.Direction.OUTPUT)
   public long msec;
 
   @API(help="destination key", direction=API.Direction.INOUT)
@@ -74,9 +77,10 @@ public class JobV3 extends SchemaV3<Job, JobV3> {
     progress_msg = job.progress_msg();
     // Bogus status; Job no longer has these states, but we fake it for /3/Job poller's.
     // Notice state "CREATED" no long exists and is never returned.
-    // Notice new state "CANCEL_PENDING".
+    // Notice new states "CANCEL_PENDING" and "QUEUED" (waiting for the JobScheduler).
     if( job.isRunning() )
       if( job.stop_requested() ) status = "CANCEL_PENDING";
+      else if( job.isQueued() ) status = "QUEUED";
       else status = "RUNNING";
     else
       if( job.stop_requested() ) status = "CANCELLED";
@@ -0,0 +1,25 @@
+package water.fvec;
+
+import water.H2O;
+import water.Job;
+
+/**
+ * Exporter of frames to a binary file format provided by an optional module
+ * (e.g. Parquet by h2o-parquet-parser).  Implementations are discovered with
+ * {@link java.util.ServiceLoader}.
+ */
+public interface BinaryFormatExporter {
+
+  /**
+   * @param frame Frame to export
+   * @param path Target directory, part files are written into it
+   * @param force Overwrite existing part files
+   * @param nParts Number of part files, or -1 to let the implementation choose (e.g. one per node)
+   * @param compression Name of the compression codec, null for the format's default
+   * @param job Job to report progress to, one unit of work per chunk
+   * @return Task performing the export, to be started by the caller's Job
+   */
+  H2O.H2OCountedCompleter export(Frame frame, String path, boolean force, int nParts, String compression, Job job);
+
+  boolean supports(ExportFileFormat format);
+}
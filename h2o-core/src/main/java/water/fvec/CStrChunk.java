@@ -14,7 +14,7 @@ import java.util.Arrays;
 public class CStrChunk extends Chunk {
   static final int NA = -1;
   static protected final int _OFF=4+1;
-  private int _valstart;
+  protected int _valstart;
   public boolean _isAllASCII = false;
 
   public CStrChunk() {}
@@ -96,7 +96,7 @@ public class CStrChunk extends Chunk {
     return bStr.set(_mem,_valstart+off,len);
   }
 
-  @Override protected final void initFromBytes () {
+  @Override protected void initFromBytes () {
     _start = -1;  _cidx = -1;
     _valstart = UnsafeUtils.get4(_mem, 0);
     byte b = UnsafeUtils.get1(_mem,4);
@@ -259,6 +259,10 @@ public class CStrChunk extends Chunk {
   double entropyAt(int i) {
     int off = intAt(i);
     if (off == NA) return Double.NaN;
+    return entropyAtOffset(off);
+  }
+
+  double entropyAtOffset(int off) {
     int[] frq = new int[256];
     int len = lengthAtOffset(off);
     for (int j = 0; j < len; j++) {
@@ -0,0 +1,265 @@
+package water.fvec;
+
+import water.MemoryManager;
+import water.parser.BufferedString;
+import water.util.SetOfBytes;
+import water.util.StringUtils;
+import water.util.UnsafeUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Dictionary-encoded strings.  Every distinct string of the chunk is stored
+ * once (hash-consed) and each row holds a small integer code into that
+ * dictionary.  Chosen by {@link NewChunk#compress()} over the plain
+ * {@link CStrChunk} when the column has enough repeated values for the
+ * dictionary plus codes to be noticeably smaller.
+ *
+ * Layout of _mem:
+ * <pre>
+ *   [0..4)                  start of the string bytes (same as CStrChunk)
+ *   [4]                     isAllASCII flag
+ *   [5]                     code width in bytes: 1, 2 or 4
+ *   [6..10)                 number of dictionary entries
+ *   [10..10+4*ndict)        offsets of the dictionary entries into the string bytes
+ *   [..+len*width)          per-row codes; the all-ones code is NA
+ *   [_valstart..)           dictionary string bytes, each with a trailing 0
+ * </pre>
+ *
+ * Because {@link #intAt(int)} resolves a row to the offset of its dictionary
+ * entry, all row accessors of {@link CStrChunk} work unchanged.  The bulk
+ * string operations are overridden to do their work once per dictionary entry
+ * instead of once per row.
+ */
+public class CStrDictChunk extends CStrChunk {
+  private static final int _DICT_OFF = 4+1+1+4;
+  /** Do not bother with a dictionary for chunks smaller than this. */
+  static final int MIN_ROWS = 32;
+  /** Use the dictionary only when it is at most this fraction of the plain CStrChunk size. */
+  static final double MAX_SIZE_RATIO = 0.75;
+
+  private transient int _width;
+  private transient int _ndict;
+  private transient int _codestart;
+
+  public CStrDictChunk() {}
+
+  /**
+   * Dictionary-encode strings as laid out by a NewChunk, or return null when
+   * the encoding does not pay off against a plain {@link CStrChunk}.
+   * @param sslen Next offset into ss for placing next String
+   * @param ss Bytes of appended strings, including trailing 0
+   * @param sparseLen Length of sparse chunk (number of extracted (non-zero) elements)
+   * @param len Length of chunk
+   * @param id Indices (row numbers) of stored values, used for sparse
+   * @param is Index of strings - holds offsets into ss[]. is[i] == -1 means NA/sparse
+   */
+  static CStrDictChunk tryCompress(int sslen, byte[] ss, int sparseLen, int len, int[] id, int[] is) {
+    if( len < MIN_ROWS ) return null;
+    final long plainSize = _OFF + ((long) len << 2) + sslen;
+    final int[] codes = MemoryManager.malloc4(len);
+    Arrays.fill(codes, NA);
+    HashMap<BufferedString, Integer> dict = new HashMap<>();
+    int[] offs = MemoryManager.malloc4(16);
+    int dictBytes = 0;
+    for( int i = 0; i < sparseLen; i++ ) {
+      int off = is[i];
+      if( off == NA ) continue;
+      int slen = 0;
+      while( ss[off + slen] != 0 ) slen++;
+      BufferedString str = new BufferedString(ss, off, slen);
+      Integer code = dict.get(str);
+      if( code == null ) {
+        code = dict.size();
+        dict.put(str, code);
+        if( code == offs.length ) offs = Arrays.copyOf(offs, offs.length << 1);
+        offs[code] = off;
+        dictBytes += slen + 1;
+        // Bail out on high cardinality, or as soon as we can no longer win
+        if( dict.size() > (len >> 1) ) return null;
+        if( encodedSize(len, dict.size(), dictBytes) > MAX_SIZE_RATIO * plainSize ) return null;
+      }
+      codes[id == null ? i : id[i]] = code;
+    }
+    return new CStrDictChunk(ss, offs, dict.size(), dictBytes, codes, len);
+  }
+
+  private static int codeWidth(int ndict) { return ndict < 0xFF ? 1 : (ndict < 0xFFFF ? 2 : 4); }
+
+  private static long encodedSize(int len, int ndict, int dictBytes) {
+    return _DICT_OFF + 4L * ndict + (long) len * codeWidth(ndict) + dictBytes;
+  }
+
+  private CStrDictChunk(byte[] ss, int[] offs, int ndict, int dictBytes, int[] codes, int len) {
+    _start = -1;
+    _width = codeWidth(ndict);
+    _ndict = ndict;
+    _codestart = _DICT_OFF + (ndict << 2);
+    _valstart = _codestart + len * _width;
+    _mem = MemoryManager.malloc1(_valstart + dictBytes);
+    UnsafeUtils.set4(_mem, 0, _valstart);
+    _mem[5] = (byte) _width;
+    UnsafeUtils.set4(_mem, 6, ndict);
+    // Copy the distinct strings, in code order
+    int pos = 0;
+    for( int c = 0; c < ndict; c++ ) {
+      UnsafeUtils.set4(_mem, _DICT_OFF + (c << 2), pos);
+      int off = offs[c];
+      do _mem[_valstart + pos++] = ss[off]; while( ss[off++] != 0 );
+    }
+    assert pos == dictBytes;
+    for( int i = 0; i < len; i++ )
+      setCode(i, codes[i]);
+    _isAllASCII = true;
+    for( int i = _valstart; i < _mem.length; ++i )
+      if( (_mem[i] & 0x80) == 128 ) { _isAllASCII = false; break; }
+    _mem[4] = (byte) (_isAllASCII ? 1 : 0);
+    set_len(len);
+  }
+
+  private void setCode(int i, int code) {
+    int off = _codestart + i * _width;
+    switch( _width ) {
+      case 1:  _mem[off] = (byte) code; break;        // NA == -1 becomes 0xFF
+      case 2:  UnsafeUtils.set2(_mem, off, (short) code); break;
+      default: UnsafeUtils.set4(_mem, off, code);
+    }
+  }
+
+  /** Dictionary code of row i, or -1 for NA. */
+  public int codeAt(int i) {
+    int off = _codestart + i * _width;
+    switch( _width ) {
+      case 1:  { int c = 0xFF & _mem[off];                        return c == 0xFF   ? NA : c; }
+      case 2:  { int c = 0xFFFF & UnsafeUtils.get2(_mem, off);    return c == 0xFFFF ? NA : c; }
+      default: return UnsafeUtils.get4(_mem, off);
+    }
+  }
+
+  /** Number of distinct strings in this chunk. */
+  public int dictSize() { return _ndict; }
+
+  private int dictOffset(int code) { return UnsafeUtils.get4(_mem, _DICT_OFF + (code << 2)); }
+
+  /** Dictionary entry for the given code. */
+  public BufferedString dictAt(BufferedString bStr, int code) {
+    int off = dictOffset(code);
+    return bStr.set(_mem, _valstart + off, lengthAtOffset(off));
+  }
+
+  /** All dictionary entries as Java Strings, indexed by code. */
+  public String[] dictionary() {
+    String[] dict = new String[_ndict];
+    BufferedString tmpStr = new BufferedString();
+    for( int c = 0; c < _ndict; c++ )
+      dict[c] = dictAt(tmpStr, c).toString();
+    return dict;
+  }
+
+  /**
+   * Fill a NewChunk in row order with the entries of a transformed dictionary.
+   * @param nc NewChunk to be filled
+   * @param values One value per dictionary code; a null value produces an NA
+   * @return Filled NewChunk
+   */
+  public NewChunk decode(NewChunk nc, String[] values) {
+    assert values.length == _ndict;
+    BufferedString[] bvals = new BufferedString[values.length];
+    for( int c = 0; c < values.length; c++ )
+      bvals[c] = values[c] == null ? null : new BufferedString(values[c]);
+    for( int i = 0; i < _len; i++ ) {
+      int code = codeAt(i);
+      nc.addStr(code == NA ? null : bvals[code]);
+    }
+    return nc;
+  }
+
+  private NewChunk decodeNums(NewChunk nc, double[] values) {
+    nc.alloc_doubles(_len);
+    for( int i = 0; i < _len; i++ ) {
+      int code = codeAt(i);
+      if( code == NA || Double.isNaN(values[code]) ) nc.addNA();
+      else nc.addNum(values[code]);
+    }
+    return nc;
+  }
+
+  @Override public int intAt(int i) {
+    int code = codeAt(i);
+    return code == NA ? NA : dictOffset(code);
+  }
+
+  @Override protected void initFromBytes() {
+    super.initFromBytes();
+    _width = _mem[5];
+    _ndict = UnsafeUtils.get4(_mem, 6);
+    _codestart = _DICT_OFF + (_ndict << 2);
+    set_len((_valstart - _codestart) / _width);
+  }
+
+  @Override public NewChunk asciiToLower(NewChunk nc) {
+    String[] dict = dictionary();
+    for( int c = 0; c < dict.length; c++ ) dict[c] = dict[c].toLowerCase(Locale.ENGLISH);
+    return decode(nc, dict);
+  }
+
+  @Override public NewChunk asciiToUpper(NewChunk nc) {
+    String[] dict = dictionary();
+    for( int c = 0; c < dict.length; c++ ) dict[c] = dict[c].toUpperCase(Locale.ENGLISH);
+    return decode(nc, dict);
+  }
+
+  @Override public NewChunk asciiTrim(NewChunk nc) {
+    String[] dict = dictionary();
+    for( int c = 0; c < dict.length; c++ ) dict[c] = dict[c].trim();
+    return decode(nc, dict);
+  }
+
+  @Override public NewChunk asciiSubstring(NewChunk nc, int startIndex, int endIndex) {
+    String[] dict = dictionary();
+    for( int c = 0; c < dict.length; c++ ) {
+      int len = dict[c].length();
+      int from = Math.min(startIndex, len);
+      int to = Math.min(endIndex, len);
+      dict[c] = from < to ? dict[c].substring(from, to) : "";
+    }
+    return decode(nc, dict);
+  }
+
+  @Override public NewChunk asciiLength(NewChunk nc) {
+    double[] lens = new double[_ndict];
+    for( int c = 0; c < _ndict; c++ ) lens[c] = lengthAtOffset(dictOffset(c));
+    return decodeNums(nc, lens);
+  }
+
+  @Override public NewChunk asciiEntropy(NewChunk nc) {
+    double[] entropies = new double[_ndict];
+    for( int c = 0; c < _ndict; c++ ) entropies[c] = entropyAtOffset(dictOffset(c));
+    return decodeNums(nc, entropies);
+  }
+
+  @Override public NewChunk asciiLStrip(NewChunk nc, String chars) {
+    SetOfBytes set = new SetOfBytes(chars);
+    String[] dict = new String[_ndict];
+    for( int c = 0; c < _ndict; c++ ) {
+      int off = dictOffset(c);
+      while( set.contains(byteAt(off)) ) off++;
+      dict[c] = StringUtils.toString(_mem, _valstart + off, lengthAtOffset(off));
+    }
+    return decode(nc, dict);
+  }
+
+  @Override public NewChunk asciiRStrip(NewChunk nc, String chars) {
+    SetOfBytes set = new SetOfBytes(chars);
+    String[] dict = new String[_ndict];
+    for( int c = 0; c < _ndict; c++ ) {
+      int off = dictOffset(c);
+      int pos = off + lengthAtOffset(off);
+      while( pos --> off && set.contains(byteAt(pos)) );
+      dict[c] = StringUtils.toString(_mem, _valstart + off, pos - off + 1);
+    }
+    return decode(nc, dict);
+  }
+}
@@ -0,0 +1,98 @@
+package water.fvec;
+
+import water.H2O;
+import water.H2ONode;
+import water.HeartBeat;
+import water.util.Log;
+
+/**
+ * Picks the number of Chunks of a Frame about to be used by an algorithm.
+ * <p>
+ * {@link FileVec#calcOptimalChunkSize} sizes Chunks once, at parse time, from
+ * the file size, column count and cores.  Frames derived later (Rapids
+ * results, adapted or expanded training frames) inherit whatever layout their
+ * input had: very wide frames end up with tiny Chunks where per-task overhead
+ * dominates, narrow ones with too few Chunks to keep all cores busy.
+ * <p>
+ * This sizes Chunks by work instead: a pass over one Chunk should take about
+ * {@code -Dsys.ai.h2o.chunk_layout.target_ms} (10ms by default) on the
+ * slowest node, as modelled from the memory bandwidth each node measures in
+ * its heartbeat ({@link water.init.MemoryBandwidth}), while still giving every
+ * core a few Chunks and not creating too many Chunk objects per node.
+ */
+public final class ChunkLayoutOptimizer {
+  /** Desired time of one pass over one Chunk, in milliseconds. */
+  static final double TARGET_MS = Double.parseDouble(H2O.getSysProperty("chunk_layout.target_ms", "10"));
+  /** Assumed bandwidth per core when no node has run the benchmark yet. */
+  static final double DEFAULT_BYTES_PER_SEC_PER_CORE = 1e9;
+  /** A layout within this factor of the optimal Chunk count is left alone. */
+  public static final double SLACK = 2;
+
+  private static final int CHUNKS_PER_CORE = 4;
+  private static final int MIN_ROWS = 10;
+  private static final long MAX_CHUNK_POJOS_PER_NODE = 1 << 21;
+
+  private ChunkLayoutOptimizer() {}
+
+  /**
+   * Bytes scanned per second by one core of the slowest node, from the
+   * heartbeat benchmarks; {@link #DEFAULT_BYTES_PER_SEC_PER_CORE} if unknown.
+   */
+  public static double bytesPerSecPerCore() {
+    double min = Double.POSITIVE_INFINITY;
+    for (H2ONode node : H2O.CLOUD.members()) {
+      HeartBeat hb = node._heartbeat;
+      if (hb == null || !(hb._membw > 0) || hb._cpus_allowed <= 0) continue;
+      min = Math.min(min, (double) hb._membw / hb._cpus_allowed);
+    }
+    return Double.isInfinite(min) ? DEFAULT_BYTES_PER_SEC_PER_CORE : min;
+  }
+
+  private static int totalCores() {
+    int cores = 0;
+    for (H2ONode node : H2O.CLOUD.members()) {
+      HeartBeat hb = node._heartbeat;
+      cores += hb == null || hb._cpus_allowed <= 0 ? H2O.NUMCPUS : hb._cpus_allowed;
+    }
+    return Math.max(cores, 1);
+  }
+
+  /** Optimal number of Chunks for the Frame on the current cloud. */
+  public static int optimalChunks(Frame fr) {
+    int chunks = optimalChunks(fr.numRows(), fr.byteSize(), fr.numCols(), totalCores(), H2O.getCloudSize(),
+            bytesPerSecPerCore(), TARGET_MS);
+    Log.info("Optimal number of chunks for " + fr._key + " (" + fr.numRows() + " rows, " + fr.numCols() + " cols, " +
+            fr.byteSize() + " bytes) = " + chunks);
+    return chunks;
+  }
+
+  /**
+   * @param rows rows of the frame
+   * @param bytes in-memory size of the frame
+   * @param numCols columns of the frame
+   * @param cores cores across the cloud
+   * @param nodes cloud size
+   * @param bytesPerSecPerCore modelled scan throughput of one core
+   * @param targetMs desired time of a pass over one Chunk
+   * @return number of Chunks, at least 1
+   */
+  static int optimalChunks(long rows, long bytes, int numCols, int cores, int nodes,
+                           double bytesPerSecPerCore, double targetMs) {
+    if (rows <= MIN_ROWS) return 1;
+    double bytesPerRow = Math.max(1.0, (double) bytes / rows);
+    // Rows one core scans in the target time
+    long rowsByWork = (long) Math.max(MIN_ROWS, bytesPerSecPerCore * targetMs / 1e3 / bytesPerRow);
+    long chunks = (rows + rowsByWork - 1) / rowsByWork;
+    // Small frames: still give every core a few Chunks, as long as they are not tiny
+    chunks = Math.max(chunks, Math.min((long) cores * CHUNKS_PER_CORE, rows / MIN_ROWS));
+    // Wide frames: cap the number of Chunk objects per node
+    long maxChunks = Math.max(1, MAX_CHUNK_POJOS_PER_NODE * nodes / Math.max(1, numCols));
+    chunks = Math.min(chunks, maxChunks);
+    return (int) Math.max(1, Math.min(chunks, Integer.MAX_VALUE >> 1));
+  }
+
+  /** Whether the Frame is far enough from its optimal layout to be worth re-chunking. */
+  public static boolean needsRechunk(int nonEmptyChunks, int optimalChunks) {
+    return nonEmptyChunks * SLACK < optimalChunks || nonEmptyChunks > optimalChunks * SLACK;
+  }
+}
@@ -0,0 +1,185 @@
+package water.fvec;
+
+import water.*;
+import water.util.ArrayUtils;
+import water.util.Log;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Fixes row skew across nodes, as left behind by row filters or by parsing
+ * files of very different sizes.
+ * <p>
+ * The home of a Chunk depends only on its index (see {@link Key}), so an
+ * MRTask over a Frame whose big Chunks happen to land on the same node runs at
+ * the pace of that node.  {@link #measure} reports rows, bytes and Chunks per
+ * node; {@link #balance} re-lays the Frame out only when the busiest node
+ * holds more than the given multiple of the average rows.
+ * <p>
+ * Unlike {@link RebalanceDataSet} with a fixed Chunk count, the new layout
+ * starts from the current one: a Chunk of about the target size whose new
+ * index maps to the same node as its current one, and which fits that node's
+ * row quota, is kept with its exact row range; oversized Chunks are split,
+ * tiny ones merged, and nodes which already have their share get empty
+ * Chunks.  The balanced Frame is still a full copy of the rows, but kept
+ * Chunks are copied on their own node, so mostly the rows which have to
+ * change node move over the network.
+ */
+public final class ChunkRebalancer {
+
+  private ChunkRebalancer() {}
+
+  /** Per-node data load of a Frame. */
+  public static class Load extends Iced<Load> {
+    public long[] _rows;
+    public long[] _bytes;
+    public int[] _chunks;
+
+    /** Rows of the busiest node over the average rows per node; 1 is perfectly even. */
+    public double skew() { return ChunkRebalancer.skew(_rows); }
+
+    @Override public String toString() {
+      return "rows=" + Arrays.toString(_rows) + ", bytes=" + Arrays.toString(_bytes) +
+              ", chunks=" + Arrays.toString(_chunks) + ", skew=" + skew();
+    }
+  }
+
+  static double skew(long[] rows) {
+    long sum = ArrayUtils.sum(rows), max = ArrayUtils.maxValue(rows);
+    return sum == 0 ? 1 : (double) max * rows.length / sum;
+  }
+
+  /** Measure rows, bytes and Chunks held by each node; reads no data. */
+  public static Load measure(Frame fr) {
+    LoadTask lt = new LoadTask(H2O.CLOUD.size()).doAll(fr);
+    Load load = new Load();
+    load._rows = lt._rows;
+    load._bytes = lt._bytes;
+    load._chunks = lt._chunks;
+    return load;
+  }
+
+  private static class LoadTask extends MRTask<LoadTask> {
+    final int _nodes;
+    long[] _rows, _bytes;
+    int[] _chunks;
+    LoadTask(int nodes) { _nodes = nodes; }
+    @Override public void map(Chunk[] cs) {
+      if (_rows == null) { _rows = new long[_nodes]; _bytes = new long[_nodes]; _chunks = new int[_nodes]; }
+      int h = H2O.SELF.index();
+      _rows[h] += cs[0]._len;
+      _chunks[h]++;
+      for (Chunk c : cs) _bytes[h] += c.byteSize();
+    }
+    @Override public void reduce(LoadTask lt) {
+      if (_rows == null) { _rows = lt._rows; _bytes = lt._bytes; _chunks = lt._chunks; }
+      else if (lt._rows != null) {
+        ArrayUtils.add(_rows, lt._rows);
+        ArrayUtils.add(_bytes, lt._bytes);
+        ArrayUtils.add(_chunks, lt._chunks);
+      }
+    }
+    @Override public void postGlobal() {
+      if (_rows == null) { _rows = new long[_nodes]; _bytes = new long[_nodes]; _chunks = new int[_nodes]; }
+    }
+  }
+
+  /**
+   * Re-lay the Frame out if its row skew is above the threshold.
+   * @param fr Frame to balance
+   * @param dest Key of the balanced copy
+   * @param maxSkew Largest acceptable ratio of the busiest node's rows to the average
+   * @return the balanced Frame, in the DKV under dest; or null if fr is balanced enough
+   */
+  public static Frame balance(Frame fr, Key<Frame> dest, double maxSkew) {
+    int nodes = H2O.CLOUD.size();
+    Vec v = fr.anyVec();
+    if (v == null || nodes == 1 || fr.numRows() < nodes) return null;
+    long[] espc = v.espc();
+    Key vkey = v._key;
+    IntUnaryOperator home = cidx -> Vec.chunkKey(vkey, cidx).home_node().index();
+    long[] now = rowsPerNode(espc, nodes, home);
+    if (skew(now) <= maxSkew) return null;
+    long[] plan = plan(espc, nodes, Math.max(v.nonEmptyChunks(), nodes), home);
+    long[] after = rowsPerNode(plan, nodes, home);
+    if (skew(after) >= skew(now)) return null;
+    Log.info("Rebalancing " + fr._key + " from " + Arrays.toString(now) + " to " + Arrays.toString(after) +
+            " rows per node, " + movedRows(espc, plan, home) + " of " + fr.numRows() + " rows move.");
+    RebalanceDataSet rb = new RebalanceDataSet(fr, dest, plan);
+    H2O.submitTask(rb).join();
+    return dest.get();
+  }
+
+  /** Rows per node of a layout. */
+  static long[] rowsPerNode(long[] espc, int nodes, IntUnaryOperator home) {
+    long[] rows = new long[nodes];
+    for (int i = 0; i < espc.length - 1; i++)
+      rows[home.applyAsInt(i)] += espc[i + 1] - espc[i];
+    return rows;
+  }
+
+  /** Rows which end up on another node than they are on now. */
+  static long movedRows(long[] from, long[] to, IntUnaryOperator home) {
+    long moved = 0;
+    int i = 0;
+    for (int j = 0; j < to.length - 1; j++) {
+      long lo = to[j], hi = to[j + 1];
+      int hj = home.applyAsInt(j);
+      while (i < from.length - 2 && from[i + 1] <= lo) i++;
+      for (int k = i; k < from.length - 1 && from[k] < hi; k++) {
+        long overlap = Math.min(hi, from[k + 1]) - Math.max(lo, from[k]);
+        if (overlap > 0 && home.applyAsInt(k) != hj) moved += overlap;
+      }
+    }
+    return moved;
+  }
+
+  /**
+   * New layout giving every node about the same number of rows.  Walks the
+   * rows in order; each new Chunk takes its node's remaining quota, up to the
+   * target Chunk size, and keeps the range of the current Chunk when that one
+   * starts at the same row, lives on the same node and fits.
+   * @param espc current layout
+   * @param nodes cloud size
+   * @param chunks desired number of non-empty Chunks
+   * @param home node of a Chunk index
+   * @return new layout, as Element-Start-Per-Chunk
+   */
+  static long[] plan(long[] espc, int nodes, int chunks, IntUnaryOperator home) {
+    final long total = espc[espc.length - 1];
+    final long target = Math.max(1, (total + chunks - 1) / chunks); // Rows per Chunk
+    final long quota = (total + nodes - 1) / nodes;                  // Rows per node
+    long[] assigned = new long[nodes];
+    long[] res = new long[Math.max(16, espc.length)];
+    int n = 0, old = 0, idle = 0;
+    long row = 0;
+    while (row < total) {
+      while (espc[old + 1] <= row) old++;
+      int h = home.applyAsInt(n);
+      long room = quota - assigned[h];
+      boolean full = room <= 0;
+      long len;
+      if (full && idle < nodes) {
+        len = 0;                // Node has its share, give it an empty Chunk
+        idle++;
+      } else {                  // (or every node is full from rounding; just go on)
+        long oldLen = espc[old + 1] - espc[old];
+        if (row == espc[old] && h == home.applyAsInt(old) && oldLen >= target / 2 && oldLen <= 2 * target &&
+            (full || oldLen <= room + target / 2))
+          len = oldLen;         // Keep the current Chunk as it is, on its node
+        else {                  // Split or merge; end on the next current boundary if not too early
+          len = full ? target : Math.min(target, room);
+          long boundary = espc[old + 1] - row;
+          if (boundary < len && boundary >= target / 2) len = boundary;
+        }
+        len = Math.min(len, total - row);
+        idle = 0;
+      }
+      if (n + 1 == res.length) res = Arrays.copyOf(res, res.length * 2);
+      res[++n] = row += len;
+      assigned[h] += len;
+    }
+    return Arrays.copyOf(res, n + 1);
+  }
+}
@@ -0,0 +1,9 @@
+package water.fvec;
+
+/**
+ * File formats a {@link Frame} can be exported to, see {@link Frame#export}.
+ */
+public enum ExportFileFormat {
+  csv,
+  parquet
+}
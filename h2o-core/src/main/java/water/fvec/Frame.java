@@ -1522,6 +1522,13 @@ public class Frame extends Lockable<Frame> {
 
   public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts, 
                            String compression, CSVStreamParams csvParms) {
+    return export(fr, path, frameName, overwrite, nParts, ExportFileFormat.csv, compression, csvParms);
+  }
+
+  public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts, ExportFileFormat format,
+                           String compression, CSVStreamParams csvParms) {
+    if (format != ExportFileFormat.csv)
+      return exportBinary(fr, path, frameName, overwrite, nParts, format, compression);
     boolean forceSingle = nParts == 1;
     // Validate input
     if (forceSingle) {
@@ -1544,6 +1551,23 @@ public class Frame extends Lockable<Frame> {
     return job.start(t, fr.anyVec().nChunks());
   }
 
+  // Binary formats are always written as a directory of part files, by the nodes holding the chunks
+  private static Job exportBinary(Frame fr, String path, String frameName, boolean overwrite, int nParts,
+                                  ExportFileFormat format, String compression) {
+    BinaryFormatExporter exporter = null;
+    for (BinaryFormatExporter e : ServiceLoader.load(BinaryFormatExporter.class))
+      if (e.supports(format)) { exporter = e; break; }
+    if (exporter == null)
+      throw new H2OIllegalArgumentException("format", "exportFrame", "Export to " + format + " is not available " +
+              "(make sure the module providing it is on the classpath).");
+    if (!overwrite && !H2O.getPM().isEmptyDirectoryAllNodes(path)) {
+      throw new H2OIllegalArgumentException(path, "exportFrame", "Cannot use path " + path +
+              " to store part files! The target needs to be either an existing empty directory or not exist yet.");
+    }
+    Job job = new Job<>(fr._key, "water.fvec.Frame", "Export dataset " + frameName + " to " + format);
+    return job.start(exporter.export(fr, path, overwrite, nParts, compression, job), fr.anyVec().nChunks());
+  }
+
   /**
    * @deprecated As of release 3.24.0.5, replaced by {@link #toCSV(CSVStreamParams)}}
    */
@@ -0,0 +1,299 @@
+package water.fvec;
+
+import jsr166y.CountedCompleter;
+import water.*;
+import water.exceptions.H2OIllegalArgumentException;
+import water.persist.PersistManager;
+import water.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Binary snapshots of whole Frames, in their in-memory compressed form.
+ * <p>
+ * {@link #save} writes, from each node in parallel, the raw bytes of the
+ * Chunks homed on it - one file per Chunk index holding its row count and
+ * that Chunk of every column, with the Chunk class - plus one metadata file with the names,
+ * types, domains, row layout and rollups of the Frame.  {@link #load} reads
+ * the bytes back straight into the DKV as Chunk Values on their new home
+ * nodes; nothing is parsed, re-encoded or recomputed, so a snapshot restores
+ * at about the speed the storage delivers the bytes.
+ * <p>
+ * The directory is accessed through the {@link PersistManager}, so anything it
+ * can write and read works (local FS, HDFS, S3, ...).  On a multi-node cloud
+ * with a local file system the directory must be shared (e.g. NFS), as the
+ * restoring cloud may home a Chunk on another node than the saving one.
+ * Snapshots hold the Chunk formats of the H2O version which wrote them and are
+ * only read by the same version.
+ */
+public final class FrameSnapshot {
+  static final String META_FILE = "frame.meta";
+  static final String CHUNK_PREFIX = "chunk_";
+
+  private FrameSnapshot() {}
+
+  /** Everything about the Frame except the Chunks. */
+  static class Meta extends Iced<Meta> {
+    String _key;
+    String[] _names;
+    byte[] _types;
+    String[][] _domains;
+    long[] _espc;
+    RollupStats[] _rollups;
+  }
+
+  static String metaPath(String dir) { return dir + "/" + META_FILE; }
+
+  /** True if the directory holds a complete snapshot. */
+  public static boolean exists(String dir) { return H2O.getPM().exists(metaPath(dir)); }
+  static String chunkPath(String dir, int cidx) { return dir + "/" + CHUNK_PREFIX + cidx; }
+
+  /** Delete the files of a snapshot of nchunks Chunks, then its directory; best effort. */
+  public static void delete(String dir, int nchunks) {
+    PersistManager pm = H2O.getPM();
+    pm.delete(metaPath(dir));
+    for (int cidx = 0; cidx < nchunks; cidx++)
+      pm.delete(chunkPath(dir, cidx));
+    pm.delete(dir);
+  }
+
+  /**
+   * Write a snapshot of the Frame into a directory.
+   * @param fr Frame to snapshot
+   * @param dir Target directory; has to be empty or not exist unless overwrite is set
+   * @param overwrite Overwrite existing files
+   * @return the Job writing the snapshot, one unit of work per Chunk
+   */
+  public static Job<Frame> save(Frame fr, String dir, boolean overwrite) {
+    if (fr.numCols() == 0)
+      throw new H2OIllegalArgumentException("frame", "saveSnapshot", "Cannot snapshot a Frame without columns.");
+    if (!overwrite && !H2O.getPM().isEmptyDirectoryAllNodes(dir))
+      throw new H2OIllegalArgumentException(dir, "saveSnapshot", "Cannot use path " + dir +
+              " to store a snapshot! The target needs to be either an existing empty directory or not exist yet.");
+    Job<Frame> job = new Job<>(fr._key, Frame.class.getName(), "Snapshot of " + fr._key + " to " + dir);
+    return job.start(new SaveDriver(fr, dir, overwrite, job), fr.anyVec().nChunks());
+  }
+
+  /**
+   * Restore a Frame from a snapshot directory.
+   * @param dir Directory written by {@link #save}
+   * @param dest Key of the restored Frame; null for the Key of the saved Frame
+   * @return the Job restoring the Frame, one unit of work per Chunk
+   */
+  public static Job<Frame> load(String dir, Key<Frame> dest) {
+    Meta meta = readMeta(dir);
+    Key<Frame> key = dest != null ? dest : Key.<Frame>make(meta._key);
+    Job<Frame> job = new Job<>(key, Frame.class.getName(), "Restore of " + key + " from " + dir);
+    return job.start(new LoadDriver(meta, dir, key, job), meta._espc.length - 1);
+  }
+
+  /**
+   * Write a snapshot of the Frame, in the caller's thread.  The caller takes
+   * care of locking the Frame.
+   * @param jobKey Job to report one unit of work per Chunk to, or null
+   */
+  public static void write(Frame fr, String dir, boolean overwrite, Key<Job> jobKey) {
+    long start = System.currentTimeMillis();
+    Vec[] vecs = fr.vecs();
+    Meta meta = new Meta();
+    meta._key = fr._key == null ? null : fr._key.toString();
+    meta._names = fr.names();
+    meta._types = fr.types();
+    meta._domains = fr.domains();
+    meta._espc = fr.anyVec().espc();
+    meta._rollups = new RollupStats[vecs.length];
+    for (int i = 0; i < vecs.length; i++)
+      meta._rollups[i] = RollupStats.get(vecs[i]);
+    H2O.getPM().mkdirs(dir);
+    new SaveTask(dir, overwrite, jobKey).doAll(fr);
+    // The metadata goes last: a snapshot without it is incomplete
+    try (OutputStream os = H2O.getPM().create(metaPath(dir), overwrite)) {
+      AutoBuffer ab = new AutoBuffer(os, true);
+      ab.put(meta);
+      ab.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write snapshot metadata to " + dir, e);
+    }
+    Log.info("Snapshot of " + fr._key + " (" + fr.byteSize() + " bytes) written to " + dir + " in " +
+            (System.currentTimeMillis() - start) + "ms");
+  }
+
+  /**
+   * Read a snapshot, in the caller's thread.  The Vecs and Chunks are put into
+   * the DKV, the returned Frame is not; the caller installs it.
+   * @param dir Directory written by {@link #save} or {@link #write}
+   * @param dest Key of the returned Frame
+   * @param jobKey Job to report one unit of work per Chunk to, or null
+   */
+  public static Frame read(String dir, Key<Frame> dest, Key<Job> jobKey) {
+    return read(readMeta(dir), dir, dest, jobKey);
+  }
+
+  private static Frame read(Meta meta, String dir, Key<Frame> dest, Key<Job> jobKey) {
+    long start = System.currentTimeMillis();
+    int ncols = meta._names.length;
+    Key<Vec>[] keys = new Vec.VectorGroup().addVecs(ncols);
+    int rowLayout = Vec.ESPC.rowLayout(keys[0], meta._espc);
+    Futures fs = new Futures();
+    try {
+      new LoadTask(dir, keys, meta._espc, jobKey).doAllNodes();
+    } catch (RuntimeException e) {
+      // Do not leave the Chunks read so far behind
+      for (int cidx = 0; cidx < meta._espc.length - 1; cidx++)
+        for (Key<Vec> k : keys)
+          DKV.remove(Vec.chunkKey(k, cidx), fs);
+      fs.blockForPending();
+      throw e;
+    }
+    Vec[] vecs = new Vec[ncols];
+    for (int i = 0; i < ncols; i++)
+      DKV.put(vecs[i] = new Vec(keys[i], rowLayout, meta._domains[i], meta._types[i]), fs);
+    fs.blockForPending();
+    // Rollups were computed before the snapshot, no need to do it again
+    for (int i = 0; i < ncols; i++)
+      if (meta._rollups[i] != null)
+        DKV.put(vecs[i].rollupStatsKey(), meta._rollups[i], fs);
+    fs.blockForPending();
+    Frame fr = new Frame(dest, meta._names, vecs);
+    Log.info("Frame " + dest + " (" + fr.numRows() + " rows, " + ncols + " cols) restored from " + dir + " in " +
+            (System.currentTimeMillis() - start) + "ms");
+    return fr;
+  }
+
+  private static class SaveDriver extends H2O.H2OCountedCompleter<SaveDriver> {
+    final Frame _fr;
+    final String _dir;
+    final boolean _overwrite;
+    final Job<Frame> _job;
+    SaveDriver(Frame fr, String dir, boolean overwrite, Job<Frame> job) {
+      _fr = fr; _dir = dir; _overwrite = overwrite; _job = job;
+    }
+
+    @Override public void compute2() {
+      _fr.read_lock(_job._key);
+      FrameSnapshot.write(_fr, _dir, _overwrite, _job._key);
+      tryComplete();
+    }
+
+    @Override public void onCompletion(CountedCompleter caller) { _fr.unlock(_job); }
+    @Override public boolean onExceptionalCompletion(Throwable t, CountedCompleter caller) {
+      _fr.unlock(_job);
+      return super.onExceptionalCompletion(t, caller);
+    }
+  }
+
+  /** Each node writes its Chunks, one file per Chunk index. */
+  private static class SaveTask extends MRTask<SaveTask> {
+    final String _dir;
+    final boolean _overwrite;
+    final Key<Job> _jobKey;
+    SaveTask(String dir, boolean overwrite, Key<Job> jobKey) { _dir = dir; _overwrite = overwrite; _jobKey = jobKey; }
+
+    @Override public void map(Chunk[] cs) {
+      int cidx = cs[0].cidx();
+      try (OutputStream os = H2O.getPM().create(chunkPath(_dir, cidx), _overwrite)) {
+        AutoBuffer ab = new AutoBuffer(os, false);
+        ab.put4(cs.length);
+        ab.put4(cs[0]._len);
+        for (Chunk c : cs) {
+          Chunk stored = stored(c);
+          ab.putStr(stored.getClass().getName());
+          ab.putA1(stored.asBytes());
+        }
+        ab.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to write chunk " + cidx + " of the snapshot to " + _dir, e);
+      }
+      if (_jobKey != null) Job.update(1, _jobKey);
+    }
+
+    // Chunks of plain Vecs are written as they are; views (wrapped, subset,
+    // transformed Vecs) are materialized first.
+    private static Chunk stored(Chunk c) {
+      Vec v = c.vec();
+      if (v.getClass() == Vec.class && !(c instanceof NewChunk)) return c;
+      return c.extractRows(new NewChunk(v, c.cidx()), 0, c._len).compress();
+    }
+  }
+
+  private static class LoadDriver extends H2O.H2OCountedCompleter<LoadDriver> {
+    final Meta _meta;
+    final String _dir;
+    final Key<Frame> _dest;
+    final Job<Frame> _job;
+    LoadDriver(Meta meta, String dir, Key<Frame> dest, Job<Frame> job) {
+      _meta = meta; _dir = dir; _dest = dest; _job = job;
+    }
+
+    @Override public void compute2() {
+      Frame fr = FrameSnapshot.read(_meta, _dir, _dest, _job._key);
+      fr.delete_and_lock(_job);
+      fr.update(_job);
+      fr.unlock(_job);
+      tryComplete();
+    }
+  }
+
+  /** Each node reads the Chunks homed on it, in parallel. */
+  private static class LoadTask extends MRTask<LoadTask> {
+    final String _dir;
+    final Key<Vec>[] _keys;
+    final long[] _espc;
+    final Key<Job> _jobKey;
+    LoadTask(String dir, Key<Vec>[] keys, long[] espc, Key<Job> jobKey) {
+      _dir = dir; _keys = keys; _espc = espc; _jobKey = jobKey;
+    }
+
+    @Override protected void setupLocal() {
+      int n = 0;
+      final int nchunks = _espc.length - 1;
+      final int[] local = new int[nchunks];
+      for (int cidx = 0; cidx < nchunks; cidx++)
+        if (Vec.chunkKey(_keys[0], cidx).home()) local[n++] = cidx;
+      if (n == 0) return;
+      H2O.submitTask(new LocalMR(new MrFun() {
+        @Override protected void map(int id) { readChunk(local[id]); }
+      }, n)).join();
+    }
+
+    private void readChunk(int cidx) {
+      Futures fs = new Futures();
+      try (InputStream is = H2O.getPM().open(chunkPath(_dir, cidx))) {
+        AutoBuffer ab = new AutoBuffer(is);
+        int ncols = ab.get4();
+        if (ncols != _keys.length)
+          throw new IllegalStateException("Chunk " + cidx + " of snapshot " + _dir + " has " + ncols +
+                  " columns, expected " + _keys.length);
+        long rows = ab.get4();
+        if (rows != _espc[cidx + 1] - _espc[cidx])
+          throw new IllegalStateException("Chunk " + cidx + " of snapshot " + _dir + " has " + rows +
+                  " rows, expected " + (_espc[cidx + 1] - _espc[cidx]));
+        for (int i = 0; i < ncols; i++) {
+          short type = (short) TypeMap.onIce(ab.getStr());
+          byte[] mem = ab.getA1();
+          // Installed as serialized bytes; the Chunk is decoded on first use
+          Key ckey = Vec.chunkKey(_keys[i], cidx);
+          DKV.put(ckey, new Value(ckey, mem.length, mem, type, Value.ICE), fs);
+        }
+        ab.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to read chunk " + cidx + " of the snapshot in " + _dir, e);
+      }
+      fs.blockForPending();
+      if (_jobKey != null) Job.update(1, _jobKey);
+    }
+  }
+
+  static Meta readMeta(String dir) {
+    PersistManager pm = H2O.getPM();
+    if (!exists(dir))
+      throw new H2OIllegalArgumentException(dir, "loadSnapshot", "No complete frame snapshot found in " + dir);
+    try (InputStream is = pm.open(metaPath(dir))) {
+      return new AutoBuffer(is).get();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read snapshot metadata from " + dir, e);
+    }
+  }
+}
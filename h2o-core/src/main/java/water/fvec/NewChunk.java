@@ -1169,8 +1169,11 @@ public class NewChunk extends Chunk {
     byte mode = type();
     if( mode==Vec.T_BAD ) // ALL NAs, nothing to do
       return new C0DChunk(Double.NaN, _len);
-    if( mode==Vec.T_STR )
-      return new CStrChunk(_sslen, _ss, _sparseLen, _len, _id, _is);
+    if( mode==Vec.T_STR ) {
+      // Repeated strings: store each distinct value once plus per-row codes
+      CStrDictChunk dict = CStrDictChunk.tryCompress(_sslen, _ss, _sparseLen, _len, _id, _is);
+      return dict != null ? dict : new CStrChunk(_sslen, _ss, _sparseLen, _len, _id, _is);
+    }
     boolean rerun=false;
     if(mode == Vec.T_CAT) {
       for(int i = 0; i< _sparseLen; i++ )
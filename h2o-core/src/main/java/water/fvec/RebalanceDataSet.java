@@ -43,6 +43,19 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
     _nchunks = modelFrame.anyVec().nChunks();
   }
 
+  /**
+   * Constructor for a given layout, e.g. one which evens out rows across nodes.
+   */
+  public RebalanceDataSet(Frame srcFrame, Key dstKey, long[] espc) {
+    super(null);
+    _in = srcFrame;
+    _espc = espc;
+    _nchunks = espc.length - 1;
+    _jobKey = null;
+    _okey = dstKey;
+    _vg = new Vec.VectorGroup();
+  }
+
   public RebalanceDataSet(Frame srcFrame, Key dstKey, int nchunks) { this(srcFrame, dstKey,nchunks,null,null);}
   public RebalanceDataSet(Frame srcFrame, Key dstKey, int nchunks, H2O.H2OCountedCompleter cmp, Key jobKey) {
     super(cmp);
@@ -59,6 +59,12 @@ final class RollupStats extends Iced {
 
   public boolean hasHisto(){return _bins != null;}
 
+  // Approximate distinct count, quantiles and most frequent values
+  // Computed in a 2nd pass, on-demand, together with or instead of the histogram
+  VecSketches _sketches;
+
+  public boolean hasSketches(){return _sketches != null;}
+
   // Check for: Vector is mutating and rollups cannot be asked for
   boolean isMutating() { return _naCnt==-2; }
   // Check for: Rollups currently being computed
@@ -220,6 +226,84 @@ final class RollupStats extends Iced {
     return this;
   }
 
+  // Copy safe to reduce into
+  private RollupStats copy() {
+    RollupStats rs = (RollupStats) clone();
+    rs._mins = _mins.clone();
+    rs._maxs = _maxs.clone();
+    rs._pctiles = _pctiles.clone();
+    return rs;
+  }
+
+  // ---
+  // Node-local cache of the partial (per-chunk, before reduce) rollups.  Any
+  // write into a Chunk ends with a DKV.put of a new Value for its key, so the
+  // partial is kept on the Value it was computed from (see Value.derived) and
+  // goes away with it when the chunk is written into, removed, or its POJO is
+  // freed by the memory manager.  When a Vec is written into, its rollups are
+  // dropped as a whole, but recomputing them only re-rolls the modified
+  // chunks; the rest are merged from their cached partials.  The same goes
+  // for the (mergeable) per-chunk sketches.  Off by default; the partials cost
+  // about PARTIAL_BYTES per chunk, plus the serialized sketches once computed
+  // (counted as cached memory).
+  static final boolean CACHE_PARTIALS = H2O.getSysBoolProperty("rollups.cache_partials", false);
+
+  private static final class Partial {
+    final byte _type;                // Rollups of the same bytes differ for String/UUID Vecs
+    final RollupStats _rs;
+    volatile byte[] _sketches;       // Serialized, unfinished VecSketches of the chunk, once computed
+    Partial( byte type, RollupStats rs ) { _type = type; _rs = rs; }
+  }
+  private static final int PARTIAL_BYTES = (2/*hdr*/+2/*fields*/)*8 + (2/*hdr*/+12/*fields*/)*8 +
+          3*(2/*hdr*/+1/*len*/)*8 + (5+5+Vec.PERCENTILES.length)*8;
+
+  // Local Value of the chunk, only if c was loaded from it
+  private static Value chunkValue( Chunk c ) {
+    if( !CACHE_PARTIALS || c._vec == null || c._cidx == -1 ) return null;
+    Value val = DKV.get(c._vec.chunkKey(c._cidx)); // Local lookup; map runs on the chunk's home
+    return val != null && val.get() == c ? val : null;
+  }
+
+  private static Partial cached( Value val, byte type ) {
+    Object o = val == null ? null : val.derived();
+    return o instanceof Partial && ((Partial)o)._type == type ? (Partial)o : null;
+  }
+
+  // Partial rollups of a chunk, from the cache when the chunk was not modified
+  static RollupStats partial( Chunk c ) {
+    final Value val = chunkValue(c);
+    if( val == null ) return new RollupStats(0).map(c);
+    final byte type = c._vec.get_type();
+    Partial p = cached(val, type);
+    if( p != null ) return p._rs.copy();
+    RollupStats rs = new RollupStats(0).map(c);
+    val.setDerived(new Partial(type, rs.copy()), PARTIAL_BYTES);
+    return rs;
+  }
+
+  // Partial sketches of a chunk, from the cache when the chunk was not modified.
+  // Only cached next to the partial rollups, which are always computed first;
+  // without rollups.cache_partials every chunk is sketched again.
+  static VecSketches partialSketches( Chunk c ) {
+    final Value val = chunkValue(c);
+    Partial p = cached(val, c._vec.get_type());
+    if( p == null ) return new VecSketches(c._vec).add(c);
+    byte[] bits = p._sketches;
+    if( bits != null ) return new VecSketches().reloadFromBytes(bits);
+    VecSketches sk = new VecSketches(c._vec).add(c);
+    bits = sk.asBytes();
+    p._sketches = bits;
+    val.setDerived(p, PARTIAL_BYTES + bits.length);
+    return sk;
+  }
+
+  // Cached partial rollups of a chunk, or null; for testing
+  static RollupStats cachedPartial( Key ckey ) {
+    Value val = DKV.get(ckey);
+    Object o = val == null ? null : val.derived();
+    return o instanceof Partial ? ((Partial)o)._rs : null;
+  }
+
   private void reduce( RollupStats rs ) {
     for( double d : rs._mins ) if (!Double.isNaN(d)) min(d);
     for( double d : rs._maxs ) if (!Double.isNaN(d)) max(d);
@@ -262,7 +346,7 @@ final class RollupStats extends Iced {
     protected boolean modifiesVolatileVecs(){return false;}
 
     Roll( H2OCountedCompleter cmp, Key rskey ) { super(cmp); _rskey=rskey; }
-    @Override public void map( Chunk c ) { _rs = new RollupStats(0).map(c); }
+    @Override public void map( Chunk c ) { _rs = partial(c); }
     @Override public void reduce( Roll roll ) { _rs.reduce(roll._rs); }
     @Override public void postGlobal() {
       if( _rs == null )
@@ -301,15 +385,17 @@ final class RollupStats extends Iced {
     @Override public String toString(){return "Roll(" + _fr.anyVec()._key +")";}
   }
 
-  static void start(final Vec vec, Futures fs, boolean computeHisto) {
+  static void start(final Vec vec, Futures fs, boolean computeHisto) { start(vec, fs, computeHisto, false); }
+
+  static void start(final Vec vec, Futures fs, boolean computeHisto, boolean computeSketches) {
     if( vec instanceof InteractionWrappedVec ) return;
     if( DKV.get(vec._key)== null )
       throw new H2OConcurrentModificationException("Rollups not possible, because Vec was deleted: "+vec._key);
     if( vec.isString() ) computeHisto = false; // No histogram for string columns
     final Key rskey = vec.rollupStatsKey();
     RollupStats rs = getOrNull(vec,rskey);
-    if(rs == null || (computeHisto && !rs.hasHisto()))
-      fs.add(new RPC(rskey.home_node(),new ComputeRollupsTask(vec,computeHisto)).addCompleter(new H2OCallback() {
+    if(rs == null || (computeHisto && !rs.hasHisto()) || (computeSketches && !rs.hasSketches()))
+      fs.add(new RPC(rskey.home_node(),new ComputeRollupsTask(vec,computeHisto,computeSketches)).addCompleter(new H2OCallback() {
         @Override public void callback(H2OCountedCompleter h2OCountedCompleter) {
           DKV.get(rskey); // fetch new results via DKV to enable caching of the results.
         }
@@ -318,7 +404,9 @@ final class RollupStats extends Iced {
 
   private static NonBlockingHashMap<Key,RPC> _pendingRollups = new NonBlockingHashMap<>();
 
-  static RollupStats get(Vec vec, boolean computeHisto) {
+  static RollupStats get(Vec vec, boolean computeHisto) { return get(vec, computeHisto, false); }
+
+  static RollupStats get(Vec vec, boolean computeHisto, boolean computeSketches) {
     if( DKV.get(vec._key)== null ) {
       throw new H2OConcurrentModificationException("Rollups not possible, because Vec was deleted: " + vec._key);
     }
@@ -327,12 +415,12 @@ final class RollupStats extends Iced {
     }
     final Key rskey = vec.rollupStatsKey();
     RollupStats rs = DKV.getGet(rskey);
-    while(rs == null || (!rs.isReady() || (computeHisto && !rs.hasHisto()))){
+    while(rs == null || (!rs.isReady() || (computeHisto && !rs.hasHisto()) || (computeSketches && !rs.hasSketches()))){
       if(rs != null && rs.isMutating())
         throw new H2OConcurrentModificationException("Can not compute rollup stats while vec is being modified. (1)");
       // 1. compute only once
       try {
-        RPC rpcNew = new RPC(rskey.home_node(),new ComputeRollupsTask(vec, computeHisto));
+        RPC rpcNew = new RPC(rskey.home_node(),new ComputeRollupsTask(vec, computeHisto, computeSketches));
         RPC rpcOld = _pendingRollups.putIfAbsent(rskey, rpcNew);
         if(rpcOld == null) {  // no prior pending task, need to send this one
           rpcNew.call().get();
@@ -387,22 +475,35 @@ final class RollupStats extends Iced {
     @Override public boolean logVerbose() { return false; }
   }
 
+  // Compute approximate sketches
+  private static class Sketch extends MRTask<Sketch> {
+    VecSketches _sk;             // Outputs
+    @Override public void map( Chunk c ) { _sk = partialSketches(c); }
+    @Override public void reduce( Sketch s ) {
+      if( _sk == null ) _sk = s._sk;
+      else if( s._sk != null ) _sk.merge(s._sk);
+    }
+    @Override public boolean logVerbose() { return false; }
+  }
+
 
   // Task to compute rollups on its homenode if needed.
   // Only computes the rollups, does not fetch them, caller should fetch them via DKV store (to preserve caching).
-  // Only comutes the rollups if needed (i.e. are null or do not have histo and histo is required)
+  // Only comutes the rollups if needed (i.e. are null or do not have histo/sketches and these are required)
   // If rs computation is already in progress, it will wait for it to finish.
   // Throws IAE if the Vec is being modified (or removed) while this task is in progress.
   static final class ComputeRollupsTask extends DTask<ComputeRollupsTask>{
     final Key _vecKey;
     final Key _rsKey;
     final boolean _computeHisto;
+    final boolean _computeSketches;
 
-    public ComputeRollupsTask(Vec v, boolean computeHisto){
+    public ComputeRollupsTask(Vec v, boolean computeHisto, boolean computeSketches){
       super((byte)(Thread.currentThread() instanceof H2O.FJWThr ? currThrPriority()+1 : H2O.MIN_HI_PRIORITY-3));
       _vecKey = v._key;
       _rsKey = v.rollupStatsKey();
       _computeHisto = computeHisto;
+      _computeSketches = computeSketches;
     }
 
     private Value makeComputing(){
@@ -430,14 +531,14 @@ final class RollupStats extends Iced {
         RollupStats rs = (v == null) ? null : v.<RollupStats>get();
         // Fetched current rs from the DKV, rs can be:
         //   a) computed
-        //        a.1) has histo or histo not required => do nothing
-        //        a.2) no histo and histo is required  => only compute histo
+        //        a.1) has histo/sketches or not required => do nothing
+        //        a.2) no histo/sketches and required     => only compute them
         //   b) computing => wait for the task computing it to finish and check again
         //   c) mutating  => throw IAE
         //   d) null      => compute new rollups
         if (rs != null) {
           if (rs.isReady()) {
-            if (_computeHisto && !rs.hasHisto()) { // a.2 => compute rollups
+            if (needsSecondPass(rs)) { // a.2 => compute histo and/or sketches
               CountedCompleter cc = getCompleter(); // should be null or RPCCall
               if(cc != null) assert cc.getCompleter() == null;
               // note: if cc == null then onExceptionalCompletion tasks waiting on this may be woken up before exception handling iff exception is thrown.
@@ -446,7 +547,7 @@ final class RollupStats extends Iced {
               Value oldv = DKV.DputIfMatch(_rsKey, nnn, v, fs);
               fs.blockForPending();
               if(oldv == v){ // got the lock
-                computeHisto(rs, vec, nnn);
+                computeSecondPass(rs, vec, nnn);
                 break;
               } // else someone else is modifying the rollups => try again
             } else
@@ -463,12 +564,9 @@ final class RollupStats extends Iced {
           if(oldv == v){ // got the lock, compute the rollups
             try {
               Roll r = new Roll(null, _rsKey).doAll(vec);
-              // computed the stats, now compute histo if needed and install the response and quit
+              // computed the stats, now compute histo/sketches if needed and install the response and quit
               r._rs._checksum ^= vec.length();
-              if (_computeHisto)
-                computeHisto(r._rs, vec, nnn);
-              else
-                installResponse(nnn, r._rs);
+              computeSecondPass(r._rs, vec, nnn);
               break;
             } catch (Exception e) {
               Log.err(e);
@@ -489,11 +587,29 @@ final class RollupStats extends Iced {
       return success;
     }
 
-    final void computeHisto(final RollupStats rs, Vec vec, final Value nnn) {
+    private boolean needsSecondPass(RollupStats rs) {
+      return (_computeHisto && !rs.hasHisto()) || (_computeSketches && !rs.hasSketches());
+    }
+
+    final void computeSecondPass(final RollupStats rs, Vec vec, final Value nnn) {
+      if (_computeHisto && !rs.hasHisto())
+        computeHisto(rs, vec);
+      if (_computeSketches && !rs.hasSketches())
+        computeSketches(rs, vec);
+      installResponse(nnn, rs);
+    }
+
+    final void computeSketches(final RollupStats rs, Vec vec) {
+      VecSketches sk = new Sketch().doAll(vec)._sk;
+      if (sk == null) sk = new VecSketches(vec); // No chunks
+      sk.finish(vec);
+      rs._sketches = sk;
+    }
+
+    final void computeHisto(final RollupStats rs, Vec vec) {
       // All NAs or non-math; histogram has zero bins
       if (rs._naCnt == vec.length() || vec.isUUID()) {
         rs._bins = new long[0];
-        installResponse(nnn, rs);
         return;
       }
       // Constant: use a single bin
@@ -502,7 +618,6 @@ final class RollupStats extends Iced {
       assert rows > 0 : "rows = " + rows + ", vec.len() = " + vec.length() + ", naCnt = " + rs._naCnt;
       if (span == 0) {
         rs._bins = new long[]{rows};
-        installResponse(nnn, rs);
         return;
       }
       // Number of bins: MAX_SIZE by default.  For integers, bins for each unique int
@@ -548,7 +663,6 @@ final class RollupStats extends Iced {
         } // otherwise either h==0 and we know which bin, or fraction is between two positions that fall in the same bin
         // this guarantees we are within one bin of the exact answer; i.e. within (max-min)/MAX_SIZE
       }
-      installResponse(nnn, rs);
     }
   }
 }
@@ -907,6 +907,18 @@ public class Vec extends Keyed<Vec> {
    *  @return A set of percentiles */
   public double[] pctiles() { return RollupStats.get(this, true)._pctiles;   }
 
+  /** Approximate distinct count, quantiles and most frequent values of the
+   *  Vec, computed in a single pass with memory independent of the number of
+   *  rows.  Computed on first use and cached thereafter.  After the Vec is
+   *  written into, the sketches are recomputed from scratch unless the
+   *  partial rollups are cached ({@code -Dsys.ai.h2o.rollups.cache_partials=true},
+   *  off by default), in which case only the modified chunks are sketched again.
+   *  @return The sketches of this Vec */
+  public VecSketches sketches() { return RollupStats.get(this, false, true)._sketches; }
+  /** Optimistically return the sketches, or null if not computed
+   *  @return the sketches, or null if not computed */
+  public VecSketches lazy_sketches() { return rollupStats()._sketches; }
+
 
   /** Compute the roll-up stats as-needed */
   private RollupStats rollupStats() { return RollupStats.get(this); }
@@ -925,6 +937,14 @@ public class Vec extends Keyed<Vec> {
    */
   public void startRollupStats(Futures fs, boolean doHisto) { RollupStats.start(this,fs,doHisto); }
 
+  /**
+   * Like {@link #startRollupStats(Futures, boolean)}, optionally also computing the approximate {@link #sketches()}.
+   * @param fs Futures allow to wait for this task to finish.
+   * @param doHisto Also compute histogram.
+   * @param doSketches Also compute sketches, requires another pass over data and is not computed by default.
+   */
+  public void startRollupStats(Futures fs, boolean doHisto, boolean doSketches) { RollupStats.start(this,fs,doHisto,doSketches); }
+
   /** A high-quality 64-bit checksum of the Vec's content, useful for
    *  establishing dataset identity.
    *  @return Checksum of the Vec's content  */
@@ -0,0 +1,158 @@
+package water.fvec;
+
+import water.Iced;
+import water.parser.BufferedString;
+import water.util.sketch.HyperLogLog;
+import water.util.sketch.SpaceSaving;
+import water.util.sketch.TDigest;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Approximate single-pass summaries of a Vec, kept alongside the exact
+ * {@link RollupStats}: a HyperLogLog distinct count, a t-digest for quantiles
+ * of numeric columns, and a Space-Saving sketch of the most frequent values.
+ * All three are mergeable, so a VecSketches is built per Chunk with
+ * {@link #add(Chunk)} and combined with {@link #merge(VecSketches)}.  Their
+ * size is independent of the number of rows.
+ */
+public class VecSketches extends Iced<VecSketches> {
+  /** Number of most frequent values reported by {@link #topValues()}. */
+  public static final int TOP_K = 20;
+
+  private byte _type;
+  private HyperLogLog _hll;
+  private TDigest _digest;        // Numeric columns only
+  private SpaceSaving _top;
+  private long _count;            // Number of non-NA values seen
+
+  public VecSketches() {}
+
+  public VecSketches(Vec vec) {
+    _type = vec.get_type();
+    _hll = new HyperLogLog();
+    _digest = isNumeric() ? new TDigest() : null;
+    // Monitor more items than reported; the tail of a Space-Saving sketch is unreliable
+    _top = new SpaceSaving(4 * TOP_K);
+  }
+
+  private boolean isNumeric() { return _type == Vec.T_NUM || _type == Vec.T_TIME; }
+
+  /** Add all the non-NA values of a chunk. */
+  public VecSketches add(Chunk c) {
+    switch (_type) {
+      case Vec.T_STR:  addStrings(c); break;
+      case Vec.T_UUID: addUUIDs(c);   break;
+      case Vec.T_BAD:  break;
+      default:         addNumbers(c);
+    }
+    return this;
+  }
+
+  private void addNumbers(Chunk c) {
+    for (int i = c.nextNZ(-1); i < c._len; i = c.nextNZ(i)) {
+      double d = c.atd(i);
+      if (!Double.isNaN(d)) addNumber(d, 1);
+    }
+    // Sparse?  We skipped all the zeros; do them now
+    if (c.isSparseZero() && c._len > c.sparseLenZero())
+      addNumber(0, c._len - c.sparseLenZero());
+  }
+
+  private void addNumber(double d, long cnt) {
+    long key = Double.doubleToRawLongBits(d + 0.0); // Folds -0.0 into 0.0
+    _hll.addHash(HyperLogLog.hash(key));
+    if (_digest != null) _digest.add(d, cnt);
+    _top.add(key, cnt);
+    _count += cnt;
+  }
+
+  private void addStrings(Chunk c) {
+    BufferedString tmpStr = new BufferedString();
+    for (int i = 0; i < c._len; i++) {
+      if (c.isNA(i)) continue;
+      c.atStr(tmpStr, i);
+      long h = HyperLogLog.hash(tmpStr.getBuffer(), tmpStr.getOffset(), tmpStr.length());
+      _hll.addHash(h);
+      int slot = _top.add(h, 1);
+      if (slot >= 0) _top.setLabel(slot, tmpStr.toString());
+      _count++;
+    }
+  }
+
+  private void addUUIDs(Chunk c) {
+    for (int i = 0; i < c._len; i++) {
+      if (c.isNA(i)) continue;
+      long lo = c.at16l(i), hi = c.at16h(i);
+      long h = HyperLogLog.hash(lo ^ HyperLogLog.hash(hi));
+      _hll.addHash(h);
+      int slot = _top.add(h, 1);
+      if (slot >= 0) _top.setLabel(slot, new UUID(hi, lo).toString());
+      _count++;
+    }
+  }
+
+  public VecSketches merge(VecSketches that) {
+    assert _type == that._type;
+    _hll.merge(that._hll);
+    if (_digest != null) _digest.merge(that._digest);
+    _top.merge(that._top);
+    _count += that._count;
+    return this;
+  }
+
+  /** Label the most frequent numeric values, once all chunks are merged. */
+  void finish(Vec vec) {
+    if (_digest != null) _digest.compress();
+    if (_type == Vec.T_STR || _type == Vec.T_UUID) return;
+    String[] domain = vec.domain();
+    for (int slot : _top.top()) {
+      if (_top.label(slot) != null) continue;
+      double d = Double.longBitsToDouble(_top.key(slot));
+      String label;
+      if (domain != null) label = domain[(int) d];
+      else if (d == Math.rint(d) && Math.abs(d) < 1e15) label = Long.toString((long) d);
+      else label = Double.toString(d);
+      _top.setLabel(slot, label);
+    }
+  }
+
+  /** Number of non-NA values summarized. */
+  public long count() { return _count; }
+
+  /** Approximate number of distinct non-NA values (about 1.6% relative error). */
+  public long distinctCount() { return Math.min(_hll.cardinality(), _count); }
+
+  /** Approximate quantile of a numeric column, NaN for other columns. */
+  public double quantile(double p) { return _digest == null ? Double.NaN : _digest.quantile(p); }
+
+  /** Up to {@link #TOP_K} most frequent values, most frequent first. */
+  public String[] topValues() {
+    int[] top = topSlots();
+    String[] res = new String[top.length];
+    for (int i = 0; i < top.length; i++) res[i] = _top.label(top[i]);
+    return res;
+  }
+
+  /** Approximate counts of the {@link #topValues()}; each over-estimates the true count by at most its error. */
+  public long[] topCounts() {
+    int[] top = topSlots();
+    long[] res = new long[top.length];
+    for (int i = 0; i < top.length; i++) res[i] = _top.count(top[i]);
+    return res;
+  }
+
+  /** Maximal over-estimation of each of the {@link #topCounts()}. */
+  public long[] topErrors() {
+    int[] top = topSlots();
+    long[] res = new long[top.length];
+    for (int i = 0; i < top.length; i++) res[i] = _top.error(top[i]);
+    return res;
+  }
+
+  private int[] topSlots() {
+    int[] top = _top.top();
+    return top.length > TOP_K ? Arrays.copyOf(top, TOP_K) : top;
+  }
+}
@@ -0,0 +1,172 @@
+package water.parser;
+
+import water.H2O;
+import water.Job;
+import water.Key;
+import water.fvec.*;
+import water.persist.Persist;
+import water.util.Log;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of parse results, for repeated imports of unchanged files.
+ * <p>
+ * With {@code -Dsys.ai.h2o.parse_cache.dir} set to a directory (local, NFS,
+ * HDFS, ... anything the {@link water.persist.PersistManager} can write), a
+ * successful parse stores a {@link FrameSnapshot} of its result under an
+ * entry named by a digest of the H2O version, each source file's path, size
+ * and modification time, and the final {@link ParseSetup} (separator, header,
+ * column names and types, NA strings, skipped columns, ...; not the chunk
+ * size, so clouds of different shapes share entries).  A later parse with the
+ * same digest restores the snapshot instead of tokenizing the files again.
+ * <p>
+ * Only file-backed sources with a known modification time are cached; other
+ * sources (uploads, HTTP) always parse.  An entry is written under a
+ * temporary name and renamed into place once complete, so a parse never
+ * reads a partly written entry, and concurrent parses of the same sources
+ * keep the first complete entry.  Restoring checks every Chunk's row count
+ * against the row layout of the entry.  A failure to read or write the cache
+ * is logged and falls back to a normal parse.  Entries are never evicted by
+ * H2O; the directory is managed like any other scratch space.
+ */
+public final class ParseCache {
+  /** Cache directory; null if the cache is off. */
+  static final String DIR = H2O.getSysProperty("parse_cache.dir", null);
+
+  private static final LongAdder HITS = new LongAdder();
+  private static final LongAdder MISSES = new LongAdder();
+  private static final LongAdder STORED_BYTES = new LongAdder();
+  private static final LongAdder LOADED_BYTES = new LongAdder();
+
+  private ParseCache() {}
+
+  public static boolean enabled() { return DIR != null && !DIR.isEmpty(); }
+
+  public static long hits() { return HITS.sum(); }
+  public static long misses() { return MISSES.sum(); }
+  public static long storedBytes() { return STORED_BYTES.sum(); }
+  public static long loadedBytes() { return LOADED_BYTES.sum(); }
+
+  /**
+   * Cache entry of a parse, or null if the parse is not cacheable.
+   * @param keys source keys, in parse order
+   * @param setup final setup of the parse
+   */
+  static String entry(Key[] keys, ParseSetup setup) {
+    return enabled() ? entry(DIR, keys, setup) : null;
+  }
+
+  // Cache entry of a parse in the given cache directory
+  static String entry(String dir, Key[] keys, ParseSetup setup) {
+    StringBuilder sb = new StringBuilder(H2O.ABV.projectVersion()).append('\n');
+    for (Key k : keys) {
+      String src = sourceId(k);
+      if (src == null) return null;
+      sb.append(src).append('\n');
+    }
+    sb.append(fingerprint(setup));
+    return dir + "/" + digest(sb.toString());
+  }
+
+  /**
+   * Install the cached result of a parse under the Job's result Key.
+   * @return the restored Frame, unlocked; or null on a miss
+   */
+  static Frame restore(String entry, Job<Frame> job) {
+    try {
+      if (!FrameSnapshot.exists(entry)) {
+        MISSES.increment();
+        return null;
+      }
+      job.update(0, "Loading cached parse result.");
+      Frame fr = FrameSnapshot.read(entry, job._result, null);
+      fr.update(job);
+      fr.unlock(job);
+      HITS.increment();
+      LOADED_BYTES.add(fr.byteSize());
+      Log.info("Parse of " + job._result + " served from the parse cache " + entry);
+      return fr;
+    } catch (Exception e) {
+      MISSES.increment();
+      Log.warn("Failed to load parse result from the parse cache " + entry + ", parsing instead.", e);
+      return null;
+    }
+  }
+
+  /** Store the result of a parse; failures are only logged. */
+  static void store(String entry, Frame fr) {
+    final String tmp = entry + ".tmp" + Key.rand();
+    final int nchunks = fr.anyVec().nChunks();
+    try {
+      if (FrameSnapshot.exists(entry)) return; // Stored by a concurrent parse meanwhile
+      FrameSnapshot.write(fr, tmp, false, null);
+      if (!FrameSnapshot.exists(entry) && H2O.getPM().rename(tmp, entry))
+        STORED_BYTES.add(fr.byteSize());
+      else
+        FrameSnapshot.delete(tmp, nchunks);
+    } catch (Exception e) {
+      Log.warn("Failed to store parse result of " + fr._key + " in the parse cache " + entry, e);
+      try {
+        FrameSnapshot.delete(tmp, nchunks);
+      } catch (Exception ignore) {
+        // Leftover temporary files are never read
+      }
+    }
+  }
+
+  // Path, size and modification time of a file-backed source; null if unknown
+  static String sourceId(Key k) {
+    ByteVec v = ParseDataset.getByteVec(k);
+    String name = k.toString();
+    long mtime = -1;
+    if (v instanceof NFSFileVec) {
+      String nfsPrefix = "nfs:" + File.separator;
+      if (!name.startsWith(nfsPrefix)) return null;
+      File f = new File(name.substring(nfsPrefix.length()));
+      name = f.getAbsolutePath();
+      mtime = f.lastModified();
+    } else if (v instanceof FileVec && name.contains("://")) {
+      int slash = name.lastIndexOf('/');
+      try {
+        for (Persist.PersistEntry e : H2O.getPM().list(name.substring(0, slash)))
+          if (e._name.equals(name.substring(slash + 1))) { mtime = e._timestamp_millis; break; }
+      } catch (Exception e) {
+        Log.debug("No modification time of " + name + ", not caching its parse: " + e);
+        return null;
+      }
+    }
+    return mtime > 0 ? name + "|" + v.length() + "|" + mtime : null;
+  }
+
+  // Everything in the setup which changes the parsed Frame
+  static String fingerprint(ParseSetup ps) {
+    return ps._parse_type.name() + '|' + ps._separator + '|' + ps._single_quotes + '|' + ps._check_header + '|' +
+            ps._number_columns + '|' + Arrays.toString(ps._column_names) + '|' + Arrays.toString(ps._column_types) + '|' +
+            Arrays.toString(ps._skipped_columns) + '|' + Arrays.toString(ps._parse_columns_indices) + '|' +
+            Arrays.deepToString(ps._domains) + '|' + Arrays.deepToString(ps._na_strings) + '|' +
+            Arrays.toString(ps._nonDataLineMarkers) + '|' + Arrays.toString(ps._synthetic_column_names) + '|' +
+            Arrays.deepToString(ps._synthetic_column_values) + '|' + ps._decrypt_tool;
+  }
+
+  private static String digest(String s) {
+    try {
+      byte[] d = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+      StringBuilder sb = new StringBuilder(2 * d.length);
+      for (byte b : d) sb.append(String.format("%02x", b));
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Forget the counters; for tests. */
+  static void reset() {
+    HITS.reset(); MISSES.reset(); STORED_BYTES.reset(); LOADED_BYTES.reset();
+  }
+}
@@ -200,7 +200,20 @@ public final class ParseDataset {
       _deleteOnDone = deleteOnDone;
     }
     @Override public void compute2() {
+      // The cache entry is computed first, parsing may delete the sources
+      String cached = ParseCache.entry(_keys, _setup);
+      if (cached != null) {
+        Frame fr = ParseCache.restore(cached, _pds._job);
+        if (fr != null) {
+          logParseResults(fr);
+          releaseSources(_keys, _deleteOnDone, _pds._job);
+          tryComplete();
+          return;
+        }
+      }
       parseAllKeys(_pds, _keys, _setup, _deleteOnDone);
+      if (cached != null && !_pds._job.stop_requested())
+        ParseCache.store(cached, _pds._job._result.get());
       tryComplete();
     }
 
@@ -232,6 +245,20 @@ public final class ParseDataset {
     }
   }
 
+  // Unlock (or delete) the sources of a parse which did not read them
+  private static void releaseSources(Key[] keys, boolean deleteOnDone, Job job) {
+    Futures fs = new Futures();
+    for (Key k : keys) {
+      Iced ice = DKV.getGet(k);
+      if (ice instanceof Frame) {
+        Frame fr = (Frame) ice;
+        if (deleteOnDone) fr.delete(job._key, fs, true);
+        else if (fr._key != null) fr.unlock(job);
+      } else if (deleteOnDone && ice != null) Keyed.remove(k, fs, true);
+    }
+    fs.blockForPending();
+  }
+
   private static class CategoricalUpdateMap extends Iced {
     final int [][] map;
     public CategoricalUpdateMap(int[][] map){this.map = map;}
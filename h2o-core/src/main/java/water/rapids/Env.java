@@ -197,10 +197,13 @@ public class Env extends Iced {
     init(new AstIsax());
 
     // Advanced Math
+    init(new AstApproxDistinct());
+    init(new AstApproxQuantile());
     init(new AstCorrelation());
     init(new AstDistance());
     init(new AstHist());
     init(new AstFillNA());
+    init(new AstHeavyHitters());
     init(new AstImpute());
     init(new AstKFold());
     init(new AstMode());
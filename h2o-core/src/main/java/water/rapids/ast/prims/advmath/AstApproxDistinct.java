@@ -0,0 +1,36 @@
+package water.rapids.ast.prims.advmath;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValNums;
+
+/**
+ * Approximate number of distinct non-NA values of every column, from the
+ * HyperLogLog sketch cached with the rollups.
+ * (approx.distinct ary)
+ */
+public class AstApproxDistinct extends AstPrimitive {
+  @Override
+  public String[] args() {
+    return new String[]{"ary"};
+  }
+
+  @Override
+  public String str() { return "approx.distinct"; }
+
+  @Override
+  public int nargs() { return 1 + 1; } // (approx.distinct ary)
+
+  @Override
+  public ValNums apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    Vec[] vecs = fr.vecs();
+    double[] ds = new double[vecs.length];
+    for (int i = 0; i < vecs.length; i++)
+      ds[i] = vecs[i].sketches().distinctCount();
+    return new ValNums(ds);
+  }
+}
@@ -0,0 +1,53 @@
+package water.rapids.ast.prims.advmath;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.fvec.VecSketches;
+import water.rapids.Env;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.ast.params.AstNumList;
+import water.rapids.vals.ValFrame;
+
+/**
+ * Approximate quantiles from the t-digest sketch cached with the rollups.
+ * Single pass and bounded memory, unlike the exact iterative {@link AstQtile}.
+ * Non-numeric columns produce NaN.
+ * (approx.quantile ary [number_list_probs])
+ */
+public class AstApproxQuantile extends AstPrimitive {
+  @Override
+  public String[] args() {
+    return new String[]{"ary", "probs"};
+  }
+
+  @Override
+  public String str() { return "approx.quantile"; }
+
+  @Override
+  public int nargs() { return 1 + 2; } // (approx.quantile ary probs)
+
+  @Override
+  public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    double[] probs = ((AstNumList) asts[2]).expand();
+    for (double d : probs)
+      if (d < 0 || d > 1) throw new IllegalArgumentException("Probability must be between 0 and 1: " + d);
+
+    // Same shape as AstQtile: probs in col 0 and the quantiles in cols 1 thru fr.numCols()
+    Vec[] vecs = new Vec[1 + fr.numCols()];
+    String[] names = new String[vecs.length];
+    vecs[0] = Vec.makeCon(null, probs);
+    names[0] = "Probs";
+    for (int i = 0; i < fr.numCols(); i++) {
+      Vec vec = fr.vec(i);
+      double[] qs = new double[probs.length];
+      VecSketches sketches = vec.isNumeric() || vec.isTime() ? vec.sketches() : null;
+      for (int j = 0; j < probs.length; j++)
+        qs[j] = sketches == null ? Double.NaN : sketches.quantile(probs[j]);
+      vecs[i + 1] = Vec.makeCon(null, qs);
+      names[i + 1] = fr._names[i] + "Quantiles";
+    }
+    return new ValFrame(new Frame(names, vecs));
+  }
+}
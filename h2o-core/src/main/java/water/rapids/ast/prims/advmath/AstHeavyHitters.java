@@ -0,0 +1,51 @@
+package water.rapids.ast.prims.advmath;
+
+import water.Key;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.fvec.VecSketches;
+import water.rapids.Env;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValFrame;
+
+/**
+ * Most frequent values of a single column with their approximate counts, from
+ * the Space-Saving sketch cached with the rollups.  Counts may over-estimate
+ * the true counts by at most the value in the "error" column.
+ * (heavy.hitters ary)
+ */
+public class AstHeavyHitters extends AstPrimitive {
+  @Override
+  public String[] args() {
+    return new String[]{"ary"};
+  }
+
+  @Override
+  public String str() { return "heavy.hitters"; }
+
+  @Override
+  public int nargs() { return 1 + 1; } // (heavy.hitters ary)
+
+  @Override
+  public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    if (fr.numCols() != 1)
+      throw new IllegalArgumentException("heavy.hitters expects a single column, got " + fr.numCols());
+    VecSketches sketches = fr.anyVec().sketches();
+    long[] counts = sketches.topCounts();
+    long[] errors = sketches.topErrors();
+    double[] dcounts = new double[counts.length], derrors = new double[errors.length];
+    for (int i = 0; i < counts.length; i++) {
+      dcounts[i] = counts[i];
+      derrors[i] = errors[i];
+    }
+    Key<Vec>[] keys = Vec.VectorGroup.VG_LEN1.addVecs(3);
+    Vec[] vecs = new Vec[]{
+        Vec.makeVec(sketches.topValues(), keys[0]),
+        Vec.makeVec(dcounts, keys[1]),
+        Vec.makeVec(derrors, keys[2])
+    };
+    return new ValFrame(new Frame(new String[]{fr.name(0), "count", "error"}, vecs));
+  }
+}
@@ -9,6 +9,8 @@ import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
 import water.rapids.ast.params.AstStrList;
+import water.rapids.ast.prims.string.algorithms.ByteDFA;
+import water.rapids.ast.prims.string.algorithms.RegexCache;
 
 /**
  * Accepts a frame with a single string column, and a substring to look for in the target.
@@ -95,13 +97,18 @@ public class AstCountMatches extends AstPrimitive {
           for (int i = 0; i < chk.len(); i++)
             newChk.addNA();
         else {
+          // Count on the raw UTF-8 bytes, one automaton per pattern
+          ByteDFA[] dfas = new ByteDFA[pattern.length];
+          for (int j = 0; j < pattern.length; j++)
+            dfas[j] = RegexCache.literal(pattern[j], false);
           BufferedString tmpStr = new BufferedString();
           for (int i = 0; i < chk._len; ++i) {
             if (chk.isNA(i)) newChk.addNA();
             else {
               int cnt = 0;
-              for (String aPattern : pattern)
-                cnt += StringUtils.countMatches(chk.atStr(tmpStr, i).toString(), aPattern);
+              chk.atStr(tmpStr, i);
+              for (ByteDFA dfa : dfas)
+                cnt += dfa.countMatches(tmpStr);
               newChk.addNum(cnt, 0);
             }
           }
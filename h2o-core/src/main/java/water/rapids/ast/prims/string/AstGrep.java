@@ -9,6 +9,8 @@ import water.fvec.Vec;
 import water.parser.BufferedString;
 import water.rapids.Val;
 import water.rapids.ast.AstBuiltin;
+import water.rapids.ast.prims.string.algorithms.ByteDFA;
+import water.rapids.ast.prims.string.algorithms.RegexCache;
 import water.rapids.vals.ValFrame;
 
 import java.util.Arrays;
@@ -118,10 +120,21 @@ public class AstGrep extends AstBuiltin<AstGrep> {
     @Override
     public void map(Chunk c, NewChunk n) {
       OutputWriter w = OutputWriter.makeWriter(_gh, n, c.start());
-      Pattern p = _gh.compilePattern();
-      Matcher m = p.matcher("");
       BufferedString bs = new BufferedString();
       int rows = c._len;
+      ByteDFA dfa = _gh.compileDFA();
+      if (dfa != null && dfa.canMatch(c)) { // match on the raw UTF-8 bytes
+        for (int r = 0; r < rows; r++) {
+          if (c.isNA(r)) {
+            w.addNA(r);
+          } else {
+            w.addRow(r, dfa.find(c.atStr(bs, r)));
+          }
+        }
+        return;
+      }
+      Pattern p = _gh.compilePattern();
+      Matcher m = p.matcher("");
       for (int r = 0; r < rows; r++) {
         if (c.isNA(r)) {
           w.addNA(r);
@@ -150,7 +163,11 @@ public class AstGrep extends AstBuiltin<AstGrep> {
 
     Pattern compilePattern() {
       int flags = _ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
-      return Pattern.compile(_regex, flags);
+      return RegexCache.pattern(_regex, flags);
+    }
+
+    ByteDFA compileDFA() {
+      return RegexCache.regex(_regex, _ignoreCase);
     }
 
   }
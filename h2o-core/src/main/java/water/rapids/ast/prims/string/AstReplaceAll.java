@@ -9,6 +9,9 @@ import water.rapids.Val;
 import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
+import water.rapids.ast.prims.string.algorithms.ByteDFA;
+import water.rapids.ast.prims.string.algorithms.RegexCache;
+import water.util.StringUtils;
 import water.util.VecUtils;
 
 import java.util.*;
@@ -92,18 +95,41 @@ public class AstReplaceAll extends AstPrimitive {
     final String pattern = pat;
     final String replacement = rep;
     final boolean ignoreCase = ic;
+    // A fixed pattern and replacement do not need the regex engine
+    final boolean literalReplacement = rep.indexOf('$') < 0 && rep.indexOf('\\') < 0;
+    final byte[] replacementBytes = StringUtils.bytesOf(rep);
     return new MRTask() {
       @Override
       public void map(Chunk chk, NewChunk newChk) {
+        final ByteDFA literal = !ignoreCase && literalReplacement && !pattern.isEmpty()
+                ? RegexCache.literalRegex(pattern, false) : null;
         if (chk instanceof C0DChunk) // all NAs
           for (int i = 0; i < chk.len(); i++)
             newChk.addNA();
-        else {
+        else if (chk instanceof CStrDictChunk) { // replace in each distinct string only once
+          CStrDictChunk dictChk = (CStrDictChunk) chk;
+          final Pattern compiledPattern = RegexCache.pattern(pattern, 0);
+          String[] dict = dictChk.dictionary();
+          for (int i = 0; i < dict.length; i++)
+            dict[i] = ignoreCase
+                    ? compiledPattern.matcher(dict[i].toLowerCase(Locale.ENGLISH)).replaceAll(replacement)
+                    : compiledPattern.matcher(dict[i]).replaceAll(replacement);
+          dictChk.decode(newChk, dict);
+        } else if (literal != null) { // plain substring replacement on the raw UTF-8 bytes
+          BufferedString tmpStr = new BufferedString();
+          BufferedString outStr = new BufferedString();
+          for (int i = 0; i < chk._len; i++) {
+            if (chk.isNA(i))
+              newChk.addNA();
+            else
+              newChk.addStr(literal.replaceAll(chk.atStr(tmpStr, i), replacementBytes, outStr));
+          }
+        } else {
 //        if (((CStrChunk)chk)._isAllASCII) { // fast-path operations
 //          ((CStrChunk) chk).asciiReplaceAll(newChk);
 //        } else { //UTF requires Java string methods for accuracy
           BufferedString tmpStr = new BufferedString();
-          final Pattern compiledPattern = Pattern.compile(pattern); // Compile the pattern once before replacements
+          final Pattern compiledPattern = RegexCache.pattern(pattern, 0);
           for (int i = 0; i < chk._len; i++) {
             if (chk.isNA(i))
               newChk.addNA();
@@ -132,7 +132,22 @@ public class AstStrSplit extends AstPrimitive {
           for (int row = 0; row < chk.len(); row++)
             for (int col = 0; col < ncs.length; col++)
               ncs[col].addNA();
-        else {
+        else if (chk instanceof CStrDictChunk) { // split each distinct string only once
+          CStrDictChunk dictChk = (CStrDictChunk) chk;
+          String[] dict = dictChk.dictionary();
+          String[][] splits = new String[dict.length][];
+          for (int i = 0; i < dict.length; i++)
+            splits[i] = dict[i].split(splitRegEx);
+          for (int row = 0; row < chk._len; ++row) {
+            int col = 0;
+            int code = dictChk.codeAt(row);
+            if (code != -1)
+              for (String s : splits[code]) // distribute strings among new cols
+                ncs[col++].addStr(s);
+            if (col < ncs.length) // fill remaining cols w/ NA
+              for (; col < ncs.length; col++) ncs[col].addNA();
+          }
+        } else {
           BufferedString tmpStr = new BufferedString();
           for (int row = 0; row < chk._len; ++row) {
             int col = 0;
@@ -165,6 +180,13 @@ public class AstStrSplit extends AstPrimitive {
 
     @Override
     public void map(Chunk chk) {
+      if (chk instanceof CStrDictChunk) { // every row is one of the distinct strings
+        for (String s : ((CStrDictChunk) chk).dictionary()) {
+          int split = s.split(_regex).length;
+          if (split > _maxSplits) _maxSplits = split;
+        }
+        return;
+      }
       BufferedString tmpStr = new BufferedString();
       for (int row = 0; row < chk._len; row++) {
         if (!chk.isNA(row)) {
@@ -75,6 +75,12 @@ public class AstToLower extends AstPrimitive {
             newChk.addNA();
         else if (((CStrChunk) chk)._isAllASCII) { // fast-path operations
           ((CStrChunk) chk).asciiToLower(newChk);
+        } else if (chk instanceof CStrDictChunk) { // lower each distinct string only once
+          CStrDictChunk dictChk = (CStrDictChunk) chk;
+          String[] dict = dictChk.dictionary();
+          for (int i = 0; i < dict.length; i++)
+            dict[i] = dict[i].toLowerCase(Locale.ENGLISH);
+          dictChk.decode(newChk, dict);
         } else { //UTF requires Java string methods for accuracy
           BufferedString tmpStr = new BufferedString();
           for (int i = 0; i < chk._len; i++) {
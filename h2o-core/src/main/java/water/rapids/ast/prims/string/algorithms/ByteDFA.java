@@ -0,0 +1,451 @@
+package water.rapids.ast.prims.string.algorithms;
+
+import water.fvec.CStrChunk;
+import water.fvec.Chunk;
+import water.parser.BufferedString;
+import water.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * Deterministic finite automaton matching directly on the UTF-8 bytes of a
+ * string, so the Rapids string primitives do not need to decode every row
+ * into a Java String.
+ *
+ * Two kinds of automata are built:
+ * <ul>
+ *   <li>{@link #literal(String, boolean)} - a KMP automaton for a fixed
+ *   string; supports counting, replacing and splitting on non-overlapping
+ *   matches with the same semantics as the Java String/regex methods.</li>
+ *   <li>{@link #regex(String, boolean)} - a subset-constructed automaton for a
+ *   simple regular expression (literals, {@code .}, character classes,
+ *   {@code \d \w \s}, groups, {@code |}, {@code * + ?}); supports
+ *   {@link #find} only, because leftmost-first match boundaries of a
+ *   backtracking engine are not preserved by a DFA.</li>
+ * </ul>
+ * Anything else (anchors, counted repetitions, back-references, lookarounds,
+ * ...) is not supported and the caller is expected to fall back to
+ * {@link java.util.regex.Pattern}.
+ *
+ * Instances are immutable and shared by all threads of a node, see {@link RegexCache}.
+ */
+public final class ByteDFA {
+  /** Give up on regexes whose automaton would be larger than this. */
+  static final int MAX_STATES = 1024;
+
+  private final int[] _delta;      // _delta[state<<8 | byte] -> next state
+  private final boolean[] _accept;
+  private final int _length;       // Byte length of the literal, -1 for a regex automaton
+  private final boolean _asciiOnly; // Only valid for inputs without multi-byte characters
+
+  private ByteDFA(int[] delta, boolean[] accept, int length, boolean asciiOnly) {
+    _delta = delta;
+    _accept = accept;
+    _length = length;
+    _asciiOnly = asciiOnly;
+  }
+
+  /** Byte length of the literal this automaton matches. */
+  public int length() { assert isLiteral(); return _length; }
+
+  public boolean isLiteral() { return _length >= 0; }
+
+  /** Can this automaton be used on the strings of the given chunk? */
+  public boolean canMatch(Chunk c) {
+    return !_asciiOnly || (c instanceof CStrChunk && ((CStrChunk) c)._isAllASCII);
+  }
+
+  public boolean find(BufferedString str) {
+    return find(str.getBuffer(), str.getOffset(), str.getOffset() + str.length());
+  }
+
+  /** Does any substring of buf[from, end) match? */
+  public boolean find(byte[] buf, int from, int end) {
+    return findEnd(buf, from, end) != -1;
+  }
+
+  /** Position just past the end of the first match in buf[from, end), or -1 when there is none. */
+  public int findEnd(byte[] buf, int from, int end) {
+    if (_accept[0]) return from;
+    int s = 0;
+    for (int i = from; i < end; i++) {
+      s = _delta[(s << 8) | (buf[i] & 0xFF)];
+      if (_accept[s]) return i + 1;
+    }
+    return -1;
+  }
+
+  /** Number of non-overlapping occurrences of the literal; 0 for an empty literal, like StringUtils.countMatches. */
+  public int countMatches(BufferedString str) {
+    assert isLiteral();
+    if (_length == 0) return 0;
+    final byte[] buf = str.getBuffer();
+    final int end = str.getOffset() + str.length();
+    int cnt = 0;
+    int s = 0;
+    for (int i = str.getOffset(); i < end; i++) {
+      s = _delta[(s << 8) | (buf[i] & 0xFF)];
+      if (s == _length) cnt++; // the accepting state continues like the start state
+    }
+    return cnt;
+  }
+
+  /**
+   * Replaces every non-overlapping occurrence of the (non-empty) literal, the
+   * way String.replace does.  The result is written into the buffer of
+   * {@code out}, which is only reallocated when it is too small.
+   * @return out, pointing at the replaced bytes
+   */
+  public BufferedString replaceAll(BufferedString str, byte[] replacement, BufferedString out) {
+    assert isLiteral() && _length > 0;
+    final byte[] src = str.getBuffer();
+    final int end = str.getOffset() + str.length();
+    int size = str.length() + countMatches(str) * (replacement.length - _length);
+    byte[] dst = out.getBuffer();
+    if (dst == null || dst.length < size)
+      dst = new byte[Math.max(size, dst == null ? 16 : dst.length << 1)];
+    int n = 0;
+    int pos = str.getOffset();
+    int me;
+    while ((me = findEnd(src, pos, end)) != -1) {
+      int ms = me - _length;
+      System.arraycopy(src, pos, dst, n, ms - pos); n += ms - pos;
+      System.arraycopy(replacement, 0, dst, n, replacement.length); n += replacement.length;
+      pos = me;
+    }
+    System.arraycopy(src, pos, dst, n, end - pos); n += end - pos;
+    assert n == size;
+    return out.set(dst, 0, n);
+  }
+
+  // ---------------------------------------------------------------------------
+  // Literal automaton
+
+  /**
+   * Automaton for a fixed string.
+   * @param ignoreCase fold ASCII letters; only valid for ASCII inputs
+   */
+  public static ByteDFA literal(String str, boolean ignoreCase) {
+    byte[] pat = StringUtils.bytesOf(str);
+    if (ignoreCase)
+      for (int i = 0; i < pat.length; i++) pat[i] = lower(pat[i]);
+    final int m = pat.length;
+    int[] delta = new int[(m + 1) << 8];
+    if (m > 0) {
+      // Knuth-Morris-Pratt automaton: state j == number of pattern bytes matched so far
+      delta[pat[0] & 0xFF] = 1;
+      for (int x = 0, j = 1; j < m; j++) {
+        System.arraycopy(delta, x << 8, delta, j << 8, 256);
+        delta[(j << 8) | (pat[j] & 0xFF)] = j + 1;
+        x = delta[(x << 8) | (pat[j] & 0xFF)];
+      }
+      // After a full match continue from scratch, i.e. count non-overlapping matches
+      System.arraycopy(delta, 0, delta, m << 8, 256);
+      if (ignoreCase) foldCase(delta, m + 1);
+    }
+    boolean[] accept = new boolean[m + 1];
+    accept[m] = true;
+    return new ByteDFA(delta, accept, m, ignoreCase);
+  }
+
+  /**
+   * Automaton for a regular expression which only matches a fixed string
+   * (no metacharacters, or only escaped ones), or null for any other regex.
+   */
+  public static ByteDFA literalRegex(String regex, boolean ignoreCase) {
+    StringBuilder sb = new StringBuilder(regex.length());
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        if (++i == regex.length()) return null;
+        c = regex.charAt(i);
+        if (c >= 0x80 || Character.isLetterOrDigit(c)) return null; // \d, \1, \Q, ...
+      } else if (META.indexOf(c) >= 0) return null;
+      sb.append(c);
+    }
+    return literal(sb.toString(), ignoreCase);
+  }
+
+  private static final String META = "\\^$.|?*+()[]{}";
+
+  private static byte lower(byte b) { return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b; }
+
+  // Upper-case ASCII letters behave like their lower-case versions
+  private static void foldCase(int[] delta, int nstates) {
+    for (int s = 0; s < nstates; s++)
+      for (int c = 'A'; c <= 'Z'; c++)
+        delta[(s << 8) | c] = delta[(s << 8) | (c + ('a' - 'A'))];
+  }
+
+  // ---------------------------------------------------------------------------
+  // Regex automaton
+
+  /**
+   * Automaton answering {@link #find} for a simple regular expression, or
+   * null when the regex uses an unsupported construct or is too large.
+   * @param ignoreCase fold ASCII letters; only valid for ASCII inputs
+   */
+  public static ByteDFA regex(String regex, boolean ignoreCase) {
+    try {
+      Parser p = new Parser(regex, ignoreCase);
+      int[] frag = p.alt();
+      if (p._pos != regex.length()) return null; // unbalanced ')'
+      return p._nfa.toDFA(frag[0], frag[1], ignoreCase || p._asciiOnly);
+    } catch (Unsupported e) {
+      return null;
+    }
+  }
+
+  private static class Unsupported extends Exception {
+    Unsupported() { super(null, null, false, false); }
+  }
+
+  /** Thompson NFA; every state either consumes one byte from a set or has only epsilon moves. */
+  private static class Nfa {
+    final ArrayList<BitSet> _sets = new ArrayList<>(); // null for epsilon states
+    final ArrayList<int[]> _outs = new ArrayList<>();
+
+    int add(BitSet set) {
+      _sets.add(set);
+      _outs.add(new int[0]);
+      return _sets.size() - 1;
+    }
+
+    void link(int from, int to) {
+      int[] outs = _outs.get(from);
+      outs = Arrays.copyOf(outs, outs.length + 1);
+      outs[outs.length - 1] = to;
+      _outs.set(from, outs);
+    }
+
+    void closure(BitSet states, int s) {
+      if (states.get(s)) return;
+      states.set(s);
+      if (_sets.get(s) == null)
+        for (int t : _outs.get(s)) closure(states, t);
+    }
+
+    ByteDFA toDFA(int start, int accept, boolean asciiOnly) throws Unsupported {
+      BitSet init = new BitSet();
+      closure(init, start);
+      ArrayList<BitSet> dstates = new ArrayList<>();
+      HashMap<BitSet, Integer> ids = new HashMap<>();
+      dstates.add(init);
+      ids.put(init, 0);
+      int[] delta = new int[256 * 16];
+      for (int d = 0; d < dstates.size(); d++) {
+        if ((d + 1) << 8 > delta.length) delta = Arrays.copyOf(delta, delta.length << 1);
+        BitSet cur = dstates.get(d);
+        if (cur.get(accept)) { // find() stops here, no need for transitions
+          Arrays.fill(delta, d << 8, (d + 1) << 8, d);
+          continue;
+        }
+        for (int b = 0; b < 256; b++) {
+          BitSet next = (BitSet) init.clone(); // unanchored: a match may start at any position
+          for (int s = cur.nextSetBit(0); s >= 0; s = cur.nextSetBit(s + 1)) {
+            BitSet set = _sets.get(s);
+            if (set != null && set.get(b))
+              closure(next, _outs.get(s)[0]);
+          }
+          Integer id = ids.get(next);
+          if (id == null) {
+            if (dstates.size() == MAX_STATES) throw new Unsupported();
+            id = dstates.size();
+            dstates.add(next);
+            ids.put(next, id);
+          }
+          delta[(d << 8) | b] = id;
+        }
+      }
+      boolean[] acc = new boolean[dstates.size()];
+      for (int d = 0; d < acc.length; d++) acc[d] = dstates.get(d).get(accept);
+      return new ByteDFA(Arrays.copyOf(delta, acc.length << 8), acc, -1, asciiOnly);
+    }
+  }
+
+  /** Recursive descent parser producing NFA fragments {start, end}. */
+  private static class Parser {
+    final String _re;
+    final boolean _ignoreCase;
+    final Nfa _nfa = new Nfa();
+    int _pos;
+    boolean _asciiOnly;
+
+    Parser(String re, boolean ignoreCase) { _re = re; _ignoreCase = ignoreCase; }
+
+    private boolean more() { return _pos < _re.length(); }
+    private char peek() { return _re.charAt(_pos); }
+
+    int[] alt() throws Unsupported {
+      int[] frag = concat();
+      while (more() && peek() == '|') {
+        _pos++;
+        int[] other = concat();
+        int s = _nfa.add(null), e = _nfa.add(null);
+        _nfa.link(s, frag[0]); _nfa.link(s, other[0]);
+        _nfa.link(frag[1], e); _nfa.link(other[1], e);
+        frag = new int[]{s, e};
+      }
+      return frag;
+    }
+
+    int[] concat() throws Unsupported {
+      int s = _nfa.add(null);
+      int[] frag = {s, s};
+      while (more() && peek() != '|' && peek() != ')') {
+        int[] next = repeat();
+        _nfa.link(frag[1], next[0]);
+        frag[1] = next[1];
+      }
+      return frag;
+    }
+
+    int[] repeat() throws Unsupported {
+      int[] frag = atom();
+      while (more() && "*+?".indexOf(peek()) >= 0) {
+        char q = _re.charAt(_pos++);
+        if (more() && (peek() == '?' || peek() == '+')) throw new Unsupported(); // lazy & possessive
+        int s = _nfa.add(null), e = _nfa.add(null);
+        _nfa.link(s, frag[0]);
+        if (q != '+') _nfa.link(s, e);          // may be skipped
+        if (q != '?') _nfa.link(frag[1], frag[0]); // may repeat
+        _nfa.link(frag[1], e);
+        frag = new int[]{s, e};
+      }
+      return frag;
+    }
+
+    int[] atom() throws Unsupported {
+      char c = _re.charAt(_pos++);
+      switch (c) {
+        case '(':
+          if (more() && peek() == '?') {
+            if (!_re.startsWith("?:", _pos)) throw new Unsupported(); // lookarounds, inline flags
+            _pos += 2;
+          }
+          int[] frag = alt();
+          if (!more() || peek() != ')') throw new Unsupported();
+          _pos++;
+          return frag;
+        case '.': {
+          _asciiOnly = true;
+          BitSet set = new BitSet(256);
+          set.set(0, 256);
+          set.clear('\n'); set.clear('\r');
+          return single(set);
+        }
+        case '[':
+          return single(charClass());
+        case '\\':
+          return single(escape());
+        case '^': case '$': case '{': case '}': case ']': case ')': case '*': case '+': case '?':
+          throw new Unsupported();
+        default:
+          if (c < 0x80) return single(chars(c));
+          // Multi-byte character: a sequence of bytes acting as one atom
+          int cp = _re.codePointAt(_pos - 1);
+          _pos += Character.charCount(cp) - 1;
+          byte[] bytes = StringUtils.bytesOf(new String(Character.toChars(cp)));
+          int s = _nfa.add(null);
+          int end = s;
+          for (byte b : bytes) {
+            BitSet set = new BitSet(256);
+            set.set(b & 0xFF);
+            int[] f = single(set);
+            _nfa.link(end, f[0]);
+            end = f[1];
+          }
+          return new int[]{s, end};
+      }
+    }
+
+    private int[] single(BitSet set) {
+      int s = _nfa.add(set), e = _nfa.add(null);
+      _nfa.link(s, e);
+      return new int[]{s, e};
+    }
+
+    private BitSet chars(char c) {
+      BitSet set = new BitSet(256);
+      set.set(c);
+      if (_ignoreCase && Character.isLetter(c)) {
+        set.set(Character.toLowerCase(c));
+        set.set(Character.toUpperCase(c));
+      }
+      return set;
+    }
+
+    private BitSet charClass() throws Unsupported {
+      BitSet set = new BitSet(256);
+      boolean negate = more() && peek() == '^';
+      if (negate) _pos++;
+      boolean first = true;
+      while (true) {
+        if (!more()) throw new Unsupported();
+        char c = _re.charAt(_pos++);
+        if (c == ']') {
+          if (first) throw new Unsupported();
+          break;
+        }
+        first = false;
+        if (c == '[' || (c == '&' && more() && peek() == '&')) throw new Unsupported(); // unions, intersections
+        if (c >= 0x80) throw new Unsupported();
+        if (c == '\\') {
+          BitSet esc = escape();
+          if (esc.cardinality() != 1 || _ignoreCase) { set.or(esc); continue; }
+          c = (char) esc.nextSetBit(0);
+        }
+        if (more() && peek() == '-' && _pos + 1 < _re.length() && _re.charAt(_pos + 1) != ']') {
+          _pos++;
+          char hi = _re.charAt(_pos++);
+          if (hi == '\\' || hi == '[' || hi >= 0x80 || hi < c) throw new Unsupported();
+          for (char x = c; x <= hi; x++) set.or(chars(x));
+        } else {
+          set.or(chars(c));
+        }
+      }
+      if (negate) {
+        _asciiOnly = true;
+        set.flip(0, 256);
+      }
+      return set;
+    }
+
+    private BitSet escape() throws Unsupported {
+      if (!more()) throw new Unsupported();
+      char c = _re.charAt(_pos++);
+      switch (c) {
+        case 'd': case 'w': case 's':
+          return predefined(c);
+        case 'D': case 'W': case 'S': {
+          _asciiOnly = true;
+          BitSet set = predefined(Character.toLowerCase(c));
+          set.flip(0, 256);
+          return set;
+        }
+        case 't': return chars('\t');
+        case 'n': return chars('\n');
+        case 'r': return chars('\r');
+        case 'f': return chars('\f');
+        case 'a': return chars('\u0007');
+        case 'e': return chars('\u001B');
+        default:
+          if (c >= 0x80 || Character.isLetterOrDigit(c)) throw new Unsupported(); // \b, \p{..}, \1, \Q, ...
+          return chars(c);
+      }
+    }
+
+    private static BitSet predefined(char c) {
+      BitSet set = new BitSet(256);
+      switch (c) {
+        case 'd': set.set('0', '9' + 1); break;
+        case 'w': set.set('0', '9' + 1); set.set('a', 'z' + 1); set.set('A', 'Z' + 1); set.set('_'); break;
+        default:  set.set(' '); set.set('\t'); set.set('\n'); set.set(0x0B); set.set('\f'); set.set('\r');
+      }
+      return set;
+    }
+  }
+}
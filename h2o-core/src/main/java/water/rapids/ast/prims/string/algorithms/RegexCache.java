@@ -0,0 +1,72 @@
+package water.rapids.ast.prims.string.algorithms;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Node-local cache of compiled regular expressions and {@link ByteDFA}s, so
+ * that string primitives compile a pattern once per node instead of once per
+ * task or chunk.  Compiled objects are immutable and shared by all threads.
+ */
+public final class RegexCache {
+  /** The caches keep this many of the most recently used entries. */
+  static final int MAX_ENTRIES = 1024;
+
+  // Marks patterns that have no ByteDFA (to tell them apart from patterns not compiled yet)
+  private static final ByteDFA UNSUPPORTED = ByteDFA.literal("", false);
+
+  private static final Map<String, Pattern> PATTERNS = lru();
+  private static final Map<String, ByteDFA> AUTOMATA = lru();
+
+  // Lookups happen once per chunk, not per row - a lock is cheap enough
+  private static <V> Map<String, V> lru() {
+    return Collections.synchronizedMap(new LinkedHashMap<String, V>(64, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+        return size() > MAX_ENTRIES;
+      }
+    });
+  }
+
+  private RegexCache() {}
+
+  public static Pattern pattern(String regex, int flags) {
+    String key = flags + ":" + regex;
+    Pattern p = PATTERNS.get(key);
+    if (p == null) {
+      p = Pattern.compile(regex, flags);
+      PATTERNS.put(key, p);
+    }
+    return p;
+  }
+
+  /** Automaton answering find() for the regex, or null when the regex needs java.util.regex. */
+  public static ByteDFA regex(String regex, boolean ignoreCase) {
+    return cached((ignoreCase ? "R:i:" : "R::") + regex, regex, ignoreCase, 'R');
+  }
+
+  /** Automaton for a regex which matches a fixed string, or null for any other regex. */
+  public static ByteDFA literalRegex(String regex, boolean ignoreCase) {
+    return cached((ignoreCase ? "Q:i:" : "Q::") + regex, regex, ignoreCase, 'Q');
+  }
+
+  /** Automaton for a fixed string. */
+  public static ByteDFA literal(String str, boolean ignoreCase) {
+    return cached((ignoreCase ? "L:i:" : "L::") + str, str, ignoreCase, 'L');
+  }
+
+  private static ByteDFA cached(String key, String str, boolean ignoreCase, char kind) {
+    ByteDFA dfa = AUTOMATA.get(key);
+    if (dfa == null) {
+      switch (kind) {
+        case 'R': dfa = ByteDFA.regex(str, ignoreCase); break;
+        case 'Q': dfa = ByteDFA.literalRegex(str, ignoreCase); break;
+        default:  dfa = ByteDFA.literal(str, ignoreCase);
+      }
+      if (dfa == null) dfa = UNSUPPORTED;
+      AUTOMATA.put(key, dfa);
+    }
+    return dfa == UNSUPPORTED ? null : dfa;
+  }
+}
@@ -32,6 +32,7 @@ public class ChunkSummary extends MRTask<ChunkSummary> {
       {"C8","8-byte Integers"},
       {"C16","UUIDs"},
       {"CStr","Strings"},
+      {"CStrDict","Dictionary Strings"},
       {"CUD","Unique Reals"},
       {"C8D","64-bit Reals"},
   };
@@ -0,0 +1,51 @@
+package water.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram, cheap enough to be updated on every call of
+ * a hot path from many threads at once.  Buckets are cumulative only when
+ * read, so recording a sample is a single uncontended {@link LongAdder}
+ * increment plus the sum update.
+ */
+public final class LatencyHistogram {
+  /** Upper bounds of the buckets, in nanoseconds; the last bucket is +Inf. */
+  public static final long[] BOUNDS_NS = {
+          10_000L, 50_000L, 100_000L, 500_000L,                  // 10us .. 500us
+          1_000_000L, 5_000_000L, 10_000_000L, 50_000_000L,      // 1ms .. 50ms
+          100_000_000L, 500_000_000L, 1_000_000_000L,            // 100ms .. 1s
+          5_000_000_000L, 10_000_000_000L, 60_000_000_000L       // 5s .. 60s
+  };
+
+  private final LongAdder[] _counts = new LongAdder[BOUNDS_NS.length + 1];
+  private final LongAdder _sumNs = new LongAdder();
+
+  public LatencyHistogram() {
+    for (int i = 0; i < _counts.length; i++)
+      _counts[i] = new LongAdder();
+  }
+
+  public void record(long nanos) {
+    int b = 0;
+    while (b < BOUNDS_NS.length && nanos > BOUNDS_NS[b]) b++;
+    _counts[b].increment();
+    _sumNs.add(nanos);
+  }
+
+  /** Cumulative counts, one per bucket of {@link #BOUNDS_NS} followed by the +Inf bucket. */
+  public long[] cumulativeCounts() {
+    long[] res = new long[_counts.length];
+    long acc = 0;
+    for (int i = 0; i < res.length; i++)
+      res[i] = acc += _counts[i].sum();
+    return res;
+  }
+
+  public long count() {
+    long n = 0;
+    for (LongAdder c : _counts) n += c.sum();
+    return n;
+  }
+
+  public long sumNanos() { return _sumNs.sum(); }
+}
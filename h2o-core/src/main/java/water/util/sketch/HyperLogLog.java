@@ -0,0 +1,74 @@
+package water.util.sketch;
+
+import water.Iced;
+
+/**
+ * HyperLogLog distinct-count sketch.  Mergeable, so it can be built per chunk
+ * and combined in an MRTask reduce.  With the default precision of 12 (4096
+ * one-byte registers) the relative standard error is about 1.6%.
+ */
+public class HyperLogLog extends Iced<HyperLogLog> {
+  public static final int DEFAULT_PRECISION = 12;
+
+  private int _p;
+  private byte[] _regs;
+
+  public HyperLogLog() { this(DEFAULT_PRECISION); }
+
+  public HyperLogLog(int precision) {
+    assert precision >= 4 && precision <= 18 : "precision " + precision;
+    _p = precision;
+    _regs = new byte[1 << precision];
+  }
+
+  /** Add an item given by its 64-bit hash, see {@link #hash(long)}. */
+  public void addHash(long h) {
+    int idx = (int) (h >>> (64 - _p));
+    // Guard bit keeps the rank bounded when the remaining bits are all zero
+    long w = (h << _p) | (1L << (_p - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(w) + 1);
+    if (rank > _regs[idx]) _regs[idx] = rank;
+  }
+
+  public void merge(HyperLogLog that) {
+    assert _p == that._p : "precision mismatch " + _p + " != " + that._p;
+    for (int i = 0; i < _regs.length; i++)
+      if (that._regs[i] > _regs[i]) _regs[i] = that._regs[i];
+  }
+
+  /** Estimated number of distinct items added. */
+  public long cardinality() {
+    final int m = _regs.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte r : _regs) {
+      sum += Math.scalb(1.0, -r);
+      if (r == 0) zeros++;
+    }
+    double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+    double estimate = alpha * m * (double) m / sum;
+    if (estimate <= 2.5 * m && zeros > 0) // small range correction: linear counting
+      estimate = m * Math.log((double) m / zeros);
+    return Math.round(estimate);
+  }
+
+  /** 64-bit finalizer of MurmurHash3; spreads any long key over all bits. */
+  public static long hash(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  /** 64-bit hash of a byte range (FNV-1a, finalized by {@link #hash(long)}). */
+  public static long hash(byte[] buf, int off, int len) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = off; i < off + len; i++) {
+      h ^= buf[i] & 0xFF;
+      h *= 0x100000001b3L;
+    }
+    return hash(h);
+  }
+}
@@ -0,0 +1,222 @@
+package water.util.sketch;
+
+import water.Iced;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters sketch (Metwally et al.): keeps at most
+ * {@code capacity} monitored items with their approximate counts.  Any item
+ * occurring more than {@code n/capacity} times is guaranteed to be monitored,
+ * and each reported count over-estimates the true count by at most the
+ * reported error.  Items are identified by a long key (e.g. the bits of a
+ * double, or a hash of a string); an optional label can be attached to each
+ * monitored item.  Mergeable, so it can be built per chunk and combined in an
+ * MRTask reduce.
+ */
+public class SpaceSaving extends Iced<SpaceSaving> {
+  public static final int DEFAULT_CAPACITY = 64;
+
+  private int _cap;
+  private int _size;
+  private long[] _keys;
+  private long[] _counts;
+  private long[] _errors;
+  private String[] _labels;
+
+  // Transient lookup structures, rebuilt after deserialization:
+  // an open-addressing table key -> slot+1, and a min-heap of slots by count
+  private transient int[] _table;
+  private transient int[] _heap;
+  private transient int[] _pos;
+
+  public SpaceSaving() { this(DEFAULT_CAPACITY); }
+
+  public SpaceSaving(int capacity) {
+    assert capacity > 0;
+    _cap = capacity;
+    _keys = new long[capacity];
+    _counts = new long[capacity];
+    _errors = new long[capacity];
+    _labels = new String[capacity];
+  }
+
+  public int capacity() { return _cap; }
+  public int size() { return _size; }
+
+  /**
+   * Count an item.
+   * @return The slot of the item if it was not monitored before (so that the
+   * caller can attach a label to it), or -1 if it was already monitored.
+   */
+  public int add(long key, long count) {
+    if (_table == null) reindex();
+    int slot = find(key);
+    if (slot >= 0) {
+      _counts[slot] += count;
+      siftDown(_pos[slot]);
+      return -1;
+    }
+    if (_size < _cap) {
+      slot = _size++;
+      _keys[slot] = key;
+      _counts[slot] = count;
+      _errors[slot] = 0;
+      insert(slot);
+      _heap[slot] = slot;
+      _pos[slot] = slot;
+      siftUp(slot);
+    } else { // Replace the item with the smallest count
+      slot = _heap[0];
+      remove(slot);
+      long min = _counts[slot];
+      _keys[slot] = key;
+      _counts[slot] = min + count;
+      _errors[slot] = min;
+      _labels[slot] = null;
+      insert(slot);
+      siftDown(0);
+    }
+    return slot;
+  }
+
+  public void setLabel(int slot, String label) { _labels[slot] = label; }
+
+  public void merge(SpaceSaving that) {
+    // Items missing from a full sketch may have occurred up to its minimum count
+    final long thisMin = this.minCount(), thatMin = that.minCount();
+    Map<Long, Integer> thatSlots = new HashMap<>();
+    for (int i = 0; i < that._size; i++) thatSlots.put(that._keys[i], i);
+    int n = 0;
+    long[] keys = new long[_size + that._size], counts = new long[keys.length], errors = new long[keys.length];
+    String[] labels = new String[keys.length];
+    for (int i = 0; i < _size; i++) {
+      Integer j = thatSlots.remove(_keys[i]);
+      keys[n] = _keys[i];
+      labels[n] = _labels[i];
+      counts[n] = _counts[i] + (j == null ? thatMin : that._counts[j]);
+      errors[n++] = _errors[i] + (j == null ? thatMin : that._errors[j]);
+    }
+    for (int j = 0; j < that._size; j++) {
+      if (!thatSlots.containsKey(that._keys[j])) continue;
+      keys[n] = that._keys[j];
+      labels[n] = that._labels[j];
+      counts[n] = that._counts[j] + thisMin;
+      errors[n++] = that._errors[j] + thisMin;
+    }
+    int[] order = order(counts, n);
+    _size = Math.min(n, _cap);
+    for (int i = 0; i < _size; i++) {
+      int o = order[i];
+      _keys[i] = keys[o];
+      _counts[i] = counts[o];
+      _errors[i] = errors[o];
+      _labels[i] = labels[o];
+    }
+    Arrays.fill(_labels, _size, _cap, null);
+    reindex();
+  }
+
+  private long minCount() { return _size < _cap ? 0 : _counts[min()]; }
+
+  private int min() {
+    if (_heap != null) return _heap[0];
+    int m = 0;
+    for (int i = 1; i < _size; i++) if (_counts[i] < _counts[m]) m = i;
+    return m;
+  }
+
+  /** Slots ordered by decreasing count. */
+  public int[] top() { return order(_counts, _size); }
+
+  public long key(int slot) { return _keys[slot]; }
+  public long count(int slot) { return _counts[slot]; }
+  public long error(int slot) { return _errors[slot]; }
+  public String label(int slot) { return _labels[slot]; }
+
+  private static int[] order(final long[] counts, int n) {
+    Integer[] idx = new Integer[n];
+    for (int i = 0; i < n; i++) idx[i] = i;
+    Arrays.sort(idx, (a, b) -> Long.compare(counts[b], counts[a]));
+    int[] res = new int[n];
+    for (int i = 0; i < n; i++) res[i] = idx[i];
+    return res;
+  }
+
+  // ---
+  // Lookup table and heap maintenance
+
+  private void reindex() {
+    int tsize = Integer.highestOneBit(Math.max(_cap, 2) * 2 - 1) << 1;
+    _table = new int[tsize];
+    _heap = new int[_cap];
+    _pos = new int[_cap];
+    for (int i = 0; i < _size; i++) {
+      insert(i);
+      _heap[i] = i;
+      _pos[i] = i;
+    }
+    for (int i = (_size >> 1) - 1; i >= 0; i--) siftDown(i);
+  }
+
+  private int bucket(long key) { return (int) HyperLogLog.hash(key) & (_table.length - 1); }
+
+  private int find(long key) {
+    final int mask = _table.length - 1;
+    for (int b = bucket(key); _table[b] != 0; b = (b + 1) & mask)
+      if (_keys[_table[b] - 1] == key) return _table[b] - 1;
+    return -1;
+  }
+
+  private void insert(int slot) {
+    final int mask = _table.length - 1;
+    int b = bucket(_keys[slot]);
+    while (_table[b] != 0) b = (b + 1) & mask;
+    _table[b] = slot + 1;
+  }
+
+  // Linear-probing deletion with backward shift, so no tombstones are needed
+  private void remove(int slot) {
+    final int mask = _table.length - 1;
+    int b = bucket(_keys[slot]);
+    while (_table[b] != slot + 1) b = (b + 1) & mask;
+    int hole = b;
+    for (b = (b + 1) & mask; _table[b] != 0; b = (b + 1) & mask) {
+      int home = bucket(_keys[_table[b] - 1]);
+      // Move the entry into the hole unless its home lies cyclically in (hole, b]
+      if (((b - home) & mask) >= ((b - hole) & mask)) {
+        _table[hole] = _table[b];
+        hole = b;
+      }
+    }
+    _table[hole] = 0;
+  }
+
+  private void siftUp(int i) {
+    while (i > 0) {
+      int parent = (i - 1) >> 1;
+      if (_counts[_heap[parent]] <= _counts[_heap[i]]) break;
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int i) {
+    while (true) {
+      int l = 2 * i + 1, r = l + 1, m = i;
+      if (l < _size && _counts[_heap[l]] < _counts[_heap[m]]) m = l;
+      if (r < _size && _counts[_heap[r]] < _counts[_heap[m]]) m = r;
+      if (m == i) return;
+      swap(i, m);
+      i = m;
+    }
+  }
+
+  private void swap(int i, int j) {
+    int t = _heap[i]; _heap[i] = _heap[j]; _heap[j] = t;
+    _pos[_heap[i]] = i;
+    _pos[_heap[j]] = j;
+  }
+}
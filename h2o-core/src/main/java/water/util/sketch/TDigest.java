@@ -0,0 +1,159 @@
+package water.util.sketch;
+
+import water.Iced;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest for approximate quantiles (Dunning &amp; Ertl).  Values are
+ * buffered and periodically merged into a sorted list of centroids whose size
+ * is bounded by the compression factor; centroids near the tails are kept
+ * small, so extreme quantiles are more accurate than the median.  Mergeable,
+ * so it can be built per chunk and combined in an MRTask reduce.
+ */
+public class TDigest extends Iced<TDigest> {
+  public static final double DEFAULT_COMPRESSION = 100;
+
+  private double _compression;
+  private int _ncentroids;        // Merged centroids, sorted by mean
+  private double[] _means;
+  private double[] _weights;
+  private int _nbuf;              // Unmerged values, stored after the centroids
+  private double _n;              // Total weight, merged and buffered
+  private double _min = Double.POSITIVE_INFINITY;
+  private double _max = Double.NEGATIVE_INFINITY;
+
+  public TDigest() { this(DEFAULT_COMPRESSION); }
+
+  public TDigest(double compression) {
+    _compression = compression;
+    int cap = (int) Math.ceil(compression) * 6 + 10;
+    _means = new double[cap];
+    _weights = new double[cap];
+  }
+
+  public double size() { return _n; }
+  public double min() { return _min; }
+  public double max() { return _max; }
+
+  public void add(double x) { add(x, 1); }
+
+  public void add(double x, double w) {
+    if (Double.isNaN(x) || w <= 0) return;
+    if (_ncentroids + _nbuf == _means.length) compress();
+    int i = _ncentroids + _nbuf++;
+    _means[i] = x;
+    _weights[i] = w;
+    _n += w;
+    if (x < _min) _min = x;
+    if (x > _max) _max = x;
+  }
+
+  public void merge(TDigest that) {
+    if (that._n == 0) return;
+    for (int i = 0; i < that._ncentroids + that._nbuf; i++) {
+      if (_ncentroids + _nbuf == _means.length) compress();
+      int j = _ncentroids + _nbuf++;
+      _means[j] = that._means[i];
+      _weights[j] = that._weights[i];
+      _n += that._weights[i]; // Keep the total exact for the compress above
+    }
+    _min = Math.min(_min, that._min);
+    _max = Math.max(_max, that._max);
+  }
+
+  /** Merge all buffered values into the centroids. */
+  public void compress() {
+    final int cnt = _ncentroids + _nbuf;
+    if (_nbuf == 0) return;
+    sort(_means, _weights, 0, cnt);
+    final double total = _n;
+    int out = 0;
+    double wSoFar = 0;
+    double kLimit = total * q(k(0) + 1);
+    double mean = _means[0], weight = _weights[0];
+    for (int i = 1; i < cnt; i++) {
+      double w = _weights[i];
+      if (wSoFar + weight + w <= kLimit) {
+        weight += w;
+        mean += (_means[i] - mean) * w / weight;
+      } else {
+        wSoFar += weight;
+        _means[out] = mean;
+        _weights[out++] = weight;
+        kLimit = total * q(k(wSoFar / total) + 1);
+        mean = _means[i];
+        weight = w;
+      }
+    }
+    _means[out] = mean;
+    _weights[out++] = weight;
+    _ncentroids = out;
+    _nbuf = 0;
+  }
+
+  // The k1 scale function and its inverse
+  private double k(double q) { return _compression / (2 * Math.PI) * Math.asin(2 * q - 1); }
+  private double q(double k) {
+    double x = k * 2 * Math.PI / _compression;
+    return x >= Math.PI / 2 ? 1 : (Math.sin(x) + 1) / 2;
+  }
+
+  /** Approximate value at quantile p in [0,1], or NaN when no values were added. */
+  public double quantile(double p) {
+    if (_n == 0) return Double.NaN;
+    compress();
+    if (p <= 0) return _min;
+    if (p >= 1) return _max;
+    if (_ncentroids == 1) return _means[0];
+    final double index = p * _n;
+    // Centroids are taken to be centered on their cumulative weight midpoint
+    double left = _weights[0] / 2;
+    if (index < left)
+      return _min + (_means[0] - _min) * (index / left);
+    for (int i = 0; i < _ncentroids - 1; i++) {
+      double right = left + (_weights[i] + _weights[i + 1]) / 2;
+      if (index < right)
+        return _means[i] + (_means[i + 1] - _means[i]) * (index - left) / (right - left);
+      left = right;
+    }
+    double last = _means[_ncentroids - 1];
+    return last + (_max - last) * Math.min(1, (index - left) / (_weights[_ncentroids - 1] / 2));
+  }
+
+  /** Number of centroids after merging the buffer; mostly for testing. */
+  public int centroids() { compress(); return _ncentroids; }
+
+  // Sort means ascending, carrying the weights along
+  private static void sort(double[] keys, double[] vals, int from, int to) {
+    while (to - from > 16) {
+      double pivot = median(keys[from], keys[(from + to) >>> 1], keys[to - 1]);
+      int i = from, j = to - 1;
+      while (i <= j) {
+        while (keys[i] < pivot) i++;
+        while (keys[j] > pivot) j--;
+        if (i <= j) { swap(keys, vals, i++, j--); }
+      }
+      // Recurse into the smaller half
+      if (j - from < to - i) { sort(keys, vals, from, j + 1); from = i; }
+      else { sort(keys, vals, i, to); to = j + 1; }
+    }
+    for (int i = from + 1; i < to; i++)
+      for (int j = i; j > from && keys[j - 1] > keys[j]; j--)
+        swap(keys, vals, j, j - 1);
+  }
+
+  private static double median(double a, double b, double c) {
+    return a < b ? (b < c ? b : Math.max(a, c)) : (a < c ? a : Math.max(b, c));
+  }
+
+  private static void swap(double[] keys, double[] vals, int i, int j) {
+    double t = keys[i]; keys[i] = keys[j]; keys[j] = t;
+    t = vals[i]; vals[i] = vals[j]; vals[j] = t;
+  }
+
+  @Override public String toString() {
+    return "TDigest{n=" + _n + ", centroids=" + _ncentroids + ", buffered=" + _nbuf + ", means=" +
+        Arrays.toString(Arrays.copyOf(_means, Math.min(_ncentroids, 10))) + "}";
+  }
+}
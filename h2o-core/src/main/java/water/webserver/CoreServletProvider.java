@@ -16,6 +16,7 @@ public class CoreServletProvider implements ServletProvider {
     new ServletMeta("/3/DownloadDataset.bin", DatasetServlet.class),
     new ServletMeta("/3/PutKey.bin", PutKeyServlet.class),
     new ServletMeta("/3/PutKey", PutKeyServlet.class),
+    new ServletMeta("/3/Metrics", MetricsServlet.class),
     new ServletMeta("/", RequestServer.class)
   ));
 
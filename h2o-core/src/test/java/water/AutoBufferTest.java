@@ -110,4 +110,38 @@ public class AutoBufferTest extends TestUtil {
     assertEquals("(no name)", AutoBuffer.nameOfClass(new byte[]{0,0,0,0,0}));
   }
 
+  @Test
+  public void testArraysRoundTripThroughStream() {
+    final int n = 3 * AutoBuffer.BBP_BIG._size / 2; // Spans several buffer-fulls
+    long[] bytes = new long[n], shorts = new long[n], ints = new long[n];
+    boolean[] flags = new boolean[n];
+    double[][] rows = new double[100][];
+    for (int i = 0; i < n; i++) {
+      bytes[i] = i % 256;
+      shorts[i] = (i % 60000) - 30000;
+      ints[i] = i * 7919L - Integer.MAX_VALUE / 2;
+      flags[i] = i % 3 == 0;
+    }
+    bytes[0] = 0; bytes[n - 1] = 0; // Leading & trailing zeros are trimmed
+    for (int i = 0; i < rows.length; i++)
+      rows[i] = i % 10 == 0 ? null : new double[]{i, -i, i / 3.0};
+
+    java.io.ByteArrayOutputStream os = new java.io.ByteArrayOutputStream();
+    AutoBuffer ab = new AutoBuffer(os, false);
+    ab.put1(42); // Misalign the arrays w.r.t. the buffer boundaries
+    ab.putA8(bytes).putA8(shorts).putA8(ints).putAZ(flags).putAA8d(rows);
+    ab.close();
+
+    AutoBuffer in = new AutoBuffer(new java.io.ByteArrayInputStream(os.toByteArray()));
+    assertEquals(42, in.get1());
+    assertArrayEquals(bytes, in.getA8());
+    assertArrayEquals(shorts, in.getA8());
+    assertArrayEquals(ints, in.getA8());
+    assertTrue(Arrays.equals(flags, in.getAZ()));
+    double[][] rows2 = in.getAA8d();
+    assertEquals(rows.length, rows2.length);
+    for (int i = 0; i < rows.length; i++)
+      assertArrayEquals(rows[i], rows2[i], 0);
+  }
+
 }
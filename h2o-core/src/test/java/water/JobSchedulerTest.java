@@ -0,0 +1,130 @@
+package water;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Frame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class JobSchedulerTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private int _maxRunning;
+
+  @Before
+  public void limitSlots() {
+    _maxRunning = JobScheduler.MAX_RUNNING;
+    JobScheduler.MAX_RUNNING = 1;
+  }
+
+  @After
+  public void restoreSlots() {
+    JobScheduler.MAX_RUNNING = _maxRunning;
+    JobScheduler.setCurrentTenant(null);
+  }
+
+  private static class Worker extends H2O.H2OCountedCompleter<Worker> {
+    final String _name;
+    final List<String> _order;
+    final CountDownLatch _release;
+    Worker(String name, List<String> order, CountDownLatch release) { _name = name; _order = order; _release = release; }
+    @Override public void compute2() {
+      _order.add(_name);
+      try {
+        _release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      tryComplete();
+    }
+  }
+
+  private static Job<Frame> startJob(String tenant, Worker w) {
+    JobScheduler.setCurrentTenant(tenant);
+    Job<Frame> j = new Job<>(Key.make(), Frame.class.getName(), w._name);
+    return j.start(w, Job.WORK_UNKNOWN);
+  }
+
+  @Test
+  public void testFairShareOrder() {
+    List<String> order = Collections.synchronizedList(new ArrayList<String>());
+    CountDownLatch release = new CountDownLatch(1);
+    Job<Frame> a1 = startJob("tenantA", new Worker("a1", order, release));
+    Job<Frame> a2 = startJob("tenantA", new Worker("a2", order, release));
+    Job<Frame> b1 = startJob("tenantB", new Worker("b1", order, release));
+    assertEquals("tenantA", a1._tenant);
+    assertEquals("tenantB", b1._tenant);
+    assertEquals(Job.JobStatus.PENDING, a2.getStatus());
+    assertEquals(Job.JobStatus.PENDING, b1.getStatus());
+    try { Thread.sleep(10); } catch (InterruptedException ignore) { } // Make sure tenantA accrues some usage
+    release.countDown();
+    a1.get(); a2.get(); b1.get();
+    // tenantB has no usage yet, so it goes ahead of the second job of tenantA
+    assertEquals(3, order.size());
+    assertEquals("a1", order.get(0));
+    assertEquals("b1", order.get(1));
+    assertEquals("a2", order.get(2));
+    assertEquals(Job.JobStatus.SUCCEEDED, a2.getStatus());
+
+    JobScheduler.TenantStats a = null;
+    for (JobScheduler.TenantStats s : JobScheduler.stats())
+      if (s._tenant.equals("tenantA")) a = s;
+    assertNotNull(a);
+    assertEquals(0, a._queued);
+    assertEquals(0, a._running);
+    assertTrue(a._completed >= 2);
+  }
+
+  @Test
+  public void testCancelQueued() {
+    List<String> order = Collections.synchronizedList(new ArrayList<String>());
+    CountDownLatch release = new CountDownLatch(1);
+    Job<Frame> running = startJob("tenantC", new Worker("c1", order, release));
+    Job<Frame> queued = startJob("tenantC", new Worker("c2", order, release));
+    assertTrue(queued.isQueued());
+    assertEquals(0, queued.msec()); // Time spent queued is not runtime
+    queued.stop(); // Completes the queued job as cancelled right away
+    assertTrue(queued.isStopped());
+    assertEquals(Job.JobStatus.STOPPED, queued.getStatus());
+    assertEquals(0, queued.msec());
+    release.countDown();
+    running.get();
+    assertEquals(Collections.singletonList("c1"), order);
+  }
+
+  @Test
+  public void testNestedJobInheritsTenant() {
+    final String[] nestedTenant = new String[1];
+    JobScheduler.setCurrentTenant("tenantD");
+    Job<Frame> parent = new Job<>(Key.make(), Frame.class.getName(), "parent");
+    JobScheduler.setCurrentTenant(null);
+    parent.start(new H2O.H2OCountedCompleter() {
+      @Override public void compute2() {
+        // Created on a F/J thread, like the models of a grid or the cross-validation models
+        nestedTenant[0] = new Job<>(Key.make(), Frame.class.getName(), "nested")._tenant;
+        tryComplete();
+      }
+    }, Job.WORK_UNKNOWN).get();
+    assertEquals("tenantD", nestedTenant[0]);
+    assertEquals(JobScheduler.DEFAULT_TENANT, JobScheduler.currentTenant());
+  }
+
+  @Test
+  public void testParseWeights() {
+    assertEquals(2.0, JobScheduler.parseWeights("alice:2, bob:0.5").get("alice"), 0);
+    assertEquals(0.5, JobScheduler.parseWeights("alice:2, bob:0.5").get("bob"), 0);
+    assertTrue(JobScheduler.parseWeights(null).isEmpty());
+  }
+}
@@ -0,0 +1,137 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Vec;
+import water.util.UnsafeUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class KeyPlacementTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  private static String[] nodes(int n) {
+    String[] ids = new String[n];
+    for (int i = 0; i < n; i++) ids[i] = "10.0.0." + (i + 1) + ":54321";
+    return ids;
+  }
+
+  @Test public void testRingIsBalanced() {
+    KeyPlacement.Ring ring = new KeyPlacement.Ring(nodes(8), 128);
+    int[] counts = new int[8];
+    for (int i = 0; i < 80000; i++)
+      counts[ring.node(KeyPlacement.placementHash(Key.make("key_" + i)))]++;
+    for (int c : counts)
+      assertTrue("Unbalanced ring: " + c, c > 7000 && c < 13000);
+  }
+
+  @Test public void testGrowingMovesOnlyTheNewShare() {
+    KeyPlacement.Ring four = new KeyPlacement.Ring(nodes(4), 128);
+    KeyPlacement.Ring five = new KeyPlacement.Ring(nodes(5), 128);
+    double moved = KeyPlacement.movedFraction(four, five);
+    assertEquals(0.2, moved, 0.05);
+    // Every Key which moves, moves to the new node
+    for (int i = 0; i < 10000; i++) {
+      int h = KeyPlacement.placementHash(Key.make("key_" + i));
+      String before = four.nodeId(four.node(h)), after = five.nodeId(five.node(h));
+      if (!before.equals(after)) assertEquals(nodes(5)[4], after);
+    }
+  }
+
+  @Test public void testShrinkingMovesOnlyTheLostShare() {
+    String[] all = nodes(5);
+    String[] left = new String[]{all[0], all[1], all[3], all[4]};
+    KeyPlacement.Ring five = new KeyPlacement.Ring(all, 128);
+    KeyPlacement.Ring four = new KeyPlacement.Ring(left, 128);
+    for (int i = 0; i < 10000; i++) {
+      int h = KeyPlacement.placementHash(Key.make("key_" + i));
+      String before = five.nodeId(five.node(h)), after = four.nodeId(four.node(h));
+      if (!before.equals(after)) assertEquals(all[2], before);
+    }
+  }
+
+  @Test public void testReplicasAreDistinctNodes() {
+    KeyPlacement.Ring ring = new KeyPlacement.Ring(nodes(3), 16);
+    for (int i = 0; i < 1000; i++) {
+      int h = KeyPlacement.placementHash(Key.make("key_" + i));
+      int a = ring.node(h, 0), b = ring.node(h, 1), c = ring.node(h, 2);
+      assertEquals(a, ring.node(h));
+      assertTrue(a != b && b != c && a != c);
+    }
+  }
+
+  @Test public void testBlocks() {
+    assertEquals(0, KeyPlacement.block(0));
+    assertEquals(63, KeyPlacement.block(63));
+    assertEquals(64, KeyPlacement.block(64));
+    assertEquals(64, KeyPlacement.block(65));
+    assertEquals(128, KeyPlacement.block(192));
+    assertEquals(128, KeyPlacement.block(195));
+    assertEquals(129, KeyPlacement.block(196));
+    int cidx = 0;
+    for (int b = 0; b < 10000; b++) {
+      assertEquals(b, KeyPlacement.block(cidx));
+      cidx += KeyPlacement.blockSize(b);
+      assertEquals(b, KeyPlacement.block(cidx - 1));
+    }
+  }
+
+  @Test public void testChunksAreSpreadWithBoundedLoad() {
+    KeyPlacement.Ring ring = new KeyPlacement.Ring(nodes(4), 128);
+    Key vec = Vec.newKey();
+    // A Vec of few Chunks still lands on distinct nodes
+    Set<Integer> first = new HashSet<>();
+    for (int c = 0; c < 3; c++)
+      first.add(KeyPlacement.chunkNode(ring, Vec.chunkKey(vec, c)));
+    assertEquals(3, first.size());
+    int[] counts = new int[4];
+    for (int c = 0; c < 1000; c++)
+      counts[KeyPlacement.chunkNode(ring, Vec.chunkKey(vec, c))]++;
+    for (int c : counts)
+      assertTrue("Unbalanced Chunks: " + c, c <= Math.ceil(KeyPlacement.LOAD_FACTOR * 1000 / 4));
+  }
+
+  @Test public void testGrowingMovesAboutTheNewShareOfChunks() {
+    List<Key> keys = new ArrayList<>();
+    for (int v = 0; v < 10; v++) {
+      Key vec = Vec.newKey();
+      for (int c = 0; c < 1000; c++)
+        keys.add(Vec.chunkKey(vec, c));
+    }
+    String newNode = nodes(5)[4];
+    Map<String, List<KeyPlacement.Move>> plan = KeyPlacement.plan(keys, nodes(4), nodes(5));
+    int moved = 0;
+    for (List<KeyPlacement.Move> m : plan.values()) moved += m.size();
+    int toNew = plan.containsKey(newNode) ? plan.get(newNode).size() : 0;
+    // About 1/5 of the Chunks move, nearly all of them to the new node
+    assertEquals(0.2, (double) moved / keys.size(), 0.06);
+    assertTrue("Moved to old nodes: " + (moved - toNew), toNew >= 0.8 * moved);
+  }
+
+  @Test public void testPlanKeepsChunksOfAVectorGroupTogether() {
+    Key vec = Vec.VectorGroup.VG_LEN1.addVec();
+    Key other = Vec.VectorGroup.VG_LEN1.addVec();
+    List<Key> keys = new ArrayList<>();
+    for (int c = 0; c < 1000; c++) {
+      keys.add(Vec.chunkKey(vec, c));
+      keys.add(Vec.chunkKey(other, c));
+    }
+    Map<String, List<KeyPlacement.Move>> plan = KeyPlacement.plan(keys, nodes(3), nodes(4));
+    assertFalse(plan.isEmpty());
+    // Chunk #c of both Vecs moves together, to the same node
+    for (Map.Entry<String, List<KeyPlacement.Move>> e : plan.entrySet()) {
+      Set<Integer> moved = new HashSet<>();
+      for (KeyPlacement.Move m : e.getValue()) {
+        int cidx = UnsafeUtils.get4(m._key._kb, 1 + 1 + 4);
+        if (!moved.add(cidx)) moved.remove(cidx);
+      }
+      assertTrue("Chunks moved without their pair: " + moved, moved.isEmpty());
+    }
+  }
+}
@@ -154,5 +154,55 @@ public class MRTaskTest extends TestUtil {
     }
   }
 
-}
+  // Set on every node to release the sleeping straggler once the test is done with it
+  static volatile boolean SLOW_RELEASED;
+
+  private static class ReleaseSlow extends MRTask<ReleaseSlow> {
+    final boolean _released;
+    ReleaseSlow(boolean released) { _released = released; }
+    @Override protected void setupLocal() { SLOW_RELEASED = _released; }
+  }
+
+  // Sleeps on chunks homed on the slow node, so only the straggler's own copy is slow
+  private static class SlowSum extends MRTask<SlowSum> {
+    final int _slowNode;
+    long _sum;
+    SlowSum(int slowNode) { _slowNode = slowNode; }
+    @Override public void map(Chunk c) {
+      if (H2O.SELF.index() == _slowNode && c.vec().chunkKey(c.cidx()).home())
+        try {
+          for (int i = 0; i < 300 && !SLOW_RELEASED; i++) Thread.sleep(100);
+        } catch (InterruptedException ignore) { }
+      for (int i = 0; i < c._len; i++) _sum += c.at8(i);
+    }
+    @Override public void reduce(SlowSum mrt) { _sum += mrt._sum; }
+  }
+
+  @Test
+  public void testSpeculativeStraggler() {
+    MRTask.overrideSpecMinMs(100);
+    new ReleaseSlow(false).doAllNodes();
+    try {
+      Scope.enter();
+      final long len = 100000;
+      Vec v = Scope.track(Vec.makeSeq(len, true)); // Spread over the cloud
+      int slowNode = -1;
+      for (int i = 0; i < v.nChunks() && slowNode < 0; i++) {
+        int home = v.chunkKey(i).home_node().index();
+        if (home != H2O.SELF.index()) slowNode = home;
+      }
+      assertTrue("No chunk homed on a remote node", slowNode >= 0);
+      long backups = MetricsRegistry.SPECULATIVE_BACKUPS.sum();
+      long start = System.currentTimeMillis();
+      SlowSum res = new SlowSum(slowNode).speculative().doAll(v);
+      assertTrue("Straggler was not backed up", System.currentTimeMillis() - start < 20000);
+      assertEquals(len * (len + 1) / 2, res._sum); // Every chunk reduced exactly once
+      assertTrue(MetricsRegistry.SPECULATIVE_BACKUPS.sum() > backups);
+    } finally {
+      new ReleaseSlow(true).doAllNodes();
+      MRTask.overrideSpecMinMs(-1);
+      Scope.exit();
+    }
+  }
 
+}
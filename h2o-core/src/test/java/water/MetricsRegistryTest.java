@@ -0,0 +1,81 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+import water.util.IcedInt;
+import water.util.LatencyHistogram;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class MetricsRegistryTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static class SumTask extends MRTask<SumTask> {
+    double _sum;
+    @Override public void map(Chunk c) { for (int i = 0; i < c._len; i++) _sum += c.atd(i); }
+    @Override public void reduce(SumTask mrt) { _sum += mrt._sum; }
+  }
+
+  private static class Scrape extends DTask<Scrape> {
+    String _text;
+    @Override public void compute2() { _text = MetricsRegistry.scrape(false); tryComplete(); }
+  }
+
+  @Test public void testHistogram() {
+    LatencyHistogram h = new LatencyHistogram();
+    h.record(5_000L);           // first bucket
+    h.record(2_000_000L);       // <= 5ms
+    h.record(100_000_000_000L); // +Inf
+    long[] counts = h.cumulativeCounts();
+    assertEquals(1, counts[0]);
+    assertEquals(1, counts[4]);
+    assertEquals(2, counts[5]);
+    assertEquals(2, counts[counts.length - 2]);
+    assertEquals(3, counts[counts.length - 1]);
+    assertEquals(3, h.count());
+    assertEquals(100_002_005_000L, h.sumNanos());
+  }
+
+  @Test public void testScrape() {
+    Vec v = null;
+    try {
+      v = Vec.makeCon(1, 10000, 10, false);
+      SumTask t = new SumTask().doAll(v);
+      assertEquals(10000, t._sum, 0);
+      DKV.put(Key.make("metrics_test"), new IcedInt(1));
+      assertNotNull(DKV.get(Key.make("metrics_test")));
+
+      String text = MetricsRegistry.scrape(false);
+      String task = "task=\"" + SumTask.class.getName() + "\"";
+      assertTrue(text.contains("# TYPE h2o_mrtask_map_seconds histogram"));
+      // Each node counts the map() calls of the chunks it holds
+      long maps = 0;
+      StringBuilder all = new StringBuilder();
+      for (H2ONode node : H2O.CLOUD.members()) {
+        String nodeText = RPC.call(node, new Scrape()).get()._text;
+        Matcher m = Pattern.compile("h2o_mrtask_map_seconds_count\\{node=\"" + Pattern.quote(node.getIpPortString()) +
+                "\"," + Pattern.quote(task) + "\\} (\\d+)").matcher(nodeText);
+        if (m.find()) maps += Long.parseLong(m.group(1));
+        all.append(nodeText);
+      }
+      assertEquals(v.nChunks(), maps);
+      assertTrue(all.toString().contains("le=\"+Inf\"}"));
+      assertTrue(text.contains("# TYPE h2o_dkv_gets_total counter"));
+      assertTrue(text.contains("h2o_fj_queued_tasks{"));
+      assertFalse(text.contains("# EOF"));
+
+      String om = MetricsRegistry.scrape(true);
+      assertTrue(om.contains("# TYPE h2o_dkv_gets counter"));
+      assertTrue(om.contains("h2o_dkv_puts_total{"));
+      assertTrue(om.endsWith("# EOF\n"));
+    } finally {
+      DKV.remove(Key.make("metrics_test"));
+      if (v != null) v.remove();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package water;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Frame;
+
+import static org.junit.Assert.*;
+
+public class ReplicaCacheTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(3); }
+
+  // Replica budget of the tests, far below the configured one
+  private static final long MAX_BYTES = 5000;
+  private Key[] _keys;
+
+  @Before
+  public void reset() {
+    ReplicaCache.reset();
+  }
+
+  @After
+  public void cleanup() {
+    if (_keys != null)
+      for (Key k : _keys) DKV.remove(k);
+    ReplicaCache.reset();
+  }
+
+  // Keys homed on another node, whose Values are not cached on this node
+  private Key[] remoteKeys(int n) {
+    H2ONode remote = H2O.CLOUD._memary[0] == H2O.SELF ? H2O.CLOUD._memary[1] : H2O.CLOUD._memary[0];
+    Key[] keys = new Key[n];
+    Futures fs = new Futures();
+    for (int i = 0; i < n; i++) {
+      keys[i] = Key.make((byte) 1, Key.HIDDEN_USER_KEY, true, remote);
+      byte[] bits = new byte[1000];
+      bits[0] = (byte) i;
+      DKV.put(keys[i], new Value(keys[i], bits), fs, true);
+    }
+    fs.blockForPending();
+    return _keys = keys;
+  }
+
+  // Get a remote Key, re-admitting its replica against the test budget
+  private static Value get(Key key) {
+    Value val = DKV.get(key);
+    ReplicaCache.admit(key, val, MAX_BYTES);
+    return val;
+  }
+
+  @Test
+  public void testEvictsOverBudget() {
+    Key[] keys = remoteKeys(10);
+    for (int i = 0; i < keys.length; i++)
+      assertEquals(i, get(keys[i]).memOrLoad()[0]);
+    assertEquals(10, ReplicaCache.MISSES.sum());
+    assertTrue(ReplicaCache.bytes() <= MAX_BYTES);
+    assertTrue(ReplicaCache.EVICTIONS.sum() + ReplicaCache.REJECTIONS.sum() > 0);
+    // Dropped replicas are simply fetched again
+    for (int i = 0; i < keys.length; i++)
+      assertEquals(i, get(keys[i]).memOrLoad()[0]);
+    assertTrue(ReplicaCache.HITS.sum() > 0);
+    assertTrue(ReplicaCache.bytes() <= MAX_BYTES);
+  }
+
+  @Test
+  public void testPinnedKeysStay() {
+    Key[] keys = remoteKeys(10);
+    Job<Frame> job = new Job<>(Key.<Frame>make(), Frame.class.getName(), "pinning");
+    ReplicaCache.pin(job, keys[0]);
+    assertEquals(0, get(keys[0]).memOrLoad()[0]);
+    for (int i = 1; i < keys.length; i++)
+      get(keys[i]);
+    assertTrue(ReplicaCache.contains(keys[0]));
+    ReplicaCache.unpin(job._key);
+  }
+
+  @Test
+  public void testPinsCountedPerJob() {
+    Key[] keys = remoteKeys(2);
+    Job<Frame> job1 = new Job<>(Key.<Frame>make(), Frame.class.getName(), "pinning1");
+    Job<Frame> job2 = new Job<>(Key.<Frame>make(), Frame.class.getName(), "pinning2");
+    ReplicaCache.pin(job1, keys[0], keys[1]);
+    ReplicaCache.pin(job2, keys[0]);
+    ReplicaCache.unpin(job1._key); // Released on this node before returning
+    assertFalse(ReplicaCache.isPinned(keys[1]));
+    assertTrue(ReplicaCache.isPinned(keys[0])); // Still pinned by job2
+    ReplicaCache.unpin(job2._key);
+    assertFalse(ReplicaCache.isPinned(keys[0]));
+  }
+
+  @Test
+  public void testDropEverywhere() {
+    Key[] keys = remoteKeys(3);
+    for (Key k : keys) DKV.get(k);
+    assertEquals(3, ReplicaCache.size());
+    ReplicaCache.drop(keys);
+    assertEquals(0, ReplicaCache.size());
+    assertEquals(0, ReplicaCache.bytes());
+    assertEquals(1, DKV.get(keys[1]).memOrLoad()[0]);
+  }
+
+  @Test
+  public void testFrequencySketch() {
+    ReplicaCache.FrequencySketch sketch = new ReplicaCache.FrequencySketch();
+    Key hot = Key.make("hot"), cold = Key.make("cold");
+    for (int i = 0; i < 5; i++) sketch.increment(hot);
+    sketch.increment(cold);
+    assertTrue(sketch.frequency(hot) >= 5);
+    assertTrue(sketch.frequency(hot) > sketch.frequency(cold));
+  }
+}
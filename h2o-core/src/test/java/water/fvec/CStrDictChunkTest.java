@@ -0,0 +1,103 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.IcedUtils;
+import water.TestUtil;
+import water.parser.BufferedString;
+
+import static org.junit.Assert.*;
+
+public class CStrDictChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static final String[] VALS = {"Alpha ", "beta", " Gamma", "DELTA"};
+
+  private static Chunk makeChunk(int len) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < len; i++) {
+      if (i % 7 == 3) nc.addNA();
+      else nc.addStr(VALS[i % VALS.length]);
+    }
+    return nc.compress();
+  }
+
+  private static String expected(int i) {
+    return i % 7 == 3 ? null : VALS[i % VALS.length];
+  }
+
+  @Test
+  public void testCompress() {
+    Chunk c = makeChunk(1000);
+    assertTrue(c instanceof CStrDictChunk);
+    assertEquals(1000, c._len);
+    assertEquals(VALS.length, ((CStrDictChunk) c).dictSize());
+    BufferedString tmpStr = new BufferedString();
+    for (int i = 0; i < c._len; i++) {
+      if (expected(i) == null) assertTrue(c.isNA(i));
+      else assertEquals(expected(i), c.atStr(tmpStr, i).toString());
+    }
+    Chunk c2 = IcedUtils.deepCopy(c);
+    assertTrue(c2 instanceof CStrDictChunk);
+    assertEquals(c._len, c2._len);
+    for (int i = 0; i < c2._len; i++) {
+      if (expected(i) == null) assertTrue(c2.isNA(i));
+      else assertEquals(expected(i), c2.atStr(tmpStr, i).toString());
+    }
+  }
+
+  @Test
+  public void testDistinctStaysPlain() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 1000; i++) nc.addStr("Foo" + i);
+    assertFalse(nc.compress() instanceof CStrDictChunk);
+  }
+
+  @Test
+  public void testSparse() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 100; i++) nc.addNA();
+    nc.addStr("foo");
+    nc.addNA();
+    nc.addStr("bar");
+    Chunk c = nc.compress();
+    assertTrue(c instanceof CStrDictChunk);
+    assertTrue(c.isNA(0) && c.isNA(99) && c.isNA(101));
+    assertEquals("foo", c.atStr(new BufferedString(), 100).toString());
+    assertEquals("bar", c.atStr(new BufferedString(), 102).toString());
+  }
+
+  @Test
+  public void testWideCodes() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 100000; i++) nc.addStr("value-" + (i % 1000));
+    Chunk c = nc.compress();
+    assertTrue(c instanceof CStrDictChunk);
+    BufferedString tmpStr = new BufferedString();
+    for (int i = 0; i < c._len; i++)
+      assertEquals("value-" + (i % 1000), c.atStr(tmpStr, i).toString());
+  }
+
+  @Test
+  public void testAsciiOps() {
+    CStrDictChunk c = (CStrDictChunk) makeChunk(100);
+    Chunk lower = c.asciiToLower(new NewChunk(null, 0)).compress();
+    Chunk upper = c.asciiToUpper(new NewChunk(null, 0)).compress();
+    Chunk trim = c.asciiTrim(new NewChunk(null, 0)).compress();
+    Chunk sub = c.asciiSubstring(new NewChunk(null, 0), 1, 4).compress();
+    Chunk len = c.asciiLength(new NewChunk(null, 0)).compress();
+    BufferedString tmpStr = new BufferedString();
+    for (int i = 0; i < c._len; i++) {
+      String s = expected(i);
+      if (s == null) {
+        assertTrue(lower.isNA(i) && upper.isNA(i) && trim.isNA(i) && sub.isNA(i) && len.isNA(i));
+        continue;
+      }
+      assertEquals(s.toLowerCase(), lower.atStr(tmpStr, i).toString());
+      assertEquals(s.toUpperCase(), upper.atStr(tmpStr, i).toString());
+      assertEquals(s.trim(), trim.atStr(tmpStr, i).toString());
+      assertEquals(s.substring(1, 4), sub.atStr(tmpStr, i).toString());
+      assertEquals(s.length(), len.at8(i));
+    }
+  }
+}
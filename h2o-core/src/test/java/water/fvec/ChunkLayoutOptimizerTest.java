@@ -0,0 +1,41 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class ChunkLayoutOptimizerTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testNarrowFrameGetsChunksForAllCores() {
+    // 8 bytes per row: a single core scans the whole frame within the target time
+    int chunks = ChunkLayoutOptimizer.optimalChunks(1_000_000, 8_000_000, 1, 8, 1, 1e9, 10);
+    assertEquals(32, chunks);
+  }
+
+  @Test public void testWideFrameGetsFewerBiggerChunks() {
+    // 80kB per row: 125 rows per chunk fill the target time
+    int chunks = ChunkLayoutOptimizer.optimalChunks(10_000, 800_000_000, 10_000, 8, 1, 1e9, 10);
+    assertEquals(80, chunks);
+    assertTrue(ChunkLayoutOptimizer.needsRechunk(1000, chunks));
+    assertFalse(ChunkLayoutOptimizer.needsRechunk(100, chunks));
+  }
+
+  @Test public void testBigFrameIsSizedByWork() {
+    int chunks = ChunkLayoutOptimizer.optimalChunks(1_000_000_000L, 8_000_000_000L, 1, 8, 1, 1e9, 10);
+    assertEquals(800, chunks);
+    // A slower node means smaller chunks
+    assertEquals(1600, ChunkLayoutOptimizer.optimalChunks(1_000_000_000L, 8_000_000_000L, 1, 8, 1, 5e8, 10));
+  }
+
+  @Test public void testTinyFrame() {
+    assertEquals(1, ChunkLayoutOptimizer.optimalChunks(5, 40, 1, 8, 1, 1e9, 10));
+    assertEquals(10, ChunkLayoutOptimizer.optimalChunks(100, 800, 1, 8, 1, 1e9, 10));
+  }
+
+  @Test public void testBandwidthModel() {
+    assertTrue(ChunkLayoutOptimizer.bytesPerSecPerCore() > 0);
+  }
+}
@@ -0,0 +1,84 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Key;
+import water.Scope;
+import water.TestUtil;
+import water.util.ArrayUtils;
+
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.Assert.*;
+
+public class ChunkRebalancerTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(3); }
+
+  private static final IntUnaryOperator ROUND_ROBIN = cidx -> cidx % 3;
+
+  @Test public void testPlanEvensOutNodes() {
+    // Every big chunk lands on node 0
+    long[] espc = {0, 1000, 1001, 1002, 2002, 2003, 2004, 3004, 3005, 3006};
+    assertEquals(3.0, ChunkRebalancer.skew(ChunkRebalancer.rowsPerNode(espc, 3, ROUND_ROBIN)), 0.01);
+    long[] plan = ChunkRebalancer.plan(espc, 3, 3, ROUND_ROBIN);
+    assertEquals(0, plan[0]);
+    assertEquals(3006, plan[plan.length - 1]);
+    for (int i = 1; i < plan.length; i++) assertTrue(plan[i] >= plan[i - 1]);
+    assertTrue(ChunkRebalancer.skew(ChunkRebalancer.rowsPerNode(plan, 3, ROUND_ROBIN)) < 1.05);
+    assertTrue(ChunkRebalancer.movedRows(espc, plan, ROUND_ROBIN) < 3006);
+  }
+
+  @Test public void testPlanKeepsBalancedChunks() {
+    long[] espc = {0, 100, 200, 300, 400, 500, 600};
+    assertArrayEquals(espc, ChunkRebalancer.plan(espc, 3, 6, ROUND_ROBIN));
+    assertEquals(0, ChunkRebalancer.movedRows(espc, espc, ROUND_ROBIN));
+  }
+
+  @Test public void testPlanKeepsChunksOnTheirNode() {
+    // Splitting the first chunk shifts the indices of the rest; only chunks that
+    // keep their node keep their row range
+    long[] espc = {0, 400, 500, 600, 700, 800, 900};
+    long[] plan = ChunkRebalancer.plan(espc, 3, 9, ROUND_ROBIN);
+    for (int j = 0; j < plan.length - 1; j++)
+      for (int i = 0; i < espc.length - 1; i++)
+        if (plan[j] == espc[i] && plan[j + 1] == espc[i + 1])
+          assertEquals(ROUND_ROBIN.applyAsInt(i), ROUND_ROBIN.applyAsInt(j));
+    assertTrue(ChunkRebalancer.movedRows(espc, plan, ROUND_ROBIN) < 900);
+  }
+
+  @Test public void testPlanMergesTinyChunks() {
+    long[] espc = new long[301];
+    for (int i = 0; i < espc.length; i++) espc[i] = i;
+    long[] plan = ChunkRebalancer.plan(espc, 3, 6, ROUND_ROBIN);
+    assertTrue(plan.length - 1 < 20);
+    assertEquals(1.0, ChunkRebalancer.skew(ChunkRebalancer.rowsPerNode(plan, 3, ROUND_ROBIN)), 0.05);
+  }
+
+  @Test public void testBalanceFrame() {
+    Scope.enter();
+    try {
+      double[] data = new double[3006];
+      for (int i = 0; i < data.length; i++) data[i] = i;
+      Frame fr = new TestFrameBuilder()
+              .withName("skewed")
+              .withColNames("x")
+              .withVecTypes(Vec.T_NUM)
+              .withDataForCol(0, data)
+              .withChunkLayout(1000, 1, 1, 1000, 1, 1, 1000, 1, 1)
+              .build();
+      ChunkRebalancer.Load before = ChunkRebalancer.measure(fr);
+      assertEquals(3006, ArrayUtils.sum(before._rows));
+      Frame balanced = ChunkRebalancer.balance(fr, Key.<Frame>make("balanced"), 1.2);
+      assertNotNull(balanced);
+      Scope.track(balanced);
+      ChunkRebalancer.Load after = ChunkRebalancer.measure(balanced);
+      assertTrue(after.skew() < before.skew());
+      assertTrue(after.skew() <= 1.2);
+      assertFrameEquals(fr, balanced, 0);
+      // Already balanced: nothing to do
+      assertNull(ChunkRebalancer.balance(balanced, Key.<Frame>make("balanced2"), 1.2));
+    } finally {
+      Scope.exit();
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.*;
+import water.exceptions.H2OIllegalArgumentException;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class FrameSnapshotTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testSaveAndRestore() throws IOException {
+    try {
+      Scope.enter();
+      Frame fr = new TestFrameBuilder()
+              .withColNames("num", "cat", "str", "int")
+              .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_STR, Vec.T_NUM)
+              .withDataForCol(0, ard(1.5, Double.NaN, -3, 4.25, 0, 1e10, 7, 8))
+              .withDataForCol(1, ar("a", "b", null, "a", "c", "b", "a", "c"))
+              .withDataForCol(2, ar("x", "yy", "zzz", null, "", "x", "y", "z"))
+              .withDataForCol(3, ard(1, 2, 3, 4, 5, 6, 7, 8))
+              .withChunkLayout(3, 0, 4, 1)
+              .build();
+      File dir = tmpFolder.newFolder("snapshot");
+      FrameSnapshot.save(fr, dir.getPath(), true).get();
+      assertTrue(new File(dir, FrameSnapshot.META_FILE).exists());
+      assertEquals(fr.anyVec().nChunks() + 1, dir.listFiles().length);
+
+      Frame restored = Scope.track(FrameSnapshot.load(dir.getPath(), Key.<Frame>make()).get());
+      assertBitIdentical(fr, restored);
+      assertArrayEquals(fr.names(), restored.names());
+      assertArrayEquals(fr.types(), restored.types());
+      assertArrayEquals(fr.anyVec().espc(), restored.anyVec().espc());
+      for (int i = 0; i < fr.numCols(); i++) {
+        assertArrayEquals(fr.vec(i).domain(), restored.vec(i).domain());
+        // Chunks keep their compression
+        for (int c = 0; c < fr.anyVec().nChunks(); c++)
+          assertEquals(fr.vec(i).chunkForChunkIdx(c).getClass(), restored.vec(i).chunkForChunkIdx(c).getClass());
+      }
+      // Rollups come with the snapshot
+      assertEquals(fr.vec(0).mean(), restored.vec(0).mean(), 0);
+      assertEquals(fr.vec(1).naCnt(), restored.vec(1).naCnt());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testViewsAreMaterialized() throws IOException {
+    try {
+      Scope.enter();
+      Frame fr = new TestFrameBuilder()
+              .withColNames("cat")
+              .withVecTypes(Vec.T_CAT)
+              .withDataForCol(0, ar("a", "b", "b", "a"))
+              .build();
+      Vec adapted = Scope.track(fr.vec(0).adaptTo(new String[]{"b", "a", "c"}));
+      assertTrue(adapted instanceof CategoricalWrappedVec);
+      Frame view = new Frame(Key.<Frame>make(), new String[]{"adapted"}, new Vec[]{adapted});
+      DKV.put(view);
+      Scope.track(view);
+      File dir = tmpFolder.newFolder("snapshot");
+      FrameSnapshot.save(view, dir.getPath(), true).get();
+      Frame restored = Scope.track(FrameSnapshot.load(dir.getPath(), Key.<Frame>make()).get());
+      assertEquals(Vec.class, restored.vec(0).getClass());
+      assertArrayEquals(new String[]{"b", "a", "c"}, restored.vec(0).domain());
+      assertVecEquals(adapted, restored.vec(0), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testIncompleteSnapshotIsRejected() throws IOException {
+    File dir = tmpFolder.newFolder("empty");
+    try {
+      FrameSnapshot.load(dir.getPath(), null);
+      fail("Should not restore from a directory without metadata");
+    } catch (H2OIllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("No complete frame snapshot"));
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.rapids.Rapids;
+import water.rapids.Val;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class VecSketchesTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testNumeric() {
+    Scope.enter();
+    try {
+      double[] vals = new double[100000];
+      for (int i = 0; i < vals.length; i++)
+        vals[i] = i % 10 == 0 ? -1 : i % 4999; // -1 is the heavy hitter
+      double[] sorted = vals.clone();
+      Arrays.sort(sorted);
+      Frame fr = Scope.track(new TestFrameBuilder()
+          .withName("numFrame")
+          .withColNames("x")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, vals)
+          .withChunkLayout(30000, 30000, 40000)
+          .build());
+      VecSketches sk = fr.vec(0).sketches();
+      assertSame(sk, fr.vec(0).lazy_sketches());
+      assertEquals(vals.length, sk.count());
+      assertEquals(5000, sk.distinctCount(), 5000 * 0.05);
+      assertEquals(sorted[sorted.length / 2], sk.quantile(0.5), 5000 * 0.01);
+      assertEquals("-1", sk.topValues()[0]);
+      assertEquals(10000, sk.topCounts()[0]);
+
+      Val val = Rapids.exec("(approx.distinct numFrame)");
+      assertEquals(sk.distinctCount(), val.getNums()[0], 0);
+      Frame qs = Scope.track(Rapids.exec("(approx.quantile numFrame [0.1 0.9])").getFrame());
+      assertEquals(2, qs.numRows());
+      assertEquals(sorted[sorted.length / 10], qs.vec(1).at(0), 5000 * 0.01);
+      assertEquals(sorted[sorted.length / 10 * 9], qs.vec(1).at(1), 5000 * 0.01);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testStrings() {
+    Scope.enter();
+    try {
+      String[] vals = new String[1000];
+      for (int i = 0; i < vals.length; i++)
+        vals[i] = i % 3 == 0 ? null : i % 2 == 0 ? "foo" : "bar" + (i % 100);
+      Frame fr = Scope.track(new TestFrameBuilder()
+          .withName("strFrame")
+          .withColNames("s")
+          .withVecTypes(Vec.T_STR)
+          .withDataForCol(0, vals)
+          .build());
+      VecSketches sk = fr.vec(0).sketches();
+      assertEquals(666, sk.count());
+      assertEquals(51, sk.distinctCount(), 2);
+      assertEquals("foo", sk.topValues()[0]);
+      assertEquals(333, sk.topCounts()[0]);
+      assertTrue(Double.isNaN(sk.quantile(0.5)));
+
+      Frame hh = Scope.track(Rapids.exec("(heavy.hitters strFrame)").getFrame());
+      assertEquals("foo", hh.vec(0).stringAt(0));
+      assertEquals(333, hh.vec(1).at8(0));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testCategorical() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(new TestFrameBuilder()
+          .withName("catFrame")
+          .withColNames("c")
+          .withVecTypes(Vec.T_CAT)
+          .withDataForCol(0, ar("a", "b", "b", "c", "b", null))
+          .build());
+      VecSketches sk = fr.vec(0).sketches();
+      assertEquals(3, sk.distinctCount());
+      assertArrayEquals(new String[]{"b", "a", "c"}, sk.topValues());
+      assertArrayEquals(new long[]{3, 1, 1}, sk.topCounts());
+    } finally {
+      Scope.exit();
+    }
+  }
+}
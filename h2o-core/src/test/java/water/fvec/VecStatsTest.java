@@ -4,9 +4,12 @@ import static org.junit.Assert.*;
 import org.junit.*;
 
 import java.util.Random;
+import water.DTask;
 import water.Futures;
 import water.TestUtil;
 import water.Key;
+import water.MRTask;
+import water.RPC;
 
 public class VecStatsTest extends TestUtil {
   @BeforeClass public static void setup() { stall_till_cloudsize(1); }
@@ -56,6 +59,94 @@ public class VecStatsTest extends TestUtil {
     }
   }
 
+  // The partial rollups are cached on the home node of each chunk.  Needs all
+  // the nodes started with -Dsys.ai.h2o.rollups.cache_partials=true.
+  @Test public void testPartialRollupsReused() {
+    Assume.assumeTrue(RollupStats.CACHE_PARTIALS);
+    Vec v = null;
+    try {
+      v = Vec.makeCon(0, 3000, 10, false); // 1024 rows per chunk
+      new MRTask() {
+        @Override public void map(Chunk c) {
+          for( int r = 0; r < c._len; r++ )
+            c.set(r, r + 1 + c._start);
+        }
+      }.doAll(v);
+      assertEquals(3, v.nChunks());
+      assertEquals(1500.5, v.mean(), 1e-9);
+      HomePartial p0 = HomePartial.of(v.chunkKey(0));
+      int last = v.nChunks() - 1;
+      assertTrue(p0._found);
+      assertTrue(HomePartial.of(v.chunkKey(last))._found);
+
+      // Modify the last chunk only
+      long row = v.length() - 1;
+      v.set(row, 3000 + 3000);
+      assertEquals(1501.5, v.mean(), 1e-9);
+      assertEquals(6000, v.max(), 0);
+      assertEquals(p0._identity, HomePartial.of(v.chunkKey(0))._identity);
+      assertEquals(6000, HomePartial.of(v.chunkKey(last))._max, 0);
+
+      // The partials go away with the chunks
+      Key k0 = v.chunkKey(0);
+      v.remove();
+      v = null;
+      assertFalse(HomePartial.of(k0)._found);
+    } finally {
+      if( v != null ) v.remove();
+    }
+  }
+
+  @Test public void testPartialSketchesReused() {
+    Assume.assumeTrue(RollupStats.CACHE_PARTIALS);
+    Vec v = null;
+    try {
+      v = Vec.makeCon(0, 3000, 10, false); // 1024 rows per chunk
+      new MRTask() {
+        @Override public void map(Chunk c) {
+          for( int r = 0; r < c._len; r++ )
+            c.set(r, (r + c._start) % 500);
+        }
+      }.doAll(v);
+      assertEquals(3, v.nChunks());
+      assertEquals(3000, v.sketches().count());
+
+      // Modify the last chunk only; the sketches of the others come from their
+      // cached partials.  The copy has fresh chunks, so it is sketched from scratch.
+      v.set(v.length() - 1, 1000);
+      VecSketches cached = v.sketches();
+      Vec copy = v.makeCopy();
+      try {
+        VecSketches fresh = copy.sketches();
+        assertEquals(fresh.count(), cached.count());
+        assertEquals(fresh.distinctCount(), cached.distinctCount());
+      } finally {
+        copy.remove();
+      }
+    } finally {
+      if( v != null ) v.remove();
+    }
+  }
+
+  // Looks up the cached partial rollups of a chunk on its home node
+  private static class HomePartial extends DTask<HomePartial> {
+    final Key _ckey;
+    boolean _found;   // Outputs
+    int _identity;    // Identity of the cached partial, to tell a reused one from a recomputed one
+    double _max;
+    HomePartial(Key ckey) { _ckey = ckey; }
+    static HomePartial of(Key ckey) { return RPC.call(ckey.home_node(), new HomePartial(ckey)).get(); }
+    @Override public void compute2() {
+      RollupStats rs = RollupStats.cachedPartial(_ckey);
+      if( rs != null ) {
+        _found = true;
+        _identity = System.identityHashCode(rs);
+        _max = rs._maxs[0];
+      }
+      tryComplete();
+    }
+  }
+
   @Test public void testPCTiles() {
     // Simplified version of tests in runit_quantile_1_golden.R. There we test probs=seq(0,1,by=0.01)
     Vec vec = vec(5 , 8 ,  9 , 12 , 13 , 16 , 18 , 23 , 27 , 28 , 30 , 31 , 33 , 34 , 43,  45,  48, 161);
@@ -0,0 +1,168 @@
+package water.parser;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.DKV;
+import water.H2O;
+import water.Job;
+import water.Key;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.FrameSnapshot;
+import water.fvec.NFSFileVec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.*;
+
+public class ParseCacheTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  // Cache directory of the tests, passed to ParseCache.entry instead of the configured one
+  private String _dir;
+
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Before public void resetCache() throws IOException {
+    Assume.assumeFalse("Parses would also go through the configured cache", ParseCache.enabled());
+    _dir = tmpFolder.newFolder("parse_cache").getPath();
+    ParseCache.reset();
+  }
+
+  private File csv(String name, String content) throws IOException {
+    File f = new File(tmpFolder.getRoot(), name);
+    Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    return f;
+  }
+
+  // Cache entry of parsing the file with the guessed setup
+  private String entry(File f) {
+    NFSFileVec nfs = NFSFileVec.make(f);
+    try {
+      Key[] keys = new Key[]{nfs._key};
+      return ParseCache.entry(_dir, keys, ParseSetup.guessSetup(keys, false, ParseSetup.GUESS_HEADER));
+    } finally {
+      nfs.remove();
+    }
+  }
+
+  private static Frame parse(File f) {
+    NFSFileVec nfs = NFSFileVec.make(f);
+    return ParseDataset.parse(Key.make(), nfs._key);
+  }
+
+  // Restore an entry into the result of a parse-like Job; null on a miss
+  private static Frame restore(final String entry) {
+    final Job<Frame> job = new Job<>(Key.<Frame>make(), Frame.class.getName(), "Restore");
+    final Frame[] restored = new Frame[1];
+    job.start(new H2O.H2OCountedCompleter() {
+      @Override public void compute2() {
+        new Frame(job._result).delete_and_lock(job);
+        restored[0] = ParseCache.restore(entry, job);
+        if (restored[0] == null)
+          DKV.<Frame>getGet(job._result).unlock(job).delete();
+        tryComplete();
+      }
+    }, 1).get();
+    return restored[0];
+  }
+
+  @Test public void testStoredParseIsRestored() throws IOException {
+    try {
+      Scope.enter();
+      File csv = csv("data.csv", "a,b,c\n1,x,1.5\n2,y,NA\n3,x,-2\n");
+      String entry = entry(csv);
+      assertNull(restore(entry));
+      assertEquals(1, ParseCache.misses());
+
+      Frame first = Scope.track(parse(csv));
+      ParseCache.store(entry, first);
+      assertTrue(ParseCache.storedBytes() > 0);
+      assertTrue(FrameSnapshot.exists(entry));
+
+      Frame second = Scope.track(restore(entry));
+      assertEquals(1, ParseCache.hits());
+      assertBitIdentical(first, second);
+      assertArrayEquals(first.names(), second.names());
+      assertArrayEquals(first.vec("b").domain(), second.vec("b").domain());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testStoreLeavesOnlyCompleteEntries() throws IOException {
+    try {
+      Scope.enter();
+      File csv = csv("data.csv", "a,b\n1,2\n3,4\n");
+      String entry = entry(csv);
+      Frame fr = Scope.track(parse(csv));
+      ParseCache.store(entry, fr);
+      long stored = ParseCache.storedBytes();
+      // A second store of the same parse keeps the first entry
+      ParseCache.store(entry, fr);
+      assertEquals(stored, ParseCache.storedBytes());
+      String[] files = new File(_dir).list();
+      assertNotNull(files);
+      assertEquals(1, files.length);
+      assertEquals(new File(entry).getName(), files[0]);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testRestoreChecksChunkRows() throws IOException {
+    try {
+      Scope.enter();
+      File csv = csv("data.csv", "a,b\n1,2\n3,4\n");
+      String entry = entry(csv);
+      ParseCache.store(entry, Scope.track(parse(csv)));
+      // Same columns, another row count
+      File other = csv("other.csv", "a,b\n1,2\n3,4\n5,6\n");
+      String otherEntry = entry(other);
+      ParseCache.store(otherEntry, Scope.track(parse(other)));
+      Files.copy(new File(otherEntry, "chunk_0").toPath(), new File(entry, "chunk_0").toPath(),
+              StandardCopyOption.REPLACE_EXISTING);
+
+      assertNull(restore(entry));
+      assertEquals(0, ParseCache.hits());
+      assertEquals(1, ParseCache.misses());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testChangedFileIsAnotherEntry() throws IOException {
+    File csv = csv("data.csv", "a,b\n1,2\n");
+    String entry = entry(csv);
+    Files.write(csv.toPath(), "a,b\n1,2\n3,4\n".getBytes(StandardCharsets.UTF_8));
+    assertTrue(csv.setLastModified(csv.lastModified() + 10000));
+    assertNotEquals(entry, entry(csv));
+  }
+
+  @Test public void testSetupIsPartOfTheEntry() throws IOException {
+    File csv = csv("data.csv", "a,b\n1,2\n");
+    NFSFileVec nfs = NFSFileVec.make(csv);
+    try {
+      Key[] keys = new Key[]{nfs._key};
+      ParseSetup ps = ParseSetup.guessSetup(keys, false, ParseSetup.GUESS_HEADER);
+      String entry = ParseCache.entry(_dir, keys, ps);
+      assertNotNull(entry);
+      assertEquals(entry, ParseCache.entry(_dir, keys, ps));
+      ps._column_names = new String[]{"x", "y"};
+      assertNotEquals(entry, ParseCache.entry(_dir, keys, ps));
+    } finally {
+      nfs.remove();
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package water.rapids.ast.prims.string;
+
+import hex.RegexTokenizer;
+import org.apache.commons.lang.StringUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.CStrDictChunk;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.rapids.Rapids;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * The string primitives match on the UTF-8 bytes (ByteDFA) and on dictionaries (CStrDictChunk) where they can,
+ * they have to give the same results as java.util.regex / java.lang.String.
+ */
+public class StringBytePathsTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private static final String[] VALUES = {"aaaa", "", "héé llo", "a.b.c", "ééé", "xaax", "日本語テキスト日本", "no match",
+          "a a  a", "aaa.aa"};
+
+  // rows repeat a few values (dictionary chunks) or are all distinct (plain string chunks)
+  private static Frame stringFrame(boolean repeated) {
+    final int n = 1000;
+    String[] data = new String[n];
+    for (int i = 0; i < n; i++) {
+      if (i % 11 == 5) continue; // NA
+      data[i] = VALUES[i % VALUES.length] + (repeated ? "" : "aa" + i);
+    }
+    Frame fr = new TestFrameBuilder()
+            .withColNames("s")
+            .withVecTypes(Vec.T_STR)
+            .withDataForCol(0, data)
+            .build();
+    assertEquals(repeated, fr.vec(0).chunkForChunkIdx(0) instanceof CStrDictChunk);
+    return fr;
+  }
+
+  private static String rapidsStr(String s) {
+    return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+
+  private static String str(Vec v, long row) {
+    return v.isNA(row) ? null : v.atStr(new BufferedString(), row).toString();
+  }
+
+  @Test
+  public void testReplaceAll() {
+    String[] patterns = {"aa", "a", "é", "日本", "a\\.b", " ", "a+", "."};
+    String[] replacements = {"Z", "", "éé", "aa"};
+    for (boolean repeated : new boolean[]{false, true}) {
+      Scope.enter();
+      try {
+        Frame fr = Scope.track(stringFrame(repeated));
+        for (String pattern : patterns)
+          for (String replacement : replacements) {
+            Frame res = Scope.track(Rapids.exec("(replaceall " + fr._key + " " + rapidsStr(pattern) + " " +
+                    rapidsStr(replacement) + " 0)").getFrame());
+            Pattern p = Pattern.compile(pattern);
+            for (long row = 0; row < fr.numRows(); row++) {
+              String s = str(fr.vec(0), row);
+              String expected = s == null ? null : p.matcher(s).replaceAll(replacement);
+              assertEquals(pattern + " -> " + replacement + " on '" + s + "'", expected, str(res.vec(0), row));
+            }
+          }
+      } finally {
+        Scope.exit();
+      }
+    }
+  }
+
+  @Test
+  public void testCountMatches() {
+    String[] patterns = {"aa", "a", "é", "日本", ".", "a a", ""};
+    for (boolean repeated : new boolean[]{false, true}) {
+      Scope.enter();
+      try {
+        Frame fr = Scope.track(stringFrame(repeated));
+        for (String pattern : patterns) {
+          Frame res = Scope.track(Rapids.exec("(countmatches " + fr._key + " " + rapidsStr(pattern) + ")").getFrame());
+          for (long row = 0; row < fr.numRows(); row++) {
+            String s = str(fr.vec(0), row);
+            if (s == null) assertTrue(res.vec(0).isNA(row));
+            else assertEquals(pattern + " on '" + s + "'", StringUtils.countMatches(s, pattern), res.vec(0).at8(row));
+          }
+        }
+      } finally {
+        Scope.exit();
+      }
+    }
+  }
+
+  @Test
+  public void testGrep() {
+    String[] regexes = {"aa", "é+", "日本", "a\\.b", "[^a-z ]", "x*", "(aa|éé)l", "^a"};
+    for (boolean repeated : new boolean[]{false, true}) {
+      Scope.enter();
+      try {
+        Frame fr = Scope.track(stringFrame(repeated));
+        for (String regex : regexes)
+          for (int ignoreCase = 0; ignoreCase <= 1; ignoreCase++) {
+            Frame res = Scope.track(Rapids.exec("(grep " + fr._key + " " + rapidsStr(regex) + " " + ignoreCase + " 0 1)").getFrame());
+            Pattern p = Pattern.compile(regex, ignoreCase == 1 ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+            for (long row = 0; row < fr.numRows(); row++) {
+              String s = str(fr.vec(0), row);
+              long expected = s != null && p.matcher(s).find() ? 1 : 0;
+              assertEquals(regex + " on '" + s + "'", expected, res.vec(0).at8(row));
+            }
+          }
+      } finally {
+        Scope.exit();
+      }
+    }
+  }
+
+  @Test
+  public void testTokenize() {
+    String[] delimiters = {" ", "aa", "é", "a\\.", "\\s+"};
+    for (boolean repeated : new boolean[]{false, true}) {
+      Scope.enter();
+      try {
+        Frame fr = Scope.track(stringFrame(repeated));
+        for (String delimiter : delimiters) {
+          Frame res = Scope.track(new RegexTokenizer.Builder().setRegex(delimiter).create().transform(fr));
+          List<String> expected = new ArrayList<>();
+          for (long row = 0; row < fr.numRows(); row++) {
+            String s = str(fr.vec(0), row);
+            if (s != null)
+              for (String token : s.split(delimiter)) expected.add(token);
+            expected.add(null);
+          }
+          assertEquals(delimiter, expected.size(), res.numRows());
+          for (int i = 0; i < expected.size(); i++)
+            assertEquals(delimiter + " token " + i, expected.get(i), str(res.vec(0), i));
+        }
+      } finally {
+        Scope.exit();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,99 @@
+package water.rapids.ast.prims.string.algorithms;
+
+import org.junit.Test;
+import water.parser.BufferedString;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class ByteDFATest {
+
+  private static final String ALPHABET = "abcdeABCDxyz .-019\n\tfoobarbaz";
+
+  private static String randomString(Random r, String alphabet, int maxLen) {
+    StringBuilder sb = new StringBuilder();
+    int len = r.nextInt(maxLen);
+    for (int i = 0; i < len; i++)
+      sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
+    return sb.toString();
+  }
+
+  @Test
+  public void testFindAgreesWithJavaRegex() {
+    String[] regexes = {"abc", "[b-d]", "[B-D]", "a.c", "(ab|cd)+e", "x*", "", "a?b", "\\d+\\.\\d", "[^a-z]",
+            "\\w\\s\\W", "(?:foo|bar)baz", "a|b|", "[a\\-z]", "\\.", "[a-]"};
+    Random r = new Random(42);
+    for (String regex : regexes) {
+      for (boolean ignoreCase : new boolean[]{false, true}) {
+        ByteDFA dfa = ByteDFA.regex(regex, ignoreCase);
+        assertNotNull(regex, dfa);
+        Pattern p = Pattern.compile(regex, ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+        for (int i = 0; i < 1000; i++) {
+          String s = randomString(r, ALPHABET, 12);
+          assertEquals(regex + " on '" + s + "'", p.matcher(s).find(), dfa.find(new BufferedString(s)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testUnsupportedRegex() {
+    for (String regex : new String[]{"^a", "a$", "a{2}", "(a", "a)", "a*?b", "\\bx", "(?=a)", "(a)\\1", "[]a]"})
+      assertNull(regex, ByteDFA.regex(regex, false));
+  }
+
+  @Test
+  public void testMultiByteLiteral() {
+    ByteDFA dfa = ByteDFA.regex("h(é|e)+llo", false);
+    assertTrue(dfa.find(new BufferedString("oh hééllo")));
+    assertTrue(dfa.find(new BufferedString("hello")));
+    assertFalse(dfa.find(new BufferedString("hèllo")));
+  }
+
+  @Test
+  public void testLiteralCountAndReplace() {
+    Random r = new Random(7);
+    for (String lit : new String[]{"a", "ab", "aa", "aba", "é"}) {
+      ByteDFA dfa = ByteDFA.literal(lit, false);
+      for (int i = 0; i < 1000; i++) {
+        String s = randomString(r, "abé x", 15);
+        int expected = 0;
+        for (int idx = s.indexOf(lit); idx != -1; idx = s.indexOf(lit, idx + lit.length())) expected++;
+        assertEquals(expected, dfa.countMatches(new BufferedString(s)));
+        BufferedString out = dfa.replaceAll(new BufferedString(s), "ZZ".getBytes(), new BufferedString());
+        assertEquals(s.replace(lit, "ZZ"), out.toString());
+      }
+    }
+    assertEquals(0, ByteDFA.literal("", false).countMatches(new BufferedString("abc")));
+  }
+
+  @Test
+  public void testLiteralRegex() {
+    assertNotNull(ByteDFA.literalRegex("a\\.b", false));
+    assertEquals(3, ByteDFA.literalRegex("a\\.b", false).length());
+    assertNull(ByteDFA.literalRegex("a.b", false));
+    assertNull(ByteDFA.literalRegex("\\d", false));
+    assertEquals(2, ByteDFA.literal("Ab", true).countMatches(new BufferedString("aBxAB")));
+  }
+
+  @Test
+  public void testCache() {
+    assertSame(RegexCache.regex("[a-c]+x", false), RegexCache.regex("[a-c]+x", false));
+    assertNull(RegexCache.regex("^a", false));
+    assertSame(RegexCache.pattern("a+", 0), RegexCache.pattern("a+", 0));
+  }
+
+  @Test
+  public void testCacheKeepsHotPatterns() {
+    Pattern hot = RegexCache.pattern("hot+", 0);
+    ByteDFA hotDfa = RegexCache.regex("hot+", false);
+    for (int i = 0; i < 3 * RegexCache.MAX_ENTRIES; i++) {
+      RegexCache.pattern("cold" + i, 0);
+      RegexCache.regex("cold" + i, false);
+      assertSame(hot, RegexCache.pattern("hot+", 0));
+      assertSame(hotDfa, RegexCache.regex("hot+", false));
+    }
+  }
+}
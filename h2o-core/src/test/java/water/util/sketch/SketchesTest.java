@@ -0,0 +1,75 @@
+package water.util.sketch;
+
+import org.junit.Test;
+import water.IcedUtils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SketchesTest {
+
+  @Test
+  public void testHyperLogLog() {
+    for (int n : new int[]{10, 1000, 100000}) {
+      HyperLogLog a = new HyperLogLog(), b = new HyperLogLog();
+      for (int i = 0; i < n; i++) {
+        (i % 2 == 0 ? a : b).addHash(HyperLogLog.hash(i));
+        a.addHash(HyperLogLog.hash(i % 7)); // Duplicates do not count
+      }
+      a.merge(IcedUtils.deepCopy(b));
+      assertEquals(n, a.cardinality(), Math.max(1, n * 0.05));
+    }
+  }
+
+  @Test
+  public void testTDigest() {
+    Random r = new Random(42);
+    double[] xs = new double[200000];
+    TDigest a = new TDigest(), b = new TDigest();
+    for (int i = 0; i < xs.length; i++) {
+      xs[i] = r.nextGaussian();
+      (i < xs.length / 3 ? a : b).add(xs[i]);
+    }
+    a.merge(IcedUtils.deepCopy(b));
+    Arrays.sort(xs);
+    assertTrue(a.centroids() <= 2 * TDigest.DEFAULT_COMPRESSION);
+    for (double p : new double[]{0.001, 0.01, 0.25, 0.5, 0.75, 0.99, 0.999}) {
+      // Rank of the estimate in the data
+      int rank = Arrays.binarySearch(xs, a.quantile(p));
+      if (rank < 0) rank = -rank - 1;
+      assertEquals("p=" + p, p, (double) rank / xs.length, 0.001);
+    }
+    assertEquals(xs[0], a.quantile(0), 0);
+    assertEquals(xs[xs.length - 1], a.quantile(1), 0);
+    assertTrue(Double.isNaN(new TDigest().quantile(0.5)));
+  }
+
+  @Test
+  public void testSpaceSaving() {
+    Random r = new Random(7);
+    SpaceSaving a = new SpaceSaving(16), b = new SpaceSaving(16);
+    long[] exact = new long[4];
+    for (int i = 0; i < 100000; i++) {
+      // Four heavy items among a long tail of distinct ones
+      long key = r.nextInt(2) == 0 ? r.nextInt(4) : 100 + i;
+      if (key < 4) exact[(int) key]++;
+      int slot = (i % 3 == 0 ? a : b).add(key, 1);
+      if (slot >= 0) (i % 3 == 0 ? a : b).setLabel(slot, "k" + key);
+    }
+    a.merge(IcedUtils.deepCopy(b));
+    int[] top = a.top();
+    long[] keys = new long[4];
+    for (int i = 0; i < 4; i++) {
+      int slot = top[i];
+      keys[i] = a.key(slot);
+      assertTrue(keys[i] < 4);
+      assertEquals("k" + keys[i], a.label(slot));
+      assertTrue(a.count(slot) >= exact[(int) keys[i]]);
+      assertTrue(a.count(slot) - a.error(slot) <= exact[(int) keys[i]]);
+    }
+    Arrays.sort(keys);
+    assertArrayEquals(new long[]{0, 1, 2, 3}, keys);
+  }
+}
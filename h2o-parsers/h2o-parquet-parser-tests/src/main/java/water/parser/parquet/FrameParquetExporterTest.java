@@ -0,0 +1,89 @@
+package water.parser.parquet;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.ExportFileFormat;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class FrameParquetExporterTest extends TestUtil {
+
+  @BeforeClass
+  static public void setup() { TestUtil.stall_till_cloudsize(1); }
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private static Frame exportFrame() {
+    return new TestFrameBuilder()
+          .withName("exportFrame")
+          .withColNames("ints", "longs", "doubles", "cats", "strs")
+          .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_CAT, Vec.T_STR)
+          .withDataForCol(0, ard(1, 2, Double.NaN, 4, 5, 6))
+          .withDataForCol(1, ard(1L << 40, 2, 3, 4, Double.NaN, 6))
+          .withDataForCol(2, ard(0.5, -1.25, 3, Double.NaN, 5e10, 6.125))
+          .withDataForCol(3, ar("a", "b", null, "a", "c", "b"))
+          .withDataForCol(4, ar("x", null, "yy", "zzz", "x", "été"))
+          .withChunkLayout(2, 3, 1)
+          .build();
+  }
+
+  private static void assertParsedBack(Frame fr, File target) {
+    Frame imported = Scope.track(parse_test_folder(target.getPath()));
+    assertArrayEquals(fr.names(), imported.names());
+    assertEquals(fr.numRows(), imported.numRows());
+    for (int c = 0; c < 3; c++)
+      for (long r = 0; r < fr.numRows(); r++)
+        assertEquals(fr.vec(c).at(r), imported.vec(c).at(r), 0);
+    for (int c = 3; c < 5; c++)
+      for (long r = 0; r < fr.numRows(); r++)
+        assertEquals(fr.vec(c).stringAt(r), imported.vec(c).stringAt(r));
+  }
+
+  private static File[] parts(File target) {
+    File[] parts = target.listFiles((dir, name) -> name.endsWith(".parquet"));
+    assertNotNull(parts);
+    return parts;
+  }
+
+  @Test
+  public void testExportAndParse() throws Exception {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(exportFrame());
+      File target = new File(tmp.getRoot(), "export");
+      Frame.export(fr, target.getPath(), fr._key.toString(), false, -1, ExportFileFormat.parquet, null, null).get();
+
+      // One part file per node holding chunks
+      assertEquals(FrameParquetExporter.partChunks(fr.anyVec(), -1).length, parts(target).length);
+      assertParsedBack(fr, target);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testExportNumParts() throws Exception {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(exportFrame());
+      for (int nParts : new int[]{1, 2, 5}) {
+        File target = new File(tmp.getRoot(), "export" + nParts);
+        Frame.export(fr, target.getPath(), fr._key.toString(), false, nParts, ExportFileFormat.parquet, null, null).get();
+        assertEquals(Math.min(nParts, fr.anyVec().nChunks()), parts(target).length);
+        assertParsedBack(fr, target);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+}
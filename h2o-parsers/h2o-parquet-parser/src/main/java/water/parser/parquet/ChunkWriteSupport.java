@@ -0,0 +1,90 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import water.fvec.Chunk;
+import water.parser.BufferedString;
+import water.util.PrettyPrint;
+
+import java.util.Collections;
+
+import static water.parser.parquet.FrameParquetExporter.*;
+
+/**
+ * Writes rows of a set of Chunks (one Chunk per column) as Parquet records;
+ * the record written is the row number.  Values are passed to Parquet
+ * directly from the Chunks, without materializing intermediate row objects.
+ * The Chunks can be switched between records with {@link #setChunks(Chunk[])},
+ * so a single file holds the rows of many chunks.
+ */
+class ChunkWriteSupport extends WriteSupport<Integer> {
+
+  private final MessageType _schema;
+  private Chunk[] _chks;
+  private final byte[] _types;
+  private final Binary[][] _domains;
+  private final BufferedString _bs = new BufferedString();
+  private RecordConsumer _consumer;
+
+  ChunkWriteSupport(MessageType schema, byte[] types, Binary[][] domains) {
+    _schema = schema;
+    _types = types;
+    _domains = domains;
+  }
+
+  /** Chunks (one per column) holding the rows written next. */
+  void setChunks(Chunk[] chks) {
+    _chks = chks;
+  }
+
+  @Override
+  public WriteContext init(Configuration configuration) {
+    return new WriteContext(_schema, Collections.<String, String>emptyMap());
+  }
+
+  @Override
+  public void prepareForWrite(RecordConsumer recordConsumer) {
+    _consumer = recordConsumer;
+  }
+
+  @Override
+  public void write(Integer row) {
+    final int r = row;
+    _consumer.startMessage();
+    for (int col = 0; col < _chks.length; col++) {
+      Chunk c = _chks[col];
+      if (c.isNA(r)) continue; // Optional field, absence encodes the NA
+      String name = _schema.getFieldName(col);
+      _consumer.startField(name, col);
+      switch (_types[col]) {
+        case P_INT32:
+          _consumer.addInteger((int) c.at8(r));
+          break;
+        case P_INT64:
+        case P_TIME:
+          _consumer.addLong(c.at8(r));
+          break;
+        case P_DOUBLE:
+          _consumer.addDouble(c.atd(r));
+          break;
+        case P_ENUM:
+          _consumer.addBinary(_domains[col][(int) c.at8(r)]);
+          break;
+        case P_STR:
+          c.atStr(_bs, r);
+          _consumer.addBinary(Binary.fromReusedByteArray(_bs.getBuffer(), _bs.getOffset(), _bs.length()));
+          break;
+        case P_UUID:
+          _consumer.addBinary(Binary.fromString(PrettyPrint.UUID(c.at16l(r), c.at16h(r))));
+          break;
+        default:
+          throw new IllegalStateException("Unsupported column type " + _types[col]);
+      }
+      _consumer.endField(name, col);
+    }
+    _consumer.endMessage();
+  }
+}
@@ -0,0 +1,289 @@
+package water.parser.parquet;
+
+import jsr166y.CountedCompleter;
+import jsr166y.ForkJoinTask;
+import jsr166y.RecursiveAction;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import water.H2O;
+import water.Job;
+import water.Key;
+import water.MRTask;
+import water.fvec.*;
+import water.persist.PersistHdfs;
+import water.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exports a Frame as a directory of Parquet files.  By default (num_parts -1)
+ * every node writes a single part file with the chunks it holds, in chunk
+ * order, so all nodes write in parallel and no data is moved over the network.
+ * Otherwise the chunks are split into num_parts contiguous ranges, each
+ * written into one part file by the home node of its first chunk (fetching
+ * the other chunks of the range).  Chunks are streamed through one writer per
+ * part file, which cuts them into row groups of up to the default Parquet
+ * block size.
+ */
+public class FrameParquetExporter implements BinaryFormatExporter {
+
+  // Parquet representation of H2O columns
+  static final byte P_INT32 = 0;
+  static final byte P_INT64 = 1;
+  static final byte P_DOUBLE = 2;
+  static final byte P_TIME = 3;   // INT64 annotated as TIMESTAMP_MILLIS
+  static final byte P_ENUM = 4;   // UTF8 level names
+  static final byte P_STR = 5;    // UTF8
+  static final byte P_UUID = 6;   // UTF8, canonical representation
+
+  @Override
+  public H2O.H2OCountedCompleter export(Frame frame, String path, boolean force, int nParts, String compression, Job job) {
+    return new ExportParquetDriver(frame, path, force, nParts, compression, job);
+  }
+
+  @Override
+  public boolean supports(ExportFileFormat format) {
+    return format == ExportFileFormat.parquet;
+  }
+
+  static byte[] parquetTypes(Frame fr) {
+    byte[] types = new byte[fr.numCols()];
+    for (int i = 0; i < types.length; i++) {
+      Vec v = fr.vec(i);
+      if (v.isCategorical()) types[i] = P_ENUM;
+      else if (v.isString()) types[i] = P_STR;
+      else if (v.isUUID()) types[i] = P_UUID;
+      else if (v.isTime()) types[i] = P_TIME;
+      else if (v.isInt())
+        types[i] = v.min() >= Integer.MIN_VALUE && v.max() <= Integer.MAX_VALUE ? P_INT32 : P_INT64;
+      else types[i] = P_DOUBLE; // Including all-NA columns
+    }
+    return types;
+  }
+
+  static MessageType schema(String[] names, byte[] types) {
+    Types.MessageTypeBuilder builder = Types.buildMessage();
+    for (int i = 0; i < names.length; i++) {
+      switch (types[i]) {
+        case P_INT32:  builder.optional(PrimitiveTypeName.INT32).named(names[i]); break;
+        case P_INT64:  builder.optional(PrimitiveTypeName.INT64).named(names[i]); break;
+        case P_DOUBLE: builder.optional(PrimitiveTypeName.DOUBLE).named(names[i]); break;
+        case P_TIME:   builder.optional(PrimitiveTypeName.INT64).as(OriginalType.TIMESTAMP_MILLIS).named(names[i]); break;
+        default:       builder.optional(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named(names[i]);
+      }
+    }
+    return builder.named("h2o_frame");
+  }
+
+  /**
+   * Chunk indices of each part file: one part per node holding chunks (nParts
+   * <= 0), or nParts contiguous ranges of chunks of (almost) equal count.
+   */
+  static int[][] partChunks(Vec vec, int nParts) {
+    final int nChunks = vec.nChunks();
+    if (nParts <= 0) {
+      int[] counts = new int[H2O.CLOUD.size()];
+      for (int cidx = 0; cidx < nChunks; cidx++)
+        counts[vec.chunkKey(cidx).home_node().index()]++;
+      int[][] byNode = new int[counts.length][];
+      for (int n = 0; n < counts.length; n++) byNode[n] = new int[counts[n]];
+      Arrays.fill(counts, 0);
+      for (int cidx = 0; cidx < nChunks; cidx++) {
+        int n = vec.chunkKey(cidx).home_node().index();
+        byNode[n][counts[n]++] = cidx;
+      }
+      List<int[]> parts = new ArrayList<>();
+      for (int[] cidxs : byNode)
+        if (cidxs.length > 0) parts.add(cidxs);
+      return parts.toArray(new int[parts.size()][]);
+    }
+    if (nParts > nChunks) {
+      Log.warn("Requested " + nParts + " part files, but the frame has only " + nChunks + " chunks; writing " +
+              nChunks + " part files.");
+      nParts = Math.max(nChunks, 1);
+    }
+    int[][] parts = new int[nParts][];
+    for (int p = 0; p < nParts; p++) {
+      int start = (int) ((long) nChunks * p / nParts), end = (int) ((long) nChunks * (p + 1) / nParts);
+      parts[p] = new int[end - start];
+      for (int i = 0; i < parts[p].length; i++) parts[p][i] = start + i;
+    }
+    return parts;
+  }
+
+  // Chunks sampled per part file to pick its encoding
+  static final int DICTIONARY_SAMPLE = 8;
+
+  /**
+   * Dictionary encoding (with RLE/bit-packed dictionary indices) pays off when
+   * the chunks were already compressed into few distinct values: categoricals,
+   * constants, booleans, byte-sized numbers and dictionary strings.  Parquet
+   * falls back to plain encoding per column if the dictionary grows too large.
+   * The compression of a column can change from chunk to chunk, so a part file
+   * is dictionary encoded when any column has such chunks in at least half of
+   * up to {@link #DICTIONARY_SAMPLE} chunks spread evenly over the part.
+   */
+  static boolean useDictionary(Vec[] vecs, int[] cidxs, byte[] types) {
+    final int n = Math.min(cidxs.length, DICTIONARY_SAMPLE);
+    for (int i = 0; i < vecs.length; i++) {
+      if (types[i] == P_ENUM) return true;
+      int hits = 0;
+      for (int s = 0; s < n; s++) {
+        Chunk c = vecs[i].chunkForChunkIdx(cidxs[(int) ((long) cidxs.length * s / n)]);
+        if (c instanceof CStrDictChunk || c instanceof C0LChunk || c instanceof C0DChunk || c instanceof CBSChunk ||
+            c instanceof C1Chunk || c instanceof C1NChunk || c instanceof C1SChunk)
+          hits++;
+      }
+      if (n > 0 && 2 * hits >= n) return true;
+    }
+    return false;
+  }
+
+  static CompressionCodecName codec(String compression) {
+    if (compression == null || compression.isEmpty() || "none".equalsIgnoreCase(compression))
+      return CompressionCodecName.UNCOMPRESSED;
+    try {
+      return CompressionCodecName.valueOf(compression.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unsupported Parquet compression codec: " + compression);
+    }
+  }
+
+  // Local paths without a scheme would otherwise resolve against Hadoop's default FS
+  static Path hadoopPath(String path) {
+    Path p = new Path(path);
+    return p.toUri().getScheme() == null ? new Path(new File(path).getAbsoluteFile().toURI()) : p;
+  }
+
+  private static class ExportParquetDriver extends H2O.H2OCountedCompleter<ExportParquetDriver> {
+    final Frame _frame;
+    final String _path;
+    final boolean _force;
+    final int _nParts;
+    final String _compression;
+    final Job _job;
+
+    ExportParquetDriver(Frame frame, String path, boolean force, int nParts, String compression, Job job) {
+      _frame = frame;
+      _path = path;
+      _force = force;
+      _nParts = nParts;
+      _compression = compression;
+      _job = job;
+    }
+
+    @Override
+    public void compute2() {
+      _frame.read_lock(_job._key);
+      byte[] types = parquetTypes(_frame);
+      new PartExportParquetTask(this, _frame, partChunks(_frame.anyVec(), _nParts), _path, types, _force,
+          codec(_compression), _job).dfork((Key[]) null);
+    }
+
+    @Override
+    public void onCompletion(CountedCompleter caller) {
+      _frame.unlock(_job);
+      Log.info("Exported frame '" + _frame._key + "' to Parquet files in " + _path + ".");
+    }
+
+    @Override
+    public boolean onExceptionalCompletion(Throwable t, CountedCompleter caller) {
+      _frame.unlock(_job);
+      return super.onExceptionalCompletion(t, caller);
+    }
+  }
+
+  // Runs once per node; each node writes the part files whose first chunk it holds
+  static class PartExportParquetTask extends MRTask<PartExportParquetTask> {
+    final Frame _frame;
+    final int[][] _parts;
+    final String _path;
+    final byte[] _types;
+    final boolean _force;
+    final CompressionCodecName _codec;
+    final Job _job;
+    private transient Binary[][] _binDomains;
+
+    PartExportParquetTask(H2O.H2OCountedCompleter<?> completer, Frame fr, int[][] parts, String path, byte[] types,
+                          boolean force, CompressionCodecName codec, Job job) {
+      super(completer);
+      _frame = fr;
+      _parts = parts;
+      _path = path;
+      _types = types;
+      _force = force;
+      _codec = codec;
+      _job = job;
+    }
+
+    @Override
+    protected void setupLocal() {
+      boolean created = H2O.getPM().mkdirs(_path);
+      if (! created) Log.warn("Path ", _path, " was not created.");
+      // Encode the level names once per node
+      String[][] domains = _frame.domains();
+      _binDomains = new Binary[domains.length][];
+      for (int i = 0; i < domains.length; i++) {
+        if (domains[i] == null) continue;
+        _binDomains[i] = new Binary[domains[i].length];
+        for (int j = 0; j < domains[i].length; j++)
+          _binDomains[i][j] = Binary.fromString(domains[i][j]);
+      }
+      final Vec[] vecs = _frame.vecs();
+      ArrayList<RecursiveAction> writes = new ArrayList<>();
+      for (int p = 0; p < _parts.length; p++) {
+        if (_parts[p].length == 0 || !vecs[0].chunkKey(_parts[p][0]).home()) continue;
+        final int part = p;
+        writes.add(new RecursiveAction() {
+          @Override
+          protected void compute() {
+            writePart(vecs, part);
+          }
+        });
+      }
+      ForkJoinTask.invokeAll(writes);
+    }
+
+    private Chunk[] chunks(Vec[] vecs, int cidx) {
+      Chunk[] cs = new Chunk[vecs.length];
+      for (int i = 0; i < cs.length; i++) cs[i] = vecs[i].chunkForChunkIdx(cidx);
+      return cs;
+    }
+
+    private void writePart(Vec[] vecs, int part) {
+      final int[] cidxs = _parts[part];
+      String partPath = _path + "/part-m-" + String.valueOf(100000 + part).substring(1) + ".parquet";
+      MessageType schema = schema(_frame._names, _types);
+      Configuration conf = new Configuration(PersistHdfs.CONF);
+      ChunkWriteSupport writeSupport = new ChunkWriteSupport(schema, _types, _binDomains);
+      try (ParquetWriter<Integer> writer = new ParquetWriter<>(hadoopPath(partPath),
+              _force ? ParquetFileWriter.Mode.OVERWRITE : ParquetFileWriter.Mode.CREATE, writeSupport, _codec,
+              ParquetWriter.DEFAULT_BLOCK_SIZE, ParquetWriter.DEFAULT_PAGE_SIZE, ParquetWriter.DEFAULT_PAGE_SIZE,
+              useDictionary(vecs, cidxs, _types), false, ParquetProperties.WriterVersion.PARQUET_1_0, conf)) {
+        for (int cidx : cidxs) {
+          if (_job.stop_requested()) throw new Job.JobCancelledException();
+          Chunk[] cs = chunks(vecs, cidx);
+          writeSupport.setChunks(cs);
+          for (int row = 0; row < cs[0]._len; row++)
+            writer.write(row);
+          _job.update(1);
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to write Parquet file " + partPath, e);
+      }
+    }
+  }
+}
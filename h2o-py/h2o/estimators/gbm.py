@@ -35,7 +35,9 @@ class H2OGradientBoostingEstimator(H2OEstimator):
                    "col_sample_rate_change_per_level", "col_sample_rate_per_tree", "min_split_improvement",
                    "histogram_type", "max_abs_leafnode_pred", "pred_noise_bandwidth", "categorical_encoding",
                    "calibrate_model", "calibration_frame", "custom_metric_func", "custom_distribution_func",
-                   "export_checkpoints_dir", "monotone_constraints", "check_constant_response"}
+                   "export_checkpoints_dir", "monotone_constraints", "check_constant_response",
+                   "exclusive_feature_bundling", "goss", "goss_top_rate", "goss_other_rate", "keep_raw_predictions",
+                   "resume_on_appended_data"}
 
     def __init__(self, **kwargs):
         super(H2OGradientBoostingEstimator, self).__init__()
@@ -1867,3 +1869,97 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         self._parms["check_constant_response"] = check_constant_response
 
 
+    @property
+    def exclusive_feature_bundling(self):
+        """
+        Pack mutually exclusive sparse integer columns (e.g. from OneHotExplicit encoding) into bundles that share one
+        histogram during training. Does not change the model format.
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("exclusive_feature_bundling")
+
+    @exclusive_feature_bundling.setter
+    def exclusive_feature_bundling(self, exclusive_feature_bundling):
+        assert_is_type(exclusive_feature_bundling, None, bool)
+        self._parms["exclusive_feature_bundling"] = exclusive_feature_bundling
+
+
+    @property
+    def goss(self):
+        """
+        Use gradient-based one-side sampling (GOSS) of rows instead of sample_rate: rows with the largest gradients are
+        always sampled, a random sample of the rest is up-weighted
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("goss")
+
+    @goss.setter
+    def goss(self, goss):
+        assert_is_type(goss, None, bool)
+        self._parms["goss"] = goss
+
+
+    @property
+    def goss_top_rate(self):
+        """
+        GOSS: fraction of rows with the largest absolute gradients kept for each tree (from 0.0 to 1.0)
+
+        Type: ``float``  (default: ``0.2``).
+        """
+        return self._parms.get("goss_top_rate")
+
+    @goss_top_rate.setter
+    def goss_top_rate(self, goss_top_rate):
+        assert_is_type(goss_top_rate, None, numeric)
+        self._parms["goss_top_rate"] = goss_top_rate
+
+
+    @property
+    def goss_other_rate(self):
+        """
+        GOSS: fraction of rows sampled at random from the remaining rows for each tree (from 0.0 to 1.0)
+
+        Type: ``float``  (default: ``0.1``).
+        """
+        return self._parms.get("goss_other_rate")
+
+    @goss_other_rate.setter
+    def goss_other_rate(self, goss_other_rate):
+        assert_is_type(goss_other_rate, None, numeric)
+        self._parms["goss_other_rate"] = goss_other_rate
+
+
+    @property
+    def keep_raw_predictions(self):
+        """
+        Keep the raw predictions of the trees for the training rows with the model, so that a model continuing from this
+        one (checkpoint) on the same training rows with new rows appended does not need to rescore the trees
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("keep_raw_predictions")
+
+    @keep_raw_predictions.setter
+    def keep_raw_predictions(self, keep_raw_predictions):
+        assert_is_type(keep_raw_predictions, None, bool)
+        self._parms["keep_raw_predictions"] = keep_raw_predictions
+
+
+    @property
+    def resume_on_appended_data(self):
+        """
+        The training frame is the training frame of the checkpoint model with new rows appended: take the raw
+        predictions kept by the checkpoint model (keep_raw_predictions) over and only score the new rows
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("resume_on_appended_data")
+
+    @resume_on_appended_data.setter
+    def resume_on_appended_data(self, resume_on_appended_data):
+        assert_is_type(resume_on_appended_data, None, bool)
+        self._parms["resume_on_appended_data"] = resume_on_appended_data
+
+
@@ -24,7 +24,7 @@ class H2OKMeansEstimator(H2OEstimator):
                    "keep_cross_validation_predictions", "keep_cross_validation_fold_assignment", "fold_assignment",
                    "fold_column", "ignored_columns", "ignore_const_cols", "score_each_iteration", "k", "estimate_k",
                    "user_points", "max_iterations", "standardize", "seed", "init", "max_runtime_secs",
-                   "categorical_encoding", "export_checkpoints_dir", "cluster_size_constraints"}
+                   "categorical_encoding", "export_checkpoints_dir", "cluster_size_constraints", "prune_distances"}
 
     def __init__(self, **kwargs):
         super(H2OKMeansEstimator, self).__init__()
@@ -652,3 +652,20 @@ class H2OKMeansEstimator(H2OEstimator):
         self._parms["cluster_size_constraints"] = cluster_size_constraints
 
 
+    @property
+    def prune_distances(self):
+        """
+        Keep a lower bound on the distance of every row to its second closest center and skip the distances this bound
+        rules out (Hamerly's algorithm). Same result as the full Lloyd iteration, at the cost of an extra column of
+        bounds; ignored with estimate_k and cluster_size_constraints.
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("prune_distances")
+
+    @prune_distances.setter
+    def prune_distances(self, prune_distances):
+        assert_is_type(prune_distances, None, bool)
+        self._parms["prune_distances"] = prune_distances
+
+
@@ -20,7 +20,7 @@ class H2OPrincipalComponentAnalysisEstimator(H2OEstimator):
 
     algo = "pca"
     param_names = {"model_id", "training_frame", "validation_frame", "ignored_columns", "ignore_const_cols",
-                   "score_each_iteration", "transform", "pca_method", "pca_impl", "k", "max_iterations",
+                   "score_each_iteration", "transform", "pca_method", "pca_impl", "k", "max_iterations", "oversample",
                    "use_all_factor_levels", "compute_metrics", "impute_missing", "seed", "max_runtime_secs",
                    "export_checkpoints_dir"}
 
@@ -284,6 +284,21 @@ class H2OPrincipalComponentAnalysisEstimator(H2OEstimator):
         self._parms["max_iterations"] = max_iterations
 
 
+    @property
+    def oversample(self):
+        """
+        Number of extra random directions used by the Randomized method, only the leading k are returned
+
+        Type: ``int``  (default: ``0``).
+        """
+        return self._parms.get("oversample")
+
+    @oversample.setter
+    def oversample(self, oversample):
+        assert_is_type(oversample, None, int)
+        self._parms["oversample"] = oversample
+
+
     @property
     def use_all_factor_levels(self):
         """
@@ -31,7 +31,8 @@ class H2ORandomForestEstimator(H2OEstimator):
                    "sample_rate", "sample_rate_per_class", "binomial_double_trees", "checkpoint",
                    "col_sample_rate_change_per_level", "col_sample_rate_per_tree", "min_split_improvement",
                    "histogram_type", "categorical_encoding", "calibrate_model", "calibration_frame", "distribution",
-                   "custom_metric_func", "export_checkpoints_dir", "check_constant_response"}
+                   "custom_metric_func", "export_checkpoints_dir", "check_constant_response",
+                   "exclusive_feature_bundling"}
 
     def __init__(self, **kwargs):
         super(H2ORandomForestEstimator, self).__init__()
@@ -1597,3 +1598,19 @@ class H2ORandomForestEstimator(H2OEstimator):
         self._parms["check_constant_response"] = check_constant_response
 
 
+    @property
+    def exclusive_feature_bundling(self):
+        """
+        Pack mutually exclusive sparse integer columns (e.g. from OneHotExplicit encoding) into bundles that share one
+        histogram during training. Does not change the model format.
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("exclusive_feature_bundling")
+
+    @exclusive_feature_bundling.setter
+    def exclusive_feature_bundling(self, exclusive_feature_bundling):
+        assert_is_type(exclusive_feature_bundling, None, bool)
+        self._parms["exclusive_feature_bundling"] = exclusive_feature_bundling
+
+
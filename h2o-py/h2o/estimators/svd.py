@@ -20,8 +20,8 @@ class H2OSingularValueDecompositionEstimator(H2OEstimator):
 
     algo = "svd"
     param_names = {"model_id", "training_frame", "validation_frame", "ignored_columns", "ignore_const_cols",
-                   "score_each_iteration", "transform", "svd_method", "nv", "max_iterations", "seed", "keep_u",
-                   "u_name", "use_all_factor_levels", "max_runtime_secs", "export_checkpoints_dir"}
+                   "score_each_iteration", "transform", "svd_method", "nv", "max_iterations", "oversample", "seed",
+                   "keep_u", "u_name", "use_all_factor_levels", "max_runtime_secs", "export_checkpoints_dir"}
 
     def __init__(self, **kwargs):
         super(H2OSingularValueDecompositionEstimator, self).__init__()
@@ -237,6 +237,21 @@ class H2OSingularValueDecompositionEstimator(H2OEstimator):
         self._parms["max_iterations"] = max_iterations
 
 
+    @property
+    def oversample(self):
+        """
+        Number of extra random directions used by the Randomized method, only the leading nv are returned
+
+        Type: ``int``  (default: ``0``).
+        """
+        return self._parms.get("oversample")
+
+    @oversample.setter
+    def oversample(self, oversample):
+        assert_is_type(oversample, None, int)
+        self._parms["oversample"] = oversample
+
+
     @property
     def seed(self):
         """
@@ -19,8 +19,8 @@ class H2OWord2vecEstimator(H2OEstimator):
     """
 
     algo = "word2vec"
-    param_names = {"model_id", "training_frame", "min_word_freq", "word_model", "norm_model", "vec_size", "window_size",
-                   "sent_sample_rate", "init_learning_rate", "epochs", "pre_trained", "max_runtime_secs",
+    param_names = {"model_id", "training_frame", "min_word_freq", "word_model", "norm_model", "negative", "vec_size",
+                   "window_size", "sent_sample_rate", "init_learning_rate", "epochs", "pre_trained", "max_runtime_secs",
                    "export_checkpoints_dir"}
 
     def __init__(self, **kwargs):
@@ -123,9 +123,9 @@ class H2OWord2vecEstimator(H2OEstimator):
     @property
     def norm_model(self):
         """
-        Use Hierarchical Softmax
+        Use Hierarchical Softmax or Negative Sampling
 
-        One of: ``"hsm"``  (default: ``"hsm"``).
+        One of: ``"hsm"``, ``"neg_sampling"``  (default: ``"hsm"``).
 
         :examples:
 
@@ -143,10 +143,25 @@ class H2OWord2vecEstimator(H2OEstimator):
 
     @norm_model.setter
     def norm_model(self, norm_model):
-        assert_is_type(norm_model, None, Enum("hsm"))
+        assert_is_type(norm_model, None, Enum("hsm", "neg_sampling"))
         self._parms["norm_model"] = norm_model
 
 
+    @property
+    def negative(self):
+        """
+        Number of negative (noise) words sampled for each trained word, used with Negative Sampling only
+
+        Type: ``int``  (default: ``5``).
+        """
+        return self._parms.get("negative")
+
+    @negative.setter
+    def negative(self, negative):
+        assert_is_type(negative, None, int)
+        self._parms["negative"] = negative
+
+
     @property
     def vec_size(self):
         """
@@ -105,7 +105,7 @@ class H2OJob(object):
         # Sometimes the server may report the job at 100% but still having status "RUNNING" -- we work around this
         # by showing progress at 99% instead. Sometimes the server may report the job at 0% but having status "DONE",
         # in this case we set the progress to 100% manually.
-        if self.status == "CREATED": self.progress = 0
+        if self.status in {"CREATED", "QUEUED"}: self.progress = 0
         if self.status == "RUNNING": self.progress = clamp(self.progress, 0, 0.99)
         if self.status == "DONE": self.progress = 1
         if self.status == "FAILED": raise StopIteration("failed")
@@ -113,7 +113,7 @@ class H2OJob(object):
         return self.progress
 
     def __repr__(self):
-        if self.status in {"CREATED", "RUNNING"}:
+        if self.status in {"CREATED", "QUEUED", "RUNNING"}:
             desc = "at %d%%" % int(self.progress * 100 + 0.5)
         else:
             desc = self.status.lower()